@@ -5,6 +5,13 @@ package exportation_panelera;
 
 import exportation_panelera.View.SignInForm;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.service.CurrencyService;
+import exportation_panelera.service.DataAccessExecutor;
+import exportation_panelera.service.DeliveryArchiveService;
+import exportation_panelera.service.ReferenceDataService;
+import exportation_panelera.service.ReplicaSyncService;
+import exportation_panelera.service.ShipmentAnalyticsService;
+import exportation_panelera.service.ShippingRateService;
 
 import javax.swing.*;
 import java.util.logging.Level;
@@ -38,10 +45,18 @@ public class Exportation_Panelera {
 
         if (dbInitialized) {
             logger.info("Database connection pool initialized successfully");
+            ShipmentAnalyticsService.getInstance().start();
+            DeliveryArchiveService.getInstance().start();
+            CurrencyService.getInstance().start();
+            ShippingRateService.getInstance().start();
+            ReferenceDataService.getInstance().start();
         } else {
             logger.warning("Database connection pool initialization failed - running in offline mode");
         }
 
+        // Keep the local replica in step; it answers reads while offline
+        ReplicaSyncService.getInstance().start();
+
         // Create and display the Sign In form on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             try {
@@ -66,6 +81,13 @@ public class Exportation_Panelera {
         // Add shutdown hook to close database connections gracefully
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down application...");
+            ShipmentAnalyticsService.getInstance().stop();
+            DeliveryArchiveService.getInstance().stop();
+            CurrencyService.getInstance().stop();
+            ShippingRateService.getInstance().stop();
+            ReferenceDataService.getInstance().stop();
+            ReplicaSyncService.getInstance().stop();
+            DataAccessExecutor.getInstance().stop();
             DatabaseManager.shutdown();
             logger.info("Application shutdown complete");
         }));
@@ -0,0 +1,104 @@
+package exportation_panelera.Model;
+
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numbers currency codes with small ordinals, so that conversion tables
+ * and amounts can refer to a currency by array index instead of by string.
+ * Ordinals are handed out on first use and never change while the
+ * application runs; they are not stored anywhere.
+ */
+public final class Currencies {
+
+    private static final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private static volatile String[] codes = new String[0];
+    private static volatile int[] fractionDigits = new int[0];
+
+    private Currencies() {
+    }
+
+    /**
+     * Ordinal of a currency code, assigning the next one on first use
+     *
+     * @param code Three-letter currency code, in any case
+     * @throws IllegalArgumentException If the code is not three letters
+     */
+    public static int ordinal(String code) {
+        String normalized = normalize(code);
+        Integer ordinal = ordinals.get(normalized);
+        return ordinal != null ? ordinal : register(normalized);
+    }
+
+    /**
+     * Ordinal of a currency code that has been seen before
+     *
+     * @return The ordinal, or -1 if the code has no ordinal yet
+     */
+    public static int find(String code) {
+        if (code == null) {
+            return -1;
+        }
+        Integer ordinal = ordinals.get(code.trim().toUpperCase(Locale.ROOT));
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Currency code of an ordinal
+     */
+    public static String code(int ordinal) {
+        return codes[ordinal];
+    }
+
+    /**
+     * Digits after the decimal point in the currency's minor unit
+     * (2 for cents, 0 for JPY)
+     */
+    public static int fractionDigits(int ordinal) {
+        return fractionDigits[ordinal];
+    }
+
+    /**
+     * Number of ordinals assigned so far; ordinals run from 0 to count - 1
+     */
+    public static int count() {
+        return codes.length;
+    }
+
+    private static synchronized int register(String code) {
+        Integer existing = ordinals.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = codes.length;
+        String[] newCodes = Arrays.copyOf(codes, ordinal + 1);
+        int[] newDigits = Arrays.copyOf(fractionDigits, ordinal + 1);
+        newCodes[ordinal] = code;
+        newDigits[ordinal] = defaultFractionDigits(code);
+        // Publish the arrays before the ordinal so readers never see it out of range
+        codes = newCodes;
+        fractionDigits = newDigits;
+        ordinals.put(code, ordinal);
+        return ordinal;
+    }
+
+    private static int defaultFractionDigits(String code) {
+        try {
+            int digits = Currency.getInstance(code).getDefaultFractionDigits();
+            return digits >= 0 ? digits : 2;
+        } catch (IllegalArgumentException e) {
+            return 2; // Not an ISO 4217 code
+        }
+    }
+
+    private static String normalize(String code) {
+        String normalized = code == null ? "" : code.trim().toUpperCase(Locale.ROOT);
+        if (!normalized.matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("Invalid currency code: " + code);
+        }
+        return normalized;
+    }
+}
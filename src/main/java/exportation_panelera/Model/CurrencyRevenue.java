@@ -0,0 +1,15 @@
+package exportation_panelera.Model;
+
+import java.math.BigDecimal;
+
+/**
+ * Revenue (amount times unit price) invoiced in one currency, read from the rollup tables.
+ *
+ * @param currency Currency code
+ * @param shipmentCount Number of exportations
+ * @param totalRevenue Sum of amount times unit price, in that currency
+ */
+public record CurrencyRevenue(String currency,
+                              long shipmentCount,
+                              BigDecimal totalRevenue) {
+}
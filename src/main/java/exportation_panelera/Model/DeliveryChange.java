@@ -0,0 +1,46 @@
+package exportation_panelera.Model;
+
+/**
+ * One entry of the delivery change log.
+ *
+ * @param changeId Position in the log; later changes have higher IDs
+ * @param deliveryId Database ID of the changed delivery
+ * @param type Kind of change
+ */
+public record DeliveryChange(long changeId,
+                             int deliveryId,
+                             Type type) {
+
+    /**
+     * Kind of change, stored as a one-letter code
+     */
+    public enum Type {
+        INSERT("I"),
+        UPDATE("U"),
+        DELETE("D");
+
+        private final String code;
+
+        Type(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Type for a stored code
+         *
+         * @throws IllegalArgumentException if the code is unknown
+         */
+        public static Type fromCode(String code) {
+            for (Type type : values()) {
+                if (type.code.equals(code)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown change type: " + code);
+        }
+    }
+}
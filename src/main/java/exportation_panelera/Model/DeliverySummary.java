@@ -0,0 +1,86 @@
+package exportation_panelera.Model;
+
+import java.util.Date;
+
+/**
+ * Flat, read-only projection of a delivery joined with its exportation.
+ * Holds only the columns the delivery list shows. Columns that were not
+ * requested in a query are left null (or 0 for the amount).
+ *
+ * @param id Database ID of the delivery
+ * @param exportationId Exportation ID (numeric part, without the EXP prefix)
+ * @param trackingNumber Tracking number
+ * @param status Delivery status
+ * @param deliveryDate Delivery date
+ * @param notes Delivery notes
+ * @param destination Destination country of the exportation
+ * @param productType Product type of the exportation
+ * @param amount Exported amount
+ * @param currency Currency of the exportation
+ * @param updatedAt Last update of the delivery
+ * @param createdAt Creation time of the delivery
+ */
+public record DeliverySummary(int id,
+                              String exportationId,
+                              String trackingNumber,
+                              String status,
+                              Date deliveryDate,
+                              String notes,
+                              String destination,
+                              String productType,
+                              double amount,
+                              String currency,
+                              Date updatedAt,
+                              Date createdAt) {
+
+    /**
+     * Columns that can be requested from the projection query.
+     * The delivery ID is always selected because it is the paging key.
+     */
+    public enum Column {
+        EXPORTATION_ID("d.exportation_id", false),
+        TRACKING_NUMBER("d.tracking_number", false),
+        STATUS("d.status", false),
+        DELIVERY_DATE("d.delivery_date", false),
+        NOTES("d.notes", false),
+        UPDATED_AT("d.updated_at", false),
+        CREATED_AT("d.created_at", false),
+        DESTINATION("e.destination", true),
+        PRODUCT_TYPE("e.product_type", true),
+        AMOUNT("e.amount", true),
+        CURRENCY("e.currency", true);
+
+        private final String expression;
+        private final boolean fromExportation;
+
+        Column(String expression, boolean fromExportation) {
+            this.expression = expression;
+            this.fromExportation = fromExportation;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * Whether selecting this column requires the join to exportations
+         */
+        public boolean isFromExportation() {
+            return fromExportation;
+        }
+    }
+
+    /**
+     * Display ID in the same format the rest of the application uses
+     */
+    public String getDeliveryId() {
+        return "DEL" + String.format("%06d", id);
+    }
+
+    /**
+     * Display export ID with the EXP prefix
+     */
+    public String getExportId() {
+        return exportationId != null ? "EXP" + exportationId : null;
+    }
+}
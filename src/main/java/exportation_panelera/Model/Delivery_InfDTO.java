@@ -29,6 +29,7 @@ public class Delivery_InfDTO {
     private int id;
     private Date createdAt;
     private Date updatedAt;
+    private int version; // Incremented by every update; used for compare-and-set
     
     // Default constructor
     public Delivery_InfDTO() {
@@ -65,6 +66,35 @@ public class Delivery_InfDTO {
         this.date = deliveryDate;
     }
 
+    // Copy constructor; dates are copied too, so the copy shares no mutable state
+    public Delivery_InfDTO(Delivery_InfDTO other) {
+        this.deliveryId = other.deliveryId;
+        this.exportId = other.exportId;
+        this.exportationId = other.exportationId;
+        this.carrierName = other.carrierName;
+        this.trackingNumber = other.trackingNumber;
+        this.deliveryAddress = other.deliveryAddress;
+        this.contactPerson = other.contactPerson;
+        this.contactPhone = other.contactPhone;
+        this.deliveryDate = copyOf(other.deliveryDate);
+        this.date = copyOf(other.date);
+        this.deliveryStatus = other.deliveryStatus;
+        this.status = other.status;
+        this.notes = other.notes;
+        this.shippingMethod = other.shippingMethod;
+        this.shippingCost = other.shippingCost;
+        this.shippingCurrency = other.shippingCurrency;
+        this.referenceNumber = other.referenceNumber;
+        this.id = other.id;
+        this.createdAt = copyOf(other.createdAt);
+        this.updatedAt = copyOf(other.updatedAt);
+        this.version = other.version;
+    }
+
+    private static Date copyOf(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+
     // Helper method to extract numeric part from export ID
     private String extractExportId(String exportId) {
         if (exportId == null) return null;
@@ -251,6 +281,14 @@ public class Delivery_InfDTO {
         this.updatedAt = updatedAt;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public void markAsUpdated() {
         this.updatedAt = new Date();
     }
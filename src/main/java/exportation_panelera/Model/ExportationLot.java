@@ -0,0 +1,20 @@
+package exportation_panelera.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A pending exportation as a lot to be shipped, for shipment consolidation.
+ *
+ * @param exportationId Business ID of the exportation
+ * @param destination Destination country
+ * @param transportMethod Transport method, matching a shipping method name
+ * @param date Exportation date
+ * @param weightKg Weight in kg (the exportation amount)
+ */
+public record ExportationLot(String exportationId,
+                             String destination,
+                             String transportMethod,
+                             LocalDate date,
+                             BigDecimal weightKg) {
+}
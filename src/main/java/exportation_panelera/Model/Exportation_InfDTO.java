@@ -24,6 +24,7 @@ public class Exportation_InfDTO {
     private String notes;
     private Date createdAt;
     private Date updatedAt;
+    private int version; // Incremented by every update; used for compare-and-set
     private double totalValue;
     private String customerName;
     private String customerEmail;
@@ -54,6 +55,36 @@ public class Exportation_InfDTO {
         this.destination = destination;
     }
     
+    // Copy constructor; dates are copied too, so the copy shares no mutable state
+    public Exportation_InfDTO(Exportation_InfDTO other) {
+        this.id = other.id;
+        this.exportationId = other.exportationId;
+        this.exportId = other.exportId;
+        this.productType = other.productType;
+        this.productName = other.productName;
+        this.amount = other.amount;
+        this.quantity = other.quantity;
+        this.destination = other.destination;
+        this.exportationDate = copyOf(other.exportationDate);
+        this.exportDate = copyOf(other.exportDate);
+        this.unitPrice = other.unitPrice;
+        this.currency = other.currency;
+        this.hasDelivery = other.hasDelivery;
+        this.status = other.status;
+        this.notes = other.notes;
+        this.createdAt = copyOf(other.createdAt);
+        this.updatedAt = copyOf(other.updatedAt);
+        this.version = other.version;
+        this.totalValue = other.totalValue;
+        this.customerName = other.customerName;
+        this.customerEmail = other.customerEmail;
+        this.customerPhone = other.customerPhone;
+        this.documentNumber = other.documentNumber;
+        this.exportLicense = other.exportLicense;
+        this.employeeId = other.employeeId;
+        this.transportMethod = other.transportMethod;
+    }
+    
     // Getters and Setters
     public int getId() {
         return id;
@@ -205,6 +236,14 @@ public class Exportation_InfDTO {
         this.updatedAt = updatedAt;
     }
     
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
     public double getTotalValue() {
         return totalValue;
     }
@@ -212,6 +251,19 @@ public class Exportation_InfDTO {
     public void setTotalValue(double totalValue) {
         this.totalValue = totalValue;
     }
+
+    /**
+     * Unit price times quantity, exact to the minor unit of the currency
+     * (the total value above is a double)
+     *
+     * @return The revenue, or null without a unit price or currency
+     */
+    public Money getRevenue() {
+        if (unitPrice == null || currency == null || currency.trim().isEmpty()) {
+            return null;
+        }
+        return Money.of(unitPrice, currency).times(BigDecimal.valueOf(getQuantity()));
+    }
     
     public String getCustomerName() {
         return customerName;
@@ -276,6 +328,10 @@ public class Exportation_InfDTO {
         this.updatedAt = new Date();
     }
     
+    private static Date copyOf(Date date) {
+        return date != null ? new Date(date.getTime()) : null;
+    }
+    
     private void calculateTotalValue() {
         if (unitPrice != null && (amount > 0 || quantity > 0)) {
             double qty = amount > 0 ? amount : quantity;
@@ -0,0 +1,223 @@
+package exportation_panelera.Model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of minor units (cents) of a
+ * currency, identified by its {@link Currencies} ordinal.
+ * Arithmetic is exact on longs: sums and products that do not fit throw
+ * {@link ArithmeticException} instead of wrapping, and anything that
+ * falls between two minor units is rounded half up, like the rest of the
+ * application. The static methods work on bare minor units so that loops
+ * over many rows need not create a Money per row.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Digits after the decimal point in the DECIMAL(10,2) money columns */
+    public static final int COLUMN_SCALE = 2;
+
+    // Largest value a DECIMAL(10,2) column holds, in hundredths
+    private static final long COLUMN_MAX_HUNDREDTHS = 9_999_999_999L;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+        10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L,
+        10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final long minorUnits;
+    private final int currency;
+
+    private Money(long minorUnits, int currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Money from minor units
+     *
+     * @param minorUnits Amount in minor units, e.g. cents
+     * @param currency Ordinal from {@link Currencies}
+     */
+    public static Money ofMinor(long minorUnits, int currency) {
+        if (currency < 0 || currency >= Currencies.count()) {
+            throw new IllegalArgumentException("Unknown currency ordinal: " + currency);
+        }
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Money from an amount in major units, rounded half up to the minor unit
+     *
+     * @param amount Amount such as 12.345
+     * @param currencyCode Three-letter currency code
+     */
+    public static Money of(BigDecimal amount, String currencyCode) {
+        int currency = Currencies.ordinal(currencyCode);
+        return new Money(toMinorUnits(amount, Currencies.fractionDigits(currency)), currency);
+    }
+
+    /**
+     * Money read from a DECIMAL money column
+     *
+     * @param value Column value, may be null for zero
+     * @param currency Ordinal from {@link Currencies}
+     */
+    public static Money fromColumn(BigDecimal value, int currency) {
+        return ofMinor(value == null ? 0 : toMinorUnits(value, Currencies.fractionDigits(currency)), currency);
+    }
+
+    /**
+     * Zero in a currency
+     */
+    public static Money zero(int currency) {
+        return ofMinor(0, currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public int getCurrency() {
+        return currency;
+    }
+
+    public String getCurrencyCode() {
+        return Currencies.code(currency);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    /**
+     * Multiply by a whole number, such as a count of units
+     */
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    /**
+     * Multiply by a decimal, such as a quantity of 12.5 kg, rounding half up
+     */
+    public Money times(BigDecimal factor) {
+        BigDecimal f = factor.stripTrailingZeros();
+        if (f.scale() < 0) {
+            f = f.setScale(0);
+        }
+        if (f.scale() < POWERS_OF_TEN.length && f.precision() <= 18) {
+            return new Money(multiplyMinor(minorUnits, f.unscaledValue().longValue(), f.scale()), currency);
+        }
+        return new Money(BigDecimal.valueOf(minorUnits).multiply(factor)
+            .setScale(0, RoundingMode.HALF_UP).longValueExact(), currency);
+    }
+
+    /**
+     * The amount in major units, with the currency's number of decimals
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, Currencies.fractionDigits(currency));
+    }
+
+    /**
+     * The amount for a DECIMAL(10,2) money column
+     *
+     * @throws ArithmeticException If the amount does not fit the column
+     */
+    public BigDecimal toColumn() {
+        BigDecimal value = toBigDecimal().setScale(COLUMN_SCALE, RoundingMode.HALF_UP);
+        if (value.unscaledValue().abs().longValueExact() > COLUMN_MAX_HUNDREDTHS) {
+            throw new ArithmeticException(this + " does not fit a DECIMAL(10,2) column");
+        }
+        return value;
+    }
+
+    /**
+     * Sum of two amounts in minor units of the same currency
+     *
+     * @throws ArithmeticException If the sum does not fit in a long
+     */
+    public static long addMinor(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Minor units times a decimal factor given as unscaled value and scale
+     * (12.5 is 125 with scale 1), rounded half up. Allocates only when the
+     * product does not fit in a long.
+     *
+     * @throws ArithmeticException If the result does not fit in a long
+     */
+    public static long multiplyMinor(long minorUnits, long factorUnscaled, int factorScale) {
+        if (factorScale < 0 || factorScale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported factor scale: " + factorScale);
+        }
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, factorUnscaled);
+        } catch (ArithmeticException e) {
+            return BigDecimal.valueOf(minorUnits).multiply(BigDecimal.valueOf(factorUnscaled, factorScale))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+        return divideHalfUp(product, POWERS_OF_TEN[factorScale]);
+    }
+
+    private static long divideHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    private static long toMinorUnits(BigDecimal amount, int fractionDigits) {
+        return amount.setScale(fractionDigits, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Cannot combine " + getCurrencyCode() + " with " + other.getCurrencyCode());
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && currency == money.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + getCurrencyCode();
+    }
+}
@@ -0,0 +1,77 @@
+package exportation_panelera.Model;
+
+import java.util.Arrays;
+
+/**
+ * Running totals per currency for aggregation loops.
+ * Keeps one long of minor units per currency ordinal, so adding a row
+ * allocates nothing. Not thread-safe; give each thread its own and
+ * {@link #addAll combine} them at the end.
+ */
+public final class MoneyTotals {
+
+    private long[] totals = new long[Math.max(1, Currencies.count())];
+    private long[] counts = new long[totals.length];
+
+    /**
+     * Add an amount in minor units
+     *
+     * @throws ArithmeticException If the total does not fit in a long
+     */
+    public void add(int currency, long minorUnits) {
+        ensureCapacity(currency);
+        totals[currency] = Math.addExact(totals[currency], minorUnits);
+        counts[currency]++;
+    }
+
+    public void add(Money amount) {
+        add(amount.getCurrency(), amount.getMinorUnits());
+    }
+
+    /**
+     * Add a price times a decimal quantity, rounded half up to the minor unit
+     *
+     * @param currency Ordinal of the price's currency
+     * @param priceMinorUnits Unit price in minor units
+     * @param quantityUnscaled Quantity without its decimal point (12.50 is 1250)
+     * @param quantityScale Decimals in the quantity (2 for 12.50)
+     */
+    public void addProduct(int currency, long priceMinorUnits, long quantityUnscaled, int quantityScale) {
+        add(currency, Money.multiplyMinor(priceMinorUnits, quantityUnscaled, quantityScale));
+    }
+
+    /**
+     * Add the totals of another instance
+     */
+    public void addAll(MoneyTotals other) {
+        for (int currency = 0; currency < other.totals.length; currency++) {
+            if (other.counts[currency] > 0) {
+                ensureCapacity(currency);
+                totals[currency] = Math.addExact(totals[currency], other.totals[currency]);
+                counts[currency] += other.counts[currency];
+            }
+        }
+    }
+
+    /**
+     * Total of a currency
+     */
+    public Money get(int currency) {
+        return Money.ofMinor(currency < totals.length ? totals[currency] : 0, currency);
+    }
+
+    /**
+     * Number of amounts added in a currency
+     */
+    public long count(int currency) {
+        return currency < counts.length ? counts[currency] : 0;
+    }
+
+    private void ensureCapacity(int currency) {
+        if (currency >= totals.length) {
+            int size = Math.max(currency + 1, totals.length * 2);
+            totals = Arrays.copyOf(totals, size);
+            counts = Arrays.copyOf(counts, size);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package exportation_panelera.Model;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Shipped quantity for one destination in one month, read from the rollup tables.
+ *
+ * @param destination Destination country
+ * @param month Month of the exportation date
+ * @param shipmentCount Number of exportations
+ * @param totalAmount Sum of the exported amounts
+ */
+public record ShipmentMonthTotal(String destination,
+                                 YearMonth month,
+                                 long shipmentCount,
+                                 BigDecimal totalAmount) {
+}
@@ -0,0 +1,59 @@
+package exportation_panelera.Model;
+
+/**
+ * Outcome of a compare-and-set update. The update only succeeds if the row
+ * still has the version it was read with, so concurrent edits are detected
+ * instead of silently overwriting each other.
+ *
+ * @param status What happened
+ * @param current The row as saved for {@link Status#UPDATED} and
+ *                {@link Status#QUEUED}, the row as it is now on the server
+ *                for {@link Status#CONFLICT}, otherwise null
+ * @param <T> Type of the updated row
+ */
+public record UpdateResult<T>(Status status,
+                              T current) {
+
+    /**
+     * Kind of outcome
+     */
+    public enum Status {
+        /** Written; the row carries its new version */
+        UPDATED,
+        /** Kept locally while offline, written once the database is reachable */
+        QUEUED,
+        /** Someone else changed the row since it was read */
+        CONFLICT,
+        /** The row no longer exists */
+        NOT_FOUND,
+        /** Invalid input or database error */
+        FAILED
+    }
+
+    public static <T> UpdateResult<T> updated(T row) {
+        return new UpdateResult<>(Status.UPDATED, row);
+    }
+
+    public static <T> UpdateResult<T> queued(T row) {
+        return new UpdateResult<>(Status.QUEUED, row);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, current);
+    }
+
+    public static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null);
+    }
+
+    public static <T> UpdateResult<T> failed() {
+        return new UpdateResult<>(Status.FAILED, null);
+    }
+
+    /**
+     * @return true if the change was written or queued for writing
+     */
+    public boolean isSaved() {
+        return status == Status.UPDATED || status == Status.QUEUED;
+    }
+}
@@ -1,11 +1,19 @@
 package exportation_panelera.View;
 
+import exportation_panelera.Model.DeliverySummary;
 import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.config.ConfigLoader;
 import exportation_panelera.controller.DeliveryController;
+import exportation_panelera.dao.DeliverySummaryDAO;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.search.DeliveryColumnStore;
+import exportation_panelera.service.DataAccessExecutor;
+import exportation_panelera.service.DeliveryChangeFeed;
+import exportation_panelera.service.ReplicaSyncService;
 import java.util.logging.Logger;
 import java.awt.BorderLayout;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.Font;
@@ -16,15 +24,22 @@ import java.awt.event.MouseEvent;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import javax.swing.SwingWorker;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -39,12 +54,16 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.JToolBar;
+import javax.swing.JScrollBar;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
 
 /**
  * Enhanced Delivery Management Form with modern features
@@ -72,6 +91,24 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
     // Search and performance constants
     private static final int CONNECTION_CHECK_INTERVAL = 30; // seconds
     private static final int SEARCH_DELAY = 500; // milliseconds for search debouncing
+    private static final int SEARCH_CHUNK_SIZE = 500; // rows published to the table at a time
+    
+    // Column sizing: rows measured, minimum width per column (ID, Export, Tracking #,
+    // Notes, Delivery Date, Status, Created At, Updated At), padding and cap
+    private static final int WIDTH_SAMPLE_ROWS = 200;
+    private static final int[] MIN_COLUMN_WIDTHS = {80, 80, 120, 250, 120, 100, 140, 140};
+    private static final int COLUMN_PADDING = 12;
+    private static final int MAX_COLUMN_WIDTH = 400;
+    
+    // Lists at least this large are sorted by the database, a page at a time
+    private static final int SERVER_SORT_THRESHOLD =
+        ConfigLoader.getIntProperty("delivery.sort.server.threshold", 100000);
+    private static final int SERVER_PAGE_SIZE =
+        ConfigLoader.getIntProperty("delivery.sort.page.size", 1000);
+    private static final Set<DeliverySummary.Column> SERVER_PAGE_COLUMNS = EnumSet.of(
+        DeliverySummary.Column.EXPORTATION_ID, DeliverySummary.Column.TRACKING_NUMBER,
+        DeliverySummary.Column.NOTES, DeliverySummary.Column.DELIVERY_DATE, DeliverySummary.Column.STATUS,
+        DeliverySummary.Column.CREATED_AT, DeliverySummary.Column.UPDATED_AT);
     
     // UI Components - existing
     private JTable tblDeliveries;
@@ -90,16 +127,34 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
     
     // Controller and background services
     private DeliveryController controller;
+    private final DataAccessExecutor dataAccess = DataAccessExecutor.getInstance();
     private ScheduledExecutorService connectionChecker;
     private boolean previousConnectionStatus = false;
-    private TableRowSorter<DefaultTableModel> tableSorter; // For table sorting
+    private DeliveryRowSorter tableSorter; // For table sorting
+    private final AtomicReference<DeliverySnapshot> deliverySnapshot = new AtomicReference<>(); // For searching
+    private final AtomicLong snapshotLoads = new AtomicLong(); // Numbers full loads in the order they start
+    private final AtomicInteger searchGeneration = new AtomicInteger(); // Bumped by every new search
+    private SearchTask activeSearch; // Running search, accessed on the EDT only
+    private SearchResult lastSearch; // Last completed search, accessed on the EDT only
+    private boolean showingAllDeliveries; // Table holds the full list rather than search results, EDT only
+    
+    // Server-sorted paging state, accessed on the EDT only
+    private int serverSortGeneration = -1;
+    private DeliverySummaryDAO.SortColumn serverSortBy;
+    private boolean serverSortDescending;
+    private DeliverySummaryDAO.Cursor serverCursor;
+    private boolean serverHasMore;
+    private boolean serverPageLoading;
+    private long deliveryCount; // Length of the full list at the last reload
+    
+    // Receives deliveries changed by other users while the form is open
+    private final DeliveryChangeFeed.Listener changeListener = this::onDeliveriesChanged;
 
     /**
      * Enhanced constructor with new features initialization
      */
     public DeliveryManagementForm() {
         controller = new DeliveryController();
-        controller.debugPrintTableStructure();
         
         initComponents();
         setupEnhancedUI();
@@ -151,8 +206,10 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
         
         // Enhanced search components
         cmbSearchField = new JComboBox<>(new String[]{
-            "All Fields", "Delivery ID", "Export ID", "Tracking Number", 
-            "Notes", "Status", "Delivery Date"
+            DeliveryColumnStore.FIELD_ALL, DeliveryColumnStore.FIELD_DELIVERY_ID,
+            DeliveryColumnStore.FIELD_EXPORT_ID, DeliveryColumnStore.FIELD_TRACKING_NUMBER,
+            DeliveryColumnStore.FIELD_NOTES, DeliveryColumnStore.FIELD_STATUS,
+            DeliveryColumnStore.FIELD_DELIVERY_DATE
         });
         cmbSearchField.setFont(BUTTON_FONT);
         
@@ -248,6 +305,9 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
         
         scrollPane = new JScrollPane(tblDeliveries);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        // Fetch the next database-sorted page when scrolled near the end
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> loadNextServerPageIfNeeded());
         add(scrollPane, BorderLayout.CENTER);
     }
     
@@ -255,11 +315,149 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
      * Setup table sorting functionality
      */
     private void setupTableSorting() {
-        DefaultTableModel model = (DefaultTableModel) tblDeliveries.getModel();
-        tableSorter = new TableRowSorter<>(model);
+        tableSorter = new DeliveryRowSorter((DeliveryTableModel) tblDeliveries.getModel());
+        tableSorter.setServerSort(this::sortOnServer);
         tblDeliveries.setRowSorter(tableSorter);
     }
     
+    /**
+     * Decide whether a header click is sorted by the database. That is the
+     * case when the full list is shown, it is at least
+     * {@link #SERVER_SORT_THRESHOLD} rows long and the column is indexed; the
+     * first page is then loaded in the new order and later pages follow as
+     * the table is scrolled down.
+     */
+    private boolean sortOnServer(int column, SortOrder order) {
+        DeliverySummaryDAO.SortColumn sortBy = serverSortColumn(column);
+        if (sortBy == null || !showingAllDeliveries || !previousConnectionStatus
+                || deliveryCount < SERVER_SORT_THRESHOLD) {
+            DeliveryColumnStore snapshot = currentSnapshot();
+            if (tableSorter.isServerOrdered() && snapshot != null) {
+                // Leaving database order: put the whole list back so it is sorted locally
+                cancelActiveSearch();
+                displayDeliveries(snapshot.rows(snapshot.all()));
+            } else if (tableSorter.isServerOrdered()) {
+                // The list was never loaded whole; only the pages shown are sorted
+                updateStatus("Sorted the " + tblDeliveries.getModel().getRowCount()
+                    + " deliveries shown; indexed columns sort the full list", COLOR_CONNECTED);
+            }
+            return false;
+        }
+        
+        startServerPaging(cancelActiveSearch(), sortBy, order == SortOrder.DESCENDING);
+        return true;
+    }
+    
+    /**
+     * Show the list as pages read from the database in the given order,
+     * starting with the first page
+     */
+    private void startServerPaging(int generation, DeliverySummaryDAO.SortColumn sortBy, boolean descending) {
+        serverSortGeneration = generation;
+        serverSortBy = sortBy;
+        serverSortDescending = descending;
+        serverCursor = null;
+        serverHasMore = true;
+        loadServerPage(generation);
+    }
+    
+    /**
+     * Show a list too long to load whole from its first database page, in
+     * the current sort order if the database can answer it, by ID otherwise
+     */
+    private void showFirstServerPage(int generation) {
+        List<? extends RowSorter.SortKey> keys = tableSorter.getSortKeys();
+        int column = keys.isEmpty() ? 0 : keys.get(0).getColumn();
+        SortOrder order = keys.isEmpty() ? SortOrder.ASCENDING : keys.get(0).getSortOrder();
+        DeliverySummaryDAO.SortColumn sortBy = serverSortColumn(column);
+        if (sortBy == null) {
+            column = 0;
+            order = SortOrder.ASCENDING;
+            sortBy = DeliverySummaryDAO.SortColumn.ID;
+        }
+        
+        showingAllDeliveries = true;
+        tableSorter.setServerOrder(column, order);
+        startServerPaging(generation, sortBy, order == SortOrder.DESCENDING);
+    }
+    
+    /**
+     * Indexed column backing a table column, or null if it has none
+     */
+    private static DeliverySummaryDAO.SortColumn serverSortColumn(int column) {
+        return switch (column) {
+            case 0 -> DeliverySummaryDAO.SortColumn.ID;
+            case 1 -> DeliverySummaryDAO.SortColumn.EXPORTATION_ID;
+            case 2 -> DeliverySummaryDAO.SortColumn.TRACKING_NUMBER;
+            case 4 -> DeliverySummaryDAO.SortColumn.DELIVERY_DATE;
+            case 5 -> DeliverySummaryDAO.SortColumn.STATUS;
+            default -> null;
+        };
+    }
+    
+    private void loadNextServerPageIfNeeded() {
+        if (!tableSorter.isServerOrdered() || !serverHasMore || serverPageLoading
+                || serverSortGeneration != searchGeneration.get()) {
+            return;
+        }
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        int remaining = bar.getMaximum() - (bar.getValue() + bar.getVisibleAmount());
+        if (remaining <= tblDeliveries.getRowHeight() * 20) {
+            loadServerPage(serverSortGeneration);
+        }
+    }
+    
+    /**
+     * Load the page after {@link #serverCursor} in the current database order.
+     * The first page replaces the table, later pages are appended.
+     */
+    private void loadServerPage(final int generation) {
+        final DeliverySummaryDAO.SortColumn sortBy = serverSortBy;
+        final boolean descending = serverSortDescending;
+        final DeliverySummaryDAO.Cursor after = serverCursor;
+        serverPageLoading = true;
+        showProgressBar("Sorting on the database...");
+        
+        dataAccess.submit("Load sorted delivery page",
+            () -> controller.getDeliverySummaries(SERVER_PAGE_COLUMNS, null, sortBy, descending,
+                after, SERVER_PAGE_SIZE),
+            page -> {
+                if (generation != searchGeneration.get()) {
+                    return; // A search or reload replaced the list meanwhile
+                }
+                serverPageLoading = false;
+                hideProgressBar();
+                
+                List<Object[]> rows = new ArrayList<>(page.size());
+                for (DeliverySummary summary : page) {
+                    rows.add(toRowData(summary));
+                }
+                
+                DeliveryTableModel model = (DeliveryTableModel) tblDeliveries.getModel();
+                if (after == null) {
+                    model.replaceRows(rows);
+                    adjustColumnWidths();
+                } else {
+                    model.appendRows(rows);
+                }
+                serverCursor = DeliverySummaryDAO.nextCursor(page, sortBy);
+                serverHasMore = page.size() == SERVER_PAGE_SIZE;
+                
+                updateRecordCount(model.getRowCount());
+                updateStatus("Sorted by " + model.getColumnName(tableSorter.getSortKeys().get(0).getColumn())
+                    + " on the database, showing " + model.getRowCount() + " deliveries", COLOR_CONNECTED);
+            },
+            error -> {
+                if (generation != searchGeneration.get()) {
+                    return;
+                }
+                serverPageLoading = false;
+                hideProgressBar();
+                serverHasMore = false;
+                showMessage("Error sorting deliveries: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+            });
+    }
+    
     /**
      * Create enhanced status panel with progress bar and record counter
      */
@@ -375,36 +573,92 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
      * Initialize async operations
      */
     private void initializeAsyncOperations() {
-        // Start initial data loading in background
-        loadDeliveriesAsync();
+        // Start initial data loading in background, from the local replica if it is fresh
+        loadDeliveriesAsync(true);
         
         // Start connection monitoring
         startConnectionChecker();
+        
+        // Patch the table as deliveries change instead of waiting for Refresh;
+        // the replica sync also reports what changed since it was last read
+        DeliveryChangeFeed.getInstance().addListener(changeListener);
+        ReplicaSyncService.getInstance().addListener(changeListener);
     }
-
+    
     /**
-     * Create enhanced table model
+     * Called on the change feed's thread. The search snapshot is patched
+     * here, off the EDT; the table is patched row by row on the EDT.
      */
-    private void createTableModel() {
-        DefaultTableModel model = new DefaultTableModel(
-            new Object[][] {}, 
-            new String[] {"ID", "Export ID", "Tracking #", "Notes", "Delivery Date", "Status", "Created At", "Updated At"}
-        ) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Keep table read-only
+    private void onDeliveriesChanged(List<Delivery_InfDTO> changed, Set<Integer> deletedIds) {
+        // Patch whichever snapshot is current, retrying if a load replaces it meanwhile
+        deliverySnapshot.updateAndGet(current -> current == null || current.store() == null ? current
+            : new DeliverySnapshot(current.load(), current.store().withChanges(changed, deletedIds)));
+        SwingUtilities.invokeLater(() -> patchTable(changed, deletedIds));
+    }
+    
+    /**
+     * Columnar copy of the loaded deliveries for searching, with the number
+     * of the full load it was built from. Change feed patches keep that number.
+     * The store is null after a load that left the list on the database.
+     */
+    private record DeliverySnapshot(long load, DeliveryColumnStore store) {
+    }
+    
+    /**
+     * The search snapshot, or null if no deliveries were loaded yet
+     */
+    private DeliveryColumnStore currentSnapshot() {
+        DeliverySnapshot current = deliverySnapshot.get();
+        return current != null ? current.store() : null;
+    }
+    
+    /**
+     * Use a snapshot built from a full load, unless one from a load that
+     * started later is already in use
+     *
+     * @param load Number taken from {@link #snapshotLoads} before the deliveries were read
+     * @return The snapshot now in use
+     */
+    private DeliveryColumnStore installSnapshot(long load, DeliveryColumnStore store) {
+        return deliverySnapshot.accumulateAndGet(new DeliverySnapshot(load, store),
+            (current, loaded) -> current == null || loaded.load() > current.load() ? loaded : current).store();
+    }
+    
+    /**
+     * Apply changed deliveries to the rows on screen with row-level events.
+     * Rows already shown are updated or removed in place; new deliveries are
+     * only added while the table shows the full, locally sorted list.
+     */
+    private void patchTable(List<Delivery_InfDTO> changed, Set<Integer> deletedIds) {
+        DeliveryTableModel model = (DeliveryTableModel) tblDeliveries.getModel();
+        boolean addNew = showingAllDeliveries && !tableSorter.isServerOrdered();
+        
+        List<Object[]> added = new ArrayList<>();
+        for (Delivery_InfDTO delivery : changed) {
+            Object[] row = toRowData(delivery);
+            if (!model.updateRow(row) && addNew) {
+                added.add(row);
             }
-            
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex == 4 || columnIndex == 6 || columnIndex == 7) {
-                    return java.util.Date.class; // Date columns for proper sorting
-                }
-                return String.class;
+        }
+        model.appendRows(added);
+        
+        int removed = 0;
+        for (Integer id : deletedIds) {
+            if (model.removeDelivery(DeliveryController.formatDeliveryId(id))) {
+                removed++;
             }
-        };
+        }
         
-        tblDeliveries.setModel(model);
+        updateRecordCount(model.getRowCount());
+        logger.fine("Patched delivery table: " + changed.size() + " changed, " + added.size()
+            + " added, " + removed + " removed");
+    }
+
+    /**
+     * Create enhanced table model
+     */
+    private void createTableModel() {
+        tblDeliveries.setModel(new DeliveryTableModel());
     }
     
     /**
@@ -517,184 +771,321 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
     }
     
     /**
-     * NEW FEATURE: Advanced search with field-specific filtering
+     * NEW FEATURE: Advanced search with field-specific filtering.
+     * Runs in the background; starting a new search cancels the previous one.
      */
     private void performAdvancedSearch() {
         String searchText = txtSearch.getText().trim().toLowerCase();
         String selectedField = (String) cmbSearchField.getSelectedItem();
         
+        int generation = cancelActiveSearch();
+        
         if (searchText.isEmpty()) {
             loadDeliveriesAsync(); // Load all if empty
             return;
         }
         
-        try {
-            showProgressBar("Searching...");
-            
-            // Get all deliveries
-            List<Delivery_InfDTO> allDeliveries = controller.getAllDeliveries();
-            
-            if (allDeliveries == null || allDeliveries.isEmpty()) {
-                hideProgressBar();
-                showMessage("No deliveries available to search", JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            // Filter based on selected field
-            List<Delivery_InfDTO> filteredDeliveries = allDeliveries.stream()
-                .filter(delivery -> delivery != null && matchesSearchCriteria(delivery, searchText, selectedField))
-                .collect(Collectors.toList());
-            
-            // Update table with results
-            SwingUtilities.invokeLater(() -> {
-                displaySearchResults(filteredDeliveries, searchText, selectedField);
-                hideProgressBar();
-            });
-            
-        } catch (Exception ex) {
-            hideProgressBar();
-            logger.log(Level.SEVERE, "Error in advanced search", ex);
-            showMessage("Search error: " + ex.getMessage(), JOptionPane.ERROR_MESSAGE);
-        }
+        showProgressBar("Searching...");
+        activeSearch = new SearchTask(generation, selectedField, searchText, lastSearch);
+        activeSearch.start();
     }
     
     /**
-     * Check if delivery matches search criteria for specific field
+     * Cancel the running search, if any, and start a new search generation.
+     * Results of older generations are dropped when they reach the EDT.
+     *
+     * @return The new generation
      */
-    private boolean matchesSearchCriteria(Delivery_InfDTO delivery, String searchText, String field) {
-        switch (field) {
-            case "Delivery ID":
-                return containsIgnoreCase(delivery.getDeliveryId(), searchText);
-            case "Export ID":
-                return containsIgnoreCase(delivery.getExportId(), searchText);
-            case "Tracking Number":
-                return containsIgnoreCase(delivery.getTrackingNumber(), searchText);
-            case "Notes":
-                return containsIgnoreCase(delivery.getNotes(), searchText);
-            case "Status":
-                return containsIgnoreCase(delivery.getStatus(), searchText);
-            case "Delivery Date":
-                Date deliveryDate = delivery.getDeliveryDate() != null ? 
-                    delivery.getDeliveryDate() : delivery.getDate();
-                return deliveryDate != null && 
-                    deliveryDate.toString().toLowerCase().contains(searchText);
-            case "All Fields":
-            default:
-                return containsIgnoreCase(delivery.getDeliveryId(), searchText) ||
-                       containsIgnoreCase(delivery.getExportId(), searchText) ||
-                       containsIgnoreCase(delivery.getTrackingNumber(), searchText) ||
-                       containsIgnoreCase(delivery.getNotes(), searchText) ||
-                       containsIgnoreCase(delivery.getStatus(), searchText);
+    private int cancelActiveSearch() {
+        if (activeSearch != null) {
+            activeSearch.cancel();
+            activeSearch = null;
         }
+        return searchGeneration.incrementAndGet();
     }
     
     /**
-     * Display search results in table
+     * Show the outcome of a completed search
      */
-    private void displaySearchResults(List<Delivery_InfDTO> results, String searchText, String field) {
-        DefaultTableModel model = (DefaultTableModel) tblDeliveries.getModel();
-        model.setRowCount(0);
-        
-        if (results.isEmpty()) {
+    private void displaySearchSummary(int matchCount, String searchText, String field) {
+        if (matchCount == 0) {
+            replaceTableRows(Collections.emptyList());
+            showingAllDeliveries = false;
             updateStatus("No matches found for '" + searchText + "' in " + field, COLOR_DISCONNECTED);
             updateRecordCount(0);
             return;
         }
         
-        // Add results to table
-        for (Delivery_InfDTO delivery : results) {
-            Object[] rowData = {
-                delivery.getDeliveryId(),
-                delivery.getExportId(),
-                delivery.getTrackingNumber(),
-                delivery.getNotes(),
-                delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate(),
-                delivery.getStatus(),
-                delivery.getCreatedAt(),
-                delivery.getUpdatedAt()
-            };
-            model.addRow(rowData);
+        adjustColumnWidths();
+        updateRecordCount(matchCount);
+        updateStatus("Found " + matchCount + " matches for '" + searchText + "' in " + field, COLOR_CONNECTED);
+        
+        logger.info("Advanced search completed: " + matchCount + " matches found");
+    }
+    
+    /**
+     * Table row for a delivery, in column order
+     */
+    private Object[] toRowData(Delivery_InfDTO delivery) {
+        return new Object[]{
+            delivery.getDeliveryId(),
+            delivery.getExportId(),
+            delivery.getTrackingNumber(),
+            delivery.getNotes(),
+            delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate(),
+            delivery.getStatus(),
+            delivery.getCreatedAt(),
+            delivery.getUpdatedAt()
+        };
+    }
+    
+    /**
+     * Table row for a delivery summary read by the database-sorted pages
+     */
+    private Object[] toRowData(DeliverySummary summary) {
+        return new Object[]{
+            summary.getDeliveryId(),
+            summary.getExportId(),
+            summary.trackingNumber(),
+            summary.notes(),
+            summary.deliveryDate(),
+            summary.status(),
+            summary.createdAt(),
+            summary.updatedAt()
+        };
+    }
+    
+    /**
+     * Background search over the delivery snapshot.
+     * Matching rows are published to the table in chunks as they are
+     * collected, and nothing is shown once a newer search has started.
+     */
+    private class SearchTask {
+        private final int generation;
+        private final String field;
+        private final String text;
+        private final SearchResult previous;
+        private DeliveryColumnStore snapshot;
+        private boolean tableCleared;
+        private int shown;
+        private DataAccessExecutor.Operation<BitSet> operation;
+        
+        SearchTask(int generation, String field, String text, SearchResult previous) {
+            this.generation = generation;
+            this.field = field;
+            this.text = text;
+            this.previous = previous;
         }
         
-        adjustColumnWidths();
-        updateRecordCount(results.size());
-        updateStatus("Found " + results.size() + " matches for '" + searchText + "' in " + field, COLOR_CONNECTED);
+        void start() {
+            operation = dataAccess.submit("Search deliveries", this::search, this::done, this::failed);
+        }
+        
+        void cancel() {
+            operation.cancel();
+        }
+        
+        private BitSet search() {
+            // Search the in-memory snapshot; only hit the database if none was loaded yet
+            snapshot = currentSnapshot();
+            if (snapshot == null) {
+                long load = snapshotLoads.incrementAndGet();
+                snapshot = installSnapshot(load, new DeliveryColumnStore(controller.getAllDeliveries()));
+            }
+            
+            BitSet matches;
+            if (previous != null && previous.isRefinedBy(snapshot, field, text)) {
+                // The query grew, so only the rows that matched before can still match
+                matches = snapshot.search(field, text, previous.matches);
+            } else {
+                // Text fields are answered by the trigram index, the rest by the snapshot's columns
+                int[] matchingIds = controller.searchDeliveryText(field, text);
+                matches = matchingIds != null
+                    ? snapshot.positionsOf(matchingIds)
+                    : snapshot.search(field, text);
+            }
+            
+            List<Delivery_InfDTO> chunk = new ArrayList<>(SEARCH_CHUNK_SIZE);
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null; // Cancelled
+                }
+                chunk.add(snapshot.row(row));
+                if (chunk.size() == SEARCH_CHUNK_SIZE) {
+                    publish(chunk);
+                    chunk = new ArrayList<>(SEARCH_CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                publish(chunk);
+            }
+            return matches;
+        }
+        
+        private void publish(List<Delivery_InfDTO> chunk) {
+            SwingUtilities.invokeLater(() -> process(chunk));
+        }
+        
+        private boolean isCurrent() {
+            return !operation.isCancelled() && generation == searchGeneration.get();
+        }
+        
+        private void process(List<Delivery_InfDTO> chunk) {
+            if (!isCurrent()) {
+                return;
+            }
+            
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (Delivery_InfDTO delivery : chunk) {
+                rows.add(toRowData(delivery));
+            }
+            
+            if (!tableCleared) {
+                // Keep the previous rows on screen until the first new ones arrive
+                replaceTableRows(rows);
+                showingAllDeliveries = false;
+                tableCleared = true;
+            } else {
+                ((DeliveryTableModel) tblDeliveries.getModel()).appendRows(rows);
+            }
+            shown += rows.size();
+            updateRecordCount(shown);
+        }
+        
+        private void done(BitSet matches) {
+            if (!isCurrent()) {
+                return;
+            }
+            activeSearch = null;
+            hideProgressBar();
+            
+            lastSearch = new SearchResult(snapshot, field, text, matches);
+            displaySearchSummary(matches.cardinality(), text, field);
+        }
+        
+        private void failed(Throwable error) {
+            if (!isCurrent()) {
+                return;
+            }
+            activeSearch = null;
+            hideProgressBar();
+            showMessage("Search error: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Result of the last completed search, kept so that a longer query can
+     * refine it instead of searching every row again
+     */
+    private static final class SearchResult {
+        private final DeliveryColumnStore snapshot;
+        private final String field;
+        private final String text;
+        private final BitSet matches;
+        
+        SearchResult(DeliveryColumnStore snapshot, String field, String text, BitSet matches) {
+            this.snapshot = snapshot;
+            this.field = field;
+            this.text = text;
+            this.matches = matches;
+        }
         
-        logger.info("Advanced search completed: " + results.size() + " matches found");
+        /**
+         * Whether every match of the new query is among these matches: same
+         * snapshot, same field, and the new text contains the old text
+         */
+        boolean isRefinedBy(DeliveryColumnStore current, String newField, String newText) {
+            return snapshot == current && field.equals(newField) && newText.contains(text);
+        }
     }
     
     /**
      * NEW FEATURE: Asynchronous data loading with progress indication
      */
     private void loadDeliveriesAsync() {
-        // Create background worker for data loading
-        SwingWorker<List<Delivery_InfDTO>, Void> worker = new SwingWorker<List<Delivery_InfDTO>, Void>() {
-            @Override
-            protected List<Delivery_InfDTO> doInBackground() throws Exception {
-                // Show progress bar
-                SwingUtilities.invokeLater(() -> showProgressBar("Loading deliveries..."));
-                
-                // Check connection
-                boolean connected = controller.tryReconnect();
-                SwingUtilities.invokeLater(() -> updateConnectionStatus(connected));
-                
-                // Get deliveries
-                return controller.getAllDeliveries();
+        loadDeliveriesAsync(false);
+    }
+    
+    /**
+     * @param preferReplica Whether a fresh local replica may answer instead of the database
+     */
+    private void loadDeliveriesAsync(boolean preferReplica) {
+        // A full reload replaces whatever a running search would show
+        final int generation = cancelActiveSearch();
+        
+        showProgressBar("Loading deliveries...");
+        
+        dataAccess.submit("Load deliveries", () -> {
+            // Check connection
+            boolean connected = controller.tryReconnect();
+            SwingUtilities.invokeLater(() -> updateConnectionStatus(connected));
+            
+            long load = snapshotLoads.incrementAndGet();
+            
+            // Count first: a list too long to load whole is paged from the database
+            long count = connected ? controller.countDeliveries() : -1;
+            if (count >= SERVER_SORT_THRESHOLD) {
+                installSnapshot(load, null);
+                return new LoadedDeliveries(null, count);
             }
             
-            @Override
-            protected void done() {
-                try {
-                    List<Delivery_InfDTO> deliveries = get();
-                    displayDeliveries(deliveries);
-                } catch (Exception ex) {
-                    logger.log(Level.SEVERE, "Error in async data loading", ex);
-                    showMessage("Error loading deliveries: " + ex.getMessage(), JOptionPane.ERROR_MESSAGE);
-                    loadSampleDataAsFallback();
-                } finally {
-                    hideProgressBar();
-                }
+            // Get deliveries and rebuild the search snapshot off the EDT
+            List<Delivery_InfDTO> deliveries = controller.getAllDeliveries(preferReplica);
+            installSnapshot(load, new DeliveryColumnStore(deliveries));
+            return new LoadedDeliveries(deliveries, deliveries.size());
+        }, loaded -> {
+            if (generation != searchGeneration.get()) {
+                return; // A search started meanwhile and owns the table now
             }
-        };
-        
-        worker.execute();
+            hideProgressBar();
+            deliveryCount = loaded.count();
+            if (loaded.deliveries() == null) {
+                showFirstServerPage(generation);
+            } else {
+                displayDeliveries(loaded.deliveries());
+            }
+        }, error -> {
+            if (generation != searchGeneration.get()) {
+                return;
+            }
+            hideProgressBar();
+            showMessage("Error loading deliveries: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+            loadSampleDataAsFallback();
+        });
+    }
+    
+    /**
+     * Result of a reload: the full list, or null if it is paged from the
+     * database, and its length
+     */
+    private record LoadedDeliveries(List<Delivery_InfDTO> deliveries, long count) {
     }
     
     /**
      * Display deliveries in table (extracted from loadDeliveries for reuse)
      */
     private void displayDeliveries(List<Delivery_InfDTO> deliveries) {
-        DefaultTableModel model = (DefaultTableModel) tblDeliveries.getModel();
-        model.setRowCount(0);
-        
         if (deliveries == null || deliveries.isEmpty()) {
+            replaceTableRows(Collections.emptyList());
             updateStatus("No deliveries found", COLOR_DISCONNECTED);
             updateRecordCount(0);
             return;
         }
         
-        // Add deliveries to table
-        int successCount = 0;
+        // Build every row first, then hand them to the table in one swap
+        List<Object[]> rows = new ArrayList<>(deliveries.size());
         for (Delivery_InfDTO delivery : deliveries) {
             if (delivery == null) continue;
             
             try {
-                Object[] rowData = {
-                    delivery.getDeliveryId(),
-                    delivery.getExportId(),
-                    delivery.getTrackingNumber(),
-                    delivery.getNotes(),
-                    delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate(),
-                    delivery.getStatus(),
-                    delivery.getCreatedAt(),
-                    delivery.getUpdatedAt()
-                };
-                model.addRow(rowData);
-                successCount++;
+                rows.add(toRowData(delivery));
             } catch (Exception e) {
                 logger.log(Level.WARNING, "Error adding delivery to table", e);
             }
         }
+        replaceTableRows(rows);
+        showingAllDeliveries = true;
+        int successCount = rows.size();
         
         adjustColumnWidths();
         updateRecordCount(successCount);
@@ -703,6 +1094,19 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
         logger.info("Successfully displayed " + successCount + " deliveries");
     }
     
+    /**
+     * Swap in a new set of rows with a single model event; the sorter sorts
+     * them once. If the table was in database order, the rows are now local
+     * again and the same sort key is applied to them here.
+     */
+    private void replaceTableRows(List<Object[]> rows) {
+        DeliveryTableModel model = (DeliveryTableModel) tblDeliveries.getModel();
+        model.replaceRows(rows);
+        if (tableSorter != null && tableSorter.isServerOrdered()) {
+            tableSorter.setSortKeys(tableSorter.getSortKeys());
+        }
+    }
+    
     /**
      * Show progress bar with message
      */
@@ -764,9 +1168,6 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
     private void loadSampleDataAsFallback() {
         try {
             logger.info("Loading sample data as fallback");
-            DefaultTableModel model = (DefaultTableModel) tblDeliveries.getModel();
-            model.setRowCount(0);
-            
             Object[][] sampleData = {
                 {"DEL001", "EXP001", "TRK123456", "Sample delivery 1 - Express shipping", new Date(), "DELIVERED", new Date(), new Date()},
                 {"DEL002", "EXP002", "TRK789012", "Sample delivery 2 - Standard shipping", new Date(), "IN_TRANSIT", new Date(), new Date()},
@@ -774,9 +1175,8 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
                 {"DEL004", "EXP004", "TRK901234", "Sample delivery 4 - Overnight delivery", new Date(), "PROCESSING", new Date(), new Date()}
             };
             
-            for (Object[] row : sampleData) {
-                model.addRow(row);
-            }
+            replaceTableRows(Arrays.asList(sampleData));
+            showingAllDeliveries = false;
             
             adjustColumnWidths();
             updateRecordCount(sampleData.length);
@@ -790,27 +1190,34 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
     }
     
     // Keep existing helper methods with any necessary updates
-    private boolean containsIgnoreCase(Object value, String searchText) {
-        return value != null && value.toString().toLowerCase().contains(searchText);
-    }
-    
+    /**
+     * Size columns to their content, measured on a sample of at most
+     * {@value #WIDTH_SAMPLE_ROWS} rows spread over the table. The original
+     * fixed widths are kept as minimums.
+     */
     private void adjustColumnWidths() {
         try {
-            tblDeliveries.getColumnModel().getColumn(0).setPreferredWidth(80);  // ID
-            tblDeliveries.getColumnModel().getColumn(1).setPreferredWidth(80);  // Export
-            tblDeliveries.getColumnModel().getColumn(2).setPreferredWidth(120); // Tracking #
-           tblDeliveries.getColumnModel().getColumn(3).setPreferredWidth(250); // Notes (wider for better readability)
-           tblDeliveries.getColumnModel().getColumn(4).setPreferredWidth(120); // Delivery Date
-           tblDeliveries.getColumnModel().getColumn(5).setPreferredWidth(100); // Status
-           tblDeliveries.getColumnModel().getColumn(6).setPreferredWidth(140); // Created At
-           tblDeliveries.getColumnModel().getColumn(7).setPreferredWidth(140); // Updated At
-           
-           logger.fine("Column widths adjusted successfully");
-       } catch (Exception e) {
-           logger.log(Level.WARNING, "Error adjusting column widths", e);
-       }
-   }
-   
+            TableColumnModel columns = tblDeliveries.getColumnModel();
+            int rowCount = tblDeliveries.getRowCount();
+            int step = Math.max(1, rowCount / WIDTH_SAMPLE_ROWS);
+            
+            for (int col = 0; col < columns.getColumnCount() && col < MIN_COLUMN_WIDTHS.length; col++) {
+                TableColumn column = columns.getColumn(col);
+                int width = MIN_COLUMN_WIDTHS[col];
+                
+                for (int row = 0; row < rowCount; row += step) {
+                    Component cell = tblDeliveries.prepareRenderer(tblDeliveries.getCellRenderer(row, col), row, col);
+                    width = Math.max(width, cell.getPreferredSize().width + COLUMN_PADDING);
+                }
+                column.setPreferredWidth(Math.min(width, MAX_COLUMN_WIDTH));
+            }
+            
+            logger.fine("Column widths adjusted from " + Math.min(rowCount, WIDTH_SAMPLE_ROWS) + " sampled rows");
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Error adjusting column widths", e);
+        }
+    }
+    
    /**
     * Enhanced connection checker with better error handling
     */
@@ -864,59 +1271,46 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
        btnTestConnection.setEnabled(false);
        showProgressBar("Testing connection...");
        
-       SwingWorker<Boolean, Void> testWorker = new SwingWorker<Boolean, Void>() {
-           @Override
-           protected Boolean doInBackground() throws Exception {
-               return controller.tryReconnect();
-           }
+       dataAccess.submit("Test database connection", controller::tryReconnect, connected -> {
+           hideProgressBar();
+           btnTestConnection.setEnabled(true);
            
-           @Override
-           protected void done() {
-               try {
-                   boolean connected = get();
-                   
-                   if (connected) {
-                       JOptionPane.showMessageDialog(
-                           DeliveryManagementForm.this,
-                           "✓ Successfully connected to the database!\n" +
-                           "All features are now available.",
-                           "Connection Test Successful",
-                           JOptionPane.INFORMATION_MESSAGE
-                       );
-                       
-                       updateConnectionStatus(true);
-                       loadDeliveriesAsync(); // Refresh data
-                   } else {
-                       JOptionPane.showMessageDialog(
-                           DeliveryManagementForm.this,
-                           "✗ Could not connect to the database.\n\n" +
-                           "Please check:\n" +
-                           "• MySQL/XAMPP is running\n" +
-                           "• Database 'exportation_panelera' exists\n" +
-                           "• Network connection is stable\n" +
-                           "• Database credentials are correct",
-                           "Connection Test Failed",
-                           JOptionPane.ERROR_MESSAGE
-                       );
-                       
-                       updateConnectionStatus(false);
-                   }
-               } catch (Exception ex) {
-                   logger.log(Level.SEVERE, "Error in connection test", ex);
-                   JOptionPane.showMessageDialog(
-                       DeliveryManagementForm.this,
-                       "Connection test error: " + ex.getMessage(),
-                       "Test Error",
-                       JOptionPane.ERROR_MESSAGE
-                   );
-               } finally {
-                   hideProgressBar();
-                   btnTestConnection.setEnabled(true);
-               }
+           if (connected) {
+               JOptionPane.showMessageDialog(
+                   DeliveryManagementForm.this,
+                   "✓ Successfully connected to the database!\n" +
+                   "All features are now available.",
+                   "Connection Test Successful",
+                   JOptionPane.INFORMATION_MESSAGE
+               );
+               
+               updateConnectionStatus(true);
+               loadDeliveriesAsync(); // Refresh data
+           } else {
+               JOptionPane.showMessageDialog(
+                   DeliveryManagementForm.this,
+                   "✗ Could not connect to the database.\n\n" +
+                   "Please check:\n" +
+                   "• MySQL/XAMPP is running\n" +
+                   "• Database 'exportation_panelera' exists\n" +
+                   "• Network connection is stable\n" +
+                   "• Database credentials are correct",
+                   "Connection Test Failed",
+                   JOptionPane.ERROR_MESSAGE
+               );
+               
+               updateConnectionStatus(false);
            }
-       };
-       
-       testWorker.execute();
+       }, error -> {
+           hideProgressBar();
+           btnTestConnection.setEnabled(true);
+           JOptionPane.showMessageDialog(
+               DeliveryManagementForm.this,
+               "Connection test error: " + error.getMessage(),
+               "Test Error",
+               JOptionPane.ERROR_MESSAGE
+           );
+       });
    }
    
    /**
@@ -993,45 +1387,32 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
            showProgressBar("Loading delivery details...");
            
            // Load delivery data in background
-           SwingWorker<Delivery_InfDTO, Void> loadWorker = new SwingWorker<Delivery_InfDTO, Void>() {
-               @Override
-               protected Delivery_InfDTO doInBackground() throws Exception {
-                   return controller.getDeliveryById(deliveryId);
-               }
-               
-               @Override
-               protected void done() {
-                   try {
-                       Delivery_InfDTO deliveryToEdit = get();
-                       
-                       if (deliveryToEdit == null) {
-                           showMessage("Cannot find the selected delivery in the database", JOptionPane.ERROR_MESSAGE);
-                           return;
-                       }
-                       
-                       // Open edit form
-                       ExportationDelivery deliveryForm = new ExportationDelivery(deliveryToEdit);
-                       deliveryForm.setVisible(true);
-                       
-                       // Refresh when done
-                       deliveryForm.addWindowListener(new java.awt.event.WindowAdapter() {
-                           @Override
-                           public void windowClosed(java.awt.event.WindowEvent e) {
-                               logger.info("Edit delivery form closed, refreshing data");
-                               loadDeliveriesAsync();
-                           }
-                       });
-                       
-                   } catch (Exception ex) {
-                       logger.log(Level.SEVERE, "Error loading delivery for edit", ex);
-                       showMessage("Error loading delivery: " + ex.getMessage(), JOptionPane.ERROR_MESSAGE);
-                   } finally {
-                       hideProgressBar();
+           dataAccess.submit("Load delivery " + deliveryId, () -> controller.getDeliveryById(deliveryId),
+               deliveryToEdit -> {
+                   hideProgressBar();
+                   
+                   if (deliveryToEdit == null) {
+                       showMessage("Cannot find the selected delivery in the database", JOptionPane.ERROR_MESSAGE);
+                       return;
                    }
-               }
-           };
-           
-           loadWorker.execute();
+                   
+                   // Open edit form
+                   ExportationDelivery deliveryForm = new ExportationDelivery(deliveryToEdit);
+                   deliveryForm.setVisible(true);
+                   
+                   // Refresh when done
+                   deliveryForm.addWindowListener(new java.awt.event.WindowAdapter() {
+                       @Override
+                       public void windowClosed(java.awt.event.WindowEvent e) {
+                           logger.info("Edit delivery form closed, refreshing data");
+                           loadDeliveriesAsync();
+                       }
+                   });
+               },
+               error -> {
+                   hideProgressBar();
+                   showMessage("Error loading delivery: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+               });
            
        } catch (Exception ex) {
            hideProgressBar();
@@ -1087,45 +1468,32 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
            showProgressBar("Deleting delivery...");
            
            // Delete in background
-           SwingWorker<Boolean, Void> deleteWorker = new SwingWorker<Boolean, Void>() {
-               @Override
-               protected Boolean doInBackground() throws Exception {
-                   return controller.deleteDelivery(deliveryId);
-               }
-               
-               @Override
-               protected void done() {
-                   try {
-                       boolean success = get();
-                       
-                       if (success) {
-                           JOptionPane.showMessageDialog(
-                               DeliveryManagementForm.this,
-                               "✓ Delivery deleted successfully!\n\n" +
-                               "Deleted: " + deliveryId,
-                               "Delete Successful",
-                               JOptionPane.INFORMATION_MESSAGE
-                           );
-                           logger.info("Successfully deleted delivery: " + deliveryId);
-                           loadDeliveriesAsync(); // Refresh table
-                       } else {
-                           showMessage(
-                               "Failed to delete delivery.\n" +
-                               "Please check the logs for details.",
-                               JOptionPane.ERROR_MESSAGE
-                           );
-                       }
-                       
-                   } catch (Exception ex) {
-                       logger.log(Level.SEVERE, "Error in delete operation", ex);
-                       showMessage("Delete error: " + ex.getMessage(), JOptionPane.ERROR_MESSAGE);
-                   } finally {
-                       hideProgressBar();
+           dataAccess.submit("Delete delivery " + deliveryId, () -> controller.deleteDelivery(deliveryId),
+               success -> {
+                   hideProgressBar();
+                   
+                   if (success) {
+                       JOptionPane.showMessageDialog(
+                           DeliveryManagementForm.this,
+                           "✓ Delivery deleted successfully!\n\n" +
+                           "Deleted: " + deliveryId,
+                           "Delete Successful",
+                           JOptionPane.INFORMATION_MESSAGE
+                       );
+                       logger.info("Successfully deleted delivery: " + deliveryId);
+                       loadDeliveriesAsync(); // Refresh table
+                   } else {
+                       showMessage(
+                           "Failed to delete delivery.\n" +
+                           "Please check the logs for details.",
+                           JOptionPane.ERROR_MESSAGE
+                       );
                    }
-               }
-           };
-           
-           deleteWorker.execute();
+               },
+               error -> {
+                   hideProgressBar();
+                   showMessage("Delete error: " + error.getMessage(), JOptionPane.ERROR_MESSAGE);
+               });
            
        } catch (Exception ex) {
            hideProgressBar();
@@ -1148,6 +1516,13 @@ public class DeliveryManagementForm extends javax.swing.JFrame {
            // Stop connection checker
            stopConnectionChecker();
            
+           // Drop a search still running in the background
+           cancelActiveSearch();
+           
+           // Stop receiving delivery changes
+           DeliveryChangeFeed.getInstance().removeListener(changeListener);
+           ReplicaSyncService.getInstance().removeListener(changeListener);
+           
            logger.info("DeliveryManagementForm disposed successfully");
        } catch (Exception e) {
            logger.log(Level.WARNING, "Error during form disposal", e);
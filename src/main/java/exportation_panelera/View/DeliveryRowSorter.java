@@ -0,0 +1,508 @@
+package exportation_panelera.View;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+/**
+ * Row sorter for the delivery table that sorts on primitive keys.
+ * Instead of comparing cell objects pair by pair through {@code Comparable}
+ * or a {@code Collator}, it reads one key per row up front into a
+ * {@code long[]}: epoch milliseconds for date columns and the number of IDs
+ * such as DEL000123. An {@code int[]} of row indexes is then merge-sorted on
+ * those keys. Other text columns are compared as strings, ignoring case.
+ * Rows with equal keys keep their model order.
+ * <p>
+ * Sorting can be handed to the database through {@link ServerSort}: the
+ * table then shows the rows in the order the model holds them and the
+ * sorter only keeps the sort key for the header arrow.
+ */
+public class DeliveryRowSorter extends RowSorter<DeliveryTableModel> {
+
+    /**
+     * Decides whether a click on a column header is answered by the database
+     */
+    public interface ServerSort {
+        /**
+         * @param column Model column to sort by
+         * @param order Requested order
+         * @return true if the rows will be reloaded in this order, false to sort the loaded rows
+         */
+        boolean sortOnServer(int column, SortOrder order);
+    }
+
+    private final DeliveryTableModel model;
+    private ServerSort serverSort;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private boolean serverOrdered;
+    private int modelRowCount;
+    private int[] viewToModel; // null while the view is in model order
+    private int[] modelToView; // built on first use
+    private RowKeys keys; // keys of the current sort, by model row
+
+    public DeliveryRowSorter(DeliveryTableModel model) {
+        this.model = model;
+        this.modelRowCount = model.getRowCount();
+    }
+
+    /**
+     * Let the database sort some columns; null sorts everything locally
+     */
+    public void setServerSort(ServerSort serverSort) {
+        this.serverSort = serverSort;
+    }
+
+    /**
+     * Whether the current order comes from the database
+     */
+    public boolean isServerOrdered() {
+        return serverOrdered;
+    }
+
+    @Override
+    public DeliveryTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (column < 0 || column >= model.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        SortOrder order = !sortKeys.isEmpty()
+                && sortKeys.get(0).getColumn() == column
+                && sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING
+            ? SortOrder.DESCENDING
+            : SortOrder.ASCENDING;
+        if (serverSort != null && serverSort.sortOnServer(column, order)) {
+            setServerOrder(column, order);
+            return;
+        }
+        setSortKeys(Collections.singletonList(new SortKey(column, order)));
+    }
+
+    /**
+     * Show the rows in model order, as loaded from the database in the given
+     * order, without asking {@link ServerSort}
+     */
+    public void setServerOrder(int column, SortOrder order) {
+        if (column < 0 || column >= model.getColumnCount()) {
+            throw new IndexOutOfBoundsException("Invalid column: " + column);
+        }
+        sortKeys = Collections.singletonList(new SortKey(column, order));
+        serverOrdered = true;
+        fireSortOrderChanged();
+        sort();
+    }
+
+    /**
+     * Set the sort keys and sort the loaded rows. Only the first key is used;
+     * ties are broken by model order.
+     */
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> copy = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey key : keys) {
+                if (key == null || key.getColumn() < 0 || key.getColumn() >= model.getColumnCount()) {
+                    throw new IllegalArgumentException("Invalid sort key: " + key);
+                }
+                copy.add(key);
+            }
+        }
+        sortKeys = Collections.unmodifiableList(copy);
+        serverOrdered = false;
+        fireSortOrderChanged();
+        sort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= modelRowCount) {
+            throw new IndexOutOfBoundsException("Invalid view index: " + index);
+        }
+        return viewToModel != null ? viewToModel[index] : index;
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= modelRowCount) {
+            throw new IndexOutOfBoundsException("Invalid model index: " + index);
+        }
+        if (viewToModel == null) {
+            return index;
+        }
+        if (modelToView == null) {
+            modelToView = new int[viewToModel.length];
+            for (int view = 0; view < viewToModel.length; view++) {
+                modelToView[viewToModel[view]] = view;
+            }
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return modelRowCount;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        modelRowCount = model.getRowCount();
+        sortKeys = Collections.emptyList();
+        serverOrdered = false;
+        sort();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        sortAfterChange();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        int previousCount = modelRowCount;
+        if (viewToModel == null || firstRow != previousCount || endRow != model.getRowCount() - 1) {
+            sortAfterChange();
+            return;
+        }
+
+        // Rows were appended: sort only the new ones and merge them in
+        RowKeys previousKeys = keys;
+        SortKey key = sortKeys.get(0);
+        RowKeys newKeys = RowKeys.of(model, key.getColumn());
+        if (previousKeys == null || newKeys.getClass() != previousKeys.getClass()) {
+            sortAfterChange();
+            return;
+        }
+
+        int[] previous = viewToModel;
+        modelRowCount = model.getRowCount();
+        keys = newKeys;
+        boolean descending = key.getSortOrder() == SortOrder.DESCENDING;
+        int[] added = new int[modelRowCount - previousCount];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = previousCount + i;
+        }
+        mergeSort(added, newKeys, descending);
+        viewToModel = merge(previous, added, newKeys, descending);
+        modelToView = null;
+        fireRowSorterChanged(previous);
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        sortAfterChange();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        if (firstRow != endRow || !moveUpdatedRow(firstRow)) {
+            sortAfterChange();
+        }
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        if (viewToModel != null && column != sortKeys.get(0).getColumn()) {
+            return; // The sort key did not change
+        }
+        rowsUpdated(firstRow, endRow);
+    }
+
+    /**
+     * Put one updated row at its new place without sorting everything again
+     *
+     * @return false if a full sort is needed instead
+     */
+    private boolean moveUpdatedRow(int row) {
+        if (viewToModel == null) {
+            return keys == null && row >= 0 && row < modelRowCount; // unsorted: nothing moves
+        }
+        SortKey key = sortKeys.get(0);
+        if (row < 0 || row >= modelRowCount || !keys.refresh(model, row, key.getColumn())) {
+            return false;
+        }
+        boolean descending = key.getSortOrder() == SortOrder.DESCENDING;
+
+        int[] previous = viewToModel.clone();
+        int from = convertRowIndexToView(row);
+        int count = viewToModel.length;
+        System.arraycopy(viewToModel, from + 1, viewToModel, from, count - from - 1);
+
+        // Binary search among the other rows; ties are ordered by model index
+        int lo = 0, hi = count - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int other = viewToModel[mid];
+            int cmp = keys.compare(other, row);
+            if (descending) {
+                cmp = -cmp;
+            }
+            if (cmp < 0 || (cmp == 0 && other < row)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        System.arraycopy(viewToModel, lo, viewToModel, lo + 1, count - 1 - lo);
+        viewToModel[lo] = row;
+        modelToView = null;
+        fireRowSorterChanged(previous);
+        return true;
+    }
+
+    private void sortAfterChange() {
+        int[] previous = currentMapping();
+        modelRowCount = model.getRowCount();
+        apply(previous);
+    }
+
+    private void sort() {
+        apply(currentMapping());
+    }
+
+    private void apply(int[] previous) {
+        boolean wasSorted = viewToModel != null;
+        modelToView = null;
+
+        if (sortKeys.isEmpty() || serverOrdered || sortKeys.get(0).getSortOrder() == SortOrder.UNSORTED) {
+            viewToModel = null;
+            keys = null;
+            if (wasSorted) {
+                fireRowSorterChanged(previous);
+            }
+            return;
+        }
+
+        SortKey key = sortKeys.get(0);
+        keys = RowKeys.of(model, key.getColumn());
+        int[] order = new int[modelRowCount];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        mergeSort(order, keys, key.getSortOrder() == SortOrder.DESCENDING);
+        viewToModel = order;
+        fireRowSorterChanged(previous);
+    }
+
+    private int[] currentMapping() {
+        if (viewToModel != null) {
+            return viewToModel.clone();
+        }
+        int[] identity = new int[modelRowCount];
+        for (int i = 0; i < identity.length; i++) {
+            identity[i] = i;
+        }
+        return identity;
+    }
+
+    /**
+     * Stable bottom-up merge sort of row indexes by key
+     */
+    static void mergeSort(int[] rows, RowKeys keys, boolean descending) {
+        int[] source = rows;
+        int[] target = new int[rows.length];
+        for (int width = 1; width < rows.length; width <<= 1) {
+            for (int lo = 0; lo < rows.length; lo += width << 1) {
+                int mid = Math.min(lo + width, rows.length);
+                int hi = Math.min(lo + (width << 1), rows.length);
+                mergeRuns(source, lo, mid, hi, target, keys, descending);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != rows) {
+            System.arraycopy(source, 0, rows, 0, rows.length);
+        }
+    }
+
+    private static void mergeRuns(int[] source, int lo, int mid, int hi, int[] target,
+                                  RowKeys keys, boolean descending) {
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi) {
+            // Take from the left run on ties so equal keys keep their order
+            int cmp = keys.compare(source[i], source[j]);
+            if (descending ? cmp >= 0 : cmp <= 0) {
+                target[k++] = source[i++];
+            } else {
+                target[k++] = source[j++];
+            }
+        }
+        while (i < mid) target[k++] = source[i++];
+        while (j < hi) target[k++] = source[j++];
+    }
+
+    private static int[] merge(int[] sorted, int[] added, RowKeys keys, boolean descending) {
+        int[] merged = new int[sorted.length + added.length];
+        System.arraycopy(sorted, 0, merged, 0, sorted.length);
+        System.arraycopy(added, 0, merged, sorted.length, added.length);
+        int[] target = new int[merged.length];
+        mergeRuns(merged, 0, sorted.length, merged.length, target, keys, descending);
+        return target;
+    }
+
+    /**
+     * Sort keys of one column, indexed by model row
+     */
+    abstract static class RowKeys {
+
+        abstract int compare(int rowA, int rowB);
+
+        /**
+         * Re-read the key of one row after its value changed
+         *
+         * @return false if the new value does not fit these keys
+         */
+        abstract boolean refresh(DeliveryTableModel model, int row, int column);
+
+        /**
+         * Read the keys of a column: dates and prefixed numeric IDs become
+         * longs, anything else is compared as text
+         */
+        static RowKeys of(DeliveryTableModel model, int column) {
+            int rows = model.getRowCount();
+            if (Date.class.isAssignableFrom(model.getColumnClass(column))) {
+                long[] values = new long[rows];
+                for (int row = 0; row < rows; row++) {
+                    values[row] = LongKeys.dateKey(model.getValueAt(row, column));
+                }
+                return new LongKeys(values, null);
+            }
+
+            String[] text = new String[rows];
+            for (int row = 0; row < rows; row++) {
+                Object value = model.getValueAt(row, column);
+                text[row] = value != null ? value.toString() : null;
+            }
+            LongKeys ids = LongKeys.parseIds(text);
+            return ids != null ? ids : new TextKeys(text);
+        }
+    }
+
+    static final class LongKeys extends RowKeys {
+        private final long[] values;
+        private final String idPrefix; // null for dates
+
+        LongKeys(long[] values, String idPrefix) {
+            this.values = values;
+            this.idPrefix = idPrefix;
+        }
+
+        @Override
+        int compare(int rowA, int rowB) {
+            return Long.compare(values[rowA], values[rowB]);
+        }
+
+        @Override
+        boolean refresh(DeliveryTableModel model, int row, int column) {
+            Object value = model.getValueAt(row, column);
+            if (idPrefix == null) {
+                values[row] = dateKey(value);
+                return true;
+            }
+            long number = value != null ? idNumber(value.toString(), idPrefix) : Long.MIN_VALUE;
+            if (number == NOT_AN_ID) {
+                return false;
+            }
+            values[row] = number;
+            return true;
+        }
+
+        static long dateKey(Object value) {
+            return value instanceof Date date ? date.getTime() : Long.MIN_VALUE;
+        }
+
+        /**
+         * Keys for IDs made of a common letter prefix and digits, such as
+         * DEL000123 or EXP45, with nulls sorted first
+         *
+         * @return The keys, or null if any value is not such an ID
+         */
+        static LongKeys parseIds(String[] text) {
+            long[] numbers = new long[text.length];
+            String prefix = null;
+            for (int row = 0; row < text.length; row++) {
+                String value = text[row];
+                if (value == null) {
+                    numbers[row] = Long.MIN_VALUE;
+                    continue;
+                }
+                if (prefix == null) {
+                    int letters = 0;
+                    while (letters < value.length() && Character.isLetter(value.charAt(letters))) {
+                        letters++;
+                    }
+                    prefix = value.substring(0, letters);
+                }
+                numbers[row] = idNumber(value, prefix);
+                if (numbers[row] == NOT_AN_ID) {
+                    return null;
+                }
+            }
+            return new LongKeys(numbers, prefix != null ? prefix : "");
+        }
+
+        private static final long NOT_AN_ID = -1;
+
+        /**
+         * Number of an ID with the given prefix followed by 1 to 18 digits
+         *
+         * @return The number, or {@link #NOT_AN_ID}
+         */
+        private static long idNumber(String value, String prefix) {
+            int length = value.length() - prefix.length();
+            if (length <= 0 || length > 18 || !value.startsWith(prefix)) {
+                return NOT_AN_ID;
+            }
+            long number = 0;
+            for (int i = prefix.length(); i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return NOT_AN_ID;
+                }
+                number = number * 10 + (c - '0');
+            }
+            return number;
+        }
+    }
+
+    static final class TextKeys extends RowKeys {
+        private final String[] values;
+
+        TextKeys(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int compare(int rowA, int rowB) {
+            String a = values[rowA];
+            String b = values[rowB];
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : -1) : 1;
+            }
+            return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+        }
+
+        @Override
+        boolean refresh(DeliveryTableModel model, int row, int column) {
+            Object value = model.getValueAt(row, column);
+            values[row] = value != null ? value.toString() : null;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package exportation_panelera.View;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Read-only table model for the delivery list.
+ * Adds bulk operations on top of {@link DefaultTableModel}: a whole result
+ * set is swapped in as a new backing vector with a single
+ * {@code fireTableDataChanged}, and a batch of rows is appended with a single
+ * {@code fireTableRowsInserted}, instead of one event per row. Single
+ * deliveries can be updated or removed in place by their delivery ID.
+ */
+public class DeliveryTableModel extends DefaultTableModel {
+
+    static final String[] COLUMN_NAMES = {
+        "ID", "Export ID", "Tracking #", "Notes", "Delivery Date", "Status", "Created At", "Updated At"
+    };
+
+    // Model row of each delivery ID; rebuilt on demand after rows move
+    private Map<Object, Integer> rowIndex;
+
+    public DeliveryTableModel() {
+        super(new Object[][] {}, COLUMN_NAMES);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Keep table read-only
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        if (columnIndex == 4 || columnIndex == 6 || columnIndex == 7) {
+            return Date.class; // Date columns for proper sorting
+        }
+        return String.class;
+    }
+
+    /**
+     * Replace every row, firing one data-changed event
+     *
+     * @param rows New rows, each in column order
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void replaceRows(List<Object[]> rows) {
+        Vector<Vector> data = new Vector<>(Math.max(rows.size(), 10));
+        for (Object[] row : rows) {
+            data.add(toVector(row));
+        }
+        dataVector = data;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Append rows at the end, firing one rows-inserted event
+     *
+     * @param rows Rows to add, each in column order
+     */
+    @SuppressWarnings("unchecked")
+    public void appendRows(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int first = dataVector.size();
+        dataVector.ensureCapacity(first + rows.size());
+        for (Object[] row : rows) {
+            dataVector.add(toVector(row));
+        }
+        fireTableRowsInserted(first, dataVector.size() - 1);
+    }
+
+    /**
+     * Replace the row with the same delivery ID, firing a rows-updated event
+     * for that row only
+     *
+     * @param row New row, in column order
+     * @return false if no row has that delivery ID
+     */
+    @SuppressWarnings("unchecked")
+    public boolean updateRow(Object[] row) {
+        int index = indexOf(row[0]);
+        if (index < 0) {
+            return false;
+        }
+        dataVector.set(index, toVector(row));
+        fireTableRowsUpdated(index, index);
+        return true;
+    }
+
+    /**
+     * Remove the row with the given delivery ID
+     *
+     * @return false if no row has that delivery ID
+     */
+    public boolean removeDelivery(String deliveryId) {
+        int index = indexOf(deliveryId);
+        if (index < 0) {
+            return false;
+        }
+        removeRow(index);
+        return true;
+    }
+
+    /**
+     * Model row holding a delivery ID
+     *
+     * @return The row, or -1 if absent
+     */
+    public int indexOf(Object deliveryId) {
+        if (deliveryId == null) {
+            return -1;
+        }
+        Integer index = rowIndex().get(deliveryId);
+        if (index != null && index < getRowCount() && deliveryId.equals(getValueAt(index, 0))) {
+            return index;
+        }
+        if (index != null) {
+            // Stale lookup; rebuild and try once more
+            rowIndex = null;
+            index = rowIndex().get(deliveryId);
+        }
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Forget the delivery ID lookup whenever rows are added, removed or
+     * replaced, or an ID cell is edited; other row updates keep it
+     */
+    @Override
+    public void fireTableChanged(TableModelEvent e) {
+        if (e.getType() != TableModelEvent.UPDATE || e.getLastRow() == Integer.MAX_VALUE
+                || e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getColumn() == 0) {
+            rowIndex = null;
+        }
+        super.fireTableChanged(e);
+    }
+
+    private Map<Object, Integer> rowIndex() {
+        if (rowIndex == null) {
+            rowIndex = new HashMap<>(Math.max(16, getRowCount() * 2));
+            for (int row = 0; row < getRowCount(); row++) {
+                Object id = getValueAt(row, 0);
+                if (id != null) {
+                    rowIndex.putIfAbsent(id, row);
+                }
+            }
+        }
+        return rowIndex;
+    }
+
+    private Vector<Object> toVector(Object[] row) {
+        Vector<Object> values = new Vector<>(COLUMN_NAMES.length);
+        for (int column = 0; column < COLUMN_NAMES.length; column++) {
+            values.add(row != null && column < row.length ? row[column] : null);
+        }
+        return values;
+    }
+}
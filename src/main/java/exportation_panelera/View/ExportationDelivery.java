@@ -3,7 +3,17 @@ package exportation_panelera.View;
 import exportation_panelera.controller.DeliveryController;
 import exportation_panelera.Model.Delivery_InfDTO;
 import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ExportationDeliveryDAO;
+import exportation_panelera.dao.ReferenceDataDAO;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.service.CurrencyService;
+import exportation_panelera.service.DataAccessExecutor;
+import exportation_panelera.service.IdAllocator;
+import exportation_panelera.service.ReferenceData;
+import exportation_panelera.service.ReferenceDataService;
+import exportation_panelera.service.ShippingRateService;
+import exportation_panelera.service.TrackingNumberService;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -11,18 +21,17 @@ import javax.swing.border.LineBorder;
 import javax.swing.border.TitledBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
 import java.sql.*;
 
 // Additional import for SwingUtilities
@@ -44,76 +53,8 @@ public class ExportationDelivery extends JFrame {
     private static final Font LABEL_FONT = new Font("Segoe UI", Font.BOLD, 14);
     private static final Font INPUT_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     
-    // Exchange rates (currency code -> rate to USD)
-    private static final Map<String, BigDecimal> EXCHANGE_RATES = new HashMap<>();
-    
-    // Country abbreviations for tracking numbers
-    private static final Map<String, String> COUNTRY_ABBREVIATIONS = new HashMap<>();
-    
-    // Initialize with common exchange rates
-    static {
-        // Base currency is USD (1.0)
-        EXCHANGE_RATES.put("USD", BigDecimal.ONE);
-        EXCHANGE_RATES.put("EUR", new BigDecimal("0.91")); // 1 USD = 0.91 EUR
-        EXCHANGE_RATES.put("GBP", new BigDecimal("0.78")); // 1 USD = 0.78 GBP
-        EXCHANGE_RATES.put("CAD", new BigDecimal("1.35")); // 1 USD = 1.35 CAD
-        EXCHANGE_RATES.put("COP", new BigDecimal("3900")); // 1 USD = 3900 COP (Colombian Peso)
-        EXCHANGE_RATES.put("MXN", new BigDecimal("17.50")); // 1 USD = 17.50 MXN
-        EXCHANGE_RATES.put("JPY", new BigDecimal("107.8")); // 1 USD = 107.8 JPY
-        
-        // Initialize country abbreviations for tracking numbers
-        COUNTRY_ABBREVIATIONS.put("United States", "US");
-        COUNTRY_ABBREVIATIONS.put("Canada", "CA");
-        COUNTRY_ABBREVIATIONS.put("Mexico", "MX");
-        COUNTRY_ABBREVIATIONS.put("Brazil", "BR");
-        COUNTRY_ABBREVIATIONS.put("Colombia", "CO");
-        COUNTRY_ABBREVIATIONS.put("United Kingdom", "UK");
-        COUNTRY_ABBREVIATIONS.put("France", "FR");
-        COUNTRY_ABBREVIATIONS.put("Germany", "DE");
-        COUNTRY_ABBREVIATIONS.put("Spain", "ES");
-        COUNTRY_ABBREVIATIONS.put("Italy", "IT");
-        COUNTRY_ABBREVIATIONS.put("China", "CN");
-        COUNTRY_ABBREVIATIONS.put("Japan", "JP");
-        COUNTRY_ABBREVIATIONS.put("South Korea", "KR");
-        COUNTRY_ABBREVIATIONS.put("Australia", "AU");
-        COUNTRY_ABBREVIATIONS.put("Netherlands", "NL");
-        COUNTRY_ABBREVIATIONS.put("Belgium", "BE");
-        COUNTRY_ABBREVIATIONS.put("Switzerland", "CH");
-        COUNTRY_ABBREVIATIONS.put("Sweden", "SE");
-        COUNTRY_ABBREVIATIONS.put("Norway", "NO");
-        COUNTRY_ABBREVIATIONS.put("Denmark", "DK");
-        COUNTRY_ABBREVIATIONS.put("Finland", "FI");
-        COUNTRY_ABBREVIATIONS.put("Poland", "PL");
-        COUNTRY_ABBREVIATIONS.put("Czech Republic", "CZ");
-        COUNTRY_ABBREVIATIONS.put("Hungary", "HU");
-        COUNTRY_ABBREVIATIONS.put("Greece", "GR");
-        COUNTRY_ABBREVIATIONS.put("Portugal", "PT");
-        COUNTRY_ABBREVIATIONS.put("Turkey", "TR");
-        COUNTRY_ABBREVIATIONS.put("Russia", "RU");
-        COUNTRY_ABBREVIATIONS.put("India", "IN");
-        COUNTRY_ABBREVIATIONS.put("Thailand", "TH");
-        COUNTRY_ABBREVIATIONS.put("Singapore", "SG");
-        COUNTRY_ABBREVIATIONS.put("Malaysia", "MY");
-        COUNTRY_ABBREVIATIONS.put("Indonesia", "ID");
-        COUNTRY_ABBREVIATIONS.put("Philippines", "PH");
-        COUNTRY_ABBREVIATIONS.put("Vietnam", "VN");
-        COUNTRY_ABBREVIATIONS.put("South Africa", "ZA");
-        COUNTRY_ABBREVIATIONS.put("Egypt", "EG");
-        COUNTRY_ABBREVIATIONS.put("Nigeria", "NG");
-        COUNTRY_ABBREVIATIONS.put("Argentina", "AR");
-        COUNTRY_ABBREVIATIONS.put("Chile", "CL");
-        COUNTRY_ABBREVIATIONS.put("Peru", "PE");
-        COUNTRY_ABBREVIATIONS.put("Ecuador", "EC");
-        COUNTRY_ABBREVIATIONS.put("Uruguay", "UY");
-        COUNTRY_ABBREVIATIONS.put("Venezuela", "VE");
-        COUNTRY_ABBREVIATIONS.put("Costa Rica", "CR");
-        COUNTRY_ABBREVIATIONS.put("Panama", "PA");
-        COUNTRY_ABBREVIATIONS.put("Guatemala", "GT");
-        COUNTRY_ABBREVIATIONS.put("Honduras", "HN");
-        COUNTRY_ABBREVIATIONS.put("El Salvador", "SV");
-        COUNTRY_ABBREVIATIONS.put("Nicaragua", "NI");
-        COUNTRY_ABBREVIATIONS.put("Other", "XX"); // Default for "Other"
-    }
+    // Destinations, currencies, shipping methods and carriers offered by the form
+    private ReferenceData referenceData = ReferenceDataService.getInstance().getData();
     
     // Controllers
     private DeliveryController exportationController;
@@ -143,7 +84,7 @@ public class ExportationDelivery extends JFrame {
     
     // Delivery components
     private JTextField txtDeliveryID;
-    private JTextField txtCarrierName;
+    private JComboBox<String> cmbCarrier;
     private JTextField txtTrackingNumber;
     private JTextArea txtAddress;
     private JTextField txtContactPerson;
@@ -177,6 +118,13 @@ public class ExportationDelivery extends JFrame {
     private String currentExportationId;
     private boolean isEditMode = false;
     
+    // Shown as the delivery ID of a delivery that is not saved yet
+    private static final String DELIVERY_ID_PENDING = "Assigned on save";
+    
+    // Placeholder shown in fields until the record being edited is loaded
+    private static final String LOADING_TEXT = "Loading...";
+    private List<JTextComponent> loadingFields = List.of();
+    
     /**
      * Default constructor - Create a new form for adding a new exportation and delivery
      */
@@ -192,9 +140,6 @@ public class ExportationDelivery extends JFrame {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setSize(1000, 700);
         setLocationRelativeTo(null);
-        
-        // Generate a new exportation ID
-        generateExportationId();
     }
     
     /**
@@ -208,20 +153,16 @@ public class ExportationDelivery extends JFrame {
         if (deliveryToEdit != null) {
             isEditMode = true;
             
+            setTitle("Edit Exportation & Delivery");
+            
             // Load delivery data
             populateDeliveryFields(deliveryToEdit);
             
             // If there's an associated exportation, load that too
             if (deliveryToEdit.getExportId() != null) {
                 currentExportationId = deliveryToEdit.getExportId();
-                
-                Exportation_InfDTO exportation = exportationController.getExportationById(currentExportationId);
-                if (exportation != null) {
-                    populateExportationFields(exportation);
-                }
+                loadForEdit(currentExportationId, false);
             }
-            
-            setTitle("Edit Exportation & Delivery");
         }
     }
     
@@ -234,25 +175,79 @@ public class ExportationDelivery extends JFrame {
         
         isEditMode = true;
         currentExportationId = exportationId;
+        setTitle("Edit Exportation & Delivery");
         
-        // Load exportation data
-        Exportation_InfDTO exportation = exportationController.getExportationById(exportationId);
-        if (exportation != null) {
-            populateExportationFields(exportation);
+        // Load exportation and delivery data
+        loadForEdit(exportationId, true);
+    }
+    
+    /**
+     * Load the records being edited in the background. The form shows at
+     * once with placeholders, which are replaced when the data arrives.
+     * 
+     * @param exportationId The exportation to load
+     * @param includeDelivery Whether to load its delivery as well
+     */
+    private void loadForEdit(String exportationId, boolean includeDelivery) {
+        showLoadingPlaceholders(exportationId, includeDelivery);
+        
+        DataAccessExecutor.getInstance().submit("Load exportation " + exportationId,
+                () -> includeDelivery
+                        ? exportationController.loadExportationDetails(exportationId)
+                        : new DeliveryController.ExportationDetails(
+                                exportationController.getExportationById(exportationId), null),
+                details -> {
+                    clearLoadingPlaceholders();
+                    populateExportationFields(details.exportation());
+                    populateDeliveryFields(details.delivery());
+                },
+                error -> {
+                    clearLoadingPlaceholders();
+                    JOptionPane.showMessageDialog(this,
+                            "Could not load exportation " + exportationId + ": " + error.getMessage(),
+                            "Load Error",
+                            JOptionPane.ERROR_MESSAGE);
+                });
+    }
+    
+    /**
+     * Disable the fields still being loaded and mark them as loading
+     */
+    private void showLoadingPlaceholders(String exportationId, boolean includeDelivery) {
+        txtExportationID.setText(exportationId);
+        
+        List<JTextComponent> fields = new ArrayList<>(List.of(txtQuantity, txtUnitPrice, txtTotalPrice));
+        if (includeDelivery) {
+            fields.addAll(List.of(txtDeliveryID, txtTrackingNumber, txtAddress,
+                    txtContactPerson, txtContactPhone, txtNotes));
+            cmbCarrier.setEnabled(false);
         }
-        
-        // Load delivery data if available
-        Delivery_InfDTO delivery = deliveryController.getDeliveryByExportId(exportationId);
-        if (delivery != null) {
-            populateDeliveryFields(delivery);
+        for (JTextComponent field : fields) {
+            field.setText(LOADING_TEXT);
+            field.setEnabled(false);
         }
-        
-        setTitle("Edit Exportation & Delivery");
+        loadingFields = fields;
+        btnSaveAll.setEnabled(false);
+    }
+    
+    /**
+     * Empty and enable the fields marked as loading; what was not found stays blank
+     */
+    private void clearLoadingPlaceholders() {
+        for (JTextComponent field : loadingFields) {
+            if (LOADING_TEXT.equals(field.getText())) {
+                field.setText("");
+            }
+            field.setEnabled(true);
+        }
+        cmbCarrier.setEnabled(true);
+        loadingFields = List.of();
+        btnSaveAll.setEnabled(true);
     }
     
     /**
      * NEW: Generate automatic tracking number based on selected destination
-     * Format: TRK + 9 digits + Country Code (e.g., TRK123456789US, TRK345678901JP)
+     * Format: TRK + day + sequence + check digit + Country Code (e.g., TRK2610190004299US)
      */
     private void generateTrackingNumber() {
         String selectedCountry = (String) cmbDestination.getSelectedItem();
@@ -266,42 +261,34 @@ public class ExportationDelivery extends JFrame {
         }
         
         // Get country abbreviation
-        String countryCode = COUNTRY_ABBREVIATIONS.get(selectedCountry);
-        if (countryCode == null) {
-            countryCode = "XX"; // Default for unknown countries
-        }
-        
-        // Generate tracking number format: TRK + 9 random digits + Country Code
-        // Example: TRK123456789US, TRK345678901JP, etc.
-        
-        // Generate 9 random digits
-        Random random = new Random();
-        StringBuilder nineDigits = new StringBuilder();
-        
-        // First digit should not be 0 to ensure we always have 9 digits
-        nineDigits.append(random.nextInt(9) + 1); // 1-9
-        
-        // Remaining 8 digits can be 0-9
-        for (int i = 0; i < 8; i++) {
-            nineDigits.append(random.nextInt(10)); // 0-9
-        }
-        
-        // Create the tracking number: TRK + 9digits + CountryCode
-        String trackingNumber = "TRK" + nineDigits.toString() + countryCode;
-        
-        // Set the tracking number in the field
-        txtTrackingNumber.setText(trackingNumber);
-        
-        logger.info("Generated tracking number: " + trackingNumber + " for country: " + selectedCountry);
-        
-        // Show confirmation message
-        JOptionPane.showMessageDialog(this,
-                "Tracking number generated successfully!\n\n" +
-                "Country: " + selectedCountry + " (" + countryCode + ")\n" +
-                "Tracking Number: " + trackingNumber +
-                "\n\nFormat: TRK + 9 digits + Country Code",
-                "Tracking Number Generated",
-                JOptionPane.INFORMATION_MESSAGE);
+        String countryCode = referenceData.countryCode(selectedCountry);
+        
+        btnGenerateTracking.setEnabled(false);
+        DataAccessExecutor.getInstance().submit("Generate tracking number",
+                () -> TrackingNumberService.getInstance().next(countryCode),
+                trackingNumber -> {
+                    btnGenerateTracking.setEnabled(true);
+                    txtTrackingNumber.setText(trackingNumber);
+                    
+                    logger.info("Generated tracking number: " + trackingNumber + " for country: " + selectedCountry);
+                    
+                    // Show confirmation message
+                    JOptionPane.showMessageDialog(this,
+                            "Tracking number generated successfully!\n\n" +
+                            "Country: " + selectedCountry + " (" + countryCode + ")\n" +
+                            "Tracking Number: " + trackingNumber +
+                            "\n\nFormat: TRK + date + sequence + check digit + Country Code",
+                            "Tracking Number Generated",
+                            JOptionPane.INFORMATION_MESSAGE);
+                },
+                error -> {
+                    btnGenerateTracking.setEnabled(true);
+                    JOptionPane.showMessageDialog(this,
+                            "Could not generate a tracking number: " + error.getMessage() +
+                            "\n\nPlease enter the tracking number manually.",
+                            "Tracking Number Not Generated",
+                            JOptionPane.WARNING_MESSAGE);
+                });
     }
     
     /**
@@ -327,7 +314,7 @@ public class ExportationDelivery extends JFrame {
     }
     
     /**
-     * Convert currency using our exchange rates
+     * Convert currency using the current exchange rates
      * 
      * @param amount The amount to convert
      * @param fromCurrency The source currency code
@@ -335,32 +322,7 @@ public class ExportationDelivery extends JFrame {
      * @return The converted amount
      */
     private BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
-        // If same currency, return the amount
-        if (fromCurrency.equals(toCurrency)) {
-            return amount;
-        }
-        
-        // Validate currencies
-        if (!EXCHANGE_RATES.containsKey(fromCurrency) || !EXCHANGE_RATES.containsKey(toCurrency)) {
-            throw new IllegalArgumentException("Unsupported currency");
-        }
-        
-        // Convert to USD first (if not already in USD)
-        BigDecimal amountInUSD;
-        if (fromCurrency.equals("USD")) {
-            amountInUSD = amount;
-        } else {
-            BigDecimal fromRate = EXCHANGE_RATES.get(fromCurrency);
-            amountInUSD = amount.divide(fromRate, 10, RoundingMode.HALF_UP);
-        }
-        
-        // Convert from USD to target currency
-        if (toCurrency.equals("USD")) {
-            return amountInUSD;
-        } else {
-            BigDecimal toRate = EXCHANGE_RATES.get(toCurrency);
-            return amountInUSD.multiply(toRate);
-        }
+        return CurrencyService.getInstance().convert(amount, fromCurrency, toCurrency);
     }
     
     /**
@@ -371,20 +333,7 @@ public class ExportationDelivery extends JFrame {
      * @return The exchange rate
      */
     private BigDecimal getExchangeRate(String fromCurrency, String toCurrency) {
-        // Validate currencies
-        if (!EXCHANGE_RATES.containsKey(fromCurrency) || !EXCHANGE_RATES.containsKey(toCurrency)) {
-            throw new IllegalArgumentException("Unsupported currency");
-        }
-        
-        // If same currency, rate is 1:1
-        if (fromCurrency.equals(toCurrency)) {
-            return BigDecimal.ONE;
-        }
-        
-        BigDecimal fromRate = EXCHANGE_RATES.get(fromCurrency);
-        BigDecimal toRate = EXCHANGE_RATES.get(toCurrency);
-        
-        return toRate.divide(fromRate, 10, RoundingMode.HALF_UP);
+        return CurrencyService.getInstance().getRate(fromCurrency, toCurrency);
     }
     
     /**
@@ -441,28 +390,14 @@ public class ExportationDelivery extends JFrame {
         JLabel lblTotalPrice = new JLabel("Total Price:");
         
         txtExportationID = new JTextField(20);
-        cmbProductType = new JComboBox<>(new String[] {
-            "Panela", "Syrup", "Sugar", "Wine", "Ethanol"
-        });
+        cmbProductType = new JComboBox<>(referenceData.getProductTypes().toArray(new String[0]));
         txtQuantity = new JTextField(10);
-        cmbDestination = new JComboBox<>(new String[] {
-            "United States", "Canada", "Mexico", "Brazil", "Colombia", 
-            "United Kingdom", "France", "Germany", "Spain", "Italy", 
-            "China", "Japan", "South Korea", "Australia", "Netherlands",
-            "Belgium", "Switzerland", "Sweden", "Norway", "Denmark",
-            "Finland", "Poland", "Czech Republic", "Hungary", "Greece",
-            "Portugal", "Turkey", "Russia", "India", "Thailand",
-            "Singapore", "Malaysia", "Indonesia", "Philippines", "Vietnam",
-            "South Africa", "Egypt", "Nigeria", "Argentina", "Chile",
-            "Peru", "Ecuador", "Uruguay", "Venezuela", "Costa Rica",
-            "Panama", "Guatemala", "Honduras", "El Salvador", "Nicaragua",
-            "Other"
-        });
+        cmbDestination = new JComboBox<>(referenceData.getDestinations().toArray(new String[0]));
         dateExport = new com.toedter.calendar.JDateChooser();
         dateExport.setDateFormatString("yyyy-MM-dd");
         
         txtUnitPrice = new JTextField(10);
-        cmbCurrency = new JComboBox<>(EXCHANGE_RATES.keySet().toArray(new String[0]));
+        cmbCurrency = new JComboBox<>(referenceData.getCurrencies().toArray(new String[0]));
         txtTotalPrice = new JTextField(15);
         txtTotalPrice.setEditable(false);
         
@@ -478,7 +413,7 @@ public class ExportationDelivery extends JFrame {
                 SECONDARY_COLOR));
         
         lblConvertedPrice = new JLabel("Converted Price:");
-        cmbTargetCurrency = new JComboBox<>(EXCHANGE_RATES.keySet().toArray(new String[0]));
+        cmbTargetCurrency = new JComboBox<>(referenceData.getCurrencies().toArray(new String[0]));
         cmbTargetCurrency.setSelectedItem("EUR"); // Default target currency
         txtConvertedPrice = new JTextField(15);
         txtConvertedPrice.setEditable(false);
@@ -652,7 +587,7 @@ public class ExportationDelivery extends JFrame {
         JLabel lblNotes = new JLabel("Notes:");
         
         txtDeliveryID = new JTextField(20);
-        txtCarrierName = new JTextField(20);
+        cmbCarrier = new JComboBox<>(referenceData.getCarriers().toArray(new String[0]));
         txtTrackingNumber = new JTextField(20);
         txtAddress = new JTextArea(5, 20);
         JScrollPane scrollAddress = new JScrollPane(txtAddress);
@@ -697,7 +632,7 @@ public class ExportationDelivery extends JFrame {
         gbc.gridx = 1;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.weightx = 1.0;
-        panel.add(txtCarrierName, gbc);
+        panel.add(cmbCarrier, gbc);
         
         // Tracking Number
         row++;
@@ -828,9 +763,7 @@ public class ExportationDelivery extends JFrame {
         JLabel lblTotalShippingCost = new JLabel("Total Shipping Cost:");
         JLabel lblShippingCurrency = new JLabel("Currency:");
         
-        cmbShippingMethod = new JComboBox<>(new String[] {
-            "Air Freight", "Sea Freight", "Road Transport", "Rail Transport", "Express Courier"
-        });
+        cmbShippingMethod = new JComboBox<>(referenceData.getShippingMethods().toArray(new String[0]));
         txtWeight = new JTextField(10);
         txtDistance = new JTextField(10);
         txtBaseCost = new JTextField(10);
@@ -839,7 +772,7 @@ public class ExportationDelivery extends JFrame {
         txtTotalShippingCost = new JTextField(15);
         txtTotalShippingCost.setEditable(false);
         
-        cmbShippingCurrency = new JComboBox<>(EXCHANGE_RATES.keySet().toArray(new String[0]));
+        cmbShippingCurrency = new JComboBox<>(referenceData.getCurrencies().toArray(new String[0]));
         cmbShippingCurrency.setSelectedItem("USD"); // Default to USD
         
         lblShippingConvertedCost = new JLabel("Converted Cost:");
@@ -1032,7 +965,6 @@ public class ExportationDelivery extends JFrame {
         customizeTextField(txtTotalPrice);
         customizeTextField(txtConvertedPrice);
         customizeTextField(txtDeliveryID);
-        customizeTextField(txtCarrierName);
         customizeTextField(txtTrackingNumber);
         customizeTextField(txtContactPerson);
         customizeTextField(txtContactPhone);
@@ -1050,6 +982,7 @@ public class ExportationDelivery extends JFrame {
         customizeComboBox(cmbTargetCurrency);
         customizeComboBox(cmbStatus);
         customizeComboBox(cmbShippingMethod);
+        customizeComboBox(cmbCarrier);
         customizeComboBox(cmbShippingCurrency);
         
         // Style all text areas
@@ -1235,37 +1168,43 @@ public class ExportationDelivery extends JFrame {
     }
     
     /**
-     * Generate a unique exportation ID that fits in your database
+     * Take the next exportation ID from the shared database sequence, so
+     * that forms open on different machines never pick the same one. The
+     * save button stays disabled until the ID arrives.
      */
     private void generateExportationId() {
-        // Generate a smaller, manageable ID instead of using full timestamp
-        long timestamp = System.currentTimeMillis();
-        
-        // Use last 6 digits of timestamp
-        int smallId = (int) (timestamp % 999999) + 1; // Ensures 1-999999
-        String id = "EXP" + String.format("%06d", smallId);
-        
-        txtExportationID.setText(id);
+        txtExportationID.setText("");
         txtExportationID.setEditable(false);
-        
-        logger.info("Generated Exportation ID: " + id + " (numeric part: " + smallId + ")");
+        btnSaveAll.setEnabled(false);
+        
+        DataAccessExecutor.getInstance().submit("Allocate exportation ID",
+                () -> IdAllocator.getInstance(IdAllocator.EXPORTATION_SEQUENCE).next(),
+                id -> {
+                    if (isEditMode) {
+                        return; // The form was opened on an existing exportation meanwhile
+                    }
+                    String exportationId = "EXP" + String.format("%06d", id);
+                    txtExportationID.setText(exportationId);
+                    btnSaveAll.setEnabled(true);
+                    logger.info("Generated Exportation ID: " + exportationId);
+                },
+                error -> {
+                    if (isEditMode) {
+                        return;
+                    }
+                    // Without the database the ID has to be typed in
+                    txtExportationID.setEditable(true);
+                    btnSaveAll.setEnabled(true);
+                });
     }
     
     /**
-     * Generate a unique delivery ID that fits in your database
+     * Show the delivery ID of a new delivery. It is derived from the
+     * database row (DEL000123), so it is only known once the delivery is saved.
      */
     private void generateDeliveryId() {
-        // Generate a smaller, manageable ID instead of using full timestamp
-        long timestamp = System.currentTimeMillis();
-        
-        // Use last 6 digits of timestamp + offset to avoid conflicts
-        int smallId = (int) ((timestamp + 1000) % 999999) + 1; // Ensures 1-999999
-        String id = "DEL" + String.format("%06d", smallId);
-        
-        txtDeliveryID.setText(id);
+        txtDeliveryID.setText(DELIVERY_ID_PENDING);
         txtDeliveryID.setEditable(false);
-        
-        logger.info("Generated Delivery ID: " + id + " (numeric part: " + smallId + ")");
     }
     
     /**
@@ -1277,16 +1216,19 @@ public class ExportationDelivery extends JFrame {
                 BigDecimal unitPrice = new BigDecimal(txtUnitPrice.getText().trim());
                 int quantity = Integer.parseInt(txtQuantity.getText().trim());
                 
-                BigDecimal totalPrice = unitPrice.multiply(new BigDecimal(quantity));
                 String currencyCode = (String) cmbCurrency.getSelectedItem();
                 
+                // Rounded to the currency's minor unit, as it will be invoiced
+                BigDecimal totalPrice = Money.of(unitPrice, currencyCode).times(quantity).toBigDecimal();
+                
                 DecimalFormat df = new DecimalFormat("#,##0.00");
                 txtTotalPrice.setText(df.format(totalPrice) + " " + currencyCode);
                 
                 // Also update converted price
                 updateConvertedPrice(totalPrice, currencyCode);
             }
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // NumberFormatException is an IllegalArgumentException
             txtTotalPrice.setText("Invalid input");
         }
     }
@@ -1322,42 +1264,36 @@ public class ExportationDelivery extends JFrame {
                 return;
             }
             
-            double weight = Double.parseDouble(txtWeight.getText().trim());
-            double distance = Double.parseDouble(txtDistance.getText().trim());
+            BigDecimal weight = new BigDecimal(txtWeight.getText().trim());
+            BigDecimal distance = new BigDecimal(txtDistance.getText().trim());
             String method = (String) cmbShippingMethod.getSelectedItem();
-            
-            // Calculate base cost based on shipping method and weight
-            double baseCost = 0;
-            if ("Air Freight".equals(method)) {
-                baseCost = 12.5 * weight + 0.75 * distance;
-            } else if ("Sea Freight".equals(method)) {
-                baseCost = 5.0 * weight + 0.2 * distance;
-            } else if ("Road Transport".equals(method)) {
-                baseCost = 2.5 * weight + 0.5 * distance;
-            } else if ("Rail Transport".equals(method)) {
-                baseCost = 3.0 * weight + 0.4 * distance;
-            } else if ("Express Courier".equals(method)) {
-                baseCost = 20.0 * weight + 1.0 * distance;
+            if (ShippingRateService.getInstance().getTable().indexOf(method) < 0) {
+                JOptionPane.showMessageDialog(this,
+                        "There is no tariff for " + method + " yet",
+                        "No Tariff",
+                        JOptionPane.WARNING_MESSAGE);
+                return;
             }
             
+            // Calculate base cost from the tariff of the shipping method
+            Money baseCost = ShippingRateService.getInstance().quote(method, weight, distance);
+            
             // Get additional costs
-            double additionalCosts = 0;
+            Money totalCost = baseCost;
             if (!txtAdditionalCosts.getText().trim().isEmpty()) {
-                additionalCosts = Double.parseDouble(txtAdditionalCosts.getText().trim());
+                totalCost = baseCost.plus(Money.of(new BigDecimal(txtAdditionalCosts.getText().trim()), "USD"));
             }
             
-            // Calculate total cost
-            double totalCost = baseCost + additionalCosts;
-            
             // Display results
             DecimalFormat df = new DecimalFormat("#,##0.00");
-            txtBaseCost.setText(df.format(baseCost) + " USD");
-            txtTotalShippingCost.setText(df.format(totalCost) + " USD");
+            txtBaseCost.setText(df.format(baseCost.toBigDecimal()) + " USD");
+            txtTotalShippingCost.setText(df.format(totalCost.toBigDecimal()) + " USD");
             
             // Update converted cost
             updateShippingConvertedCost();
             
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // NumberFormatException, or a negative weight or distance
             JOptionPane.showMessageDialog(this,
                     "Please enter valid numeric values for weight, distance, and costs",
                     "Invalid Input",
@@ -1436,7 +1372,7 @@ public class ExportationDelivery extends JFrame {
             delivery.setExportId(exportIdText); // Keep full EXP format for display
             delivery.setExportationId(exportIdNumeric); // Store just the number for database
             
-            delivery.setCarrierName(txtCarrierName.getText().trim());
+            delivery.setCarrierName((String) cmbCarrier.getSelectedItem());
             delivery.setTrackingNumber(txtTrackingNumber.getText().trim());
             delivery.setDeliveryAddress(txtAddress.getText().trim());
             delivery.setContactPerson(txtContactPerson.getText().trim());
@@ -1478,39 +1414,22 @@ public class ExportationDelivery extends JFrame {
             logger.info("Delivery Export ID: " + delivery.getExportationId());
             logger.info("Delivery Tracking: " + delivery.getTrackingNumber());
             
-            // Save the data using controllers
-            boolean exportSaved = exportationController.createExportation(exportation);
-            boolean deliverySaved = deliveryController.createDelivery(delivery);
-            
-            if (exportSaved && deliverySaved) {
-                JOptionPane.showMessageDialog(this,
-                        "Exportation and delivery information saved successfully!\n" +
-                        "Exportation ID: " + exportIdText + "\n" +
-                        "Delivery ID: " + delivery.getDeliveryId() + "\n" +
-                        "Tracking Number: " + delivery.getTrackingNumber(),
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-                
-                if (!isEditMode) {
-                    // Clear the form for new entries
-                    clearAllFields();
-                    generateExportationId();
-                    generateDeliveryId();
-                } else {
-                    // Close the form if in edit mode
-                    dispose();
-                }
-            } else {
-                String errorMsg = "Error saving data:\n";
-                if (!exportSaved) errorMsg += "- Failed to save exportation\n";
-                if (!deliverySaved) errorMsg += "- Failed to save delivery\n";
-                errorMsg += "Please check the console for detailed error messages.";
-                
-                JOptionPane.showMessageDialog(this,
-                        errorMsg,
-                        "Save Error",
-                        JOptionPane.ERROR_MESSAGE);
-            }
+            // Save both in one transaction, off the event dispatch thread
+            btnSaveAll.setEnabled(false);
+            DataAccessExecutor.getInstance().submit("Save exportation " + exportIdText,
+                    () -> exportationController.saveExportationWithDelivery(exportation, delivery),
+                    result -> {
+                        btnSaveAll.setEnabled(true);
+                        showSaveResult(result, exportIdText, delivery);
+                    },
+                    error -> {
+                        btnSaveAll.setEnabled(true);
+                        JOptionPane.showMessageDialog(this,
+                                "An unexpected error occurred: " + error.getMessage() +
+                                "\nPlease check the console for detailed error information.",
+                                "System Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    });
             
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error saving data", e);
@@ -1522,6 +1441,40 @@ public class ExportationDelivery extends JFrame {
         }
     }
     
+    /**
+     * Report the outcome of a save and reset or close the form
+     */
+    private void showSaveResult(ExportationDeliveryDAO.SaveResult result, String exportIdText,
+                                Delivery_InfDTO delivery) {
+        if (result == null) {
+            JOptionPane.showMessageDialog(this,
+                    "Error saving data:\n" +
+                    "- Neither the exportation nor the delivery was saved\n" +
+                    "Please check the console for detailed error messages.",
+                    "Save Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        String deliveryId = result.deliveryKey() > 0
+                ? DeliveryController.formatDeliveryId(result.deliveryKey()) : delivery.getDeliveryId();
+        JOptionPane.showMessageDialog(this,
+                "Exportation and delivery information saved successfully!\n" +
+                "Exportation ID: " + exportIdText + "\n" +
+                "Delivery ID: " + deliveryId + "\n" +
+                "Tracking Number: " + delivery.getTrackingNumber(),
+                "Success",
+                JOptionPane.INFORMATION_MESSAGE);
+        
+        if (!isEditMode) {
+            // Clear the form for new entries (with new IDs)
+            clearAllFields();
+        } else {
+            // Close the form if in edit mode
+            dispose();
+        }
+    }
+    
     /**
      * Validate the exportation data
      */
@@ -1533,6 +1486,10 @@ public class ExportationDelivery extends JFrame {
             errors.append("Exportation ID is required\n");
         }
         
+        if (!referenceData.contains(ReferenceDataDAO.PRODUCT_TYPE, (String) cmbProductType.getSelectedItem())) {
+            errors.append("Product Type must be one of the listed products\n");
+        }
+        
         if (txtQuantity.getText().trim().isEmpty()) {
             errors.append("Quantity is required\n");
         } else {
@@ -1546,10 +1503,18 @@ public class ExportationDelivery extends JFrame {
             }
         }
         
+        if (!referenceData.contains(ReferenceDataDAO.DESTINATION, (String) cmbDestination.getSelectedItem())) {
+            errors.append("Destination must be one of the listed countries\n");
+        }
+        
         if (dateExport.getDate() == null) {
             errors.append("Export Date is required\n");
         }
         
+        if (!referenceData.contains(ReferenceDataDAO.CURRENCY, (String) cmbCurrency.getSelectedItem())) {
+            errors.append("Currency must be one of the listed currencies\n");
+        }
+        
         if (txtUnitPrice.getText().trim().isEmpty()) {
             errors.append("Unit Price is required\n");
         } else {
@@ -1592,13 +1557,17 @@ public class ExportationDelivery extends JFrame {
             errors.append("Tracking Number is required\n");
         }
         
-        // Optional fields with warnings (not errors)
-        StringBuilder warnings = new StringBuilder();
+        if (!referenceData.contains(ReferenceDataDAO.CARRIER, (String) cmbCarrier.getSelectedItem())) {
+            errors.append("Carrier must be one of the listed carriers\n");
+        }
         
-        if (txtCarrierName.getText().trim().isEmpty()) {
-            warnings.append("Carrier Name is not specified\n");
+        if (!referenceData.contains(ReferenceDataDAO.SHIPPING_METHOD, (String) cmbShippingMethod.getSelectedItem())) {
+            errors.append("Shipping Method must be one of the listed methods\n");
         }
         
+        // Optional fields with warnings (not errors)
+        StringBuilder warnings = new StringBuilder();
+        
         if (txtAddress.getText().trim().isEmpty()) {
             warnings.append("Delivery Address is not specified\n");
         }
@@ -1643,6 +1612,9 @@ public class ExportationDelivery extends JFrame {
      * Clear all fields in the form
      */
     private void clearAllFields() {
+        // Offer the latest reference data
+        refreshReferenceData();
+        
         // Clear exportation fields
         txtExportationID.setText("");
         cmbProductType.setSelectedIndex(0);
@@ -1657,7 +1629,7 @@ public class ExportationDelivery extends JFrame {
         
         // Clear delivery fields
         txtDeliveryID.setText("");
-        txtCarrierName.setText("");
+        cmbCarrier.setSelectedIndex(0);
         txtTrackingNumber.setText("");
         txtAddress.setText("");
         txtContactPerson.setText("");
@@ -1674,12 +1646,50 @@ public class ExportationDelivery extends JFrame {
         txtTotalShippingCost.setText("");
         txtShippingConvertedCost.setText("");
         cmbShippingCurrency.setSelectedIndex(0);
+        cmbShippingMethod.setSelectedIndex(0);
         
         // Generate new IDs
         generateExportationId();
         generateDeliveryId();
     }
     
+    /**
+     * Offer the values of the current reference data version, dropping
+     * values added for records that predate it
+     */
+    private void refreshReferenceData() {
+        referenceData = ReferenceDataService.getInstance().getData();
+        resetChoices(cmbProductType, referenceData.getProductTypes());
+        resetChoices(cmbDestination, referenceData.getDestinations());
+        resetChoices(cmbCurrency, referenceData.getCurrencies());
+        resetChoices(cmbTargetCurrency, referenceData.getCurrencies());
+        resetChoices(cmbShippingCurrency, referenceData.getCurrencies());
+        resetChoices(cmbShippingMethod, referenceData.getShippingMethods());
+        resetChoices(cmbCarrier, referenceData.getCarriers());
+    }
+    
+    /**
+     * Replace the choices of a combo box, keeping its selection if still offered
+     */
+    private static void resetChoices(JComboBox<String> comboBox, List<String> values) {
+        Object selected = comboBox.getSelectedItem();
+        comboBox.setModel(new DefaultComboBoxModel<>(values.toArray(new String[0])));
+        if (selected != null && values.contains(selected)) {
+            comboBox.setSelectedItem(selected);
+        }
+    }
+    
+    /**
+     * Select a stored value, adding it to the choices if it is not offered
+     * (validation then asks for one that is)
+     */
+    private static void selectValue(JComboBox<String> comboBox, String value) {
+        if (((DefaultComboBoxModel<String>) comboBox.getModel()).getIndexOf(value) < 0) {
+            comboBox.addItem(value);
+        }
+        comboBox.setSelectedItem(value);
+    }
+    
     /**
      * Populate exportation fields from a DTO
      */
@@ -1689,13 +1699,13 @@ public class ExportationDelivery extends JFrame {
         txtExportationID.setText(dto.getExportationId());
         
         if (dto.getProductType() != null) {
-            cmbProductType.setSelectedItem(dto.getProductType());
+            selectValue(cmbProductType, dto.getProductType());
         }
         
         txtQuantity.setText(String.valueOf(dto.getAmount()));
         
         if (dto.getDestination() != null) {
-            cmbDestination.setSelectedItem(dto.getDestination());
+            selectValue(cmbDestination, dto.getDestination());
         }
         
         if (dto.getExportationDate() != null) {
@@ -1707,7 +1717,7 @@ public class ExportationDelivery extends JFrame {
         }
         
         if (dto.getCurrency() != null) {
-            cmbCurrency.setSelectedItem(dto.getCurrency());
+            selectValue(cmbCurrency, dto.getCurrency());
         }
         
         // Update total price
@@ -1721,7 +1731,9 @@ public class ExportationDelivery extends JFrame {
         if (dto == null) return;
         
         txtDeliveryID.setText(dto.getDeliveryId());
-        txtCarrierName.setText(dto.getCarrierName());
+        if (dto.getCarrierName() != null && !dto.getCarrierName().trim().isEmpty()) {
+            selectValue(cmbCarrier, dto.getCarrierName().trim());
+        }
         txtTrackingNumber.setText(dto.getTrackingNumber());
         txtAddress.setText(dto.getDeliveryAddress());
         txtContactPerson.setText(dto.getContactPerson());
@@ -1745,7 +1757,7 @@ public class ExportationDelivery extends JFrame {
         
         // If shipping information is available, populate shipping tab
         if (dto.getShippingMethod() != null) {
-            cmbShippingMethod.setSelectedItem(dto.getShippingMethod());
+            selectValue(cmbShippingMethod, dto.getShippingMethod());
         }
         
         if (dto.getShippingCost() > 0) {
@@ -1760,24 +1772,23 @@ public class ExportationDelivery extends JFrame {
      */
     public void testTrackingGeneration() {
         logger.info("Testing tracking number generation...");
-        logger.info("Format: TRK + 9 digits + Country Code");
+        logger.info("Format: TRK + date + sequence + check digit + Country Code");
         
         String[] testCountries = {"United States", "Canada", "Mexico", "United Kingdom", "Germany", "Japan", "Other"};
         
         for (String country : testCountries) {
-            cmbDestination.setSelectedItem(country);
-            generateTrackingNumber();
-            String trackingNumber = txtTrackingNumber.getText();
-            logger.info("Country: " + country + " -> Tracking: " + trackingNumber);
-            
-            // Validate format
-            String countryCode = COUNTRY_ABBREVIATIONS.get(country);
-            if (countryCode == null) countryCode = "XX";
-            
-            boolean validFormat = trackingNumber.startsWith("TRK") && 
-                                trackingNumber.endsWith(countryCode) && 
-                                trackingNumber.length() == (3 + 9 + countryCode.length());
-            logger.info("Format validation: " + (validFormat ? "PASS" : "FAIL"));
+            String countryCode = referenceData.countryCode(country);
+            try {
+                String trackingNumber = TrackingNumberService.getInstance().next(countryCode);
+                logger.info("Country: " + country + " -> Tracking: " + trackingNumber);
+                
+                // Validate format
+                boolean validFormat = TrackingNumberService.isValid(trackingNumber) &&
+                                    trackingNumber.endsWith(countryCode);
+                logger.info("Format validation: " + (validFormat ? "PASS" : "FAIL"));
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Tracking number generation failed for " + country, e);
+            }
         }
     }
     
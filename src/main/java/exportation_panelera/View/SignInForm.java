@@ -2,6 +2,7 @@
 
     import exportation_panelera.Model.LoginDTO;
     import exportation_panelera.dao.UserDAO;
+    import exportation_panelera.service.DataAccessExecutor;
     import exportation_panelera.util.I18nManager;
 
     import javax.swing.*;
@@ -338,34 +339,28 @@
             setButtonsEnabled(false);
             showProgress("Authenticating...");
 
-            // Use SwingWorker for background authentication
-            SwingWorker<Boolean, Void> authWorker = new SwingWorker<Boolean, Void>() {
-                @Override
-                protected Boolean doInBackground() throws Exception {
-                    // Simulate some processing time for better UX
-                    Thread.sleep(1000);
-
-                    // Perform actual authentication
-                    return userDAO.authenticateUser(loginDTO.getUsername(), loginDTO.getPassword());
-                }
-
-                @Override
-                protected void done() {
-                    try {
-                        boolean authenticated = get();
-                        handleAuthenticationResult(authenticated, loginDTO);
-                    } catch (Exception e) {
-                        logger.log(Level.SEVERE, "Authentication error", e);
-                        showError("Authentication failed: " + e.getMessage());
-                    } finally {
-                        isAuthenticating = false;
-                        setButtonsEnabled(true);
-                        hideProgress();
-                    }
-                }
-            };
+            DataAccessExecutor.getInstance().submit("Authenticate " + loginDTO.getUsername(), () -> {
+                // Simulate some processing time for better UX
+                Thread.sleep(1000);
+
+                // Perform actual authentication
+                return userDAO.authenticateUser(loginDTO.getUsername(), loginDTO.getPassword());
+            }, authenticated -> {
+                handleAuthenticationResult(authenticated, loginDTO);
+                finishAuthentication();
+            }, error -> {
+                showError("Authentication failed: " + error.getMessage());
+                finishAuthentication();
+            });
+        }
 
-            authWorker.execute();
+        /**
+         * Re-enable the form after an authentication attempt
+         */
+        private void finishAuthentication() {
+            isAuthenticating = false;
+            setButtonsEnabled(true);
+            hideProgress();
         }
 
         /**
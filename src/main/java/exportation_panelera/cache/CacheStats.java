@@ -0,0 +1,75 @@
+package exportation_panelera.cache;
+
+/**
+ * Immutable snapshot of cache statistics
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long invalidationCount;
+    private final int size;
+
+    public CacheStats(long hitCount, long missCount, long evictionCount,
+                      long expirationCount, long invalidationCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.invalidationCount = invalidationCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Entries removed because the cache was full
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Entries removed because their time-to-live elapsed
+     */
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    /**
+     * Entries removed explicitly after a write
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Ratio of lookups served from the cache (1.0 when there were no lookups)
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats{hits=%d, misses=%d, hitRate=%.2f%%, evictions=%d, expirations=%d, invalidations=%d, size=%d}",
+            hitCount, missCount, getHitRate() * 100, evictionCount, expirationCount, invalidationCount, size);
+    }
+}
@@ -0,0 +1,97 @@
+package exportation_panelera.cache;
+
+/**
+ * Count-min sketch of access frequencies used as the TinyLFU admission filter.
+ * Counters are 4 bits wide (saturating at 15) and packed sixteen to a long.
+ * Once the number of recorded accesses reaches the sample size every counter
+ * is halved, so the sketch follows changes in popularity over time.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Create a sketch sized for the given number of cache entries
+     *
+     * @param maximumSize Maximum number of entries held by the owning cache
+     */
+    FrequencySketch(int maximumSize) {
+        int size = Integer.highestOneBit(Math.max(8, maximumSize - 1) << 1);
+        this.table = new long[size];
+        this.tableMask = size - 1;
+        this.sampleSize = 10 * Math.max(maximumSize, 1);
+    }
+
+    /**
+     * Estimated number of recent accesses to the given key (0 to 15)
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = counterOffset(hash, i);
+            int count = (int) ((table[index] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Record one access to the given key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), counterOffset(hash, i));
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int offset) {
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halve every counter so that old popularity decays
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        h += h >>> 32;
+        return ((int) h) & tableMask;
+    }
+
+    private int counterOffset(int hash, int depth) {
+        // Each depth uses its own group of four counters inside the long
+        return (((hash >>> (depth << 3)) & 3) + (depth << 2)) << 2;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
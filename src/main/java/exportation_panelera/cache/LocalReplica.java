@@ -0,0 +1,763 @@
+package exportation_panelera.cache;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local copy of the deliveries and exportations tables, kept on disk so the
+ * application can show real data while the database is unreachable.
+ *
+ * Rows are held in memory and persisted as a snapshot file plus an
+ * append-only journal: every change is appended to the journal, and the
+ * journal is folded into a new snapshot once it outgrows the row count.
+ * Rows are compared by their version column and updated_at; the highest
+ * updated_at seen is the watermark for the next incremental sync.
+ *
+ * Delivery edits made while offline are kept as pending edits together
+ * with the version they were based on. They are shown in place of the
+ * replicated row until the sync either applies them or, if the row changed
+ * on the server in the meantime, turns them into conflicts.
+ */
+public class LocalReplica {
+
+    private static final Logger logger = Logger.getLogger(LocalReplica.class.getName());
+
+    static final int FORMAT_VERSION = 2;
+    private static final int MAGIC = 0x45505231; // "EPR1"
+
+    // The journal is folded into the snapshot once it holds this many more
+    // records than there are rows
+    static final int COMPACT_SLACK = 1000;
+
+    private static final String SNAPSHOT_FILE = "replica.snapshot";
+
+    // Journal record tags
+    private static final byte DELIVERY = 'D';
+    private static final byte DELIVERY_DELETED = 'd';
+    private static final byte EXPORTATION = 'E';
+    private static final byte EXPORTATION_DELETED = 'e';
+    private static final byte EDIT = 'P';
+    private static final byte EDIT_DONE = 'p';
+    private static final byte CONFLICT = 'C';
+    private static final byte CONFLICT_DONE = 'c';
+
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    /**
+     * A delivery edited locally and the version of the row it was based on
+     */
+    public record PendingEdit(Delivery_InfDTO delivery, int baseVersion) {
+    }
+
+    private final Path directory;
+
+    private final TreeMap<Integer, Delivery_InfDTO> deliveries = new TreeMap<>();
+    private final Map<String, Exportation_InfDTO> exportations = new HashMap<>();
+    private final Map<Integer, PendingEdit> pendingEdits = new LinkedHashMap<>();
+    private final Map<Integer, PendingEdit> conflicts = new LinkedHashMap<>();
+
+    private long deliveryWatermark;
+    private long exportationWatermark;
+    private long deliveryIdSum;
+    private long exportationIdSum;
+
+    private long generation;
+    private int journalRecords;
+    private boolean loaded;
+    private boolean snapshotCurrent; // false until a snapshot of this generation exists
+    private volatile long lastSyncMillis;
+
+    /**
+     * @param directory Folder holding the snapshot and journal; created on first write
+     */
+    public LocalReplica(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read the snapshot and journal from disk. Does nothing if already loaded.
+     * A journal cut short by a crash is read up to its last complete record.
+     */
+    public synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+
+        boolean damaged = false;
+        try (DataInputStream in = open(snapshot)) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                logger.warning("Local replica has an unknown format and will be rebuilt");
+                return;
+            }
+            generation = in.readLong();
+            while (readRecord(in)) {
+                // Records applied as they are read
+            }
+            snapshotCurrent = true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Local replica snapshot is unreadable and will be rebuilt", e);
+            clear();
+            return;
+        }
+
+        Path journal = journalFile(generation);
+        if (Files.exists(journal)) {
+            try (DataInputStream in = open(journal)) {
+                while (readRecord(in)) {
+                    journalRecords++;
+                }
+            } catch (EOFException e) {
+                damaged = true; // Last record was only partly written
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Local replica journal is damaged, keeping " + journalRecords + " records", e);
+                damaged = true;
+            }
+        }
+
+        logger.info("Local replica loaded: " + deliveries.size() + " deliveries, " + exportations.size()
+            + " exportations, " + pendingEdits.size() + " pending edits");
+        if (damaged) {
+            compact();
+        }
+    }
+
+    /**
+     * @return true if no delivery has been replicated yet
+     */
+    public synchronized boolean isEmpty() {
+        return deliveries.isEmpty();
+    }
+
+    /**
+     * All deliveries in ascending ID order, with pending local edits applied.
+     * The returned objects are copies and may be changed freely.
+     */
+    public synchronized List<Delivery_InfDTO> getDeliveries() {
+        List<Delivery_InfDTO> rows = new ArrayList<>(deliveries.size() + pendingEdits.size());
+        for (Delivery_InfDTO delivery : deliveries.values()) {
+            PendingEdit edit = pendingEdits.get(delivery.getId());
+            rows.add(copy(edit != null ? edit.delivery() : delivery));
+        }
+        return rows;
+    }
+
+    /**
+     * One delivery with any pending local edit applied
+     *
+     * @return A copy of the delivery, or null if it is not replicated
+     */
+    public synchronized Delivery_InfDTO getDelivery(int id) {
+        PendingEdit edit = pendingEdits.get(id);
+        Delivery_InfDTO delivery = edit != null ? edit.delivery() : deliveries.get(id);
+        return delivery != null ? copy(delivery) : null;
+    }
+
+    /**
+     * @return A copy of the exportation, or null if it is not replicated
+     */
+    public synchronized Exportation_InfDTO getExportation(String exportationId) {
+        Exportation_InfDTO exportation = exportationId != null ? exportations.get(exportationId) : null;
+        return exportation != null ? copy(exportation) : null;
+    }
+
+    /**
+     * Version of a replicated delivery as last read from the server
+     *
+     * @return The version, or 0 if the delivery is not replicated
+     */
+    public synchronized int getDeliveryVersion(int id) {
+        Delivery_InfDTO delivery = deliveries.get(id);
+        return delivery != null ? delivery.getVersion() : 0;
+    }
+
+    public synchronized long getDeliveryWatermark() {
+        return deliveryWatermark;
+    }
+
+    public synchronized long getExportationWatermark() {
+        return exportationWatermark;
+    }
+
+    public synchronized int getDeliveryCount() {
+        return deliveries.size();
+    }
+
+    /**
+     * Sum of the replicated delivery IDs, compared with the server's to detect deletes
+     */
+    public synchronized long getDeliveryIdSum() {
+        return deliveryIdSum;
+    }
+
+    public synchronized int getExportationCount() {
+        return exportations.size();
+    }
+
+    /**
+     * Sum of the replicated exportation row IDs, compared with the server's to detect deletes
+     */
+    public synchronized long getExportationIdSum() {
+        return exportationIdSum;
+    }
+
+    /**
+     * Store deliveries read from the server
+     *
+     * @return The deliveries that differ from the replicated ones
+     */
+    public synchronized List<Delivery_InfDTO> putDeliveries(Collection<Delivery_InfDTO> rows) {
+        List<Delivery_InfDTO> changed = new ArrayList<>();
+        List<Delivery_InfDTO> records = new ArrayList<>();
+        for (Delivery_InfDTO row : rows) {
+            Delivery_InfDTO current = deliveries.get(row.getId());
+            if (current == null || current.getVersion() != row.getVersion() || updatedAt(current) != updatedAt(row)) {
+                Delivery_InfDTO stored = copy(row);
+                putDelivery(stored);
+                records.add(stored);
+                changed.add(row);
+            }
+        }
+        if (!records.isEmpty()) {
+            append(out -> {
+                for (Delivery_InfDTO row : records) {
+                    out.writeByte(DELIVERY);
+                    writeDelivery(out, row);
+                }
+            }, records.size());
+        }
+        return changed;
+    }
+
+    /**
+     * Remove every delivery that is not in the given set
+     *
+     * @param ids IDs of all deliveries on the server
+     * @return IDs of the removed deliveries
+     */
+    public synchronized Set<Integer> retainDeliveries(Set<Integer> ids) {
+        Set<Integer> removed = new LinkedHashSet<>();
+        for (Integer id : deliveries.keySet()) {
+            if (!ids.contains(id)) {
+                removed.add(id);
+            }
+        }
+        for (Integer id : removed) {
+            removeDelivery(id);
+        }
+        if (!removed.isEmpty()) {
+            append(out -> {
+                for (Integer id : removed) {
+                    out.writeByte(DELIVERY_DELETED);
+                    out.writeInt(id);
+                }
+            }, removed.size());
+        }
+        return removed;
+    }
+
+    /**
+     * Store exportations read from the server
+     *
+     * @return Number of exportations added or changed
+     */
+    public synchronized int putExportations(Collection<Exportation_InfDTO> rows) {
+        List<Exportation_InfDTO> records = new ArrayList<>();
+        for (Exportation_InfDTO row : rows) {
+            if (row.getExportationId() == null) {
+                continue;
+            }
+            Exportation_InfDTO current = exportations.get(row.getExportationId());
+            if (current == null || current.getVersion() != row.getVersion() || updatedAt(current) != updatedAt(row)) {
+                Exportation_InfDTO stored = copy(row);
+                putExportation(stored);
+                records.add(stored);
+            }
+        }
+        if (!records.isEmpty()) {
+            append(out -> {
+                for (Exportation_InfDTO row : records) {
+                    out.writeByte(EXPORTATION);
+                    writeExportation(out, row);
+                }
+            }, records.size());
+        }
+        return records.size();
+    }
+
+    /**
+     * Remove every exportation that is not in the given set
+     *
+     * @param exportationIds Business IDs of all exportations on the server
+     * @return Number of removed exportations
+     */
+    public synchronized int retainExportations(Set<String> exportationIds) {
+        List<String> removed = new ArrayList<>();
+        for (String exportationId : exportations.keySet()) {
+            if (!exportationIds.contains(exportationId)) {
+                removed.add(exportationId);
+            }
+        }
+        for (String exportationId : removed) {
+            removeExportation(exportationId);
+        }
+        if (!removed.isEmpty()) {
+            append(out -> {
+                for (String exportationId : removed) {
+                    out.writeByte(EXPORTATION_DELETED);
+                    writeString(out, exportationId);
+                }
+            }, removed.size());
+        }
+        return removed.size();
+    }
+
+    /**
+     * Keep a delivery edited while offline until it can be written to the
+     * server. Repeated edits of the same delivery keep the version of the
+     * first one, since that is what the server row is compared against.
+     */
+    public synchronized void stageEdit(Delivery_InfDTO delivery) {
+        PendingEdit previous = pendingEdits.get(delivery.getId());
+        int baseVersion = previous != null ? previous.baseVersion() : getDeliveryVersion(delivery.getId());
+        PendingEdit edit = new PendingEdit(copy(delivery), baseVersion);
+        pendingEdits.put(delivery.getId(), edit);
+        append(out -> {
+            out.writeByte(EDIT);
+            writeDelivery(out, edit.delivery());
+            out.writeInt(edit.baseVersion());
+        }, 1);
+    }
+
+    /**
+     * Edits waiting to be written to the server, oldest first
+     */
+    public synchronized List<PendingEdit> getPendingEdits() {
+        return copies(pendingEdits.values());
+    }
+
+    /**
+     * Forget a pending edit after the server accepted it
+     */
+    public synchronized void editApplied(int id) {
+        if (pendingEdits.remove(id) != null) {
+            append(out -> {
+                out.writeByte(EDIT_DONE);
+                out.writeInt(id);
+            }, 1);
+        }
+    }
+
+    /**
+     * Turn a pending edit into a conflict because the server row changed
+     * after the edit's base version. The server row is shown from now on.
+     */
+    public synchronized void editConflicted(int id) {
+        PendingEdit edit = pendingEdits.remove(id);
+        if (edit == null) {
+            return;
+        }
+        conflicts.put(id, edit);
+        append(out -> {
+            out.writeByte(CONFLICT);
+            writeDelivery(out, edit.delivery());
+            out.writeInt(edit.baseVersion());
+        }, 1);
+    }
+
+    /**
+     * Local edits that were not applied because the server row had changed
+     */
+    public synchronized List<PendingEdit> getConflicts() {
+        return copies(conflicts.values());
+    }
+
+    /**
+     * Drop a conflict once the user has dealt with it
+     */
+    public synchronized void discardConflict(int id) {
+        if (conflicts.remove(id) != null) {
+            append(out -> {
+                out.writeByte(CONFLICT_DONE);
+                out.writeInt(id);
+            }, 1);
+        }
+    }
+
+    /**
+     * Record that the replica was brought up to date with the server
+     */
+    public void markSynced(long timeMillis) {
+        lastSyncMillis = timeMillis;
+    }
+
+    /**
+     * @return When the replica was last brought up to date, 0 if not since startup
+     */
+    public long getLastSyncMillis() {
+        return lastSyncMillis;
+    }
+
+    /**
+     * Fold the journal into the snapshot if it has grown past the row count
+     */
+    public synchronized void compactIfNeeded() {
+        if (journalRecords > deliveries.size() + exportations.size() + COMPACT_SLACK) {
+            compact();
+        }
+    }
+
+    /**
+     * Write the current state as a new snapshot and start an empty journal
+     */
+    public synchronized void compact() {
+        long next = generation + 1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(next);
+                for (Delivery_InfDTO row : deliveries.values()) {
+                    out.writeByte(DELIVERY);
+                    writeDelivery(out, row);
+                }
+                for (Exportation_InfDTO row : exportations.values()) {
+                    out.writeByte(EXPORTATION);
+                    writeExportation(out, row);
+                }
+                for (PendingEdit edit : pendingEdits.values()) {
+                    out.writeByte(EDIT);
+                    writeDelivery(out, edit.delivery());
+                    out.writeInt(edit.baseVersion());
+                }
+                for (PendingEdit conflict : conflicts.values()) {
+                    out.writeByte(CONFLICT);
+                    writeDelivery(out, conflict.delivery());
+                    out.writeInt(conflict.baseVersion());
+                }
+            }
+            // The new snapshot only reads the new generation's journal, so
+            // a crash before the old journal is deleted loses nothing
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(journalFile(generation));
+            generation = next;
+            journalRecords = 0;
+            snapshotCurrent = true;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not compact the local replica", e);
+        }
+    }
+
+    /**
+     * Writes journal records
+     */
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(RecordWriter writer, int records) {
+        if (!snapshotCurrent) {
+            compact(); // The state just changed in memory goes into the first snapshot
+            return;
+        }
+        try (OutputStream file = Files.newOutputStream(journalFile(generation),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            writer.write(out);
+            journalRecords += records;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not write to the local replica journal", e);
+        }
+    }
+
+    private Path journalFile(long gen) {
+        return directory.resolve("replica." + gen + ".journal");
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return new DataInputStream(new BufferedInputStream(in));
+    }
+
+    /**
+     * Read and apply one record
+     *
+     * @return false at the end of the stream
+     */
+    private boolean readRecord(DataInputStream in) throws IOException {
+        int tag = in.read();
+        switch (tag) {
+            case -1 -> {
+                return false;
+            }
+            case DELIVERY -> putDelivery(readDelivery(in));
+            case DELIVERY_DELETED -> removeDelivery(in.readInt());
+            case EXPORTATION -> putExportation(readExportation(in));
+            case EXPORTATION_DELETED -> removeExportation(readString(in));
+            case EDIT -> {
+                Delivery_InfDTO delivery = readDelivery(in);
+                pendingEdits.put(delivery.getId(), new PendingEdit(delivery, in.readInt()));
+            }
+            case EDIT_DONE -> pendingEdits.remove(in.readInt());
+            case CONFLICT -> {
+                Delivery_InfDTO delivery = readDelivery(in);
+                pendingEdits.remove(delivery.getId());
+                conflicts.put(delivery.getId(), new PendingEdit(delivery, in.readInt()));
+            }
+            case CONFLICT_DONE -> conflicts.remove(in.readInt());
+            default -> throw new IOException("Unknown replica record " + tag);
+        }
+        return true;
+    }
+
+    private void putDelivery(Delivery_InfDTO row) {
+        Delivery_InfDTO previous = deliveries.put(row.getId(), row);
+        if (previous == null) {
+            deliveryIdSum += row.getId();
+        }
+        deliveryWatermark = Math.max(deliveryWatermark, updatedAt(row));
+    }
+
+    private void removeDelivery(int id) {
+        if (deliveries.remove(id) != null) {
+            deliveryIdSum -= id;
+        }
+    }
+
+    private void putExportation(Exportation_InfDTO row) {
+        Exportation_InfDTO previous = exportations.put(row.getExportationId(), row);
+        exportationIdSum += row.getId() - (previous != null ? previous.getId() : 0);
+        exportationWatermark = Math.max(exportationWatermark, updatedAt(row));
+    }
+
+    private void removeExportation(String exportationId) {
+        Exportation_InfDTO previous = exportations.remove(exportationId);
+        if (previous != null) {
+            exportationIdSum -= previous.getId();
+        }
+    }
+
+    private void clear() {
+        deliveries.clear();
+        exportations.clear();
+        pendingEdits.clear();
+        conflicts.clear();
+        deliveryWatermark = 0;
+        exportationWatermark = 0;
+        deliveryIdSum = 0;
+        exportationIdSum = 0;
+        generation = 0;
+        journalRecords = 0;
+    }
+
+    private static long updatedAt(Delivery_InfDTO delivery) {
+        return delivery.getUpdatedAt() != null ? delivery.getUpdatedAt().getTime() : 0;
+    }
+
+    private static long updatedAt(Exportation_InfDTO exportation) {
+        return exportation.getUpdatedAt() != null ? exportation.getUpdatedAt().getTime() : 0;
+    }
+
+    private static List<PendingEdit> copies(Collection<PendingEdit> edits) {
+        List<PendingEdit> result = new ArrayList<>(edits.size());
+        for (PendingEdit edit : edits) {
+            result.add(new PendingEdit(copy(edit.delivery()), edit.baseVersion()));
+        }
+        return result;
+    }
+
+    // Row encoding. Only the columns the application reads are kept; the
+    // remaining delivery fields get the same defaults as a database read.
+
+    private static Delivery_InfDTO copy(Delivery_InfDTO row) {
+        Delivery_InfDTO copy = new Delivery_InfDTO();
+        copy.setId(row.getId());
+        copy.setDeliveryId(row.getDeliveryId());
+        copy.setExportId(row.getExportId());
+        copy.setDeliveryDate(row.getDeliveryDate());
+        copy.setDate(row.getDeliveryDate());
+        copy.setTrackingNumber(row.getTrackingNumber());
+        copy.setStatus(row.getStatus());
+        copy.setDeliveryStatus(row.getStatus());
+        copy.setNotes(row.getNotes());
+        copy.setCreatedAt(row.getCreatedAt());
+        copy.setUpdatedAt(row.getUpdatedAt());
+        copy.setVersion(row.getVersion());
+        return copy;
+    }
+
+    private static void writeDelivery(DataOutputStream out, Delivery_InfDTO row) throws IOException {
+        out.writeInt(row.getId());
+        writeString(out, row.getDeliveryId());
+        writeString(out, row.getExportId());
+        writeDate(out, row.getDeliveryDate());
+        writeString(out, row.getTrackingNumber());
+        writeString(out, row.getStatus());
+        writeString(out, row.getNotes());
+        writeDate(out, row.getCreatedAt());
+        writeDate(out, row.getUpdatedAt());
+        out.writeInt(row.getVersion());
+    }
+
+    private static Delivery_InfDTO readDelivery(DataInputStream in) throws IOException {
+        Delivery_InfDTO row = new Delivery_InfDTO();
+        row.setId(in.readInt());
+        row.setDeliveryId(readString(in));
+        row.setExportId(readString(in)); // Also sets the exportation ID
+        Date deliveryDate = readDate(in);
+        row.setDeliveryDate(deliveryDate);
+        row.setDate(deliveryDate);
+        row.setTrackingNumber(readString(in));
+        String status = readString(in);
+        row.setStatus(status);
+        row.setDeliveryStatus(status);
+        row.setNotes(readString(in));
+        row.setCreatedAt(readDate(in));
+        row.setUpdatedAt(readDate(in));
+        row.setVersion(in.readInt());
+        return row;
+    }
+
+    private static Exportation_InfDTO copy(Exportation_InfDTO row) {
+        Exportation_InfDTO copy = new Exportation_InfDTO();
+        copy.setId(row.getId());
+        copy.setExportationId(row.getExportationId());
+        copy.setProductType(row.getProductType());
+        copy.setAmount(row.getAmount());
+        copy.setDestination(row.getDestination());
+        copy.setExportationDate(row.getExportationDate());
+        copy.setUnitPrice(row.getUnitPrice());
+        copy.setCurrency(row.getCurrency());
+        copy.setHasDelivery(row.isHasDelivery());
+        copy.setStatus(row.getStatus());
+        copy.setNotes(row.getNotes());
+        copy.setCustomerName(row.getCustomerName());
+        copy.setCustomerEmail(row.getCustomerEmail());
+        copy.setCustomerPhone(row.getCustomerPhone());
+        copy.setDocumentNumber(row.getDocumentNumber());
+        copy.setExportLicense(row.getExportLicense());
+        copy.setEmployeeId(row.getEmployeeId());
+        copy.setTransportMethod(row.getTransportMethod());
+        copy.setCreatedAt(row.getCreatedAt());
+        copy.setUpdatedAt(row.getUpdatedAt());
+        copy.setVersion(row.getVersion());
+        return copy;
+    }
+
+    private static void writeExportation(DataOutputStream out, Exportation_InfDTO row) throws IOException {
+        out.writeInt(row.getId());
+        writeString(out, row.getExportationId());
+        writeString(out, row.getProductType());
+        out.writeDouble(row.getAmount());
+        writeString(out, row.getDestination());
+        writeDate(out, row.getExportationDate());
+        writeString(out, row.getUnitPrice() != null ? row.getUnitPrice().toPlainString() : null);
+        writeString(out, row.getCurrency());
+        out.writeBoolean(row.isHasDelivery());
+        writeString(out, row.getStatus());
+        writeString(out, row.getNotes());
+        writeString(out, row.getCustomerName());
+        writeString(out, row.getCustomerEmail());
+        writeString(out, row.getCustomerPhone());
+        writeString(out, row.getDocumentNumber());
+        writeString(out, row.getExportLicense());
+        writeString(out, row.getEmployeeId());
+        writeString(out, row.getTransportMethod());
+        writeDate(out, row.getCreatedAt());
+        writeDate(out, row.getUpdatedAt());
+        out.writeInt(row.getVersion());
+    }
+
+    private static Exportation_InfDTO readExportation(DataInputStream in) throws IOException {
+        Exportation_InfDTO row = new Exportation_InfDTO();
+        row.setId(in.readInt());
+        row.setExportationId(readString(in));
+        row.setProductType(readString(in));
+        row.setAmount(in.readDouble());
+        row.setDestination(readString(in));
+        row.setExportationDate(readDate(in));
+        String unitPrice = readString(in);
+        row.setUnitPrice(unitPrice != null ? new BigDecimal(unitPrice) : null);
+        row.setCurrency(readString(in));
+        row.setHasDelivery(in.readBoolean());
+        row.setStatus(readString(in));
+        row.setNotes(readString(in));
+        row.setCustomerName(readString(in));
+        row.setCustomerEmail(readString(in));
+        row.setCustomerPhone(readString(in));
+        row.setDocumentNumber(readString(in));
+        row.setExportLicense(readString(in));
+        row.setEmployeeId(readString(in));
+        row.setTransportMethod(readString(in));
+        row.setCreatedAt(readDate(in));
+        row.setUpdatedAt(readDate(in));
+        row.setVersion(in.readInt());
+        return row;
+    }
+
+    // Length-prefixed UTF-8, since notes may exceed writeUTF's 64 KB limit
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeLong(value != null ? value.getTime() : NULL_DATE);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time != NULL_DATE ? new Date(time) : null;
+    }
+}
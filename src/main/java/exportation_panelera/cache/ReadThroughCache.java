@@ -0,0 +1,356 @@
+package exportation_panelera.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Bounded in-memory cache with time-to-live and W-TinyLFU eviction.
+ *
+ * New entries land in a small LRU admission window. When the window overflows,
+ * its oldest entry competes with the least recently used entry of the main
+ * segmented LRU, and the {@link FrequencySketch} decides which of the two is
+ * accessed more often and deserves to stay. Entries hit a second time while on
+ * probation are promoted to the protected segment. This keeps frequently
+ * reopened records cached even when a long scan passes through.
+ *
+ * The cache is safe for concurrent use. Values are loaded outside of the lock,
+ * so a slow database query never blocks readers of other keys. A value whose
+ * key is invalidated while it is being loaded is returned to its caller but not
+ * cached, because the load may have read the row before the write that caused
+ * the invalidation.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ReadThroughCache<K, V> {
+
+    private static final Logger logger = Logger.getLogger(ReadThroughCache.class.getName());
+
+    private final String name;
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final FrequencySketch sketch;
+
+    // Invalidation counters per stripe of keys, compared before a loaded value is cached
+    private static final int STAMP_STRIPES = 64;
+    private final long[] invalidationStamps = new long[STAMP_STRIPES];
+
+    // Segments kept in access order: the first entry is always the LRU victim
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Statistics
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expirationCount;
+    private long invalidationCount;
+
+    private static final class Entry<V> {
+        V value;
+        long writeTime;
+
+        Entry(V value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param name Name used in log messages
+     * @param maximumSize Maximum number of entries
+     * @param ttlMillis Time-to-live of an entry after it was written, in milliseconds
+     */
+    public ReadThroughCache(String name, int maximumSize, long ttlMillis) {
+        this(name, maximumSize, ttlMillis, System::nanoTime);
+    }
+
+    ReadThroughCache(String name, int maximumSize, long ttlMillis, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be greater than zero");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Time-to-live must be greater than zero");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        int mainMaximum = maximumSize - windowMaximum;
+        this.protectedMaximum = (int) (mainMaximum * 0.8);
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.ticker = ticker;
+        this.sketch = new FrequencySketch(maximumSize);
+
+        logger.info(String.format("Cache '%s' initialized: max %d entries, TTL %d ms",
+            name, maximumSize, ttlMillis));
+    }
+
+    /**
+     * Get a cached value
+     *
+     * @param key The key to look up
+     * @return The cached value, or null if absent or expired
+     */
+    public synchronized V getIfPresent(K key) {
+        if (key == null) {
+            return null;
+        }
+
+        sketch.increment(key);
+
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = protectedSegment.get(key);
+        }
+        if (entry == null) {
+            entry = probation.get(key);
+            if (entry != null) {
+                promote(key, entry);
+            }
+        }
+
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+
+        if (isExpired(entry)) {
+            removeFromSegments(key);
+            expirationCount++;
+            missCount++;
+            return null;
+        }
+
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * Get a value, loading and caching it on a miss. Null results are not cached.
+     *
+     * @param key The key to look up
+     * @param loader Function that reads the value from the backing store
+     * @return The cached or freshly loaded value, or null if the loader returned null
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        long stamp = loadStamp(key);
+        value = loader.apply(key);
+        if (value != null) {
+            putIfNotInvalidated(key, value, stamp);
+        }
+        return value;
+    }
+
+    /**
+     * Take a stamp before reading a value from the backing store, to pass to
+     * {@link #putIfNotInvalidated} together with the value read
+     */
+    public synchronized long loadStamp(K key) {
+        return key == null ? 0 : invalidationStamps[stripe(key)];
+    }
+
+    /**
+     * Cache a value read from the backing store, unless the key was
+     * invalidated after the stamp was taken
+     *
+     * @param stamp Stamp from {@link #loadStamp} taken before the read
+     * @return true if the value was cached
+     */
+    public synchronized boolean putIfNotInvalidated(K key, V value, long stamp) {
+        if (key == null || value == null || invalidationStamps[stripe(key)] != stamp) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Add or replace a value. Use {@link #putIfNotInvalidated} for values
+     * read from the backing store.
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+
+        long now = ticker.getAsLong();
+        Entry<V> existing = window.get(key);
+        if (existing == null) {
+            existing = protectedSegment.get(key);
+        }
+        if (existing == null) {
+            existing = probation.get(key);
+        }
+
+        if (existing != null) {
+            existing.value = value;
+            existing.writeTime = now;
+            return;
+        }
+
+        window.put(key, new Entry<>(value, now));
+        evictIfNeeded();
+    }
+
+    /**
+     * Remove a single entry, typically after the underlying row was written
+     */
+    public synchronized void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        invalidationStamps[stripe(key)]++;
+        if (removeFromSegments(key) != null) {
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * Remove every entry whose value matches the predicate
+     *
+     * @return Number of entries removed
+     */
+    public synchronized int invalidateIf(Predicate<? super V> predicate) {
+        advanceAllStamps(); // A value being loaded may match too
+        int removed = removeMatching(window, predicate)
+            + removeMatching(probation, predicate)
+            + removeMatching(protectedSegment, predicate);
+        invalidationCount += removed;
+        return removed;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public synchronized void invalidateAll() {
+        advanceAllStamps();
+        invalidationCount += size();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Snapshot of hit, miss and eviction counters
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount, expirationCount, invalidationCount, size());
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private void advanceAllStamps() {
+        for (int i = 0; i < STAMP_STRIPES; i++) {
+            invalidationStamps[i]++;
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ticker.getAsLong() - entry.writeTime >= ttlNanos;
+    }
+
+    /**
+     * Move an entry hit on probation into the protected segment, demoting the
+     * protected LRU entry back to probation if the segment is full
+     */
+    private void promote(K key, Entry<V> entry) {
+        probation.remove(key);
+        protectedSegment.put(key, entry);
+
+        if (protectedSegment.size() > protectedMaximum) {
+            Iterator<Map.Entry<K, Entry<V>>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<K, Entry<V>> demoted = it.next();
+            it.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    /**
+     * Drain the admission window into the main segments, letting the frequency
+     * sketch choose between each candidate and the main segment's victim
+     */
+    private void evictIfNeeded() {
+        while (window.size() > windowMaximum) {
+            Iterator<Map.Entry<K, Entry<V>>> it = window.entrySet().iterator();
+            Map.Entry<K, Entry<V>> candidate = it.next();
+            it.remove();
+
+            if (probation.size() + protectedSegment.size() < maximumSize - windowMaximum) {
+                probation.put(candidate.getKey(), candidate.getValue());
+                continue;
+            }
+
+            LinkedHashMap<K, Entry<V>> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            evictionCount++;
+
+            if (victimSegment.isEmpty()) {
+                // No main space at all (maximum size of one): the candidate leaves
+                continue;
+            }
+
+            K victimKey = victimSegment.keySet().iterator().next();
+            if (sketch.frequency(candidate.getKey()) > sketch.frequency(victimKey)) {
+                victimSegment.remove(victimKey);
+                probation.put(candidate.getKey(), candidate.getValue());
+                logger.finest("Cache '" + name + "' evicted " + victimKey);
+            } else {
+                logger.finest("Cache '" + name + "' rejected " + candidate.getKey());
+            }
+        }
+    }
+
+    private Entry<V> removeFromSegments(K key) {
+        Entry<V> removed = window.remove(key);
+        if (removed == null) {
+            removed = probation.remove(key);
+        }
+        if (removed == null) {
+            removed = protectedSegment.remove(key);
+        }
+        return removed;
+    }
+
+    private int removeMatching(LinkedHashMap<K, Entry<V>> segment, Predicate<? super V> predicate) {
+        int removed = 0;
+        Iterator<Entry<V>> it = segment.values().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next().value)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+}
@@ -92,6 +92,25 @@ public class ConfigLoader {
         return properties.getProperty(key);
     }
 
+    /**
+     * Get an integer property value by key
+     * @param key Property key
+     * @param defaultValue Default value if property not found or not a number
+     * @return Property value
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warning("Invalid integer for property " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Reload configuration from properties file
      */
@@ -65,8 +65,8 @@ public abstract class BaseController {
             }
         }
         
-        // Close connection (only if not managed externally)
-        if (connection != null && !DatabaseManager.isConnectionManaged(connection)) {
+        // Closing a pooled connection returns it to the pool
+        if (connection != null) {
             try {
                 connection.close();
             } catch (SQLException e) {
@@ -1,13 +1,36 @@
 package exportation_panelera.controller;
 
+import exportation_panelera.Model.DeliverySummary;
 import exportation_panelera.Model.Delivery_InfDTO;
 import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.Model.UpdateResult;
+import exportation_panelera.cache.CacheStats;
+import exportation_panelera.cache.LocalReplica;
+import exportation_panelera.cache.ReadThroughCache;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.DeliverySummaryDAO;
+import exportation_panelera.dao.ExportationDAO;
+import exportation_panelera.dao.ExportationDeliveryDAO;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+import exportation_panelera.search.DeliveryTextIndex;
+import exportation_panelera.service.ReplicaSyncService;
+import exportation_panelera.service.ShipmentAnalyticsService;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,6 +40,56 @@ import java.util.logging.Logger;
 public class DeliveryController {
     private static final Logger logger = Logger.getLogger(DeliveryController.class.getName());
     
+    // Lookup caches are shared because every form creates its own controller.
+    // Both hold private copies and hand out copies, so callers may modify
+    // what they get without changing the cached value.
+    private static final ReadThroughCache<String, Exportation_InfDTO> exportationCache = new ReadThroughCache<>(
+        "exportations",
+        ConfigLoader.getIntProperty("cache.exportation.max.size", 500),
+        ConfigLoader.getIntProperty("cache.exportation.ttl.seconds", 300) * 1000L);
+    
+    private static final ReadThroughCache<String, Delivery_InfDTO> deliveryByExportCache = new ReadThroughCache<>(
+        "deliveriesByExport",
+        ConfigLoader.getIntProperty("cache.delivery.max.size", 500),
+        ConfigLoader.getIntProperty("cache.delivery.ttl.seconds", 120) * 1000L);
+    
+    static {
+        // Writes made through any ExportationDAO, not just this controller's
+        ExportationDAO.addWriteListener(DeliveryController::invalidateExportation);
+    }
+    
+    // Free-text index over the delivery list, kept current by create, update and delete
+    private static final DeliveryTextIndex deliveryTextIndex = new DeliveryTextIndex();
+    
+    // IDs per IN (...) query when loading deliveries by ID
+    private static final int ID_BATCH_SIZE = StatementCache.maxInListSize();
+    
+    private final ExportationDAO exportationDAO = new ExportationDAO();
+    private final DeliverySummaryDAO deliverySummaryDAO = new DeliverySummaryDAO();
+    private final ExportationDeliveryDAO exportationDeliveryDAO = new ExportationDeliveryDAO();
+    
+    /**
+     * Statistics of the exportation lookup cache
+     */
+    public static CacheStats getExportationCacheStats() {
+        return exportationCache.stats();
+    }
+    
+    /**
+     * Statistics of the delivery-by-export lookup cache
+     */
+    public static CacheStats getDeliveryCacheStats() {
+        return deliveryByExportCache.stats();
+    }
+    
+    /**
+     * Drop every cached exportation and delivery, e.g. after a bulk import
+     */
+    public static void invalidateLookupCaches() {
+        exportationCache.invalidateAll();
+        deliveryByExportCache.invalidateAll();
+    }
+    
     /**
      * Debug method to print all column names from the deliveries table
      */
@@ -98,12 +171,12 @@ public class DeliveryController {
             }
             
             // Check if customer ID 1 exists
-            checkStmt = conn.prepareStatement("SELECT id FROM customers WHERE id = 1");
+            checkStmt = StatementCache.prepare(conn, "SELECT id FROM customers WHERE id = 1");
             rs = checkStmt.executeQuery();
             
             if (!rs.next()) {
                 // Create default customer
-                insertStmt = conn.prepareStatement(
+                insertStmt = StatementCache.prepare(conn,
                     "INSERT INTO customers (id, name, email, phone, created_at, updated_at) " +
                     "VALUES (1, 'Default Customer', 'default@example.com', '+1-555-0000', NOW(), NOW())"
                 );
@@ -170,7 +243,7 @@ public class DeliveryController {
             
             logger.info("Generated SQL: " + sql);
             
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt = StatementCache.prepare(conn, sql, PreparedStatement.RETURN_GENERATED_KEYS);
             
             // Set all parameters including customer_id
             stmt.setObject(1, exportation.getExportationId());
@@ -266,6 +339,8 @@ public class DeliveryController {
                 }
                 generatedKeys.close();
                 
+                invalidateExportation(exportation.getExportationId());
+                ShipmentAnalyticsService.getInstance().requestRefresh();
                 logger.info("Successfully created exportation");
                 return true;
             } else {
@@ -291,16 +366,118 @@ public class DeliveryController {
     }
     
     /**
-     * Get all deliveries from the database
+     * Get all deliveries from the database and rebuild the free-text index from them
      */
     public List<Delivery_InfDTO> getAllDeliveries() {
+        List<Delivery_InfDTO> deliveries = loadAllDeliveries();
+        deliveryTextIndex.replaceAll(deliveries);
+        return deliveries;
+    }
+    
+    /**
+     * Get all deliveries for a screen that should open quickly. While the
+     * local replica is fresh (see replica.read.max.staleness.seconds) the
+     * list is read from it instead of the database.
+     *
+     * @param preferReplica Whether a fresh replica may answer
+     */
+    public List<Delivery_InfDTO> getAllDeliveries(boolean preferReplica) {
+        ReplicaSyncService replicaSync = ReplicaSyncService.getInstance();
+        if (preferReplica && replicaSync.isFresh()) {
+            List<Delivery_InfDTO> deliveries = replicaSync.getReplica().getDeliveries();
+            if (!deliveries.isEmpty()) {
+                logger.info("Serving " + deliveries.size() + " deliveries from the local replica");
+                deliveryTextIndex.replaceAll(deliveries);
+                return deliveries;
+            }
+        }
+        return getAllDeliveries();
+    }
+    
+    /**
+     * Find deliveries whose text fields contain the search text
+     *
+     * @param field Search field as offered by the delivery management form
+     * @param text Text to look for
+     * @return Database IDs of the matching deliveries in ascending order, or
+     *         null if the field is not covered by the text index
+     */
+    public int[] searchDeliveryText(String field, String text) {
+        return deliveryTextIndex.search(field, text);
+    }
+
+    /**
+     * Get the current state of some deliveries, e.g. the ones reported by the
+     * change feed. Found deliveries are refreshed in the free-text index and
+     * lookup cache; IDs that no longer exist are removed from the index.
+     *
+     * @param ids Database IDs of the deliveries
+     * @return The deliveries that exist, in ascending ID order, or null if the
+     *         database could not be read
+     */
+    public List<Delivery_InfDTO> getDeliveriesByIds(Collection<Integer> ids) {
+        List<Delivery_InfDTO> deliveries = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return deliveries;
+        }
+        if (DatabaseManager.isOfflineMode()) {
+            return null;
+        }
+
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        try (Connection conn = getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+
+            for (int from = 0; from < distinct.size(); from += ID_BATCH_SIZE) {
+                List<Integer> batch = distinct.subList(from, Math.min(from + ID_BATCH_SIZE, distinct.size()));
+                // Padded to a fixed size so the driver reuses the statement
+                int size = StatementCache.inListSize(batch.size());
+                String sql = "SELECT * FROM deliveries WHERE id IN (" + StatementCache.placeholders(size) + ") ORDER BY id ASC";
+
+                try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                    for (int i = 0; i < size; i++) {
+                        stmt.setInt(i + 1, batch.get(Math.min(i, batch.size() - 1)));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Delivery_InfDTO delivery = mapResultSetToDelivery(rs);
+                            if (delivery != null) {
+                                deliveries.add(delivery);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading deliveries by ID: " + e.getMessage(), e);
+            return null;
+        }
+
+        Set<Integer> found = new LinkedHashSet<>();
+        for (Delivery_InfDTO delivery : deliveries) {
+            found.add(delivery.getId());
+            deliveryTextIndex.index(delivery);
+            invalidateDelivery(delivery.getId(), delivery.getExportId());
+        }
+        for (Integer id : distinct) {
+            if (!found.contains(id)) {
+                deliveryTextIndex.remove(id);
+                invalidateDelivery(id, null);
+            }
+        }
+        return deliveries;
+    }
+
+    private List<Delivery_InfDTO> loadAllDeliveries() {
         List<Delivery_InfDTO> deliveries = new ArrayList<>();
         
         logger.info("=== DeliveryController.getAllDeliveries() called ===");
         
         if (DatabaseManager.isOfflineMode()) {
-            logger.warning("DatabaseManager reports offline mode - returning sample data");
-            return getSampleDeliveries();
+            logger.warning("DatabaseManager reports offline mode - returning replicated data");
+            return getOfflineDeliveries();
         }
         
         Connection conn = null;
@@ -311,12 +488,12 @@ public class DeliveryController {
             conn = getConnection();
             if (conn == null) {
                 logger.severe("getConnection() returned null");
-                return getSampleDeliveries();
+                return getOfflineDeliveries();
             }
             
             if (conn.isClosed()) {
                 logger.severe("Connection is closed");
-                return getSampleDeliveries();
+                return getOfflineDeliveries();
             }
             
             logger.info("Database connection obtained successfully");
@@ -324,7 +501,7 @@ public class DeliveryController {
             String sql = "SELECT * FROM deliveries ORDER BY id ASC";
             logger.info("Executing SQL: " + sql);
             
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, sql);
             rs = stmt.executeQuery();
             
             logger.info("Query executed successfully, processing results...");
@@ -360,13 +537,119 @@ public class DeliveryController {
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "SQL Error in getAllDeliveries: " + e.getMessage(), e);
-            return getSampleDeliveries();
+            return getOfflineDeliveries();
             
         } finally {
             closeResources(conn, stmt, rs);
         }
     }
     
+    /**
+     * Get one page of deliveries joined with their exportation's destination,
+     * product type and amount, read in a single query
+     *
+     * @param columns Columns to select, or null for all columns the list shows
+     * @param status Only return deliveries with this status, or null for all
+     * @param afterId ID of the last delivery of the previous page (0 for the first page)
+     * @param limit Maximum number of rows
+     * @return The page in ascending ID order, empty in offline mode
+     */
+    public List<DeliverySummary> getDeliverySummaries(Set<DeliverySummary.Column> columns, String status,
+                                                      int afterId, int limit) {
+        if (DatabaseManager.isOfflineMode()) {
+            logger.info("In offline mode - no delivery summaries available");
+            return new ArrayList<>();
+        }
+        return deliverySummaryDAO.findPage(columns, status, afterId, limit);
+    }
+
+    /**
+     * Get one page of delivery summaries ordered by an indexed column.
+     * The database does the sorting, so a large list can be shown in any
+     * order without loading it all first.
+     *
+     * @param columns Columns to select, or null for all columns the list shows
+     * @param status Only return deliveries with this status, or null for all
+     * @param sortBy Column to order by
+     * @param descending Whether to order from the highest value down
+     * @param after Cursor returned for the previous page, or null for the first page
+     * @param limit Maximum number of rows
+     * @return The page, empty in offline mode
+     */
+    public List<DeliverySummary> getDeliverySummaries(Set<DeliverySummary.Column> columns, String status,
+                                                      DeliverySummaryDAO.SortColumn sortBy, boolean descending,
+                                                      DeliverySummaryDAO.Cursor after, int limit) {
+        if (DatabaseManager.isOfflineMode()) {
+            logger.info("In offline mode - no delivery summaries available");
+            return new ArrayList<>();
+        }
+        return getDeliverySummaries(columns, status, sortBy, descending, after, limit, false);
+    }
+
+    /**
+     * Get one page of delivery summaries ordered by an indexed column,
+     * optionally including deliveries moved to the archive
+     *
+     * @param includeArchived Whether to also read archived deliveries
+     * @return The page, empty in offline mode
+     */
+    public List<DeliverySummary> getDeliverySummaries(Set<DeliverySummary.Column> columns, String status,
+                                                      DeliverySummaryDAO.SortColumn sortBy, boolean descending,
+                                                      DeliverySummaryDAO.Cursor after, int limit,
+                                                      boolean includeArchived) {
+        if (DatabaseManager.isOfflineMode()) {
+            logger.info("In offline mode - no delivery summaries available");
+            return new ArrayList<>();
+        }
+        return deliverySummaryDAO.findPage(columns, status, sortBy, descending, after, limit, includeArchived);
+    }
+
+    /**
+     * Count the deliveries without loading them
+     *
+     * @return The count, or -1 in offline mode or if the database is unavailable
+     */
+    public long countDeliveries() {
+        if (DatabaseManager.isOfflineMode()) {
+            return -1;
+        }
+        return deliverySummaryDAO.count();
+    }
+
+    /**
+     * Save a new exportation and its delivery in one transaction over one
+     * connection. Does blocking I/O; call it off the event dispatch thread.
+     *
+     * @return The generated keys (0 in offline mode, where the save is only
+     *         simulated), or null if nothing was saved
+     */
+    public ExportationDeliveryDAO.SaveResult saveExportationWithDelivery(Exportation_InfDTO exportation,
+                                                                         Delivery_InfDTO delivery) {
+        if (exportation == null || delivery == null) {
+            logger.warning("Cannot save null exportation or delivery");
+            return null;
+        }
+
+        if (DatabaseManager.isOfflineMode()) {
+            logger.info("In offline mode - simulating successful exportation and delivery creation");
+            return new ExportationDeliveryDAO.SaveResult(0, 0);
+        }
+
+        exportation.setExportationId(extractExportId(exportation.getExportationId()));
+        ExportationDeliveryDAO.SaveResult result = exportationDeliveryDAO.insert(exportation, delivery);
+        if (result == null) {
+            return null;
+        }
+
+        invalidateExportation(exportation.getExportationId());
+        deliveryByExportCache.invalidate(exportation.getExportationId());
+        if (result.deliveryKey() > 0) {
+            deliveryTextIndex.index(result.deliveryKey(), formatDeliveryId(result.deliveryKey()), delivery);
+        }
+        ShipmentAnalyticsService.getInstance().requestRefresh();
+        return result;
+    }
+
     /**
      * Create a new delivery record - FIXED to handle large export IDs
      */
@@ -413,7 +696,7 @@ public class DeliveryController {
             
             logger.info("Generated SQL: " + sql);
             
-            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+            stmt = StatementCache.prepare(conn, sql, PreparedStatement.RETURN_GENERATED_KEYS);
             
             // Set parameters based on your table structure
             // 1. exportation_id - Use the numeric part that matches the exportations table
@@ -460,6 +743,10 @@ public class DeliveryController {
                 }
                 generatedKeys.close();
                 
+                deliveryByExportCache.invalidate(managedExportId);
+                if (delivery.getId() > 0) {
+                    deliveryTextIndex.index(delivery.getId(), formatDeliveryId(delivery.getId()), delivery);
+                }
                 logger.info("Successfully created delivery");
                 return true;
             } else {
@@ -504,15 +791,56 @@ public class DeliveryController {
         return columns;
     }
     
+    /**
+     * An exportation and its delivery, as shown together on the edit form
+     *
+     * @param exportation The exportation, or null if it could not be loaded
+     * @param delivery Its delivery, or null if there is none or it could not be loaded
+     */
+    public record ExportationDetails(Exportation_InfDTO exportation, Delivery_InfDTO delivery) {
+    }
+
+    /**
+     * Load an exportation and its delivery at the same time, each lookup on
+     * its own virtual thread. Returns when both are done; if one lookup
+     * fails the other is still returned. Blocking; call it off the event
+     * dispatch thread.
+     */
+    public ExportationDetails loadExportationDetails(String exportationId) throws InterruptedException {
+        // Closing the executor waits for both lookups, so none outlives this call
+        try (ExecutorService lookups = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Exportation_InfDTO> exportation = lookups.submit(() -> getExportationById(exportationId));
+            Future<Delivery_InfDTO> delivery = lookups.submit(() -> getDeliveryByExportId(exportationId));
+            return new ExportationDetails(
+                awaitLookup(exportation, "exportation " + exportationId),
+                awaitLookup(delivery, "delivery of exportation " + exportationId));
+        }
+    }
+
+    private static <T> T awaitLookup(Future<T> lookup, String what) throws InterruptedException {
+        try {
+            return lookup.get();
+        } catch (ExecutionException e) {
+            logger.log(Level.WARNING, "Error loading " + what, e.getCause());
+            return null;
+        }
+    }
+
     /**
      * Get an exportation by ID
      */
     public Exportation_InfDTO getExportationById(String exportationId) {
         logger.info("getExportationById called with ID: " + exportationId);
         
+        Exportation_InfDTO cached = exportationCache.getIfPresent(exportationId);
+        if (cached != null) {
+            logger.fine("Exportation cache hit for ID: " + exportationId);
+            return new Exportation_InfDTO(cached);
+        }
+        
         if (DatabaseManager.isOfflineMode()) {
-            logger.info("In offline mode - returning sample exportation");
-            return createSampleExportation(exportationId);
+            logger.info("In offline mode - returning replicated exportation");
+            return getOfflineExportation(exportationId);
         }
         
         Connection conn = null;
@@ -522,18 +850,22 @@ public class DeliveryController {
         try {
             conn = getConnection();
             if (conn == null) {
-                logger.warning("Database connection is null, returning sample exportation");
-                return createSampleExportation(exportationId);
+                logger.warning("Database connection is null, returning replicated exportation");
+                return getOfflineExportation(exportationId);
             }
             
             String sql = "SELECT * FROM exportations WHERE exportation_id = ? LIMIT 1";
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, sql);
             stmt.setString(1, exportationId);
             
+            long stamp = exportationCache.loadStamp(exportationId);
             rs = stmt.executeQuery();
             
             if (rs.next()) {
                 Exportation_InfDTO exportation = mapResultSetToExportation(rs);
+                if (exportation != null) {
+                    exportationCache.putIfNotInvalidated(exportationId, new Exportation_InfDTO(exportation), stamp);
+                }
                 logger.info("Found exportation for ID: " + exportationId);
                 return exportation;
             }
@@ -543,12 +875,58 @@ public class DeliveryController {
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving exportation by ID: " + e.getMessage(), e);
-            return createSampleExportation(exportationId);
+            return getOfflineExportation(exportationId);
         } finally {
             closeResources(conn, stmt, rs);
         }
     }
     
+    /**
+     * Get many exportations at once, e.g. for every row of a delivery list.
+     * Cached exportations are returned directly and all misses are loaded with
+     * a single IN (...) query instead of one query per row.
+     *
+     * @param exportationIds The exportation IDs to resolve
+     * @return Map from exportation ID to exportation; unknown IDs are absent
+     */
+    public Map<String, Exportation_InfDTO> getExportationsByIds(Collection<String> exportationIds) {
+        Map<String, Exportation_InfDTO> result = new LinkedHashMap<>();
+        if (exportationIds == null || exportationIds.isEmpty()) {
+            return result;
+        }
+        
+        Set<String> misses = new LinkedHashSet<>();
+        for (String exportationId : exportationIds) {
+            if (exportationId == null || result.containsKey(exportationId) || misses.contains(exportationId)) {
+                continue;
+            }
+            Exportation_InfDTO cached = exportationCache.getIfPresent(exportationId);
+            if (cached != null) {
+                result.put(exportationId, new Exportation_InfDTO(cached));
+            } else {
+                misses.add(exportationId);
+            }
+        }
+        
+        if (!misses.isEmpty() && !DatabaseManager.isOfflineMode()) {
+            Map<String, Long> stamps = new HashMap<>();
+            for (String exportationId : misses) {
+                stamps.put(exportationId, exportationCache.loadStamp(exportationId));
+            }
+            Map<String, Exportation_InfDTO> loaded = exportationDAO.findByIds(misses);
+            for (Map.Entry<String, Exportation_InfDTO> entry : loaded.entrySet()) {
+                Long stamp = stamps.get(entry.getKey());
+                if (stamp != null) {
+                    exportationCache.putIfNotInvalidated(entry.getKey(), new Exportation_InfDTO(entry.getValue()), stamp);
+                }
+                result.put(entry.getKey(), entry.getValue());
+            }
+            logger.info("Resolved " + result.size() + " exportations (" + misses.size() + " cache misses, 1 batch query)");
+        }
+        
+        return result;
+    }
+    
     /**
      * Map ResultSet to Exportation_InfDTO with safe column access
      */
@@ -622,6 +1000,8 @@ public class DeliveryController {
                 exportation.setUpdatedAt(updatedAt);
             }
             
+            exportation.setVersion(getVersionOrZero(rs));
+            
             return exportation;
             
         } catch (SQLException e) {
@@ -652,24 +1032,48 @@ public class DeliveryController {
     
     /**
      * Update an existing delivery record - FIXED to handle large export IDs
+     *
+     * @return true if the delivery was written, or queued for writing while offline
+     * @see #updateDeliveryIfCurrent(Delivery_InfDTO)
      */
     public boolean updateDelivery(Delivery_InfDTO delivery) {
+        return updateDeliveryIfCurrent(delivery).isSaved();
+    }
+    
+    /**
+     * Update a delivery only if nobody changed it since it was read. The
+     * row is written with WHERE id = ? AND version = ?, so no lock is held
+     * while the user edits; a concurrent change comes back as a conflict
+     * carrying the current row.
+     *
+     * @param delivery The edited delivery, with the version it was read with
+     * @return The outcome; on success the delivery carries its new version
+     */
+    public UpdateResult<Delivery_InfDTO> updateDeliveryIfCurrent(Delivery_InfDTO delivery) {
         if (delivery == null) {
             logger.warning("Cannot update null delivery");
-            return false;
+            return UpdateResult.failed();
         }
         
         logger.info("=== UPDATE DELIVERY CALLED ===");
         logger.info("Delivery ID: " + delivery.getDeliveryId());
         logger.info("Database ID: " + delivery.getId());
         logger.info("Export ID: " + delivery.getExportId());
-        logger.info("Tracking: " + delivery.getTrackingNumber());
-        logger.info("Status: " + delivery.getStatus());
-        logger.info("Notes: " + delivery.getNotes());
+        logger.info("Version: " + delivery.getVersion());
+        
+        if (delivery.getId() <= 0) {
+            logger.severe("Cannot update delivery: Invalid ID - " + delivery.getId());
+            return UpdateResult.failed();
+        }
         
         if (DatabaseManager.isOfflineMode()) {
-            logger.info("In offline mode - simulating successful delivery update");
-            return true;
+            // Keep the edit locally; the replica sync writes it back once the
+            // database is reachable, unless the row changed there meanwhile
+            ReplicaSyncService.getInstance().getReplica().stageEdit(delivery);
+            invalidateDelivery(delivery.getId(), extractExportId(delivery.getExportId()));
+            deliveryTextIndex.index(delivery.getId(), formatDeliveryId(delivery.getId()), delivery);
+            logger.info("In offline mode - delivery update kept in the local replica");
+            return UpdateResult.queued(delivery);
         }
         
         Connection conn = null;
@@ -679,80 +1083,84 @@ public class DeliveryController {
             conn = getConnection();
             if (conn == null) {
                 logger.warning("Database connection is null");
-                return false;
-            }
-            
-            if (delivery.getId() <= 0) {
-                logger.severe("Cannot update delivery: Invalid ID - " + delivery.getId());
-                return false;
+                return UpdateResult.failed();
             }
             
             // Handle export ID the same way as create
-            String exportId = extractExportId(delivery.getExportId());
-            String managedExportId = exportId;
-            logger.info("Managed Export ID for update: " + managedExportId);
+            String managedExportId = extractExportId(delivery.getExportId());
             
-            // SQL that matches your exact table structure
-            String sql = "UPDATE deliveries SET exportation_id = ?, delivery_date = ?, tracking_number = ?, " +
-                        "status = ?, notes = ?, updated_at = NOW() WHERE id = ?";
-            
-            logger.info("Generated UPDATE SQL: " + sql);
-            
-            stmt = conn.prepareStatement(sql);
+            // A missing date keeps the stored one; delivery_date is NOT NULL since it partitions the table
+            String sql = "UPDATE deliveries SET exportation_id = ?, delivery_date = COALESCE(?, delivery_date), " +
+                        "tracking_number = ?, status = ?, notes = ?, version = version + 1, updated_at = NOW() " +
+                        "WHERE id = ? AND version = ?";
             
-            // Set parameters
+            stmt = StatementCache.prepare(conn, sql);
             stmt.setString(1, managedExportId);
-            logger.info("Parameter 1 (exportation_id): " + managedExportId);
             
             Date deliveryDate = delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : 
                               delivery.getDate() != null ? delivery.getDate() : null;
             if (deliveryDate != null) {
                 stmt.setDate(2, new java.sql.Date(deliveryDate.getTime()));
-                logger.info("Parameter 2 (delivery_date): " + deliveryDate);
             } else {
                 stmt.setNull(2, Types.DATE);
-                logger.info("Parameter 2 (delivery_date): NULL");
             }
             
-            String trackingNumber = delivery.getTrackingNumber();
-            stmt.setString(3, trackingNumber);
-            logger.info("Parameter 3 (tracking_number): " + trackingNumber);
+            stmt.setString(3, delivery.getTrackingNumber());
             
             String status = delivery.getStatus();
             if (status == null || status.trim().isEmpty()) {
                 status = delivery.getDeliveryStatus();
             }
             stmt.setString(4, status);
-            logger.info("Parameter 4 (status): " + status);
-            
-            String notes = delivery.getNotes();
-            stmt.setString(5, notes);
-            logger.info("Parameter 5 (notes): " + notes);
-            
+            stmt.setString(5, delivery.getNotes());
             stmt.setInt(6, delivery.getId());
-            logger.info("Parameter 6 (id): " + delivery.getId());
+            stmt.setInt(7, delivery.getVersion());
             
             int rowsAffected = stmt.executeUpdate();
             logger.info("Update rows affected: " + rowsAffected);
             
             if (rowsAffected > 0) {
+                delivery.setVersion(delivery.getVersion() + 1);
+                invalidateDelivery(delivery.getId(), managedExportId);
+                deliveryTextIndex.index(delivery.getId(), formatDeliveryId(delivery.getId()), delivery);
                 logger.info("Successfully updated delivery");
-                return true;
-            } else {
-                logger.warning("No rows affected when updating delivery with ID: " + delivery.getId());
-                return false;
+                return UpdateResult.updated(delivery);
+            }
+            
+            // Nothing matched: the row was changed or deleted by someone else
+            Delivery_InfDTO current = findDeliveryRow(conn, delivery.getId());
+            if (current == null) {
+                logger.warning("Delivery " + delivery.getId() + " no longer exists");
+                return UpdateResult.notFound();
             }
+            logger.warning("Delivery " + delivery.getId() + " was changed by someone else (version "
+                + delivery.getVersion() + ", now " + current.getVersion() + ")");
+            return UpdateResult.conflict(current);
             
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error updating delivery: " + e.getMessage(), e);
             logger.severe("SQL State: " + e.getSQLState());
             logger.severe("Error Code: " + e.getErrorCode());
-            return false;
+            return UpdateResult.failed();
         } finally {
             closeResources(conn, stmt, null);
         }
     }
     
+    /**
+     * Read one delivery row on an open connection
+     *
+     * @return The delivery, or null if it does not exist
+     */
+    private Delivery_InfDTO findDeliveryRow(Connection conn, int id) throws SQLException {
+        try (PreparedStatement stmt = StatementCache.prepare(conn, "SELECT * FROM deliveries WHERE id = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapResultSetToDelivery(rs) : null;
+            }
+        }
+    }
+    
     /**
      * Delete a delivery record
      */
@@ -778,11 +1186,15 @@ public class DeliveryController {
             }
             
             String sql = "DELETE FROM deliveries WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, sql);
             stmt.setInt(1, id);
             
             int rowsAffected = stmt.executeUpdate();
             
+            if (rowsAffected > 0) {
+                invalidateDelivery(id, null);
+                deliveryTextIndex.remove(id);
+            }
             logger.info("Deleted delivery, rows affected: " + rowsAffected);
             return rowsAffected > 0;
             
@@ -819,7 +1231,7 @@ public class DeliveryController {
             }
             
             String sql = "SELECT * FROM deliveries WHERE id = ?";
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, sql);
             stmt.setInt(1, id);
             
             rs = stmt.executeQuery();
@@ -845,6 +1257,12 @@ public class DeliveryController {
      * Get a delivery by export ID
      */
     public Delivery_InfDTO getDeliveryByExportId(String exportId) {
+        Delivery_InfDTO cached = deliveryByExportCache.getIfPresent(extractExportId(exportId));
+        if (cached != null) {
+            logger.fine("Delivery cache hit for export ID: " + exportId);
+            return new Delivery_InfDTO(cached);
+        }
+        
         if (DatabaseManager.isOfflineMode()) {
             logger.info("In offline mode - returning sample delivery for export ID: " + exportId);
             return createSampleDelivery("DEL" + System.currentTimeMillis(), exportId);
@@ -865,13 +1283,17 @@ public class DeliveryController {
             String cleanExportId = extractExportId(exportId);
             
             String sql = "SELECT * FROM deliveries WHERE exportation_id = ? LIMIT 1";
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, sql);
             stmt.setString(1, cleanExportId);
             
+            long stamp = deliveryByExportCache.loadStamp(cleanExportId);
             rs = stmt.executeQuery();
             
             if (rs.next()) {
                 Delivery_InfDTO delivery = mapResultSetToDelivery(rs);
+                if (delivery != null) {
+                    deliveryByExportCache.putIfNotInvalidated(cleanExportId, new Delivery_InfDTO(delivery), stamp);
+                }
                 logger.info("Found delivery for export ID: " + exportId);
                 return delivery;
             }
@@ -898,7 +1320,7 @@ public class DeliveryController {
             delivery.setId(rs.getInt("id"));
             
             // Generate delivery_id since it's not stored in your table
-            String deliveryId = "DEL" + String.format("%06d", delivery.getId());
+            String deliveryId = formatDeliveryId(delivery.getId());
             delivery.setDeliveryId(deliveryId);
             
             // exportation_id
@@ -941,6 +1363,9 @@ public class DeliveryController {
                 delivery.setUpdatedAt(new Date());
             }
             
+            // row version for compare-and-set updates
+            delivery.setVersion(getVersionOrZero(rs));
+            
             // Set default values for fields not in your table
             delivery.setCarrierName("Not specified");
             delivery.setDeliveryAddress("Not specified");
@@ -969,6 +1394,14 @@ public class DeliveryController {
         }
     }
     
+    private int getVersionOrZero(ResultSet rs) {
+        try {
+            return rs.getInt("version");
+        } catch (SQLException e) {
+            return 0; // Table not migrated yet
+        }
+    }
+    
     private Date getDateOrNull(ResultSet rs, String columnName) {
         try {
             java.sql.Date sqlDate = rs.getDate(columnName);
@@ -990,11 +1423,18 @@ public class DeliveryController {
     /**
      * Extract export ID (remove EXP prefix if present)
      */
-    private String extractExportId(String exportId) {
+    private static String extractExportId(String exportId) {
         if (exportId == null) return null;
         return exportId.startsWith("EXP") ? exportId.substring(3) : exportId;
     }
     
+    /**
+     * Delivery ID as shown in the delivery list
+     */
+    public static String formatDeliveryId(int id) {
+        return "DEL" + String.format("%06d", id);
+    }
+    
     /**
      * Parse delivery ID to extract numeric part
      */
@@ -1013,6 +1453,27 @@ public class DeliveryController {
         }
     }
     
+    /**
+     * Drop an exportation from the lookup cache under both its raw and EXP-prefixed IDs
+     */
+    private static void invalidateExportation(String exportationId) {
+        if (exportationId == null) return;
+        String numericId = extractExportId(exportationId);
+        exportationCache.invalidate(numericId);
+        exportationCache.invalidate("EXP" + numericId);
+    }
+    
+    /**
+     * Drop a delivery from the lookup cache, by export ID and by database ID
+     * (the export ID may have changed in an update)
+     */
+    private void invalidateDelivery(int deliveryId, String exportId) {
+        if (exportId != null) {
+            deliveryByExportCache.invalidate(exportId);
+        }
+        deliveryByExportCache.invalidateIf(cachedDelivery -> cachedDelivery.getId() == deliveryId);
+    }
+    
     /**
      * Close database resources safely
      */
@@ -1023,7 +1484,10 @@ public class DeliveryController {
         if (stmt != null) {
             try { stmt.close(); } catch (SQLException e) { /* ignore */ }
         }
-        // Don't close connection if managed by DatabaseManager
+        // Closing a pooled connection returns it to the pool
+        if (conn != null) {
+            try { conn.close(); } catch (SQLException e) { /* ignore */ }
+        }
     }
     
     /**
@@ -1055,6 +1519,26 @@ public class DeliveryController {
         return sample;
     }
     
+    /**
+     * Deliveries from the local replica, or sample data if nothing was replicated yet
+     */
+    private List<Delivery_InfDTO> getOfflineDeliveries() {
+        List<Delivery_InfDTO> replicated = ReplicaSyncService.getInstance().getReplica().getDeliveries();
+        return replicated.isEmpty() ? getSampleDeliveries() : replicated;
+    }
+    
+    /**
+     * Exportation from the local replica; sample data if nothing was
+     * replicated yet, null if the replica does not know the ID
+     */
+    private Exportation_InfDTO getOfflineExportation(String exportationId) {
+        LocalReplica replica = ReplicaSyncService.getInstance().getReplica();
+        if (replica.getExportationCount() == 0) {
+            return createSampleExportation(exportationId);
+        }
+        return replica.getExportation(exportationId);
+    }
+    
     /**
      * Create sample deliveries for testing/offline mode
      */
@@ -0,0 +1,112 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.DeliveryChange;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the delivery change log.
+ * Triggers on deliveries append one row per insert, update and delete to
+ * delivery_changes; readers remember the last change ID they processed and
+ * ask for the changes after it.
+ */
+public class DeliveryChangeDAO {
+
+    private static final Logger logger = Logger.getLogger(DeliveryChangeDAO.class.getName());
+
+    // Changes are only read once they are this old, so a transaction that
+    // took a lower change ID but commits after a higher one is not skipped
+    public static final int SETTLE_SECONDS = 2;
+
+    static final String LATEST_SQL = "SELECT COALESCE(MAX(change_id), 0) FROM delivery_changes";
+
+    static final String CHANGES_AFTER_SQL =
+        "SELECT change_id, delivery_id, change_type FROM delivery_changes " +
+        "WHERE change_id > ? AND changed_at < TIMESTAMPADD(SECOND, -" + SETTLE_SECONDS + ", CURRENT_TIMESTAMP(3)) " +
+        "ORDER BY change_id ASC LIMIT ?";
+
+    static final String PURGE_SQL =
+        "DELETE FROM delivery_changes WHERE changed_at < TIMESTAMPADD(HOUR, -?, CURRENT_TIMESTAMP(3))";
+
+    /**
+     * ID of the newest change, the starting point for a new reader
+     *
+     * @return The change ID (0 if the log is empty), or -1 if the database is unavailable
+     */
+    public long findLatestChangeId() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return -1;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, LATEST_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error reading the latest delivery change", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Read the changes after the given one, oldest first
+     *
+     * @param afterChangeId Last change ID already processed
+     * @param limit Maximum number of changes
+     * @return The changes, or null if the database is unavailable
+     */
+    public List<DeliveryChange> findChangesAfter(long afterChangeId, int limit) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, CHANGES_AFTER_SQL)) {
+                stmt.setLong(1, afterChangeId);
+                stmt.setInt(2, Math.max(1, limit));
+
+                List<DeliveryChange> changes = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.add(new DeliveryChange(rs.getLong("change_id"), rs.getInt("delivery_id"),
+                            DeliveryChange.Type.fromCode(rs.getString("change_type"))));
+                    }
+                }
+                return changes;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error reading delivery changes after " + afterChangeId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Delete log entries older than the given age
+     *
+     * @param hours Age in hours
+     * @return Number of entries deleted
+     */
+    public int purgeOlderThan(int hours) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return 0;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, PURGE_SQL)) {
+                stmt.setInt(1, hours);
+                int deleted = stmt.executeUpdate();
+                if (deleted > 0) {
+                    logger.fine("Purged " + deleted + " delivery change log entries");
+                }
+                return deleted;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error purging the delivery change log", e);
+            return 0;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package exportation_panelera.dao;
 
 import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.UpdateResult;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -9,49 +11,50 @@ import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Data access for deliveries.
+ * Borrows a pooled connection for each call and returns it when done, so the
+ * DAO can live as long as a form without holding a connection; statements
+ * are reused through {@link StatementCache}.
+ */
 public class DeliveryDAO {
     private static final Logger logger = Logger.getLogger(DeliveryDAO.class.getName());
-    private Connection connection;
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    
-    public DeliveryDAO() {
-        try {
-            this.connection = DatabaseManager.getConnection();
-        } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Error creating DeliveryDAO: " + e.getMessage(), e);
-        }
-    }
-    
+
+    static final String FIND_ALL_SQL = "SELECT * FROM deliveries ORDER BY id ASC";
+
+    static final String FIND_BY_ID_SQL = "SELECT * FROM deliveries WHERE id = ?";
+
+    static final String INSERT_SQL =
+        "INSERT INTO deliveries (exportation_id, delivery_date, tracking_number, status, notes) " +
+        "VALUES (?, COALESCE(?, CURRENT_DATE), ?, ?, ?)";
+
+    static final String UPDATE_SQL =
+        "UPDATE deliveries SET exportation_id = ?, delivery_date = COALESCE(?, delivery_date), " +
+        "tracking_number = ?, status = ?, notes = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    static final String DELETE_SQL = "DELETE FROM deliveries WHERE id = ?";
+
     /**
      * Get all deliveries from the database
      */
     public List<Delivery_InfDTO> getAllDeliveries() {
         List<Delivery_InfDTO> deliveries = new ArrayList<>();
         
-        try {
-            // Make sure we have a connection
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseManager.getConnection();
-                if (connection == null) {
-                    logger.warning("Could not establish database connection");
-                    return deliveries; // Return empty list
-                }
+        try (Connection connection = DatabaseManager.getConnection()) {
+            if (connection == null) {
+                logger.warning("Could not establish database connection");
+                return deliveries; // Return empty list
             }
             
-            String query = "SELECT * FROM deliveries ORDER BY id ASC";
-            PreparedStatement statement = connection.prepareStatement(query);
-            ResultSet rs = statement.executeQuery();
-            
-            logger.info("Executing query: " + query);
-            
-            while (rs.next()) {
-                Delivery_InfDTO delivery = mapResultSetToDTO(rs);
-                deliveries.add(delivery);
+            logger.info("Executing query: " + FIND_ALL_SQL);
+            try (PreparedStatement statement = StatementCache.prepare(connection, FIND_ALL_SQL);
+                 ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    deliveries.add(mapResultSetToDTO(rs));
+                }
             }
             
-            rs.close();
-            statement.close();
-            
             logger.info("Retrieved " + deliveries.size() + " deliveries from database");
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving deliveries: " + e.getMessage(), e);
@@ -66,33 +69,24 @@ public class DeliveryDAO {
     public Delivery_InfDTO getDeliveryById(int id) {
         Delivery_InfDTO delivery = null;
         
-        try {
-            // Make sure we have a connection
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseManager.getConnection();
-                if (connection == null) {
-                    logger.warning("Could not establish database connection");
-                    return null;
-                }
+        try (Connection connection = DatabaseManager.getConnection()) {
+            if (connection == null) {
+                logger.warning("Could not establish database connection");
+                return null;
             }
             
-            String query = "SELECT * FROM deliveries WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setInt(1, id);
-            
-            logger.info("Executing query: " + query + " with ID: " + id);
-            
-            ResultSet rs = statement.executeQuery();
-            
-            if (rs.next()) {
-                delivery = mapResultSetToDTO(rs);
-                logger.info("Found delivery with ID: " + id);
-            } else {
-                logger.warning("No delivery found with ID: " + id);
+            logger.info("Executing query: " + FIND_BY_ID_SQL + " with ID: " + id);
+            try (PreparedStatement statement = StatementCache.prepare(connection, FIND_BY_ID_SQL)) {
+                statement.setInt(1, id);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next()) {
+                        delivery = mapResultSetToDTO(rs);
+                        logger.info("Found delivery with ID: " + id);
+                    } else {
+                        logger.warning("No delivery found with ID: " + id);
+                    }
+                }
             }
-            
-            rs.close();
-            statement.close();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error retrieving delivery with ID " + id + ": " + e.getMessage(), e);
         }
@@ -104,41 +98,18 @@ public class DeliveryDAO {
      * Insert a new delivery
      */
     public boolean insertDelivery(Delivery_InfDTO delivery) {
-        try {
-            // Make sure we have a connection
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseManager.getConnection();
-                if (connection == null) {
-                    logger.warning("Could not establish database connection");
-                    return false;
-                }
-            }
-            
-            String query = "INSERT INTO deliveries (exportation_id, delivery_date, tracking_number, status, notes) VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement statement = connection.prepareStatement(query);
-            
-            // Get export ID without "EXP" prefix if present
-            String exportId = delivery.getExportId();
-            if (exportId != null && exportId.startsWith("EXP")) {
-                exportId = exportId.substring(3);
+        try (Connection connection = DatabaseManager.getConnection()) {
+            if (connection == null) {
+                logger.warning("Could not establish database connection");
+                return false;
             }
             
-            statement.setString(1, exportId);
-            
-            // Convert delivery date to string
-            if (delivery.getDeliveryDate() != null) {
-                statement.setString(2, dateFormat.format(delivery.getDeliveryDate()));
-            } else {
-                statement.setNull(2, java.sql.Types.DATE);
+            int result;
+            try (PreparedStatement statement = StatementCache.prepare(connection, INSERT_SQL)) {
+                bindDelivery(statement, delivery);
+                result = statement.executeUpdate();
             }
             
-            statement.setString(3, delivery.getTrackingNumber());
-            statement.setString(4, delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus());
-            statement.setString(5, delivery.getNotes());
-            
-            int result = statement.executeUpdate();
-            statement.close();
-            
             logger.info("Insert result: " + result + " rows affected");
             return result > 0;
         } catch (SQLException e) {
@@ -148,50 +119,61 @@ public class DeliveryDAO {
     }
     
     /**
-     * Update an existing delivery
+     * Update an existing delivery if it still has the version it was read with
+     *
+     * @return true if the delivery was written
+     * @see #updateIfCurrent(Delivery_InfDTO)
      */
     public boolean updateDelivery(Delivery_InfDTO delivery) {
-        try {
-            // Make sure we have a connection
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseManager.getConnection();
-                if (connection == null) {
-                    logger.warning("Could not establish database connection");
-                    return false;
-                }
+        return updateIfCurrent(delivery).status() == UpdateResult.Status.UPDATED;
+    }
+    
+    /**
+     * Update a delivery only if it still has the version it was read with
+     * (compare-and-set on the version column)
+     *
+     * @param delivery The delivery with new values and its read version
+     * @return The outcome; on success the delivery carries its new version,
+     *         on conflict the result holds the current row
+     */
+    public UpdateResult<Delivery_InfDTO> updateIfCurrent(Delivery_InfDTO delivery) {
+        if (delivery == null || delivery.getId() <= 0) {
+            logger.warning("Cannot update a delivery without a database ID");
+            return UpdateResult.failed();
+        }
+        
+        try (Connection connection = DatabaseManager.getConnection()) {
+            if (connection == null) {
+                logger.warning("Could not establish database connection");
+                return UpdateResult.failed();
             }
             
-            String query = "UPDATE deliveries SET exportation_id = ?, delivery_date = ?, tracking_number = ?, status = ?, notes = ? WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            
-            // Get export ID without "EXP" prefix if present
-            String exportId = delivery.getExportId();
-            if (exportId != null && exportId.startsWith("EXP")) {
-                exportId = exportId.substring(3);
+            try (PreparedStatement statement = StatementCache.prepare(connection, UPDATE_SQL)) {
+                bindDelivery(statement, delivery);
+                statement.setInt(6, delivery.getId());
+                statement.setInt(7, delivery.getVersion());
+                if (statement.executeUpdate() > 0) {
+                    delivery.setVersion(delivery.getVersion() + 1);
+                    return UpdateResult.updated(delivery);
+                }
             }
             
-            statement.setString(1, exportId);
-            
-            // Convert delivery date to string
-            if (delivery.getDeliveryDate() != null) {
-                statement.setString(2, dateFormat.format(delivery.getDeliveryDate()));
-            } else {
-                statement.setNull(2, java.sql.Types.DATE);
+            // Nothing matched: changed or deleted by someone else
+            try (PreparedStatement statement = StatementCache.prepare(connection, FIND_BY_ID_SQL)) {
+                statement.setInt(1, delivery.getId());
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        return UpdateResult.notFound();
+                    }
+                    Delivery_InfDTO current = mapResultSetToDTO(rs);
+                    logger.warning("Delivery " + delivery.getId() + " was changed by someone else (version "
+                        + delivery.getVersion() + ", now " + current.getVersion() + ")");
+                    return UpdateResult.conflict(current);
+                }
             }
-            
-            statement.setString(3, delivery.getTrackingNumber());
-            statement.setString(4, delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus());
-            statement.setString(5, delivery.getNotes());
-            statement.setInt(6, delivery.getId());
-            
-            int result = statement.executeUpdate();
-            statement.close();
-            
-            logger.info("Update result: " + result + " rows affected");
-            return result > 0;
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Error updating delivery: " + e.getMessage(), e);
-            return false;
+            return UpdateResult.failed();
         }
     }
     
@@ -199,22 +181,17 @@ public class DeliveryDAO {
      * Delete a delivery by its ID
      */
     public boolean deleteDelivery(int id) {
-        try {
-            // Make sure we have a connection
-            if (connection == null || connection.isClosed()) {
-                connection = DatabaseManager.getConnection();
-                if (connection == null) {
-                    logger.warning("Could not establish database connection");
-                    return false;
-                }
+        try (Connection connection = DatabaseManager.getConnection()) {
+            if (connection == null) {
+                logger.warning("Could not establish database connection");
+                return false;
             }
             
-            String query = "DELETE FROM deliveries WHERE id = ?";
-            PreparedStatement statement = connection.prepareStatement(query);
-            statement.setInt(1, id);
-            
-            int result = statement.executeUpdate();
-            statement.close();
+            int result;
+            try (PreparedStatement statement = StatementCache.prepare(connection, DELETE_SQL)) {
+                statement.setInt(1, id);
+                result = statement.executeUpdate();
+            }
             
             logger.info("Delete result: " + result + " rows affected");
             return result > 0;
@@ -224,6 +201,30 @@ public class DeliveryDAO {
         }
     }
     
+    /**
+     * Bind the first five parameters of an insert or update
+     */
+    private void bindDelivery(PreparedStatement statement, Delivery_InfDTO delivery) throws SQLException {
+        // Get export ID without "EXP" prefix if present
+        String exportId = delivery.getExportId();
+        if (exportId != null && exportId.startsWith("EXP")) {
+            exportId = exportId.substring(3);
+        }
+        
+        statement.setString(1, exportId);
+        
+        // Convert delivery date to string; without one the database keeps or picks the date
+        if (delivery.getDeliveryDate() != null) {
+            statement.setString(2, dateFormat.format(delivery.getDeliveryDate()));
+        } else {
+            statement.setNull(2, java.sql.Types.DATE);
+        }
+        
+        statement.setString(3, delivery.getTrackingNumber());
+        statement.setString(4, delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus());
+        statement.setString(5, delivery.getNotes());
+    }
+    
     /**
      * Map ResultSet to DTO
      */
@@ -252,6 +253,9 @@ public class DeliveryDAO {
             // Notes
             delivery.setNotes(rs.getString("notes"));
             
+            // Row version for compare-and-set updates (V7)
+            delivery.setVersion(rs.getInt("version"));
+            
             // Handle date fields
             String deliveryDateStr = rs.getString("delivery_date");
             try {
@@ -0,0 +1,275 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maintenance of the monthly partitions of the deliveries table (V9).
+ * Splits the catch-all p_future partition so there is always a partition
+ * for the next few months, and moves partitions of closed months into the
+ * compressed deliveries_archive table: rows are copied, checked, and the
+ * partition is dropped, which costs no more than a file delete however many
+ * rows it held.
+ */
+public class DeliveryPartitionDAO {
+
+    private static final Logger logger = Logger.getLogger(DeliveryPartitionDAO.class.getName());
+
+    static final String FUTURE_PARTITION = "p_future";
+
+    // Named lock held while maintaining, so only one client alters the table
+    static final String LOCK_NAME = "deliveries_partition_maintenance";
+
+    // Statuses after which a delivery no longer changes; compared case-insensitively
+    static final String FINAL_STATUSES = "('DELIVERED', 'CANCELLED')";
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    static final String PARTITIONS_SQL =
+        "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'deliveries' AND PARTITION_NAME IS NOT NULL " +
+        "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    static final String ARCHIVE_COLUMNS =
+        "id, delivery_id, exportation_id, carrier_name, tracking_number, delivery_address, contact_person, " +
+        "contact_phone, delivery_date, status, notes, shipping_method, shipping_cost, shipping_currency, " +
+        "reference_number, created_at, updated_at, version";
+
+    /**
+     * One range partition of the deliveries table
+     *
+     * @param name Partition name
+     * @param lessThan First date not in the partition, or null for MAXVALUE
+     */
+    public record Partition(String name, LocalDate lessThan) {
+    }
+
+    /**
+     * Add the partitions missing up to monthsAhead months after today, then
+     * archive the partitions older than the last retentionMonths months
+     * (counting the current one). A partition that still holds an open
+     * delivery is kept.
+     * Does nothing if another client is maintaining the table.
+     *
+     * @return Number of partitions archived, or -1 if the database is unavailable or the table is not partitioned
+     */
+    public int maintain(LocalDate today, int monthsAhead, int retentionMonths) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, skipping delivery partition maintenance");
+                return -1;
+            }
+            if (!acquireLock(conn)) {
+                logger.fine("Delivery partitions are being maintained by another client");
+                return 0;
+            }
+            try {
+                List<Partition> partitions = findPartitions(conn);
+                if (partitions.isEmpty()) {
+                    logger.warning("deliveries is not partitioned; run migration V9");
+                    return -1;
+                }
+
+                List<YearMonth> months = monthsToAdd(lastBound(partitions), findOldestFutureDate(conn),
+                    today, monthsAhead);
+                if (!months.isEmpty()) {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate(reorganizeSql(months));
+                    }
+                    logger.info("Added delivery partitions " + partitionName(months.get(0))
+                        + " to " + partitionName(months.get(months.size() - 1)));
+                    partitions = findPartitions(conn);
+                }
+
+                int archived = 0;
+                for (Partition partition : closedPartitions(partitions, today, retentionMonths)) {
+                    if (archivePartition(conn, partition.name())) {
+                        archived++;
+                    }
+                }
+                return archived;
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error maintaining delivery partitions", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Copy a partition into deliveries_archive and drop it. Rows already in
+     * the archive are skipped, so a run interrupted before the drop is
+     * simply repeated.
+     */
+    private boolean archivePartition(Connection conn, String name) throws SQLException {
+        String partition = " FROM deliveries PARTITION (" + name + ")";
+
+        long open = count(conn, "SELECT COUNT(*)" + partition + " WHERE COALESCE(status, '') NOT IN " + FINAL_STATUSES);
+        if (open > 0) {
+            logger.info("Not archiving delivery partition " + name + ": " + open + " deliveries are still open");
+            return false;
+        }
+
+        int copied;
+        try (Statement stmt = conn.createStatement()) {
+            copied = stmt.executeUpdate("INSERT IGNORE INTO deliveries_archive (" + ARCHIVE_COLUMNS + ") "
+                + "SELECT " + ARCHIVE_COLUMNS + partition);
+        }
+
+        // A row changed after the copy would be lost by the drop
+        long missing = count(conn, "SELECT COUNT(*)" + partition + " d WHERE NOT EXISTS "
+            + "(SELECT 1 FROM deliveries_archive a WHERE a.id = d.id AND a.version = d.version)");
+        if (missing > 0) {
+            logger.warning("Not archiving delivery partition " + name + ": " + missing
+                + " rows differ from their archived copy");
+            return false;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE deliveries DROP PARTITION " + name);
+        }
+        logger.info("Archived delivery partition " + name + " (" + copied + " rows copied)");
+        return true;
+    }
+
+    private List<Partition> findPartitions(Connection conn) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(PARTITIONS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                partitions.add(new Partition(rs.getString(1), parseBound(rs.getString(2))));
+            }
+        }
+        return partitions;
+    }
+
+    private LocalDate findOldestFutureDate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT MIN(delivery_date) FROM deliveries PARTITION (" + FUTURE_PARTITION + ")")) {
+            java.sql.Date oldest = rs.next() ? rs.getDate(1) : null;
+            return oldest != null ? oldest.toLocalDate() : null;
+        }
+    }
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            stmt.setString(1, LOCK_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error releasing delivery partition lock", e);
+        }
+    }
+
+    /**
+     * Name of the partition holding a month, e.g. p202403
+     */
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(NAME_FORMAT);
+    }
+
+    /**
+     * Parse PARTITION_DESCRIPTION of a RANGE COLUMNS partition, which is a
+     * quoted date such as '2024-04-01' or MAXVALUE
+     */
+    static LocalDate parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").trim());
+    }
+
+    /**
+     * Upper bound of the last monthly partition, or null if there is only p_future
+     */
+    static LocalDate lastBound(List<Partition> partitions) {
+        LocalDate last = null;
+        for (Partition partition : partitions) {
+            if (partition.lessThan() != null) {
+                last = partition.lessThan();
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Months to split off p_future. They continue from the last monthly
+     * partition; on the first run they start at the oldest delivery, so
+     * existing rows end up in their own months.
+     *
+     * @param lastBound Upper bound of the last monthly partition, or null if none
+     * @param oldestInFuture Oldest delivery date in p_future, or null if it is empty
+     * @return The months in order, empty if the partitions already reach far enough
+     */
+    static List<YearMonth> monthsToAdd(LocalDate lastBound, LocalDate oldestInFuture, LocalDate today, int monthsAhead) {
+        YearMonth first;
+        if (lastBound != null) {
+            first = YearMonth.from(lastBound);
+        } else if (oldestInFuture != null && oldestInFuture.isBefore(today)) {
+            first = YearMonth.from(oldestInFuture);
+        } else {
+            first = YearMonth.from(today);
+        }
+
+        YearMonth last = YearMonth.from(today).plusMonths(Math.max(0, monthsAhead));
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * Statement splitting p_future into the given months plus a new p_future
+     */
+    static String reorganizeSql(List<YearMonth> months) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE deliveries REORGANIZE PARTITION ")
+            .append(FUTURE_PARTITION).append(" INTO (");
+        for (YearMonth month : months) {
+            sql.append("PARTITION ").append(partitionName(month))
+               .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        sql.append("PARTITION ").append(FUTURE_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        return sql.toString();
+    }
+
+    /**
+     * Partitions of months before the last retentionMonths months, counting
+     * the current one. The current month is never closed.
+     */
+    static List<Partition> closedPartitions(List<Partition> partitions, LocalDate today, int retentionMonths) {
+        LocalDate cutOff = YearMonth.from(today).minusMonths(Math.max(1, retentionMonths) - 1L).atDay(1);
+        List<Partition> closed = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.lessThan() != null && !partition.lessThan().isAfter(cutOff)) {
+                closed.add(partition);
+            }
+        }
+        return closed;
+    }
+}
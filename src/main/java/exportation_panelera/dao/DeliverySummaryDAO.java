@@ -0,0 +1,396 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.DeliverySummary;
+import exportation_panelera.Model.DeliverySummary.Column;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read model for the delivery list.
+ * Joins deliveries to their exportation in one query and maps each row into a
+ * {@link DeliverySummary}, selecting only the requested columns. Pages are
+ * read with keyset pagination on the delivery ID, or on an indexed sort
+ * column followed by the ID, so later pages cost the same as the first one.
+ */
+public class DeliverySummaryDAO {
+
+    private static final Logger logger = Logger.getLogger(DeliverySummaryDAO.class.getName());
+
+    // Largest page a caller may request
+    static final int MAX_PAGE_SIZE = 5000;
+
+    static final String COUNT_SQL = "SELECT COUNT(*) FROM deliveries";
+
+    /**
+     * Columns shown by the delivery management table
+     */
+    public static final Set<Column> DEFAULT_COLUMNS = EnumSet.allOf(Column.class);
+
+    /**
+     * Columns a page can be ordered by. Each one has an index on deliveries,
+     * and InnoDB secondary indexes end with the primary key, so
+     * {@code ORDER BY column, id} is read in index order without a filesort.
+     * Pages filtered by status and ordered by delivery date use
+     * idx_deliveries_status_date instead.
+     */
+    public enum SortColumn {
+        ID("d.id", null),
+        EXPORTATION_ID("d.exportation_id", Column.EXPORTATION_ID),
+        TRACKING_NUMBER("d.tracking_number", Column.TRACKING_NUMBER),
+        STATUS("d.status", Column.STATUS),
+        DELIVERY_DATE("d.delivery_date", Column.DELIVERY_DATE);
+
+        private final String expression;
+        private final Column column;
+
+        SortColumn(String expression, Column column) {
+            this.expression = expression;
+            this.column = column;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * Projection column holding the sort value, or null for the ID
+         */
+        public Column getColumn() {
+            return column;
+        }
+    }
+
+    /**
+     * Position after the last row of a page: its sort value and its ID.
+     * The value is null when the page is ordered by ID or when the row's
+     * sort column is NULL.
+     *
+     * @param value Sort value of the last row
+     * @param id Database ID of the last row
+     */
+    public record Cursor(Object value, int id) {
+    }
+
+    /**
+     * Read one page of delivery summaries
+     *
+     * @param columns Columns to select; the delivery ID is always included
+     * @param status Only return deliveries with this status, or null for all
+     * @param afterId Return deliveries with an ID greater than this (0 for the first page)
+     * @param limit Maximum number of rows (capped at {@value #MAX_PAGE_SIZE})
+     * @return The page in ascending ID order, empty if none or if the database is unavailable
+     */
+    public List<DeliverySummary> findPage(Set<Column> columns, String status, int afterId, int limit) {
+        return findPage(columns, status, SortColumn.ID, false, new Cursor(null, Math.max(0, afterId)), limit);
+    }
+
+    /**
+     * Read one page of delivery summaries in the given order.
+     * Rows with equal sort values are ordered by ID. NULL sort values come
+     * first in ascending order and last in descending order, as in MySQL.
+     *
+     * @param columns Columns to select; the delivery ID and the sort column are always included
+     * @param status Only return deliveries with this status, or null for all
+     * @param sortBy Column to order by
+     * @param descending Whether to order from the highest value down
+     * @param after Cursor of the previous page from {@link #nextCursor(List, SortColumn)}, or null for the first page
+     * @param limit Maximum number of rows (capped at {@value #MAX_PAGE_SIZE})
+     * @return The page, empty if none or if the database is unavailable
+     */
+    public List<DeliverySummary> findPage(Set<Column> columns, String status, SortColumn sortBy,
+                                          boolean descending, Cursor after, int limit) {
+        return findPage(columns, status, sortBy, descending, after, limit, false);
+    }
+
+    /**
+     * Read one page of delivery summaries in the given order, optionally
+     * including deliveries moved to deliveries_archive. Cursors work the
+     * same across both tables, since IDs are never reused.
+     *
+     * @param includeArchived Whether to also read archived deliveries
+     * @see #findPage(Set, String, SortColumn, boolean, Cursor, int)
+     */
+    public List<DeliverySummary> findPage(Set<Column> columns, String status, SortColumn sortBy,
+                                          boolean descending, Cursor after, int limit, boolean includeArchived) {
+        List<DeliverySummary> rows = new ArrayList<>();
+        SortColumn sort = sortBy != null ? sortBy : SortColumn.ID;
+        Set<Column> selected = columns == null || columns.isEmpty()
+            ? EnumSet.copyOf(DEFAULT_COLUMNS)
+            : EnumSet.copyOf(columns);
+        if (sort.getColumn() != null) {
+            selected.add(sort.getColumn());
+        }
+        boolean filterStatus = status != null && !status.trim().isEmpty();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        String sql = buildQuery(selected, filterStatus, sort, descending, after, includeArchived);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, returning empty delivery page");
+                return rows;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                int index = 1;
+                // Each table of an archive query binds its own conditions and limit
+                for (int table = 0; table < (includeArchived ? 2 : 1); table++) {
+                    index = bindCursor(stmt, index, sort, after);
+                    if (filterStatus) {
+                        stmt.setString(index++, status.trim());
+                    }
+                    stmt.setInt(index++, pageSize);
+                }
+                if (includeArchived) {
+                    stmt.setInt(index, pageSize);
+                }
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapRow(rs, selected));
+                    }
+                }
+            }
+
+            logger.fine("Loaded " + rows.size() + " delivery summaries ordered by " + sort
+                + (descending ? " DESC" : " ASC"));
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading delivery summaries", e);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Number of live (not archived) deliveries, so a screen can decide
+     * whether to load the whole list or page it
+     *
+     * @return The count, or -1 if the database is unavailable
+     */
+    public long count() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot count deliveries");
+                return -1;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, COUNT_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error counting deliveries", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Read every delivery summary, page by page
+     *
+     * @param columns Columns to select
+     * @param pageSize Rows fetched per round trip
+     * @return All deliveries in ascending ID order
+     */
+    public List<DeliverySummary> findAll(Set<Column> columns, int pageSize) {
+        List<DeliverySummary> all = new ArrayList<>();
+        int afterId = 0;
+        while (true) {
+            List<DeliverySummary> page = findPage(columns, null, afterId, pageSize);
+            all.addAll(page);
+            if (page.size() < Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE))) {
+                return all;
+            }
+            afterId = nextCursor(page);
+        }
+    }
+
+    /**
+     * Cursor to pass as afterId for the page following the given one
+     */
+    public static int nextCursor(List<DeliverySummary> page) {
+        return page.isEmpty() ? 0 : page.get(page.size() - 1).id();
+    }
+
+    /**
+     * Cursor to pass as after for the page following the given one
+     *
+     * @return The cursor, or null if the page is empty
+     */
+    public static Cursor nextCursor(List<DeliverySummary> page, SortColumn sortBy) {
+        if (page.isEmpty()) {
+            return null;
+        }
+        DeliverySummary last = page.get(page.size() - 1);
+        return new Cursor(sortValue(last, sortBy), last.id());
+    }
+
+    static Object sortValue(DeliverySummary summary, SortColumn sortBy) {
+        return switch (sortBy != null ? sortBy : SortColumn.ID) {
+            case EXPORTATION_ID -> summary.exportationId();
+            case TRACKING_NUMBER -> summary.trackingNumber();
+            case STATUS -> summary.status();
+            case DELIVERY_DATE -> summary.deliveryDate();
+            case ID -> null;
+        };
+    }
+
+    /**
+     * Build the projection query ordered by ID. The join to exportations is
+     * only added when one of its columns was requested.
+     */
+    static String buildQuery(Set<Column> columns, boolean filterStatus) {
+        return buildQuery(columns, filterStatus, SortColumn.ID, false, new Cursor(null, 0));
+    }
+
+    /**
+     * Build the projection query for a sorted page. The keyset condition is
+     * spelled out as ORs rather than a row comparison so that MySQL turns it
+     * into a range on the sort column's index, and it steps over the block
+     * of NULL sort values explicitly.
+     */
+    static String buildQuery(Set<Column> columns, boolean filterStatus, SortColumn sortBy,
+                             boolean descending, Cursor after) {
+        return buildQuery(columns, filterStatus, sortBy, descending, after, false);
+    }
+
+    /**
+     * Build the projection query for a sorted page. With includeArchived
+     * the page is read from deliveries and deliveries_archive separately,
+     * each in index order and limited to the page size, and the two are
+     * merged by a UNION ALL ordered the same way.
+     */
+    static String buildQuery(Set<Column> columns, boolean filterStatus, SortColumn sortBy,
+                             boolean descending, Cursor after, boolean includeArchived) {
+        String live = buildSelect("deliveries", columns, filterStatus, sortBy, descending, after);
+        if (!includeArchived) {
+            return live;
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        // Columns of a UNION are named after the first SELECT, without the table alias
+        String order = sortBy != SortColumn.ID
+            ? sortBy.getExpression().substring(2) + direction + ", id" + direction
+            : "id" + direction;
+        return "(" + live + ") UNION ALL ("
+            + buildSelect("deliveries_archive", columns, filterStatus, sortBy, descending, after)
+            + ") ORDER BY " + order + " LIMIT ?";
+    }
+
+    private static String buildSelect(String table, Set<Column> columns, boolean filterStatus, SortColumn sortBy,
+                                      boolean descending, Cursor after) {
+        StringBuilder sql = new StringBuilder("SELECT d.id");
+        boolean needsJoin = false;
+        for (Column column : columns) {
+            sql.append(", ").append(column.getExpression());
+            needsJoin |= column.isFromExportation();
+        }
+
+        sql.append(" FROM ").append(table).append(" d");
+        if (needsJoin) {
+            sql.append(" LEFT JOIN exportations e ON e.exportation_id = d.exportation_id");
+        }
+        List<String> conditions = new ArrayList<>();
+        if (after != null) {
+            conditions.add(keysetCondition(sortBy, descending, after));
+        }
+        if (filterStatus) {
+            conditions.add("d.status = ?");
+        }
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        if (sortBy != SortColumn.ID) {
+            sql.append(sortBy.getExpression()).append(direction).append(", ");
+        }
+        sql.append("d.id").append(direction).append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    private static String keysetCondition(SortColumn sortBy, boolean descending, Cursor after) {
+        String op = descending ? "<" : ">";
+        if (sortBy == SortColumn.ID) {
+            return "d.id " + op + " ?";
+        }
+
+        String column = sortBy.getExpression();
+        if (after.value() == null) {
+            // Still inside the NULL block: first in ascending order, last in descending order
+            return descending
+                ? "(" + column + " IS NULL AND d.id < ?)"
+                : "((" + column + " IS NULL AND d.id > ?) OR " + column + " IS NOT NULL)";
+        }
+        return "(" + column + " " + op + " ? OR (" + column + " = ? AND d.id " + op + " ?)"
+            + (descending ? " OR " + column + " IS NULL)" : ")");
+    }
+
+    /**
+     * Bind the parameters of the keyset condition
+     *
+     * @return Index of the next parameter
+     */
+    private static int bindCursor(PreparedStatement stmt, int index, SortColumn sortBy, Cursor after)
+            throws SQLException {
+        if (after == null) {
+            return index;
+        }
+        if (sortBy != SortColumn.ID && after.value() != null) {
+            Object value = after.value();
+            for (int i = 0; i < 2; i++) {
+                if (value instanceof Date date) {
+                    stmt.setDate(index++, new java.sql.Date(date.getTime()));
+                } else {
+                    stmt.setString(index++, value.toString());
+                }
+            }
+        }
+        stmt.setInt(index++, after.id());
+        return index;
+    }
+
+    private DeliverySummary mapRow(ResultSet rs, Set<Column> columns) throws SQLException {
+        // Columns are read by position: d.id first, then the selected columns in enum order
+        int index = 1;
+        int id = rs.getInt(index++);
+
+        String exportationId = null, trackingNumber = null, status = null, notes = null;
+        String destination = null, productType = null, currency = null;
+        Date deliveryDate = null, updatedAt = null, createdAt = null;
+        double amount = 0;
+
+        for (Column column : columns) {
+            switch (column) {
+                case EXPORTATION_ID -> exportationId = rs.getString(index);
+                case TRACKING_NUMBER -> trackingNumber = rs.getString(index);
+                case STATUS -> status = rs.getString(index);
+                case DELIVERY_DATE -> deliveryDate = toDate(rs.getDate(index));
+                case NOTES -> notes = rs.getString(index);
+                case UPDATED_AT -> updatedAt = toDate(rs.getTimestamp(index));
+                case CREATED_AT -> createdAt = toDate(rs.getTimestamp(index));
+                case DESTINATION -> destination = rs.getString(index);
+                case PRODUCT_TYPE -> productType = rs.getString(index);
+                case AMOUNT -> amount = rs.getDouble(index);
+                case CURRENCY -> currency = rs.getString(index);
+            }
+            index++;
+        }
+
+        return new DeliverySummary(id, exportationId, trackingNumber, status, deliveryDate, notes,
+            destination, productType, amount, currency, updatedAt, createdAt);
+    }
+
+    private static Date toDate(java.util.Date value) {
+        return value != null ? new Date(value.getTime()) : null;
+    }
+}
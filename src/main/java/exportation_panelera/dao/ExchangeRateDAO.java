@@ -0,0 +1,66 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the effective-dated exchange rates (V11).
+ * The table is small (one row per currency per rate change), so it is
+ * read whole and turned into an in-memory snapshot by CurrencyService.
+ */
+public class ExchangeRateDAO {
+
+    private static final Logger logger = Logger.getLogger(ExchangeRateDAO.class.getName());
+
+    static final String FIND_ALL_SQL =
+        "SELECT currency, effective_date, units_per_usd FROM exchange_rates " +
+        "ORDER BY effective_date, currency";
+
+    /**
+     * A rate from its effective date until the next rate of the same currency
+     *
+     * @param currency Currency code
+     * @param effectiveDate First day the rate applies
+     * @param unitsPerUsd Units of the currency per US dollar
+     */
+    public record Rate(String currency, LocalDate effectiveDate, BigDecimal unitsPerUsd) {
+    }
+
+    /**
+     * Read every rate
+     *
+     * @return Rates ordered by effective date, or null if the database is unavailable
+     */
+    public List<Rate> findAll() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot read exchange rates");
+                return null;
+            }
+
+            List<Rate> rates = new ArrayList<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rates.add(new Rate(
+                        rs.getString("currency"),
+                        rs.getDate("effective_date").toLocalDate(),
+                        rs.getBigDecimal("units_per_usd")));
+                }
+            }
+            return rates;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading exchange rates", e);
+            return null;
+        }
+    }
+}
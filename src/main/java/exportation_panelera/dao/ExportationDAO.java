@@ -0,0 +1,634 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.ExportationLot;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.Model.UpdateResult;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for exportation records.
+ * Provides single and batch reads, paged listings and batched upserts so that
+ * screens showing many deliveries can resolve their exportations in one query.
+ */
+public class ExportationDAO {
+
+    private static final Logger logger = Logger.getLogger(ExportationDAO.class.getName());
+
+    // Maximum number of IDs bound into a single IN (...) clause
+    static final int MAX_IN_CLAUSE_SIZE = StatementCache.maxInListSize();
+
+    // Maximum number of rows sent in a single JDBC batch
+    static final int BATCH_SIZE = 500;
+
+    // Largest page a listing may request
+    static final int MAX_PAGE_SIZE = 1000;
+
+    static final String SELECT_COLUMNS =
+        "SELECT id, exportation_id, product_type, amount, destination, exportation_date, unit_price, " +
+        "currency, has_delivery, status, notes, customer_name, customer_email, customer_phone, " +
+        "document_number, export_license, employee_id, transport_method, created_at, updated_at, version " +
+        "FROM exportations";
+
+    // SQL Queries
+    static final String FIND_BY_ID_SQL =
+        SELECT_COLUMNS + " WHERE exportation_id = ?";
+
+    static final String LIST_BY_STATUS_SQL =
+        SELECT_COLUMNS + " WHERE status = ? ORDER BY exportation_date DESC, id DESC LIMIT ? OFFSET ?";
+
+    static final String LIST_BY_DATE_SQL =
+        SELECT_COLUMNS + " WHERE exportation_date BETWEEN ? AND ? ORDER BY exportation_date DESC, id DESC LIMIT ? OFFSET ?";
+
+    static final String PENDING_LOTS_SQL =
+        "SELECT exportation_id, destination, transport_method, exportation_date, amount FROM exportations " +
+        "WHERE status = 'PENDING' AND exportation_date BETWEEN ? AND ? AND exportation_id IS NOT NULL";
+
+    static final String UPSERT_SQL =
+        "INSERT INTO exportations (exportation_id, product_type, amount, destination, exportation_date, " +
+        "export_date, unit_price, currency, has_delivery, status, notes, customer_name, customer_email, " +
+        "customer_phone, document_number, export_license, employee_id, transport_method) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE product_type = VALUES(product_type), amount = VALUES(amount), " +
+        "destination = VALUES(destination), exportation_date = VALUES(exportation_date), " +
+        "export_date = VALUES(export_date), unit_price = VALUES(unit_price), currency = VALUES(currency), " +
+        "has_delivery = VALUES(has_delivery), status = VALUES(status), notes = VALUES(notes), " +
+        "customer_name = VALUES(customer_name), customer_email = VALUES(customer_email), " +
+        "customer_phone = VALUES(customer_phone), document_number = VALUES(document_number), " +
+        "export_license = VALUES(export_license), employee_id = VALUES(employee_id), " +
+        "transport_method = VALUES(transport_method), version = version + 1";
+
+    static final String UPDATE_SQL =
+        "UPDATE exportations SET product_type = ?, amount = ?, destination = ?, exportation_date = ?, " +
+        "export_date = ?, unit_price = ?, currency = ?, has_delivery = ?, status = ?, notes = ?, " +
+        "customer_name = ?, customer_email = ?, customer_phone = ?, document_number = ?, " +
+        "export_license = ?, employee_id = ?, transport_method = ?, version = version + 1 " +
+        "WHERE exportation_id = ? AND version = ?";
+
+    private static final String DELETE_SQL =
+        "DELETE FROM exportations WHERE exportation_id = ?";
+
+    /**
+     * Told about every exportation this DAO inserted, updated or deleted,
+     * after the change is committed, e.g. to drop it from a lookup cache
+     */
+    public interface WriteListener {
+        /**
+         * @param exportationId Exportation ID of the written row
+         */
+        void exportationWritten(String exportationId);
+    }
+
+    // Shared because callers create their own DAO instances
+    private static final List<WriteListener> writeListeners = new CopyOnWriteArrayList<>();
+
+    private final ShipmentRollupDAO rollupDAO = new ShipmentRollupDAO();
+
+    /**
+     * Register a listener for exportation writes made through any ExportationDAO
+     */
+    public static void addWriteListener(WriteListener listener) {
+        writeListeners.add(listener);
+    }
+
+    /**
+     * Unregister a write listener
+     */
+    public static void removeWriteListener(WriteListener listener) {
+        writeListeners.remove(listener);
+    }
+
+    /**
+     * Find an exportation by its business ID
+     *
+     * @param exportationId The exportation ID
+     * @return The exportation, or null if not found or the database is unavailable
+     */
+    public Exportation_InfDTO findById(String exportationId) {
+        if (exportationId == null || exportationId.trim().isEmpty()) {
+            return null;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot find exportation " + exportationId);
+                return null;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_BY_ID_SQL)) {
+                stmt.setString(1, exportationId.trim());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? mapResultSetToExportation(rs) : null;
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error finding exportation " + exportationId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Load many exportations in as few round trips as possible.
+     * IDs are bound into a single IN (...) clause, split into chunks of
+     * {@link #MAX_IN_CLAUSE_SIZE} only for very large requests. Each chunk is
+     * padded to one of the fixed sizes of {@link StatementCache#inListSize(int)}
+     * so the driver's statement cache holds a handful of SQL strings.
+     *
+     * @param exportationIds The exportation IDs to load (duplicates and blanks are ignored)
+     * @return Map from exportation ID to exportation; IDs that do not exist are absent
+     */
+    public Map<String, Exportation_InfDTO> findByIds(Collection<String> exportationIds) {
+        Map<String, Exportation_InfDTO> result = new LinkedHashMap<>();
+        if (exportationIds == null || exportationIds.isEmpty()) {
+            return result;
+        }
+
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(exportationIds));
+        ids.removeIf(id -> id == null || id.trim().isEmpty());
+        if (ids.isEmpty()) {
+            return result;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot load " + ids.size() + " exportations");
+                return result;
+            }
+
+            for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE_SIZE) {
+                List<String> chunk = ids.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, ids.size()));
+                int size = StatementCache.inListSize(chunk.size());
+                String sql = SELECT_COLUMNS + " WHERE exportation_id IN (" + StatementCache.placeholders(size) + ")";
+
+                try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                    for (int i = 0; i < size; i++) {
+                        stmt.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Exportation_InfDTO exportation = mapResultSetToExportation(rs);
+                            result.put(exportation.getExportationId(), exportation);
+                        }
+                    }
+                }
+            }
+
+            logger.fine("Loaded " + result.size() + " of " + ids.size() + " requested exportations");
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error loading exportations by IDs", e);
+        }
+
+        return result;
+    }
+
+    /**
+     * List exportations with the given status, newest first (served by idx_exportations_status_date)
+     *
+     * @param status The status to filter by
+     * @param page Zero-based page number
+     * @param pageSize Number of rows per page (capped at {@value #MAX_PAGE_SIZE})
+     * @return The requested page, empty if none
+     */
+    public List<Exportation_InfDTO> findByStatus(String status, int page, int pageSize) {
+        if (status == null || status.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return queryPage(LIST_BY_STATUS_SQL, page, pageSize, stmt -> {
+            stmt.setString(1, status.trim());
+            return 1;
+        });
+    }
+
+    /**
+     * List exportations whose exportation date falls within the range, newest first
+     * (served by idx_export_date)
+     *
+     * @param from First date included
+     * @param to Last date included
+     * @param page Zero-based page number
+     * @param pageSize Number of rows per page (capped at {@value #MAX_PAGE_SIZE})
+     * @return The requested page, empty if none
+     */
+    public List<Exportation_InfDTO> findByDateRange(Date from, Date to, int page, int pageSize) {
+        if (from == null || to == null) {
+            return Collections.emptyList();
+        }
+        return queryPage(LIST_BY_DATE_SQL, page, pageSize, stmt -> {
+            stmt.setDate(1, new java.sql.Date(from.getTime()));
+            stmt.setDate(2, new java.sql.Date(to.getTime()));
+            return 2;
+        });
+    }
+
+    /**
+     * Insert or update many exportations in one transaction using JDBC batching.
+     * Rows are matched on the exportation_id unique key, and their shipment
+     * rollup contributions are replaced in the same transaction.
+     *
+     * @param exportations The exportations to save
+     * @return Number of exportations saved, or 0 if the batch was rolled back
+     */
+    public int upsertAll(List<Exportation_InfDTO> exportations) {
+        if (exportations == null || exportations.isEmpty()) {
+            return 0;
+        }
+
+        Connection conn = null;
+        boolean autoCommit = true;
+
+        try {
+            conn = DatabaseManager.getConnection();
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot save " + exportations.size() + " exportations");
+                return 0;
+            }
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            List<String> savedIds = new ArrayList<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, UPSERT_SQL)) {
+                int pending = 0;
+                for (Exportation_InfDTO exportation : exportations) {
+                    if (exportation == null || exportation.getExportationId() == null) {
+                        continue;
+                    }
+                    stmt.setString(1, exportation.getExportationId());
+                    bindValues(stmt, exportation, 2);
+                    stmt.addBatch();
+                    savedIds.add(exportation.getExportationId());
+
+                    if (++pending == BATCH_SIZE) {
+                        stmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                }
+            }
+            rollupDAO.replaceContributions(conn, savedIds);
+
+            conn.commit();
+            logger.info("Upserted " + savedIds.size() + " exportations");
+            savedIds.forEach(ExportationDAO::notifyWritten);
+            return savedIds.size();
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error upserting exportations, rolling back", e);
+            rollback(conn);
+            return 0;
+        } finally {
+            restoreAndClose(conn, autoCommit);
+        }
+    }
+
+    /**
+     * Insert a single exportation, or update it if the ID already exists
+     *
+     * @param exportation The exportation to save
+     * @return true if saved
+     */
+    public boolean save(Exportation_InfDTO exportation) {
+        return upsertAll(Collections.singletonList(exportation)) == 1;
+    }
+
+    /**
+     * Update an existing exportation identified by its exportation ID
+     *
+     * @param exportation The exportation with new values
+     * @return true if a row was updated
+     * @see #updateIfCurrent(Exportation_InfDTO)
+     */
+    public boolean update(Exportation_InfDTO exportation) {
+        return updateIfCurrent(exportation).status() == UpdateResult.Status.UPDATED;
+    }
+
+    /**
+     * Update an exportation only if it still has the version it was read
+     * with (compare-and-set on the version column). Its shipment rollup
+     * contribution is replaced in the same transaction.
+     *
+     * @param exportation The exportation with new values and its read version
+     * @return The outcome; on success the exportation carries its new version,
+     *         on conflict the result holds the current row
+     */
+    public UpdateResult<Exportation_InfDTO> updateIfCurrent(Exportation_InfDTO exportation) {
+        if (exportation == null || exportation.getExportationId() == null) {
+            logger.warning("Cannot update exportation without an exportation ID");
+            return UpdateResult.failed();
+        }
+
+        Connection conn = null;
+        boolean autoCommit = true;
+
+        try {
+            conn = DatabaseManager.getConnection();
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot update exportation");
+                return UpdateResult.failed();
+            }
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            boolean updated;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, UPDATE_SQL)) {
+                int next = bindValues(stmt, exportation, 1);
+                stmt.setString(next, exportation.getExportationId());
+                stmt.setInt(next + 1, exportation.getVersion());
+                updated = stmt.executeUpdate() > 0;
+            }
+
+            if (updated) {
+                rollupDAO.replaceContributions(conn, Collections.singletonList(exportation.getExportationId()));
+                conn.commit();
+                exportation.setVersion(exportation.getVersion() + 1);
+                notifyWritten(exportation.getExportationId());
+                return UpdateResult.updated(exportation);
+            }
+
+            // Nothing matched: changed or deleted by someone else
+            UpdateResult<Exportation_InfDTO> result;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_BY_ID_SQL)) {
+                stmt.setString(1, exportation.getExportationId());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        result = UpdateResult.notFound();
+                    } else {
+                        Exportation_InfDTO current = mapResultSetToExportation(rs);
+                        logger.warning("Exportation " + exportation.getExportationId() + " was changed by someone else (version "
+                            + exportation.getVersion() + ", now " + current.getVersion() + ")");
+                        result = UpdateResult.conflict(current);
+                    }
+                }
+            }
+            conn.commit();
+            return result;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error updating exportation " + exportation.getExportationId(), e);
+            rollback(conn);
+            return UpdateResult.failed();
+        } finally {
+            restoreAndClose(conn, autoCommit);
+        }
+    }
+
+    /**
+     * Delete an exportation by its exportation ID.
+     * Its contribution to the shipment rollups is removed in the same transaction.
+     *
+     * @param exportationId The exportation ID
+     * @return true if a row was deleted
+     */
+    public boolean delete(String exportationId) {
+        if (exportationId == null || exportationId.trim().isEmpty()) {
+            return false;
+        }
+
+        Connection conn = null;
+        boolean autoCommit = true;
+
+        try {
+            conn = DatabaseManager.getConnection();
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot delete exportation");
+                return false;
+            }
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            rollupDAO.removeContribution(conn, exportationId.trim());
+
+            boolean deleted;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, DELETE_SQL)) {
+                stmt.setString(1, exportationId.trim());
+                deleted = stmt.executeUpdate() > 0;
+            }
+
+            conn.commit();
+            if (deleted) {
+                notifyWritten(exportationId.trim());
+            }
+            return deleted;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error deleting exportation " + exportationId, e);
+            rollback(conn);
+            return false;
+        } finally {
+            restoreAndClose(conn, autoCommit);
+        }
+    }
+
+    /**
+     * Read the pending exportations dated within the range as lots to ship,
+     * for consolidation (served by idx_exportations_status_date). The amount
+     * is the lot's weight in kg.
+     *
+     * @param from First date included
+     * @param to Last date included
+     * @return The lots, empty if none or the database is unavailable
+     */
+    public List<ExportationLot> findPendingLots(LocalDate from, LocalDate to) {
+        List<ExportationLot> lots = new ArrayList<>();
+        if (from == null || to == null) {
+            return lots;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot read pending lots");
+                return lots;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, PENDING_LOTS_SQL)) {
+                stmt.setDate(1, java.sql.Date.valueOf(from));
+                stmt.setDate(2, java.sql.Date.valueOf(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        BigDecimal amount = rs.getBigDecimal("amount");
+                        lots.add(new ExportationLot(
+                            rs.getString("exportation_id"),
+                            rs.getString("destination"),
+                            rs.getString("transport_method"),
+                            rs.getDate("exportation_date").toLocalDate(),
+                            amount != null ? amount : BigDecimal.ZERO));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading pending lots", e);
+        }
+
+        return lots;
+    }
+
+    /**
+     * Binds a statement's filter parameters before the trailing LIMIT and OFFSET
+     */
+    @FunctionalInterface
+    private interface ParameterBinder {
+        /**
+         * @return Number of parameters bound
+         */
+        int bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private List<Exportation_InfDTO> queryPage(String sql, int page, int pageSize, ParameterBinder binder) {
+        List<Exportation_InfDTO> rows = new ArrayList<>();
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        int offset = Math.max(0, page) * limit;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, returning empty exportation page");
+                return rows;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                int bound = binder.bind(stmt);
+                stmt.setInt(bound + 1, limit);
+                stmt.setInt(bound + 2, offset);
+
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapResultSetToExportation(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error listing exportations", e);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Bind the value columns shared by insert and update, starting at the given index
+     *
+     * @return Index of the next unbound parameter
+     */
+    private int bindValues(PreparedStatement stmt, Exportation_InfDTO exportation, int index) throws SQLException {
+        Date exportDate = exportation.getExportationDate() != null ? exportation.getExportationDate() : new Date();
+        BigDecimal unitPrice = exportation.getUnitPrice();
+
+        stmt.setString(index++, exportation.getProductType());
+        stmt.setDouble(index++, exportation.getAmount());
+        stmt.setString(index++, exportation.getDestination());
+        stmt.setDate(index++, new java.sql.Date(exportDate.getTime()));
+        stmt.setDate(index++, new java.sql.Date(exportDate.getTime()));
+        if (unitPrice != null) {
+            stmt.setBigDecimal(index++, unitPrice);
+        } else {
+            stmt.setNull(index++, Types.DECIMAL);
+        }
+        stmt.setString(index++, exportation.getCurrency());
+        stmt.setBoolean(index++, exportation.isHasDelivery());
+        stmt.setString(index++, exportation.getStatus());
+        stmt.setString(index++, exportation.getNotes());
+        stmt.setString(index++, exportation.getCustomerName());
+        stmt.setString(index++, exportation.getCustomerEmail());
+        stmt.setString(index++, exportation.getCustomerPhone());
+        stmt.setString(index++, exportation.getDocumentNumber());
+        stmt.setString(index++, exportation.getExportLicense());
+        stmt.setString(index++, exportation.getEmployeeId());
+        stmt.setString(index++, exportation.getTransportMethod());
+        return index;
+    }
+
+    /**
+     * Map the current row of a result set selected with {@link #SELECT_COLUMNS}
+     */
+    static Exportation_InfDTO mapResultSetToExportation(ResultSet rs) throws SQLException {
+        Exportation_InfDTO exportation = new Exportation_InfDTO();
+
+        exportation.setId(rs.getInt("id"));
+        exportation.setExportationId(rs.getString("exportation_id"));
+        exportation.setProductType(rs.getString("product_type"));
+        exportation.setAmount(rs.getDouble("amount"));
+        exportation.setDestination(rs.getString("destination"));
+
+        java.sql.Date exportDate = rs.getDate("exportation_date");
+        if (exportDate != null) {
+            exportation.setExportationDate(new Date(exportDate.getTime()));
+        }
+
+        exportation.setUnitPrice(rs.getBigDecimal("unit_price"));
+        exportation.setCurrency(rs.getString("currency"));
+        exportation.setHasDelivery(rs.getBoolean("has_delivery"));
+        exportation.setStatus(rs.getString("status"));
+        exportation.setNotes(rs.getString("notes"));
+        exportation.setCustomerName(rs.getString("customer_name"));
+        exportation.setCustomerEmail(rs.getString("customer_email"));
+        exportation.setCustomerPhone(rs.getString("customer_phone"));
+        exportation.setDocumentNumber(rs.getString("document_number"));
+        exportation.setExportLicense(rs.getString("export_license"));
+        exportation.setEmployeeId(rs.getString("employee_id"));
+        exportation.setTransportMethod(rs.getString("transport_method"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            exportation.setCreatedAt(new Date(createdAt.getTime()));
+        }
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            exportation.setUpdatedAt(new Date(updatedAt.getTime()));
+        }
+        exportation.setVersion(rs.getInt("version"));
+
+        return exportation;
+    }
+
+
+    private static void notifyWritten(String exportationId) {
+        for (WriteListener listener : writeListeners) {
+            try {
+                listener.exportationWritten(exportationId);
+            } catch (RuntimeException e) {
+                // The write is committed; a failing listener must not turn it into an error
+                logger.log(Level.WARNING, "Exportation write listener failed for " + exportationId, e);
+            }
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error rolling back exportation batch", e);
+            }
+        }
+    }
+
+    private void restoreAndClose(Connection conn, boolean autoCommit) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error resetting auto-commit", e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error returning connection to the pool", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Saves a new exportation together with its delivery.
+ * Both rows are inserted over one pooled connection in one transaction, so
+ * a save costs one pool checkout and one commit, and an exportation is
+ * never left behind without the delivery that was entered with it.
+ */
+public class ExportationDeliveryDAO {
+
+    private static final Logger logger = Logger.getLogger(ExportationDeliveryDAO.class.getName());
+
+    static final String INSERT_EXPORTATION_SQL =
+        "INSERT INTO exportations (exportation_id, reference_number, product_type, amount, destination, " +
+        "exportation_date, export_date, unit_price, currency, has_delivery, status, notes, customer_name, " +
+        "customer_email, customer_phone, document_number, export_license, employee_id, transport_method) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final String INSERT_DELIVERY_SQL =
+        "INSERT INTO deliveries (exportation_id, carrier_name, tracking_number, delivery_address, " +
+        "contact_person, contact_phone, delivery_date, status, notes, shipping_method, shipping_cost, " +
+        "shipping_currency) " +
+        "VALUES (?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_DATE), ?, ?, ?, ?, ?)";
+
+    /**
+     * Database keys of a saved exportation and its delivery
+     *
+     * @param exportationKey Generated id of the exportations row, 0 if not assigned
+     * @param deliveryKey Generated id of the deliveries row, 0 if not assigned
+     */
+    public record SaveResult(int exportationKey, int deliveryKey) {
+    }
+
+    /**
+     * Insert an exportation and its delivery in one transaction. The delivery
+     * is linked to the exportation through its exportation ID. On success
+     * both DTOs carry their generated id.
+     *
+     * @return The generated keys, or null if nothing was saved
+     */
+    public SaveResult insert(Exportation_InfDTO exportation, Delivery_InfDTO delivery) {
+        if (exportation == null || exportation.getExportationId() == null || delivery == null) {
+            logger.warning("Cannot save an exportation and delivery without an exportation ID");
+            return null;
+        }
+
+        Connection conn = null;
+        boolean autoCommit = true;
+
+        try {
+            conn = DatabaseManager.getConnection();
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot save exportation " + exportation.getExportationId());
+                return null;
+            }
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            int exportationKey;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, INSERT_EXPORTATION_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                bindExportation(stmt, exportation);
+                stmt.executeUpdate();
+                exportationKey = generatedKey(stmt);
+            }
+
+            int deliveryKey;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, INSERT_DELIVERY_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                bindDelivery(stmt, delivery, exportation.getExportationId());
+                stmt.executeUpdate();
+                deliveryKey = generatedKey(stmt);
+            }
+
+            conn.commit();
+            exportation.setId(exportationKey);
+            delivery.setId(deliveryKey);
+            logger.info("Saved exportation " + exportation.getExportationId() + " (id " + exportationKey
+                + ") with delivery id " + deliveryKey);
+            return new SaveResult(exportationKey, deliveryKey);
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error saving exportation " + exportation.getExportationId()
+                + " with its delivery, rolling back", e);
+            rollback(conn);
+            return null;
+        } finally {
+            restoreAndClose(conn, autoCommit);
+        }
+    }
+
+    private static void bindExportation(PreparedStatement stmt, Exportation_InfDTO exportation) throws SQLException {
+        Date exportDate = exportation.getExportationDate() != null ? exportation.getExportationDate()
+            : exportation.getExportDate() != null ? exportation.getExportDate() : new Date();
+        BigDecimal unitPrice = exportation.getUnitPrice();
+
+        int index = 1;
+        stmt.setString(index++, exportation.getExportationId());
+        stmt.setString(index++, "REF-" + exportation.getExportationId());
+        stmt.setString(index++, exportation.getProductType());
+        stmt.setDouble(index++, exportation.getAmount());
+        stmt.setString(index++, exportation.getDestination());
+        stmt.setDate(index++, new java.sql.Date(exportDate.getTime()));
+        stmt.setDate(index++, new java.sql.Date(exportDate.getTime()));
+        if (unitPrice != null) {
+            stmt.setBigDecimal(index++, unitPrice);
+        } else {
+            stmt.setNull(index++, Types.DECIMAL);
+        }
+        stmt.setString(index++, exportation.getCurrency());
+        stmt.setBoolean(index++, true);
+        stmt.setString(index++, exportation.getStatus() != null ? exportation.getStatus() : "PENDING");
+        stmt.setString(index++, exportation.getNotes());
+        stmt.setString(index++, exportation.getCustomerName());
+        stmt.setString(index++, exportation.getCustomerEmail());
+        stmt.setString(index++, exportation.getCustomerPhone());
+        stmt.setString(index++, exportation.getDocumentNumber());
+        stmt.setString(index++, exportation.getExportLicense());
+        stmt.setString(index++, exportation.getEmployeeId());
+        stmt.setString(index, exportation.getTransportMethod());
+    }
+
+    private static void bindDelivery(PreparedStatement stmt, Delivery_InfDTO delivery, String exportationId)
+            throws SQLException {
+        Date deliveryDate = delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate();
+        String status = delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus();
+
+        int index = 1;
+        stmt.setString(index++, exportationId);
+        stmt.setString(index++, delivery.getCarrierName());
+        stmt.setString(index++, delivery.getTrackingNumber());
+        stmt.setString(index++, delivery.getDeliveryAddress());
+        stmt.setString(index++, delivery.getContactPerson());
+        stmt.setString(index++, delivery.getContactPhone());
+        if (deliveryDate != null) {
+            stmt.setDate(index++, new java.sql.Date(deliveryDate.getTime()));
+        } else {
+            stmt.setNull(index++, Types.DATE);
+        }
+        stmt.setString(index++, status != null ? status : "Pending");
+        stmt.setString(index++, delivery.getNotes());
+        stmt.setString(index++, delivery.getShippingMethod());
+        if (delivery.getShippingCost() > 0) {
+            stmt.setBigDecimal(index++, BigDecimal.valueOf(delivery.getShippingCost()));
+        } else {
+            stmt.setNull(index++, Types.DECIMAL);
+        }
+        stmt.setString(index, delivery.getShippingCurrency());
+    }
+
+    private static int generatedKey(PreparedStatement stmt) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            return keys != null && keys.next() ? keys.getInt(1) : 0;
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error rolling back exportation save", e);
+            }
+        }
+    }
+
+    private void restoreAndClose(Connection conn, boolean autoCommit) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error resetting auto-commit", e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error returning connection to the pool", e);
+            }
+        }
+    }
+}
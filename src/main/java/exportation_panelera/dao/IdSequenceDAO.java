@@ -0,0 +1,126 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reserves blocks of values from the id_sequences table (V10).
+ * A block is taken with a single auto-committed UPDATE that moves the
+ * sequence forward and reports the new value through LAST_INSERT_ID, so
+ * the row lock is held only for that statement and concurrent clients
+ * always get disjoint blocks.
+ */
+public class IdSequenceDAO {
+
+    private static final Logger logger = Logger.getLogger(IdSequenceDAO.class.getName());
+
+    // LAST_INSERT_ID(expr) makes the new value this connection's last insert ID,
+    // which the driver returns as the generated key of the update
+    static final String RESERVE_SQL =
+        "UPDATE id_sequences SET next_value = LAST_INSERT_ID(next_value + ?) WHERE name = ?";
+
+    // Same, starting a sequence that does not exist yet at 1
+    static final String RESERVE_OR_CREATE_SQL =
+        "INSERT INTO id_sequences (name, next_value) VALUES (?, LAST_INSERT_ID(1 + ?)) " +
+        "ON DUPLICATE KEY UPDATE next_value = LAST_INSERT_ID(next_value + ?)";
+
+    static final String LAST_VALUE_SQL = "SELECT LAST_INSERT_ID()";
+
+    /**
+     * Reserve the next blockSize values of a sequence
+     *
+     * @param sequence Name of the sequence
+     * @param blockSize Number of values to reserve
+     * @return The first reserved value; the block ends before first + blockSize.
+     *         -1 if the database is unavailable or the sequence does not exist.
+     */
+    public long reserve(String sequence, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot reserve IDs from sequence " + sequence);
+                return -1;
+            }
+
+            long next;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, RESERVE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, blockSize);
+                stmt.setString(2, sequence);
+                if (stmt.executeUpdate() == 0) {
+                    logger.severe("Unknown ID sequence " + sequence + "; run migration V10");
+                    return -1;
+                }
+                next = readNextValue(conn, stmt);
+            }
+
+            logger.fine("Reserved IDs " + (next - blockSize) + " to " + (next - 1) + " of sequence " + sequence);
+            return next - blockSize;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reserving IDs from sequence " + sequence, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Reserve the next blockSize values of a sequence, creating the sequence
+     * at 1 if it does not exist. For sequences opened at run time, such as
+     * one per day.
+     *
+     * @param sequence Name of the sequence, at most 50 characters
+     * @param blockSize Number of values to reserve
+     * @return The first reserved value, or -1 if the database is unavailable
+     */
+    public long reserveOrCreate(String sequence, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot reserve IDs from sequence " + sequence);
+                return -1;
+            }
+
+            long next;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, RESERVE_OR_CREATE_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, sequence);
+                stmt.setInt(2, blockSize);
+                stmt.setInt(3, blockSize);
+                stmt.executeUpdate();
+                next = readNextValue(conn, stmt);
+            }
+
+            logger.fine("Reserved IDs " + (next - blockSize) + " to " + (next - 1) + " of sequence " + sequence);
+            return next - blockSize;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reserving IDs from sequence " + sequence, e);
+            return -1;
+        }
+    }
+
+    private long readNextValue(Connection conn, PreparedStatement update) throws SQLException {
+        try (ResultSet keys = update.getGeneratedKeys()) {
+            if (keys != null && keys.next()) {
+                return keys.getLong(1);
+            }
+        }
+        // Drivers that do not report it need a second statement on the same connection
+        try (PreparedStatement stmt = StatementCache.prepare(conn, LAST_VALUE_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        }
+        throw new SQLException("No value returned for the reserved block");
+    }
+}
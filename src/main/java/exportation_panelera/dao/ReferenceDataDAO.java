@@ -0,0 +1,76 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the reference_values table (V13, product types V14).
+ * The table is small and read whole, in one query, so that every kind of
+ * reference data comes from the same consistent read.
+ */
+public class ReferenceDataDAO {
+
+    private static final Logger logger = Logger.getLogger(ReferenceDataDAO.class.getName());
+
+    static final String FIND_ACTIVE_SQL =
+        "SELECT kind, value, code FROM reference_values WHERE active = TRUE " +
+        "ORDER BY kind, sort_order, value";
+
+    /** Destination country, with its country code */
+    public static final String DESTINATION = "DESTINATION";
+    /** Currency code */
+    public static final String CURRENCY = "CURRENCY";
+    /** Shipping method */
+    public static final String SHIPPING_METHOD = "SHIPPING_METHOD";
+    /** Carrier name */
+    public static final String CARRIER = "CARRIER";
+    /** Product type of an exportation */
+    public static final String PRODUCT_TYPE = "PRODUCT_TYPE";
+
+    /**
+     * One reference value
+     *
+     * @param kind {@link #DESTINATION}, {@link #CURRENCY}, {@link #SHIPPING_METHOD}, {@link #CARRIER}
+     *             or {@link #PRODUCT_TYPE}
+     * @param value The value offered by the forms
+     * @param code Country code of a destination, null for other kinds
+     */
+    public record Entry(String kind, String value, String code) {
+    }
+
+    /**
+     * Read every active reference value
+     *
+     * @return Values ordered by kind and sort order, or null if the database is unavailable
+     */
+    public List<Entry> findActive() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot read reference data");
+                return null;
+            }
+
+            List<Entry> entries = new ArrayList<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_ACTIVE_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new Entry(
+                        rs.getString("kind"),
+                        rs.getString("value"),
+                        rs.getString("code")));
+                }
+            }
+            return entries;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading reference data", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.controller.DeliveryController;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the local replica's sync.
+ * Reads deliveries and exportations changed since a watermark in
+ * (updated_at, id) order, a page at a time, fingerprints each table so that
+ * deletes can be detected without listing every ID, and writes offline
+ * edits back only if the row was not changed on the server meanwhile.
+ */
+public class ReplicaDAO {
+
+    private static final Logger logger = Logger.getLogger(ReplicaDAO.class.getName());
+
+    // Rows changed this close to the watermark are read again, so a
+    // transaction that commits late with an older updated_at is not missed
+    public static final int SETTLE_SECONDS = 2;
+
+    static final String DELIVERY_COLUMNS =
+        "SELECT id, exportation_id, delivery_date, tracking_number, status, notes, created_at, updated_at, " +
+        "version FROM deliveries";
+
+    // Keyset condition served by the (updated_at, id) indexes from V6
+    private static final String CHANGED_SINCE = " WHERE updated_at > ? OR (updated_at = ? AND id > ?) " +
+        "ORDER BY updated_at ASC, id ASC LIMIT ?";
+
+    static final String DELIVERIES_CHANGED_SQL = DELIVERY_COLUMNS + CHANGED_SINCE;
+
+    static final String EXPORTATIONS_CHANGED_SQL = ExportationDAO.SELECT_COLUMNS + CHANGED_SINCE;
+
+    static final String UPDATE_IF_UNCHANGED_SQL =
+        "UPDATE deliveries SET exportation_id = ?, delivery_date = COALESCE(?, delivery_date), " +
+        "tracking_number = ?, status = ?, notes = ?, version = version + 1, updated_at = NOW() WHERE id = ? AND version = ?";
+
+    /**
+     * Row count and sum of IDs of a table. Two fingerprints that match mean
+     * no row was deleted, given that every inserted row was already read.
+     */
+    public record Fingerprint(long count, long idSum) {
+    }
+
+    /**
+     * Keyset position in (updated_at, id) order
+     */
+    public record Cursor(long updatedAt, int id) {
+
+        /**
+         * Position just before every row changed at or after the watermark,
+         * moved back by {@value ReplicaDAO#SETTLE_SECONDS} seconds
+         */
+        public static Cursor since(long watermark) {
+            return new Cursor(Math.max(0, watermark - SETTLE_SECONDS * 1000L), 0);
+        }
+    }
+
+    /**
+     * Read deliveries changed after a position
+     *
+     * @return The page in (updated_at, id) order, or null if the database is unavailable
+     */
+    public List<Delivery_InfDTO> findDeliveriesChangedAfter(Cursor after, int limit) {
+        List<Delivery_InfDTO> rows = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, DELIVERIES_CHANGED_SQL)) {
+                bindCursor(stmt, after, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapResultSetToDelivery(rs));
+                    }
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error reading changed deliveries for the local replica", e);
+            return null;
+        }
+    }
+
+    /**
+     * Read exportations changed after a position
+     *
+     * @return The page in (updated_at, id) order, or null if the database is unavailable
+     */
+    public List<Exportation_InfDTO> findExportationsChangedAfter(Cursor after, int limit) {
+        List<Exportation_InfDTO> rows = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, EXPORTATIONS_CHANGED_SQL)) {
+                bindCursor(stmt, after, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(ExportationDAO.mapResultSetToExportation(rs));
+                    }
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error reading changed exportations for the local replica", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return Count and ID sum of deliveries, or null if the database is unavailable
+     */
+    public Fingerprint fingerprintDeliveries() {
+        return fingerprint("SELECT COUNT(*), COALESCE(SUM(id), 0) FROM deliveries");
+    }
+
+    /**
+     * @return Count and ID sum of exportations that have a business ID (the
+     *         only ones replicated), or null if the database is unavailable
+     */
+    public Fingerprint fingerprintExportations() {
+        return fingerprint("SELECT COUNT(*), COALESCE(SUM(id), 0) FROM exportations WHERE exportation_id IS NOT NULL");
+    }
+
+    /**
+     * @return IDs of all deliveries, or null if the database is unavailable
+     */
+    public Set<Integer> findDeliveryIds() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            Set<Integer> ids = new HashSet<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, "SELECT id FROM deliveries");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error listing delivery IDs", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return Business IDs of all exportations, or null if the database is unavailable
+     */
+    public Set<String> findExportationIds() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            Set<String> ids = new HashSet<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, 
+                     "SELECT exportation_id FROM exportations WHERE exportation_id IS NOT NULL");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+            return ids;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error listing exportation IDs", e);
+            return null;
+        }
+    }
+
+    /**
+     * Write a delivery edited offline, but only if the server row still has
+     * the version the edit was based on
+     *
+     * @param delivery The edited delivery
+     * @param baseVersion Version of the row the edit started from
+     * @return 1 if written, 0 if the row changed or no longer exists, -1 if the database is unavailable
+     */
+    public int updateDeliveryIfUnchanged(Delivery_InfDTO delivery, int baseVersion) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return -1;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, UPDATE_IF_UNCHANGED_SQL)) {
+                Date deliveryDate = delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate();
+                String status = delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus();
+
+                stmt.setString(1, delivery.getExportationId());
+                if (deliveryDate != null) {
+                    stmt.setDate(2, new java.sql.Date(deliveryDate.getTime()));
+                } else {
+                    stmt.setNull(2, Types.DATE);
+                }
+                stmt.setString(3, delivery.getTrackingNumber());
+                stmt.setString(4, status);
+                stmt.setString(5, delivery.getNotes());
+                stmt.setInt(6, delivery.getId());
+                stmt.setInt(7, baseVersion);
+                return stmt.executeUpdate() > 0 ? 1 : 0;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error writing offline edit of delivery " + delivery.getId(), e);
+            return -1;
+        }
+    }
+
+    private Fingerprint fingerprint(String sql) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                return null;
+            }
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql);
+                 ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Fingerprint(rs.getLong(1), rs.getLong(2)) : new Fingerprint(0, 0);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Error fingerprinting a replicated table", e);
+            return null;
+        }
+    }
+
+    private static void bindCursor(PreparedStatement stmt, Cursor after, int limit) throws SQLException {
+        Timestamp updatedAt = new Timestamp(after.updatedAt());
+        stmt.setTimestamp(1, updatedAt);
+        stmt.setTimestamp(2, updatedAt);
+        stmt.setInt(3, after.id());
+        stmt.setInt(4, Math.max(1, limit));
+    }
+
+    /**
+     * Map the current row of a result set selected with {@link #DELIVERY_COLUMNS}
+     */
+    static Delivery_InfDTO mapResultSetToDelivery(ResultSet rs) throws SQLException {
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(rs.getInt("id"));
+        delivery.setDeliveryId(DeliveryController.formatDeliveryId(delivery.getId()));
+
+        String exportationId = rs.getString("exportation_id");
+        if (exportationId != null) {
+            delivery.setExportId("EXP" + exportationId);
+        }
+
+        java.sql.Date deliveryDate = rs.getDate("delivery_date");
+        if (deliveryDate != null) {
+            delivery.setDeliveryDate(new Date(deliveryDate.getTime()));
+            delivery.setDate(delivery.getDeliveryDate());
+        }
+
+        delivery.setTrackingNumber(rs.getString("tracking_number"));
+        String status = rs.getString("status");
+        delivery.setStatus(status);
+        delivery.setDeliveryStatus(status);
+        delivery.setNotes(rs.getString("notes"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        delivery.setCreatedAt(createdAt != null ? new Date(createdAt.getTime()) : null);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        delivery.setUpdatedAt(updatedAt != null ? new Date(updatedAt.getTime()) : null);
+        delivery.setVersion(rs.getInt("version"));
+        return delivery;
+    }
+}
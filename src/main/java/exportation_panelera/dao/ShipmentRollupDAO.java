@@ -0,0 +1,345 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.CurrencyRevenue;
+import exportation_panelera.Model.ShipmentMonthTotal;
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the shipment rollup tables.
+ * Each exportation's contribution (destination, currency, month, amount and
+ * revenue) is stored in shipment_rollup_contribution, and the monthly totals
+ * in shipment_rollup_monthly are adjusted by subtracting the old contribution
+ * and adding the new one. The delta job only touches exportations whose
+ * updated_at falls after the stored watermark, so dashboards read a few
+ * hundred pre-aggregated rows instead of scanning the exportations table.
+ * ExportationDAO also replaces the contributions of the rows it writes in
+ * the same transaction, so the totals are current without waiting for the
+ * job; the job then subtracts and adds back the same amounts.
+ */
+public class ShipmentRollupDAO {
+
+    private static final Logger logger = Logger.getLogger(ShipmentRollupDAO.class.getName());
+
+    static final String JOB_NAME = "shipment_rollup";
+
+    // Rows are only picked up once they are this old, so a transaction that
+    // stamped updated_at just before the cut-off has time to commit
+    public static final int SETTLE_SECONDS = 5;
+
+    private static final String LOCK_WATERMARK_SQL =
+        "SELECT last_updated_at, TIMESTAMPADD(SECOND, -" + SETTLE_SECONDS + ", CURRENT_TIMESTAMP) " +
+        "FROM analytics_watermark WHERE job_name = ? FOR UPDATE";
+
+    private static final String CHANGED_CONTRIBUTIONS =
+        "SELECT c.destination, c.currency, c.period_month, COUNT(*) AS shipments, " +
+        "SUM(c.amount) AS amount, SUM(c.revenue) AS revenue " +
+        "FROM shipment_rollup_contribution c " +
+        "JOIN exportations e ON e.exportation_id = c.exportation_id " +
+        "WHERE e.updated_at >= ? AND e.updated_at < ? " +
+        "GROUP BY c.destination, c.currency, c.period_month";
+
+    static final String SUBTRACT_SQL =
+        "UPDATE shipment_rollup_monthly r JOIN (" + CHANGED_CONTRIBUTIONS + ") d " +
+        "ON r.destination = d.destination AND r.currency = d.currency AND r.period_month = d.period_month " +
+        "SET r.shipment_count = r.shipment_count - d.shipments, " +
+        "r.total_amount = r.total_amount - d.amount, " +
+        "r.total_revenue = r.total_revenue - d.revenue";
+
+    // What an exportation row contributes, in shipment_rollup_contribution column order
+    private static final String INSERT_CONTRIBUTIONS =
+        "INSERT INTO shipment_rollup_contribution " +
+        "(exportation_id, destination, currency, period_month, amount, revenue) " +
+        "SELECT e.exportation_id, COALESCE(e.destination, 'Unknown'), COALESCE(e.currency, 'N/A'), " +
+        "DATE_FORMAT(COALESCE(e.exportation_date, e.created_at), '%Y-%m-01'), " +
+        "COALESCE(e.amount, 0), COALESCE(e.amount, 0) * COALESCE(e.unit_price, 0) " +
+        "FROM exportations e ";
+
+    static final String UPSERT_CONTRIBUTIONS_SQL =
+        INSERT_CONTRIBUTIONS +
+        "WHERE e.updated_at >= ? AND e.updated_at < ? AND e.exportation_id IS NOT NULL " +
+        "ON DUPLICATE KEY UPDATE destination = VALUES(destination), currency = VALUES(currency), " +
+        "period_month = VALUES(period_month), amount = VALUES(amount), revenue = VALUES(revenue)";
+
+    static final String ADD_SQL =
+        "INSERT INTO shipment_rollup_monthly " +
+        "(destination, currency, period_month, shipment_count, total_amount, total_revenue) " +
+        CHANGED_CONTRIBUTIONS + " " +
+        "ON DUPLICATE KEY UPDATE shipment_count = shipment_count + VALUES(shipment_count), " +
+        "total_amount = total_amount + VALUES(total_amount), " +
+        "total_revenue = total_revenue + VALUES(total_revenue)";
+
+    private static final String PURGE_EMPTY_SQL =
+        "DELETE FROM shipment_rollup_monthly WHERE shipment_count <= 0";
+
+    private static final String ADVANCE_WATERMARK_SQL =
+        "UPDATE analytics_watermark SET last_updated_at = ? WHERE job_name = ?";
+
+    static final String SUBTRACT_ONE_SQL =
+        "UPDATE shipment_rollup_monthly r JOIN shipment_rollup_contribution c " +
+        "ON r.destination = c.destination AND r.currency = c.currency AND r.period_month = c.period_month " +
+        "SET r.shipment_count = r.shipment_count - 1, " +
+        "r.total_amount = r.total_amount - c.amount, " +
+        "r.total_revenue = r.total_revenue - c.revenue " +
+        "WHERE c.exportation_id = ?";
+
+    static final String DELETE_CONTRIBUTION_SQL =
+        "DELETE FROM shipment_rollup_contribution WHERE exportation_id = ?";
+
+    static final String INSERT_ONE_CONTRIBUTION_SQL =
+        INSERT_CONTRIBUTIONS + "WHERE e.exportation_id = ?";
+
+    static final String ADD_ONE_SQL =
+        "INSERT INTO shipment_rollup_monthly " +
+        "(destination, currency, period_month, shipment_count, total_amount, total_revenue) " +
+        "SELECT destination, currency, period_month, 1, amount, revenue " +
+        "FROM shipment_rollup_contribution WHERE exportation_id = ? " +
+        "ON DUPLICATE KEY UPDATE shipment_count = shipment_count + 1, " +
+        "total_amount = total_amount + VALUES(total_amount), " +
+        "total_revenue = total_revenue + VALUES(total_revenue)";
+
+    private static final String MONTHLY_TOTALS_SQL =
+        "SELECT destination, period_month, SUM(shipment_count) AS shipments, SUM(total_amount) AS amount " +
+        "FROM shipment_rollup_monthly WHERE period_month BETWEEN ? AND ? " +
+        "GROUP BY destination, period_month ORDER BY period_month, destination";
+
+    private static final String REVENUE_BY_CURRENCY_SQL =
+        "SELECT currency, SUM(shipment_count) AS shipments, SUM(total_revenue) AS revenue " +
+        "FROM shipment_rollup_monthly WHERE period_month BETWEEN ? AND ? " +
+        "GROUP BY currency ORDER BY revenue DESC";
+
+    /**
+     * Fold every exportation changed since the last run into the monthly totals.
+     * Runs in one transaction and holds a row lock on the watermark, so two
+     * clients running the job at the same time are serialized.
+     *
+     * @return true if the rollups are up to date with the cut-off
+     */
+    public boolean applyDelta() {
+        Connection conn = null;
+        boolean autoCommit = true;
+
+        try {
+            conn = DatabaseManager.getConnection();
+            if (conn == null) {
+                logger.warning("Database unavailable, skipping shipment rollup delta");
+                return false;
+            }
+
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            Timestamp from;
+            Timestamp to;
+            try (PreparedStatement stmt = StatementCache.prepare(conn, LOCK_WATERMARK_SQL)) {
+                stmt.setString(1, JOB_NAME);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next()) {
+                        logger.warning("Missing analytics watermark for " + JOB_NAME);
+                        conn.rollback();
+                        return false;
+                    }
+                    from = rs.getTimestamp(1);
+                    to = rs.getTimestamp(2);
+                }
+            }
+
+            if (!to.after(from)) {
+                conn.commit();
+                return true;
+            }
+
+            // Order matters: subtract what the changed rows contributed before,
+            // record what they contribute now, then add that back
+            int subtracted = executeWindow(conn, SUBTRACT_SQL, from, to);
+            int contributions = executeWindow(conn, UPSERT_CONTRIBUTIONS_SQL, from, to);
+            executeWindow(conn, ADD_SQL, from, to);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(PURGE_EMPTY_SQL);
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, ADVANCE_WATERMARK_SQL)) {
+                stmt.setTimestamp(1, to);
+                stmt.setString(2, JOB_NAME);
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+            if (contributions > 0) {
+                logger.fine("Shipment rollups updated up to " + to + " (" + subtracted
+                    + " groups adjusted, " + contributions + " contribution rows written)");
+            }
+            return true;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error applying shipment rollup delta, rolling back", e);
+            rollback(conn);
+            return false;
+        } finally {
+            restoreAndClose(conn, autoCommit);
+        }
+    }
+
+    /**
+     * Remove an exportation's contribution from the monthly totals.
+     * Called in the same transaction that deletes the exportation, since a
+     * deleted row no longer shows up in the updated_at delta.
+     *
+     * @param conn Connection of the deleting transaction
+     * @param exportationId The exportation ID being deleted
+     */
+    public void removeContribution(Connection conn, String exportationId) throws SQLException {
+        try (PreparedStatement stmt = StatementCache.prepare(conn, SUBTRACT_ONE_SQL)) {
+            stmt.setString(1, exportationId);
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = StatementCache.prepare(conn, DELETE_CONTRIBUTION_SQL)) {
+            stmt.setString(1, exportationId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Replace the contributions of exportations that were just inserted or
+     * updated: subtract what each one contributed before, then record and
+     * add what it contributes now. Called in the writing transaction after
+     * the write, so the totals change together with the rows.
+     *
+     * @param conn Connection of the writing transaction
+     * @param exportationIds The exportation IDs written
+     */
+    public void replaceContributions(Connection conn, Collection<String> exportationIds) throws SQLException {
+        // A repeated ID would be subtracted twice
+        Set<String> ids = new LinkedHashSet<>(exportationIds);
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (String sql : new String[] {SUBTRACT_ONE_SQL, DELETE_CONTRIBUTION_SQL, INSERT_ONE_CONTRIBUTION_SQL, ADD_ONE_SQL}) {
+            try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+                for (String id : ids) {
+                    stmt.setString(1, id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Shipped quantity per destination per month
+     *
+     * @param from First month (inclusive)
+     * @param to Last month (inclusive)
+     * @return Totals ordered by month then destination, empty if the database is unavailable
+     */
+    public List<ShipmentMonthTotal> findMonthlyTotals(YearMonth from, YearMonth to) {
+        List<ShipmentMonthTotal> totals = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, returning no shipment totals");
+                return totals;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, MONTHLY_TOTALS_SQL)) {
+                bindMonthRange(stmt, from, to);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.add(new ShipmentMonthTotal(
+                            rs.getString("destination"),
+                            YearMonth.from(rs.getDate("period_month").toLocalDate()),
+                            rs.getLong("shipments"),
+                            rs.getBigDecimal("amount")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading monthly shipment totals", e);
+        }
+
+        return totals;
+    }
+
+    /**
+     * Revenue per currency
+     *
+     * @param from First month (inclusive)
+     * @param to Last month (inclusive)
+     * @return Revenue ordered from largest to smallest, empty if the database is unavailable
+     */
+    public List<CurrencyRevenue> findRevenueByCurrency(YearMonth from, YearMonth to) {
+        List<CurrencyRevenue> revenue = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, returning no revenue totals");
+                return revenue;
+            }
+
+            try (PreparedStatement stmt = StatementCache.prepare(conn, REVENUE_BY_CURRENCY_SQL)) {
+                bindMonthRange(stmt, from, to);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        revenue.add(new CurrencyRevenue(
+                            rs.getString("currency"),
+                            rs.getLong("shipments"),
+                            rs.getBigDecimal("revenue")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading revenue by currency", e);
+        }
+
+        return revenue;
+    }
+
+    private int executeWindow(Connection conn, String sql, Timestamp from, Timestamp to) throws SQLException {
+        try (PreparedStatement stmt = StatementCache.prepare(conn, sql)) {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, to);
+            return stmt.executeUpdate();
+        }
+    }
+
+    private void bindMonthRange(PreparedStatement stmt, YearMonth from, YearMonth to) throws SQLException {
+        stmt.setDate(1, java.sql.Date.valueOf(from.atDay(1)));
+        stmt.setDate(2, java.sql.Date.valueOf(to.atDay(1)));
+    }
+
+    private void rollback(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error rolling back shipment rollup delta", e);
+            }
+        }
+    }
+
+    private void restoreAndClose(Connection conn, boolean autoCommit) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error resetting auto-commit", e);
+            }
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Error returning connection to the pool", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data access for the shipping tariff tables (V12).
+ * Both tables are small and read whole; ShippingRateService turns them
+ * into lookup arrays.
+ */
+public class ShippingTariffDAO {
+
+    private static final Logger logger = Logger.getLogger(ShippingTariffDAO.class.getName());
+
+    static final String FIND_BANDS_SQL =
+        "SELECT shipping_method, band_type, from_value, rate FROM shipping_tariff_bands " +
+        "ORDER BY shipping_method, band_type, from_value";
+
+    static final String FIND_SURCHARGES_SQL =
+        "SELECT shipping_method, name, percent, flat_fee FROM shipping_surcharges " +
+        "ORDER BY shipping_method, name";
+
+    /** Band priced by weight in kg */
+    public static final String WEIGHT = "WEIGHT";
+    /** Band priced by distance in km */
+    public static final String DISTANCE = "DISTANCE";
+
+    /**
+     * A rate from a lower bound up to the next band of the same method and type
+     *
+     * @param method Shipping method
+     * @param type {@link #WEIGHT} or {@link #DISTANCE}
+     * @param from Lower bound in kg or km
+     * @param rate USD per kg or km
+     */
+    public record Band(String method, String type, BigDecimal from, BigDecimal rate) {
+    }
+
+    /**
+     * A surcharge on the banded cost of a method
+     *
+     * @param method Shipping method
+     * @param name Name of the surcharge, e.g. Fuel
+     * @param percent Percentage of the banded cost
+     * @param flatFee Fixed amount in USD
+     */
+    public record Surcharge(String method, String name, BigDecimal percent, BigDecimal flatFee) {
+    }
+
+    /**
+     * Read every tariff band
+     *
+     * @return Bands ordered by method, type and lower bound, or null if the database is unavailable
+     */
+    public List<Band> findBands() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot read shipping tariffs");
+                return null;
+            }
+
+            List<Band> bands = new ArrayList<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_BANDS_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bands.add(new Band(
+                        rs.getString("shipping_method"),
+                        rs.getString("band_type"),
+                        rs.getBigDecimal("from_value"),
+                        rs.getBigDecimal("rate")));
+                }
+            }
+            return bands;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading shipping tariffs", e);
+            return null;
+        }
+    }
+
+    /**
+     * Read every surcharge
+     *
+     * @return Surcharges ordered by method, or null if the database is unavailable
+     */
+    public List<Surcharge> findSurcharges() {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            if (conn == null) {
+                logger.warning("Database unavailable, cannot read shipping surcharges");
+                return null;
+            }
+
+            List<Surcharge> surcharges = new ArrayList<>();
+            try (PreparedStatement stmt = StatementCache.prepare(conn, FIND_SURCHARGES_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    surcharges.add(new Surcharge(
+                        rs.getString("shipping_method"),
+                        rs.getString("name"),
+                        rs.getBigDecimal("percent"),
+                        rs.getBigDecimal("flat_fee")));
+                }
+            }
+            return surcharges;
+
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error reading shipping surcharges", e);
+            return null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package exportation_panelera.dao;
 
 import exportation_panelera.Model.LoginDTO;
 import exportation_panelera.db.DatabaseManager;
+import exportation_panelera.db.StatementCache;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.*;
@@ -37,6 +38,9 @@ public class UserDAO {
     private static final String DEACTIVATE_USER_SQL = 
         "UPDATE users SET is_active = 0, updated_at = ? WHERE username = ?";
     
+    private static final String USER_EXISTS_SQL = 
+        "SELECT COUNT(*) FROM users WHERE username = ?";
+    
     /**
      * Authenticate a user with username and password
      * 
@@ -69,7 +73,7 @@ public class UserDAO {
                 return authenticateOffline(username, password);
             }
             
-            stmt = conn.prepareStatement(AUTHENTICATE_USER_SQL);
+            stmt = StatementCache.prepare(conn, AUTHENTICATE_USER_SQL);
             stmt.setString(1, username.trim());
             
             rs = stmt.executeQuery();
@@ -174,7 +178,7 @@ public class UserDAO {
                 return false;
             }
             
-            stmt = conn.prepareStatement(CREATE_USER_SQL);
+            stmt = StatementCache.prepare(conn, CREATE_USER_SQL);
             stmt.setString(1, loginDTO.getUsername());
             stmt.setString(2, hashPassword(loginDTO.getPassword()));
             stmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
@@ -227,7 +231,7 @@ public class UserDAO {
                 return false;
             }
             
-            stmt = conn.prepareStatement(UPDATE_PASSWORD_SQL);
+            stmt = StatementCache.prepare(conn, UPDATE_PASSWORD_SQL);
             stmt.setString(1, hashPassword(newPassword));
             stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setString(3, username.trim());
@@ -274,7 +278,7 @@ public class UserDAO {
                 return false;
             }
             
-            stmt = conn.prepareStatement(DEACTIVATE_USER_SQL);
+            stmt = StatementCache.prepare(conn, DEACTIVATE_USER_SQL);
             stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setString(2, username.trim());
             
@@ -301,8 +305,6 @@ public class UserDAO {
      * Check if a username already exists
      */
     private boolean userExists(String username) {
-        String sql = "SELECT COUNT(*) FROM users WHERE username = ?";
-        
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -311,7 +313,7 @@ public class UserDAO {
             conn = DatabaseManager.getConnection();
             if (conn == null) return false;
             
-            stmt = conn.prepareStatement(sql);
+            stmt = StatementCache.prepare(conn, USER_EXISTS_SQL);
             stmt.setString(1, username);
             
             rs = stmt.executeQuery();
@@ -340,7 +342,7 @@ public class UserDAO {
             conn = DatabaseManager.getConnection();
             if (conn == null) return;
             
-            stmt = conn.prepareStatement(UPDATE_LAST_LOGIN_SQL);
+            stmt = StatementCache.prepare(conn, UPDATE_LAST_LOGIN_SQL);
             stmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setString(2, username);
             
@@ -402,8 +404,8 @@ public class UserDAO {
             }
         }
         
-        // Note: Don't close connection if it's managed by DatabaseManager
-        if (conn != null && !DatabaseManager.isConnectionManaged(conn)) {
+        // Closing a pooled connection returns it to the pool
+        if (conn != null) {
             try {
                 conn.close();
             } catch (SQLException e) {
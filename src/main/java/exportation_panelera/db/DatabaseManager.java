@@ -101,6 +101,7 @@ public class DatabaseManager {
                 config.setMaximumPoolSize(10);
                 config.setMinimumIdle(2);
                 config.setPoolName("ExportationPaneleraPool");
+                addStatementCacheDefaults(config);
             } else {
                 Properties props = new Properties();
                 props.load(input);
@@ -115,10 +116,21 @@ public class DatabaseManager {
             config.setMaximumPoolSize(10);
             config.setMinimumIdle(2);
             config.setPoolName("ExportationPaneleraPool");
+            addStatementCacheDefaults(config);
         }
 
         return config;
     }
+
+    /**
+     * Statement cache settings of hikari.properties, for when it cannot be read
+     */
+    private static void addStatementCacheDefaults(HikariConfig config) {
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+    }
     
     /**
      * Gets a connection from the HikariCP connection pool
@@ -0,0 +1,82 @@
+package exportation_panelera.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Single place where DAOs prepare statements, so that they are reused per
+ * pooled connection.
+ * HikariCP closes every statement still open when a connection goes back to
+ * the pool, so prepared statements cannot be kept by the application across
+ * borrows. They are kept one level lower instead: with cachePrepStmts and
+ * useServerPrepStmts (hikari.properties) Connector/J parks a closed
+ * statement in a per-connection LRU cache, and preparing the same SQL again
+ * on that physical connection takes it back without a server round trip.
+ * DAOs therefore borrow a connection per call, prepare through here and
+ * close everything. The driver keys its cache on the SQL text, so queries
+ * with a variable IN list use {@link #inListSize(int)} to keep the number of
+ * distinct statements small.
+ */
+public final class StatementCache {
+
+    // IN lists are padded up to one of these sizes; the last one is the batch limit
+    static final int[] IN_LIST_SIZES = {1, 8, 32, 128, 500};
+
+    private StatementCache() {
+    }
+
+    /**
+     * Prepare a statement on a pooled connection. Close it as usual; the
+     * driver keeps it for the next prepare of the same SQL.
+     */
+    public static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        return conn.prepareStatement(sql);
+    }
+
+    /**
+     * Prepare a statement that returns generated keys
+     *
+     * @see #prepare(Connection, String)
+     */
+    public static PreparedStatement prepare(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        return conn.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    /**
+     * Largest number of values a padded IN list may hold. Callers split
+     * longer lists into batches of at most this size.
+     */
+    public static int maxInListSize() {
+        return IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+    }
+
+    /**
+     * Number of placeholders to use for an IN list of {@code count} values:
+     * the smallest fixed size that fits them. Bind the unused placeholders to
+     * a value already in the list; repeated values do not change the result.
+     */
+    public static int inListSize(int count) {
+        if (count < 1 || count > maxInListSize()) {
+            throw new IllegalArgumentException("IN list size out of range: " + count);
+        }
+        for (int size : IN_LIST_SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        return maxInListSize();
+    }
+
+    /**
+     * Comma separated placeholders for an IN list, e.g. "?,?,?"
+     */
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
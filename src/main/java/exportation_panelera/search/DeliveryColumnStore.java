@@ -0,0 +1,813 @@
+package exportation_panelera.search;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.dao.ReferenceDataDAO;
+import exportation_panelera.service.ReferenceData;
+import exportation_panelera.service.ReferenceDataService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable, column-oriented snapshot of the delivery list used for
+ * interactive filtering.
+ * Low-cardinality columns (status, shipping method, carrier) are dictionary
+ * encoded into int codes; shipping methods and carriers use the codes of the
+ * {@link ReferenceData} the snapshot was built with, and values outside it
+ * get codes after those. Dates are stored as epoch days, and every status
+ * has a bitmap of the rows that carry it. Text columns are lower-cased once
+ * when the snapshot is built instead of on every keystroke. Filters return a
+ * {@link BitSet} of row positions, so several filters combine with
+ * {@link BitSet#and(BitSet)}.
+ * Snapshots never change once built, so {@link #withChanges} shares every
+ * column array, bitmap and dictionary that a change does not touch with the
+ * snapshot it starts from.
+ */
+public final class DeliveryColumnStore {
+
+    /**
+     * Search fields offered by the delivery management form
+     */
+    public static final String FIELD_ALL = "All Fields";
+    public static final String FIELD_DELIVERY_ID = "Delivery ID";
+    public static final String FIELD_EXPORT_ID = "Export ID";
+    public static final String FIELD_TRACKING_NUMBER = "Tracking Number";
+    public static final String FIELD_NOTES = "Notes";
+    public static final String FIELD_STATUS = "Status";
+    public static final String FIELD_DELIVERY_DATE = "Delivery Date";
+
+    // Epoch day stored for rows without a delivery date
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Scans look for an interrupt every 8192 rows
+    private static final int CANCEL_CHECK_INTERVAL = 0x1FFF;
+
+    private final Delivery_InfDTO[] rows;
+    private final int[] ids;
+    // (id << 32 | position), sorted, for looking up rows by database ID
+    private final long[] idPositions;
+
+    private final String[] deliveryIds;
+    private final String[] exportIds;
+    private final String[] trackingNumbers;
+    private final String[] notes;
+
+    private final ReferenceData reference;
+    private final Dictionary statuses;
+    private final Dictionary shippingMethods;
+    private final Dictionary carriers;
+    private final int[] statusCodes;
+    private final int[] shippingMethodCodes;
+    private final int[] carrierCodes;
+    private final BitSet[] statusIndex;
+
+    private final int[] deliveryDays;
+    // Lower-cased display text for each distinct delivery day
+    private final Map<Integer, String> dayLabels;
+
+    /**
+     * Build a snapshot from a list of deliveries with the current reference
+     * data. Null entries are skipped.
+     *
+     * @param deliveries The deliveries to index
+     */
+    public DeliveryColumnStore(Collection<Delivery_InfDTO> deliveries) {
+        this(deliveries, ReferenceDataService.getInstance().getData());
+    }
+
+    /**
+     * Build a snapshot from a list of deliveries. Null entries are skipped.
+     *
+     * @param deliveries The deliveries to index
+     * @param reference Reference data whose codes encode shipping methods and carriers
+     */
+    public DeliveryColumnStore(Collection<Delivery_InfDTO> deliveries, ReferenceData reference) {
+        this.reference = reference;
+        statuses = new Dictionary();
+        shippingMethods = new Dictionary(reference, ReferenceDataDAO.SHIPPING_METHOD);
+        carriers = new Dictionary(reference, ReferenceDataDAO.CARRIER);
+        dayLabels = new HashMap<>();
+
+        List<Delivery_InfDTO> source = new ArrayList<>(deliveries != null ? deliveries.size() : 0);
+        if (deliveries != null) {
+            for (Delivery_InfDTO delivery : deliveries) {
+                if (delivery != null) {
+                    source.add(delivery);
+                }
+            }
+        }
+
+        int size = source.size();
+        rows = source.toArray(new Delivery_InfDTO[0]);
+        ids = new int[size];
+        deliveryIds = new String[size];
+        exportIds = new String[size];
+        trackingNumbers = new String[size];
+        notes = new String[size];
+        statusCodes = new int[size];
+        shippingMethodCodes = new int[size];
+        carrierCodes = new int[size];
+        deliveryDays = new int[size];
+
+        for (int row = 0; row < size; row++) {
+            Delivery_InfDTO delivery = rows[row];
+            ids[row] = delivery.getId();
+            deliveryIds[row] = lower(delivery.getDeliveryId());
+            exportIds[row] = lower(delivery.getExportId());
+            trackingNumbers[row] = lower(delivery.getTrackingNumber());
+            notes[row] = lower(delivery.getNotes());
+            statusCodes[row] = statuses.encode(delivery.getStatus());
+            shippingMethodCodes[row] = shippingMethods.encode(delivery.getShippingMethod());
+            carrierCodes[row] = carriers.encode(delivery.getCarrierName());
+
+            Date date = dateOf(delivery);
+            deliveryDays[row] = toEpochDay(date);
+            if (date != null && !dayLabels.containsKey(deliveryDays[row])) {
+                dayLabels.put(deliveryDays[row], date.toString().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        idPositions = new long[size];
+        for (int row = 0; row < size; row++) {
+            idPositions[row] = ((long) ids[row] << 32) | row;
+        }
+        Arrays.sort(idPositions);
+
+        statusIndex = buildStatusIndex(statusCodes, statuses.size());
+    }
+
+    /**
+     * Patch a snapshot: only the positions of changed rows are written, and
+     * columns, bitmaps and dictionaries that stay the same are shared with
+     * {@code base}. Deletions shift the rows after them, so they copy the
+     * columns once, without re-encoding the values that move.
+     */
+    private DeliveryColumnStore(DeliveryColumnStore base, Collection<Delivery_InfDTO> changed, Set<Integer> deletedIds) {
+        reference = base.reference;
+
+        Map<Integer, Delivery_InfDTO> updates = new LinkedHashMap<>();
+        if (changed != null) {
+            for (Delivery_InfDTO delivery : changed) {
+                if (delivery != null) {
+                    updates.put(delivery.getId(), delivery);
+                }
+            }
+        }
+
+        BitSet deleted = deletedIds != null
+            ? base.positionsOf(deletedIds.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).toArray())
+            : new BitSet();
+
+        // Replaced rows keep the first position of their ID that survives the
+        // deletions; the rest are added at the end
+        List<Integer> replacedAt = new ArrayList<>();
+        List<Delivery_InfDTO> replacements = new ArrayList<>();
+        for (Iterator<Map.Entry<Integer, Delivery_InfDTO>> it = updates.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Delivery_InfDTO> update = it.next();
+            int position = base.firstPositionOf(update.getKey(), deleted);
+            if (position >= 0) {
+                replacedAt.add(position);
+                replacements.add(update.getValue());
+                it.remove();
+            }
+        }
+
+        int kept = base.rows.length - deleted.cardinality();
+        int size = kept + updates.size();
+        int[] moved = deleted.isEmpty() ? null : movedPositions(deleted, base.rows.length);
+
+        int count = replacements.size() + updates.size();
+        int[] targets = new int[count];
+        Delivery_InfDTO[] changes = new Delivery_InfDTO[count];
+        for (int i = 0; i < replacements.size(); i++) {
+            int position = replacedAt.get(i);
+            targets[i] = moved != null ? moved[position] : position;
+            changes[i] = replacements.get(i);
+        }
+        int next = replacements.size();
+        for (Delivery_InfDTO added : updates.values()) {
+            targets[next] = kept + next - replacements.size();
+            changes[next++] = added;
+        }
+
+        statuses = base.statuses.including(changes, Delivery_InfDTO::getStatus);
+        shippingMethods = base.shippingMethods.including(changes, Delivery_InfDTO::getShippingMethod);
+        carriers = base.carriers.including(changes, Delivery_InfDTO::getCarrierName);
+
+        rows = patch(base.rows, deleted, size, targets, changes, delivery -> delivery);
+        ids = patch(base.ids, deleted, size, targets, changes, Delivery_InfDTO::getId);
+        deliveryIds = patch(base.deliveryIds, deleted, size, targets, changes, d -> lower(d.getDeliveryId()));
+        exportIds = patch(base.exportIds, deleted, size, targets, changes, d -> lower(d.getExportId()));
+        trackingNumbers = patch(base.trackingNumbers, deleted, size, targets, changes, d -> lower(d.getTrackingNumber()));
+        notes = patch(base.notes, deleted, size, targets, changes, d -> lower(d.getNotes()));
+        statusCodes = patch(base.statusCodes, deleted, size, targets, changes, d -> statuses.encode(d.getStatus()));
+        shippingMethodCodes = patch(base.shippingMethodCodes, deleted, size, targets, changes,
+            d -> shippingMethods.encode(d.getShippingMethod()));
+        carrierCodes = patch(base.carrierCodes, deleted, size, targets, changes, d -> carriers.encode(d.getCarrierName()));
+        deliveryDays = patch(base.deliveryDays, deleted, size, targets, changes, d -> toEpochDay(dateOf(d)));
+
+        Map<Integer, String> labels = base.dayLabels;
+        for (Delivery_InfDTO delivery : changes) {
+            Date date = dateOf(delivery);
+            int day = toEpochDay(date);
+            if (date != null && !labels.containsKey(day)) {
+                if (labels == base.dayLabels) {
+                    labels = new HashMap<>(base.dayLabels);
+                }
+                labels.put(day, date.toString().toLowerCase(Locale.ROOT));
+            }
+        }
+        dayLabels = labels;
+
+        idPositions = patchIdPositions(base.idPositions, moved, kept, updates.values());
+        statusIndex = moved != null
+            ? buildStatusIndex(statusCodes, statuses.size())
+            : patchStatusIndex(base.statusIndex, base.statusCodes, statusCodes, statuses.size(), targets, size);
+    }
+
+    /**
+     * Copy of this snapshot with some deliveries replaced, added or removed.
+     * Replaced deliveries keep their position and new ones go at the end.
+     *
+     * @param changed Inserted or updated deliveries
+     * @param deletedIds Database IDs of deliveries to drop
+     * @return The new snapshot; this one is unchanged
+     */
+    public DeliveryColumnStore withChanges(Collection<Delivery_InfDTO> changed, Set<Integer> deletedIds) {
+        return new DeliveryColumnStore(this, changed, deletedIds);
+    }
+
+    /**
+     * Version of the reference data the snapshot was built with
+     */
+    public long getReferenceVersion() {
+        return reference.getVersion();
+    }
+
+    /**
+     * Number of rows in the snapshot
+     */
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * The delivery at a row position
+     */
+    public Delivery_InfDTO row(int position) {
+        return rows[position];
+    }
+
+    /**
+     * Database ID of the delivery at a row position
+     */
+    public int idAt(int position) {
+        return ids[position];
+    }
+
+    /**
+     * Dictionary code of the shipping method at a row position; below the
+     * number of reference shipping methods it is the reference code
+     */
+    public int shippingMethodCodeAt(int position) {
+        return shippingMethodCodes[position];
+    }
+
+    /**
+     * Dictionary code of the carrier at a row position; below the number of
+     * reference carriers it is the reference code
+     */
+    public int carrierCodeAt(int position) {
+        return carrierCodes[position];
+    }
+
+    /**
+     * Row positions of the given database IDs. IDs that are not in the
+     * snapshot are ignored.
+     *
+     * @param deliveryIds Database IDs, e.g. from {@link DeliveryTextIndex#search}
+     */
+    public BitSet positionsOf(int[] deliveryIds) {
+        BitSet positions = new BitSet(rows.length);
+        for (int id : deliveryIds) {
+            // Smallest packed value with this ID in the high half
+            int at = Arrays.binarySearch(idPositions, (long) id << 32);
+            if (at < 0) {
+                at = -at - 1;
+            }
+            while (at < idPositions.length && (int) (idPositions[at] >> 32) == id) {
+                positions.set((int) idPositions[at]);
+                at++;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Bitmap with every row set
+     */
+    public BitSet all() {
+        BitSet all = new BitSet(rows.length);
+        all.set(0, rows.length);
+        return all;
+    }
+
+    /**
+     * Rows matching a search from the delivery management form. Matching is a
+     * case-insensitive substring test on the chosen field, the same as the
+     * form's original row-by-row filter.
+     *
+     * @param field One of the FIELD_ constants; unknown values search all fields
+     * @param text Text to look for
+     * @return Matching row positions
+     */
+    public BitSet search(String field, String text) {
+        return search(field, text, null);
+    }
+
+    /**
+     * Same as {@link #search(String, String)}, but only rows set in
+     * {@code within} are tested. Used to refine an earlier result when the
+     * user keeps typing: every row matching "abcd" also matched "abc".
+     * Long scans stop with a {@link CancellationException} once the calling
+     * thread is interrupted.
+     *
+     * @param within Rows to test, or null for all rows
+     */
+    public BitSet search(String field, String text, BitSet within) {
+        String needle = lower(text);
+        if (needle == null || needle.isEmpty()) {
+            return within != null ? (BitSet) within.clone() : all();
+        }
+
+        BitSet matches;
+        switch (field != null ? field : FIELD_ALL) {
+            case FIELD_DELIVERY_ID:
+                return scan(needle, within, deliveryIds);
+            case FIELD_EXPORT_ID:
+                return scan(needle, within, exportIds);
+            case FIELD_TRACKING_NUMBER:
+                return scan(needle, within, trackingNumbers);
+            case FIELD_NOTES:
+                return scan(needle, within, notes);
+            case FIELD_STATUS:
+                matches = statusContaining(needle);
+                break;
+            case FIELD_DELIVERY_DATE:
+                matches = deliveryDateContaining(needle);
+                break;
+            case FIELD_ALL:
+            default:
+                matches = scan(needle, within, deliveryIds, exportIds, trackingNumbers, notes);
+                matches.or(statusContaining(needle));
+                break;
+        }
+        if (within != null) {
+            matches.and(within);
+        }
+        return matches;
+    }
+
+    /**
+     * Rows whose status equals one of the given values, ignoring case
+     */
+    public BitSet withStatus(String... wanted) {
+        BitSet matches = new BitSet(rows.length);
+        for (String status : wanted) {
+            for (int code = 0; code < statuses.size(); code++) {
+                String value = statuses.decode(code);
+                if (value != null && value.equalsIgnoreCase(status)) {
+                    matches.or(statusIndex[code]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows whose status contains the given text, ignoring case.
+     * Only the distinct status values are tested; the result is the union of
+     * their bitmaps.
+     */
+    public BitSet statusContaining(String text) {
+        String needle = lower(text);
+        BitSet matches = new BitSet(rows.length);
+        for (int code = 0; code < statuses.size(); code++) {
+            String value = lower(statuses.decode(code));
+            if (value != null && value.contains(needle)) {
+                matches.or(statusIndex[code]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows shipped with the given method, ignoring case
+     */
+    public BitSet withShippingMethod(String method) {
+        return matchCodes(shippingMethods, shippingMethodCodes, method);
+    }
+
+    /**
+     * Rows handled by the given carrier, ignoring case
+     */
+    public BitSet withCarrier(String carrier) {
+        return matchCodes(carriers, carrierCodes, carrier);
+    }
+
+    /**
+     * Rows with a delivery date in the given range
+     *
+     * @param from First day (inclusive), or null for no lower bound
+     * @param to Last day (inclusive), or null for no upper bound
+     */
+    public BitSet deliveredBetween(LocalDate from, LocalDate to) {
+        long low = from != null ? from.toEpochDay() : NO_DATE + 1L;
+        long high = to != null ? to.toEpochDay() : Integer.MAX_VALUE;
+        BitSet matches = new BitSet(rows.length);
+        for (int row = 0; row < deliveryDays.length; row++) {
+            int day = deliveryDays[row];
+            if (day != NO_DATE && day >= low && day <= high) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Rows whose delivery date, as displayed, contains the given text
+     */
+    public BitSet deliveryDateContaining(String text) {
+        String needle = lower(text);
+        // Test each distinct day once, then pick rows with a primitive scan
+        Map<Integer, Boolean> dayMatches = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : dayLabels.entrySet()) {
+            dayMatches.put(entry.getKey(), entry.getValue().contains(needle));
+        }
+
+        BitSet matches = new BitSet(rows.length);
+        for (int row = 0; row < deliveryDays.length; row++) {
+            int day = deliveryDays[row];
+            if (day != NO_DATE && dayMatches.get(day)) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Deliveries at the set positions, in snapshot order
+     */
+    public List<Delivery_InfDTO> rows(BitSet positions) {
+        List<Delivery_InfDTO> result = new ArrayList<>(positions.cardinality());
+        for (int row = positions.nextSetBit(0); row >= 0 && row < rows.length; row = positions.nextSetBit(row + 1)) {
+            result.add(rows[row]);
+        }
+        return result;
+    }
+
+    private BitSet scan(String needle, BitSet within, String[]... columns) {
+        BitSet matches = new BitSet(rows.length);
+        int tested = 0;
+        int row = within != null ? within.nextSetBit(0) : 0;
+        while (row >= 0 && row < rows.length) {
+            if ((++tested & CANCEL_CHECK_INTERVAL) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Delivery search cancelled");
+            }
+            for (String[] column : columns) {
+                String value = column[row];
+                if (value != null && value.contains(needle)) {
+                    matches.set(row);
+                    break;
+                }
+            }
+            row = within != null ? within.nextSetBit(row + 1) : row + 1;
+        }
+        return matches;
+    }
+
+    private BitSet matchCodes(Dictionary dictionary, int[] codes, String value) {
+        // Resolve the wanted value against the dictionary once, then compare codes
+        boolean[] wanted = new boolean[dictionary.size()];
+        boolean any = false;
+        for (int code = 0; code < wanted.length; code++) {
+            String candidate = dictionary.decode(code);
+            wanted[code] = candidate != null ? candidate.equalsIgnoreCase(value) : value == null;
+            any |= wanted[code];
+        }
+
+        BitSet matches = new BitSet(rows.length);
+        if (!any) {
+            return matches;
+        }
+        for (int row = 0; row < codes.length; row++) {
+            if (wanted[codes[row]]) {
+                matches.set(row);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * First position of a database ID that is not in {@code skip}, or -1
+     */
+    private int firstPositionOf(int id, BitSet skip) {
+        int at = Arrays.binarySearch(idPositions, (long) id << 32);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        for (; at < idPositions.length && (int) (idPositions[at] >> 32) == id; at++) {
+            int position = (int) idPositions[at];
+            if (!skip.get(position)) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * New position of every old row once the deleted ones are dropped, -1 for the deleted
+     */
+    private static int[] movedPositions(BitSet deleted, int length) {
+        int[] moved = new int[length];
+        int next = 0;
+        for (int row = 0; row < length; row++) {
+            moved[row] = deleted.get(row) ? -1 : next++;
+        }
+        return moved;
+    }
+
+    /**
+     * Copy the rows of {@code column} that are not deleted to the start of {@code target}
+     */
+    private static <A> A compactInto(A column, int length, BitSet deleted, A target) {
+        int from = 0;
+        int to = 0;
+        for (int gap = deleted.nextSetBit(0); gap >= 0 && gap < length; gap = deleted.nextSetBit(gap + 1)) {
+            System.arraycopy(column, from, target, to, gap - from);
+            to += gap - from;
+            from = gap + 1;
+        }
+        System.arraycopy(column, from, target, to, length - from);
+        return target;
+    }
+
+    /**
+     * The column with the changed values written at their positions. The
+     * same array is returned when nothing moves and no value differs.
+     */
+    private static <T> T[] patch(T[] column, BitSet deleted, int size, int[] targets,
+                                 Delivery_InfDTO[] changes, Function<Delivery_InfDTO, T> valueOf) {
+        T[] result = size != column.length || !deleted.isEmpty()
+            ? compactInto(column, column.length, deleted, Arrays.copyOf(column, size))
+            : column;
+        for (int i = 0; i < targets.length; i++) {
+            T value = valueOf.apply(changes[i]);
+            if (result == column) {
+                if (Objects.equals(column[targets[i]], value)) {
+                    continue;
+                }
+                result = column.clone();
+            }
+            result[targets[i]] = value;
+        }
+        return result;
+    }
+
+    /**
+     * @see #patch(Object[], BitSet, int, int[], Delivery_InfDTO[], Function)
+     */
+    private static int[] patch(int[] column, BitSet deleted, int size, int[] targets,
+                               Delivery_InfDTO[] changes, ToIntFunction<Delivery_InfDTO> valueOf) {
+        int[] result = size != column.length || !deleted.isEmpty()
+            ? compactInto(column, column.length, deleted, Arrays.copyOf(column, size))
+            : column;
+        for (int i = 0; i < targets.length; i++) {
+            int value = valueOf.applyAsInt(changes[i]);
+            if (result == column) {
+                if (column[targets[i]] == value) {
+                    continue;
+                }
+                result = column.clone();
+            }
+            result[targets[i]] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Move the surviving (id, position) pairs to their new positions and
+     * merge in the added rows. Remapping keeps the order, since positions
+     * only move down and IDs do not change.
+     */
+    private static long[] patchIdPositions(long[] idPositions, int[] moved, int kept, Collection<Delivery_InfDTO> added) {
+        if (moved == null && added.isEmpty()) {
+            return idPositions;
+        }
+
+        long[] remaining = idPositions;
+        if (moved != null) {
+            remaining = new long[kept];
+            int next = 0;
+            for (long idPosition : idPositions) {
+                int position = moved[(int) idPosition];
+                if (position >= 0) {
+                    remaining[next++] = (idPosition & 0xFFFFFFFF00000000L) | position;
+                }
+            }
+        }
+
+        long[] appended = new long[added.size()];
+        int row = kept;
+        int next = 0;
+        for (Delivery_InfDTO delivery : added) {
+            appended[next++] = ((long) delivery.getId() << 32) | row++;
+        }
+        Arrays.sort(appended);
+
+        long[] merged = new long[remaining.length + appended.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            merged[k] = j >= appended.length || (i < remaining.length && remaining[i] <= appended[j])
+                ? remaining[i++]
+                : appended[j++];
+        }
+        return merged;
+    }
+
+    private static BitSet[] buildStatusIndex(int[] statusCodes, int codes) {
+        BitSet[] index = new BitSet[codes];
+        for (int code = 0; code < codes; code++) {
+            index[code] = new BitSet(statusCodes.length);
+        }
+        for (int row = 0; row < statusCodes.length; row++) {
+            index[statusCodes[row]].set(row);
+        }
+        return index;
+    }
+
+    /**
+     * Status bitmaps with the changed positions moved between statuses.
+     * Only for changes without deletions; the bitmaps of statuses no changed
+     * row leaves or joins are shared.
+     */
+    private static BitSet[] patchStatusIndex(BitSet[] index, int[] oldCodes, int[] newCodes, int codes,
+                                             int[] targets, int size) {
+        if (newCodes == oldCodes && codes == index.length) {
+            return index;
+        }
+
+        BitSet[] result = Arrays.copyOf(index, codes);
+        boolean[] copied = new boolean[codes];
+        for (int code = index.length; code < codes; code++) {
+            result[code] = new BitSet(size);
+            copied[code] = true;
+        }
+        for (int position : targets) {
+            int oldCode = position < oldCodes.length ? oldCodes[position] : -1;
+            int newCode = newCodes[position];
+            if (oldCode == newCode) {
+                continue;
+            }
+            if (oldCode >= 0) {
+                copyOnWrite(result, copied, oldCode).clear(position);
+            }
+            copyOnWrite(result, copied, newCode).set(position);
+        }
+        return result;
+    }
+
+    private static BitSet copyOnWrite(BitSet[] index, boolean[] copied, int code) {
+        if (!copied[code]) {
+            index[code] = (BitSet) index[code].clone();
+            copied[code] = true;
+        }
+        return index[code];
+    }
+
+    /**
+     * Column arrays, for tests that check which ones a patched snapshot shares
+     */
+    Object[] columns() {
+        return new Object[] {rows, ids, idPositions, deliveryIds, exportIds, trackingNumbers, notes,
+            statusCodes, shippingMethodCodes, carrierCodes, deliveryDays};
+    }
+
+    private static Date dateOf(Delivery_InfDTO delivery) {
+        return delivery.getDeliveryDate() != null ? delivery.getDeliveryDate() : delivery.getDate();
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    static int toEpochDay(Date date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        // java.sql.Date does not support toInstant(), so go through the millis
+        return (int) Instant.ofEpochMilli(date.getTime())
+            .atZone(ZoneId.systemDefault())
+            .toLocalDate()
+            .toEpochDay();
+    }
+
+    /**
+     * Maps each distinct string value of a column to a small int code.
+     * Null is a value of its own. A dictionary for a kind of reference data
+     * starts with its values, so those keep their reference codes and
+     * spelling whatever the case of the column value.
+     */
+    static final class Dictionary {
+        private final Map<String, Integer> codes;
+        private final List<String> values;
+        private final ReferenceData reference;
+        private final String kind;
+
+        Dictionary() {
+            this(null, null);
+        }
+
+        Dictionary(ReferenceData reference, String kind) {
+            this.reference = reference;
+            this.kind = kind;
+            codes = new HashMap<>();
+            values = new ArrayList<>();
+            if (reference != null) {
+                values.addAll(reference.values(kind));
+            }
+        }
+
+        private Dictionary(Dictionary other) {
+            reference = other.reference;
+            kind = other.kind;
+            codes = new HashMap<>(other.codes);
+            values = new ArrayList<>(other.values);
+        }
+
+        /**
+         * This dictionary if it already has a code for the column value of
+         * every delivery, otherwise a copy with codes added. A dictionary
+         * shared between snapshots is never changed.
+         */
+        Dictionary including(Delivery_InfDTO[] deliveries, Function<Delivery_InfDTO, String> column) {
+            Dictionary result = this;
+            for (Delivery_InfDTO delivery : deliveries) {
+                String value = column.apply(delivery);
+                if (!result.contains(value)) {
+                    if (result == this) {
+                        result = new Dictionary(this);
+                    }
+                    result.encode(value);
+                }
+            }
+            return result;
+        }
+
+        boolean contains(String value) {
+            return (reference != null && reference.code(kind, value) >= 0) || codes.containsKey(value);
+        }
+
+        int encode(String value) {
+            if (reference != null) {
+                int known = reference.code(kind, value);
+                if (known >= 0) {
+                    return known;
+                }
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
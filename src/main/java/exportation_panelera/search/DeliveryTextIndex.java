@@ -0,0 +1,114 @@
+package exportation_panelera.search;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Free-text index over the delivery fields the search box looks at:
+ * delivery ID, export ID, tracking number, notes and status.
+ * Documents are keyed by the delivery's database ID.
+ */
+public class DeliveryTextIndex {
+
+    static final int DELIVERY_ID = 0;
+    static final int EXPORT_ID = 1;
+    static final int TRACKING_NUMBER = 2;
+    static final int NOTES = 3;
+    static final int STATUS = 4;
+
+    private final TrigramIndex index = new TrigramIndex(5);
+
+    /**
+     * Make the index match the given deliveries. Deliveries that are gone are
+     * removed and only fields whose text changed are re-indexed, so reloading
+     * an unchanged list is cheap.
+     */
+    public void replaceAll(Collection<Delivery_InfDTO> deliveries) {
+        Set<Integer> current = new HashSet<>();
+        if (deliveries != null) {
+            for (Delivery_InfDTO delivery : deliveries) {
+                if (delivery != null) {
+                    index(delivery);
+                    current.add(delivery.getId());
+                }
+            }
+        }
+        for (int id : index.ids()) {
+            if (!current.contains(id)) {
+                index.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Add or replace one delivery, using its own display ID
+     */
+    public void index(Delivery_InfDTO delivery) {
+        index(delivery.getId(), delivery.getDeliveryId(), delivery);
+    }
+
+    /**
+     * Add or replace one delivery under the given display ID
+     *
+     * @param id Database ID
+     * @param deliveryId Delivery ID as shown in the list
+     * @param delivery Source of the other fields
+     */
+    public void index(int id, String deliveryId, Delivery_InfDTO delivery) {
+        String status = delivery.getStatus() != null ? delivery.getStatus() : delivery.getDeliveryStatus();
+        index.put(id, deliveryId, delivery.getExportId(), delivery.getTrackingNumber(), delivery.getNotes(), status);
+    }
+
+    /**
+     * Remove a delivery
+     */
+    public void remove(int id) {
+        index.remove(id);
+    }
+
+    /**
+     * Number of indexed deliveries
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Find deliveries whose field contains the text, ignoring case
+     *
+     * @param field One of the {@link DeliveryColumnStore} FIELD_ constants
+     * @param text Text to look for
+     * @return Matching database IDs in ascending order, or null if the field
+     *         is not a text field of this index (e.g. the delivery date)
+     */
+    public int[] search(String field, String text) {
+        int indexField = toIndexField(field);
+        if (indexField == Integer.MIN_VALUE) {
+            return null;
+        }
+        return index.search(indexField, text);
+    }
+
+    private static int toIndexField(String field) {
+        switch (field != null ? field : DeliveryColumnStore.FIELD_ALL) {
+            case DeliveryColumnStore.FIELD_DELIVERY_ID:
+                return DELIVERY_ID;
+            case DeliveryColumnStore.FIELD_EXPORT_ID:
+                return EXPORT_ID;
+            case DeliveryColumnStore.FIELD_TRACKING_NUMBER:
+                return TRACKING_NUMBER;
+            case DeliveryColumnStore.FIELD_NOTES:
+                return NOTES;
+            case DeliveryColumnStore.FIELD_STATUS:
+                return STATUS;
+            case DeliveryColumnStore.FIELD_DELIVERY_DATE:
+                return Integer.MIN_VALUE;
+            case DeliveryColumnStore.FIELD_ALL:
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package exportation_panelera.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index for case-insensitive substring search.
+ * Each document is an int ID with a fixed number of text fields. Every
+ * three-character window of every field is a key into a sorted posting list
+ * of document IDs. A query of three or more characters intersects the
+ * posting lists of its trigrams, starting with the shortest, and then checks
+ * the few remaining candidates with a real substring test. Shorter queries
+ * fall back to scanning the stored field values.
+ * Documents can be added, replaced and removed one at a time, so the index
+ * follows creates, updates and deletes without being rebuilt.
+ */
+public class TrigramIndex {
+
+    private final int fieldCount;
+    private final Map<Integer, String[]> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param fieldCount Number of text fields per document
+     */
+    public TrigramIndex(int fieldCount) {
+        if (fieldCount <= 0 || fieldCount > 255) {
+            throw new IllegalArgumentException("Field count must be between 1 and 255");
+        }
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Add a document, or replace it if the ID is already indexed.
+     * Only fields whose value changed are re-indexed.
+     *
+     * @param id Document ID
+     * @param values Field values in field order; missing or null values are empty
+     */
+    public void put(int id, String... values) {
+        String[] normalized = new String[fieldCount];
+        for (int field = 0; field < fieldCount; field++) {
+            String value = values != null && field < values.length ? values[field] : null;
+            normalized[field] = value != null ? value.toLowerCase(Locale.ROOT) : "";
+        }
+
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.put(id, normalized);
+            for (int field = 0; field < fieldCount; field++) {
+                String before = previous != null ? previous[field] : "";
+                if (!before.equals(normalized[field])) {
+                    unindex(id, field, before);
+                    index(id, field, normalized[field]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document
+     *
+     * @param id Document ID
+     * @return true if the document was indexed
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = documents.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            for (int field = 0; field < fieldCount; field++) {
+                unindex(id, field, previous[field]);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of every indexed document in ascending order
+     */
+    public int[] ids() {
+        lock.readLock().lock();
+        try {
+            return allIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find documents whose field contains the text, ignoring case
+     *
+     * @param field Field to search, or -1 for any field
+     * @param text Text to look for
+     * @return Matching document IDs in ascending order
+     */
+    public int[] search(int field, String text) {
+        if (field < -1 || field >= fieldCount) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        String needle = text != null ? text.toLowerCase(Locale.ROOT) : "";
+
+        lock.readLock().lock();
+        try {
+            if (needle.isEmpty()) {
+                return allIds();
+            }
+            if (field >= 0) {
+                return searchField(field, needle);
+            }
+
+            int[] matches = new int[0];
+            for (int f = 0; f < fieldCount; f++) {
+                matches = union(matches, searchField(f, needle));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] searchField(int field, String needle) {
+        if (needle.length() < 3) {
+            return scan(field, needle);
+        }
+
+        // Gather the posting list of every distinct trigram in the query
+        int trigrams = needle.length() - 2;
+        Postings[] lists = new Postings[trigrams];
+        int distinct = 0;
+        long[] seen = new long[trigrams];
+        outer:
+        for (int i = 0; i < trigrams; i++) {
+            long key = key(field, needle, i);
+            for (int j = 0; j < distinct; j++) {
+                if (seen[j] == key) {
+                    continue outer;
+                }
+            }
+            Postings list = postings.get(key);
+            if (list == null) {
+                return new int[0];
+            }
+            seen[distinct] = key;
+            lists[distinct++] = list;
+        }
+
+        Postings[] used = Arrays.copyOf(lists, distinct);
+        Arrays.sort(used, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Intersect from the shortest list up, so the candidate set shrinks early
+        int[] candidates = Arrays.copyOf(used[0].ids, used[0].size);
+        int count = candidates.length;
+        for (int j = 1; j < used.length && count > 0; j++) {
+            count = used[j].retain(candidates, count);
+        }
+
+        // Trigrams can match out of order, so confirm the substring
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int id = candidates[i];
+            if (documents.get(id)[field].contains(needle)) {
+                candidates[found++] = id;
+            }
+        }
+        return Arrays.copyOf(candidates, found);
+    }
+
+    private int[] scan(int field, String needle) {
+        int[] matches = new int[documents.size()];
+        int found = 0;
+        for (Map.Entry<Integer, String[]> entry : documents.entrySet()) {
+            if (entry.getValue()[field].contains(needle)) {
+                matches[found++] = entry.getKey();
+            }
+        }
+        int[] result = Arrays.copyOf(matches, found);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int[] allIds() {
+        int[] ids = new int[documents.size()];
+        int i = 0;
+        for (Integer id : documents.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private void index(int id, int field, String value) {
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            postings.computeIfAbsent(key(field, value, i), k -> new Postings()).add(id);
+        }
+    }
+
+    private void unindex(int id, int field, String value) {
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            long key = key(field, value, i);
+            Postings list = postings.get(key);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Pack a field number and three UTF-16 chars into one key
+     */
+    private static long key(int field, String value, int offset) {
+        return ((long) field << 48)
+            | ((long) value.charAt(offset) << 32)
+            | ((long) value.charAt(offset + 1) << 16)
+            | value.charAt(offset + 2);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                merged[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                merged[n++] = b[j++];
+            } else {
+                merged[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) merged[n++] = a[i++];
+        while (j < b.length) merged[n++] = b[j++];
+        return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Sorted, growable list of document IDs.
+     * IDs usually arrive in ascending order, which makes add an append.
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            int insert = -at - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        /**
+         * Keep only the candidates that are also in this list.
+         * Both are sorted; each lookup gallops forward from the previous match.
+         *
+         * @return Number of candidates kept at the front of the array
+         */
+        int retain(int[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                int id = candidates[i];
+                int step = 1;
+                int hi = from;
+                while (hi < size && ids[hi] < id) {
+                    from = hi + 1;
+                    hi += step;
+                    step <<= 1;
+                }
+                int at = Arrays.binarySearch(ids, from, Math.min(hi + 1, size), id);
+                if (at >= 0) {
+                    candidates[kept++] = id;
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+            return kept;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
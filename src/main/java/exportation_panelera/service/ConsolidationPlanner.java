@@ -0,0 +1,494 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Currencies;
+import exportation_panelera.Model.ExportationLot;
+import exportation_panelera.Model.Money;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ExportationDAO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Plans consolidated shipments for pending exportations
+ * Lots going to the same destination by the same transport method within
+ * the same date window are packed into as few shipments as the shipment
+ * capacity allows, using first-fit decreasing followed by a local search that
+ * tries to empty the lightest shipments into the spare room of the others.
+ * Groups are packed in parallel. Each lot shipped alone and each planned
+ * shipment are costed with the current shipping tariffs to report the savings.
+ */
+public class ConsolidationPlanner {
+
+    private static final Logger logger = Logger.getLogger(ConsolidationPlanner.class.getName());
+
+    static final String UNKNOWN_DESTINATION = "Unknown";
+    static final String UNKNOWN_METHOD = "Unspecified";
+
+    // Item pairs the local search may compare per group, so that very large
+    // groups keep their first-fit decreasing packing
+    static final long LOCAL_SEARCH_BUDGET = 20_000_000L;
+
+    private final ExportationDAO exportationDAO;
+    private final ShippingRateService shippingRateService;
+    private final long capacity;
+    private final int windowDays;
+
+    // Singleton instance
+    private static ConsolidationPlanner instance;
+
+    /**
+     * One planned shipment
+     *
+     * @param destination Destination country
+     * @param transportMethod Transport method
+     * @param windowStart First day of the date window of its lots
+     * @param lots The lots
+     * @param weightKg Total weight in kg
+     * @param cost Cost in US dollars, null if the method has no tariff
+     */
+    public record Shipment(String destination,
+                           String transportMethod,
+                           LocalDate windowStart,
+                           List<ExportationLot> lots,
+                           BigDecimal weightKg,
+                           Money cost) {
+    }
+
+    /**
+     * A consolidation plan
+     *
+     * @param shipments Planned shipments, grouped by destination, method and window
+     * @param lotCount Number of lots planned
+     * @param costAlone Cost of shipping each priced lot on its own, in US dollars
+     * @param costConsolidated Cost of the priced planned shipments, in US dollars
+     * @param unpricedLots Lots whose transport method has no tariff, left out of the costs
+     */
+    public record Plan(List<Shipment> shipments,
+                       int lotCount,
+                       Money costAlone,
+                       Money costConsolidated,
+                       int unpricedLots) {
+
+        /**
+         * Shipments avoided by consolidating
+         */
+        public int shipmentsSaved() {
+            return lotCount - shipments.size();
+        }
+
+        /**
+         * What consolidating saves, in US dollars
+         */
+        public Money savings() {
+            return costAlone.minus(costConsolidated);
+        }
+    }
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private ConsolidationPlanner() {
+        this(new ExportationDAO(), ShippingRateService.getInstance(),
+            new BigDecimal(Math.max(1, ConfigLoader.getIntProperty("consolidation.shipment.capacity.kg", 20000))),
+            Math.max(1, ConfigLoader.getIntProperty("consolidation.window.days", 7)));
+    }
+
+    ConsolidationPlanner(ExportationDAO exportationDAO, ShippingRateService shippingRateService,
+                         BigDecimal capacityKg, int windowDays) {
+        this.exportationDAO = exportationDAO;
+        this.shippingRateService = shippingRateService;
+        this.capacity = ShippingTariffTable.toHundredths(capacityKg);
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized ConsolidationPlanner getInstance() {
+        if (instance == null) {
+            instance = new ConsolidationPlanner();
+        }
+        return instance;
+    }
+
+    /**
+     * Plan the pending exportations dated within the range
+     *
+     * @param from First date included
+     * @param to Last date included
+     * @param distanceKm Distance to each destination; destinations left out cost no distance
+     */
+    public Plan planPending(LocalDate from, LocalDate to, Map<String, BigDecimal> distanceKm) {
+        List<ExportationLot> lots = exportationDAO.findPendingLots(from, to);
+        Plan plan = plan(lots, distanceKm);
+        logger.info("Consolidated " + plan.lotCount() + " pending lots into " + plan.shipments().size()
+            + " shipments, saving " + plan.savings());
+        return plan;
+    }
+
+    /**
+     * Plan the given lots. Date windows are {@code consolidation.window.days}
+     * long and start at the earliest lot date. A lot heavier than a shipment's
+     * capacity ships on its own.
+     *
+     * @param lots The lots to plan
+     * @param distanceKm Distance to each destination; destinations left out cost no distance
+     * @throws IllegalArgumentException If a lot has no date or a negative weight
+     */
+    public Plan plan(List<ExportationLot> lots, Map<String, BigDecimal> distanceKm) {
+        long firstDay = Long.MAX_VALUE;
+        for (ExportationLot lot : lots) {
+            if (lot.date() == null) {
+                throw new IllegalArgumentException("Lot " + lot.exportationId() + " has no date");
+            }
+            firstDay = Math.min(firstDay, lot.date().toEpochDay());
+        }
+
+        Map<GroupKey, List<ExportationLot>> groups = new LinkedHashMap<>();
+        for (ExportationLot lot : lots) {
+            long window = (lot.date().toEpochDay() - firstDay) / windowDays;
+            GroupKey key = new GroupKey(orDefault(lot.destination(), UNKNOWN_DESTINATION),
+                orDefault(lot.transportMethod(), UNKNOWN_METHOD),
+                LocalDate.ofEpochDay(firstDay + window * windowDays));
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(lot);
+        }
+
+        ShippingTariffTable tariffs = shippingRateService.getTable();
+        List<GroupPlan> planned = groups.entrySet().parallelStream()
+            .map(group -> planGroup(group.getKey(), group.getValue(), tariffs, distanceKm))
+            .toList();
+
+        List<Shipment> shipments = new ArrayList<>();
+        long aloneCents = 0;
+        long consolidatedCents = 0;
+        int unpriced = 0;
+        for (GroupPlan group : planned) {
+            shipments.addAll(group.shipments());
+            if (group.priced()) {
+                aloneCents = Math.addExact(aloneCents, group.aloneCents());
+                consolidatedCents = Math.addExact(consolidatedCents, group.consolidatedCents());
+            } else {
+                unpriced += group.lotCount();
+            }
+        }
+
+        int usd = Currencies.ordinal("USD");
+        return new Plan(shipments, lots.size(), Money.ofMinor(aloneCents, usd),
+            Money.ofMinor(consolidatedCents, usd), unpriced);
+    }
+
+    private GroupPlan planGroup(GroupKey key, List<ExportationLot> lots,
+                                ShippingTariffTable tariffs, Map<String, BigDecimal> distanceKm) {
+        List<ExportationLot> sorted = new ArrayList<>(lots);
+        sorted.sort(Comparator.comparing(ExportationLot::weightKg, Comparator.nullsLast(Comparator.reverseOrder())));
+
+        int n = sorted.size();
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = ShippingTariffTable.toHundredths(sorted.get(i).weightKg());
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Lot " + sorted.get(i).exportationId() + " has a negative weight");
+            }
+        }
+
+        int[] bins = pack(weights, capacity);
+        int binCount = 0;
+        for (int bin : bins) {
+            binCount = Math.max(binCount, bin + 1);
+        }
+        List<List<ExportationLot>> members = new ArrayList<>(binCount);
+        long[] loads = new long[binCount];
+        for (int b = 0; b < binCount; b++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            members.get(bins[i]).add(sorted.get(i));
+            loads[bins[i]] += weights[i];
+        }
+
+        int method = tariffs.indexOf(key.transportMethod());
+        long distance = ShippingTariffTable.toHundredths(distanceKm == null ? null : distanceKm.get(key.destination()));
+        int usd = Currencies.ordinal("USD");
+
+        long aloneCents = 0;
+        long consolidatedCents = 0;
+        if (method >= 0) {
+            for (long weight : weights) {
+                aloneCents = Math.addExact(aloneCents, tariffs.quoteCents(method, weight, distance));
+            }
+        }
+
+        List<Shipment> shipments = new ArrayList<>(binCount);
+        for (int b = 0; b < binCount; b++) {
+            Money cost = null;
+            if (method >= 0) {
+                long cents = tariffs.quoteCents(method, loads[b], distance);
+                consolidatedCents = Math.addExact(consolidatedCents, cents);
+                cost = Money.ofMinor(cents, usd);
+            }
+            shipments.add(new Shipment(key.destination(), key.transportMethod(), key.windowStart(),
+                List.copyOf(members.get(b)), BigDecimal.valueOf(loads[b], 2), cost));
+        }
+        return new GroupPlan(shipments, n, method >= 0, aloneCents, consolidatedCents);
+    }
+
+    /**
+     * Pack items into as few bins of the given capacity as the heuristic finds.
+     * Items are placed first-fit in the order given, so they should come
+     * heaviest first. Then the lightest bin is emptied into the others, making
+     * room by exchanging items between two bins where needed, for as long as
+     * that succeeds. An item heavier than the capacity gets a bin of its own.
+     *
+     * @param weights Item weights, heaviest first
+     * @param capacity Bin capacity
+     * @return The bin of each item, numbered from 0 without gaps
+     */
+    static int[] pack(long[] weights, long capacity) {
+        int n = weights.length;
+        int[] bins = new int[n];
+        if (n == 0) {
+            return bins;
+        }
+
+        // Every leaf starts as an empty bin, so the leftmost bin with room is
+        // either an open bin or the next one to open
+        SlackTree slack = new SlackTree(n, capacity);
+        int opened = 0;
+        for (int i = 0; i < n; i++) {
+            if (weights[i] > capacity) {
+                bins[i] = -1;
+                continue;
+            }
+            int bin = slack.firstFit(weights[i]);
+            slack.add(bin, -weights[i]);
+            bins[i] = bin;
+            opened = Math.max(opened, bin + 1);
+        }
+
+        new Packing(weights, bins, opened, capacity).improve();
+
+        // Renumber the bins still in use, then give oversized items their own
+        int[] renumbered = new int[opened];
+        Arrays.fill(renumbered, -1);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (bins[i] >= 0) {
+                if (renumbered[bins[i]] < 0) {
+                    renumbered[bins[i]] = count++;
+                }
+                bins[i] = renumbered[bins[i]];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (bins[i] < 0) {
+                bins[i] = count++;
+            }
+        }
+        return bins;
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value == null || value.trim().isEmpty() ? fallback : value.trim();
+    }
+
+    private record GroupKey(String destination, String transportMethod, LocalDate windowStart) {
+    }
+
+    private record GroupPlan(List<Shipment> shipments, int lotCount, boolean priced,
+                             long aloneCents, long consolidatedCents) {
+    }
+
+    /**
+     * Bins being improved by local search, with a journal of moves so that a
+     * failed attempt can be undone
+     */
+    private static final class Packing {
+        private final long[] weights;
+        private final int[] bins;
+        private final long capacity;
+        private final List<List<Integer>> members = new ArrayList<>();
+        private final long[] loads;
+        private final List<int[]> journal = new ArrayList<>();
+        private long budget = LOCAL_SEARCH_BUDGET;
+
+        Packing(long[] weights, int[] bins, int binCount, long capacity) {
+            this.weights = weights;
+            this.bins = bins;
+            this.capacity = capacity;
+            this.loads = new long[binCount];
+            for (int b = 0; b < binCount; b++) {
+                members.add(new ArrayList<>());
+            }
+            for (int i = 0; i < weights.length; i++) {
+                if (bins[i] >= 0) {
+                    members.get(bins[i]).add(i);
+                    loads[bins[i]] += weights[i];
+                }
+            }
+        }
+
+        /**
+         * Empty the lightest bin, repeatedly, until that fails
+         */
+        void improve() {
+            while (true) {
+                int lightest = -1;
+                int open = 0;
+                for (int b = 0; b < loads.length; b++) {
+                    if (!members.get(b).isEmpty()) {
+                        open++;
+                        if (lightest < 0 || loads[b] < loads[lightest]) {
+                            lightest = b;
+                        }
+                    }
+                }
+                if (open < 2 || !tryEmpty(lightest)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Move every item of the bin into the others, heaviest first. An item
+         * that fits nowhere makes room by exchanging an item of one bin for a
+         * lighter item of another.
+         */
+        private boolean tryEmpty(int bin) {
+            int mark = journal.size();
+            List<Integer> items = new ArrayList<>(members.get(bin));
+            items.sort(Comparator.comparingLong((Integer i) -> weights[i]).reversed());
+            for (int item : items) {
+                int target = firstFit(weights[item], bin);
+                if (target >= 0) {
+                    move(item, target);
+                } else if (!exchangeFor(item, bin)) {
+                    undo(mark);
+                    return false;
+                }
+            }
+            journal.clear();
+            return true;
+        }
+
+        private int firstFit(long weight, int excluded) {
+            for (int b = 0; b < loads.length; b++) {
+                if (b != excluded && !members.get(b).isEmpty() && capacity - loads[b] >= weight) {
+                    return b;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Find bins a and b and items i in a and j in b such that swapping i
+         * and j still fits b and leaves room in a for the item
+         */
+        private boolean exchangeFor(int item, int excluded) {
+            for (int a = 0; a < loads.length; a++) {
+                if (a == excluded || members.get(a).isEmpty()) {
+                    continue;
+                }
+                long needed = weights[item] - (capacity - loads[a]);
+                for (int i : members.get(a)) {
+                    if (weights[i] < needed) {
+                        continue;
+                    }
+                    for (int b = 0; b < loads.length; b++) {
+                        if (b == a || b == excluded || members.get(b).isEmpty()) {
+                            continue;
+                        }
+                        long room = capacity - loads[b];
+                        for (int j : members.get(b)) {
+                            if (--budget < 0) {
+                                return false;
+                            }
+                            long delta = weights[i] - weights[j];
+                            if (delta > 0 && delta >= needed && delta <= room) {
+                                move(i, b);
+                                move(j, a);
+                                move(item, a);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void move(int item, int to) {
+            int from = bins[item];
+            members.get(from).remove(Integer.valueOf(item));
+            members.get(to).add(item);
+            loads[from] -= weights[item];
+            loads[to] += weights[item];
+            bins[item] = to;
+            journal.add(new int[] {item, from});
+        }
+
+        private void undo(int mark) {
+            for (int k = journal.size() - 1; k >= mark; k--) {
+                int[] entry = journal.get(k);
+                move(entry[0], entry[1]);
+            }
+            journal.clear();
+        }
+    }
+
+    /**
+     * Spare room of each bin in a max segment tree, so the leftmost bin with
+     * room for an item is found in logarithmic time
+     */
+    private static final class SlackTree {
+        private final int leaves;
+        private final long[] max;
+
+        SlackTree(int bins, long capacity) {
+            int size = 1;
+            while (size < bins) {
+                size <<= 1;
+            }
+            leaves = size;
+            max = new long[2 * size];
+            Arrays.fill(max, size, size + bins, capacity);
+            Arrays.fill(max, size + bins, 2 * size, Long.MIN_VALUE);
+            for (int node = size - 1; node > 0; node--) {
+                max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+            }
+        }
+
+        /**
+         * Leftmost bin with at least the given room, -1 if none
+         */
+        int firstFit(long weight) {
+            if (max[1] < weight) {
+                return -1;
+            }
+            int node = 1;
+            while (node < leaves) {
+                node = max[2 * node] >= weight ? 2 * node : 2 * node + 1;
+            }
+            return node - leaves;
+        }
+
+        void add(int bin, long delta) {
+            set(bin, max[leaves + bin] + delta);
+        }
+
+        void set(int bin, long value) {
+            int node = leaves + bin;
+            max[node] = value;
+            for (node >>= 1; node > 0; node >>= 1) {
+                max[node] = Math.max(max[2 * node], max[2 * node + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ExchangeRateDAO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for currency conversion
+ * Holds the exchange rates as an immutable {@link ExchangeRateSnapshot}
+ * and swaps in a new snapshot when the exchange_rates table is re-read on
+ * a schedule. Until the first read, and while the database is unavailable,
+ * the built-in rates are used.
+ */
+public class CurrencyService {
+
+    private static final Logger logger = Logger.getLogger(CurrencyService.class.getName());
+
+    private static final LocalDate BUILT_IN_DATE = LocalDate.of(2000, 1, 1);
+
+    // Same rates as the V11 seed, in units per US dollar
+    static final List<ExchangeRateDAO.Rate> BUILT_IN_RATES = List.of(
+        new ExchangeRateDAO.Rate("USD", BUILT_IN_DATE, BigDecimal.ONE),
+        new ExchangeRateDAO.Rate("EUR", BUILT_IN_DATE, new BigDecimal("0.91")),
+        new ExchangeRateDAO.Rate("GBP", BUILT_IN_DATE, new BigDecimal("0.78")),
+        new ExchangeRateDAO.Rate("CAD", BUILT_IN_DATE, new BigDecimal("1.35")),
+        new ExchangeRateDAO.Rate("COP", BUILT_IN_DATE, new BigDecimal("3900")),
+        new ExchangeRateDAO.Rate("MXN", BUILT_IN_DATE, new BigDecimal("17.50")),
+        new ExchangeRateDAO.Rate("JPY", BUILT_IN_DATE, new BigDecimal("107.8")));
+
+    private final ExchangeRateDAO rateDAO;
+    private final int refreshIntervalMinutes;
+
+    private volatile ExchangeRateSnapshot snapshot = ExchangeRateSnapshot.build(BUILT_IN_RATES);
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static CurrencyService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private CurrencyService() {
+        this(new ExchangeRateDAO(), Math.max(1, ConfigLoader.getIntProperty("currency.rates.refresh.minutes", 60)));
+    }
+
+    CurrencyService(ExchangeRateDAO rateDAO, int refreshIntervalMinutes) {
+        this.rateDAO = rateDAO;
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized CurrencyService getInstance() {
+        if (instance == null) {
+            instance = new CurrencyService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start reading the rates from the database now and on a schedule.
+     * Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ExchangeRateLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadQuietly, 0, refreshIntervalMinutes, TimeUnit.MINUTES);
+        logger.info("Exchange rates reloaded every " + refreshIntervalMinutes + " minutes");
+    }
+
+    /**
+     * Stop the scheduled reload
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Read the rates from the database on the calling thread
+     *
+     * @return true if a new snapshot is in use
+     */
+    public boolean reload() {
+        List<ExchangeRateDAO.Rate> rates = rateDAO.findAll();
+        if (rates == null || rates.isEmpty()) {
+            return false; // Keep the current rates
+        }
+        snapshot = ExchangeRateSnapshot.build(rates);
+        logger.info("Loaded " + rates.size() + " exchange rates for " + snapshot.getCurrencies().size() + " currencies");
+        return true;
+    }
+
+    /**
+     * The current rates. Keep the snapshot for a whole report so that every
+     * row is converted with the same rates.
+     */
+    public ExchangeRateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Currency codes that can be converted
+     */
+    public List<String> getCurrencies() {
+        return snapshot.getCurrencies();
+    }
+
+    /**
+     * Convert an amount at today's rate
+     *
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        return snapshot.convert(amount, fromCurrency, toCurrency, LocalDate.now());
+    }
+
+    /**
+     * Today's rate: units of toCurrency per unit of fromCurrency
+     *
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public BigDecimal getRate(String fromCurrency, String toCurrency) {
+        return snapshot.rate(fromCurrency, toCurrency, LocalDate.now());
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the current rates stay in use
+            logger.log(Level.WARNING, "Exchange rate reload failed", e);
+        }
+    }
+}
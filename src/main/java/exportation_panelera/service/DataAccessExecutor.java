@@ -0,0 +1,204 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs data access for the screens off the event dispatch thread.
+ * Every operation gets its own virtual thread, so a screen waiting on a
+ * slow query never holds up another one (SwingWorker shares a pool of ten
+ * threads across the application). Operations time out, can be cancelled,
+ * and report back on the event dispatch thread.
+ */
+public class DataAccessExecutor {
+
+    private static final Logger logger = Logger.getLogger(DataAccessExecutor.class.getName());
+
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final long defaultTimeoutMillis;
+
+    // Singleton instance
+    private static DataAccessExecutor instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private DataAccessExecutor() {
+        this(Math.max(1, ConfigLoader.getIntProperty("data.access.timeout.seconds", 30)) * 1000L);
+    }
+
+    DataAccessExecutor(long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("data-access-", 0).factory());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DataAccessTimeouts");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized DataAccessExecutor getInstance() {
+        if (instance == null) {
+            instance = new DataAccessExecutor();
+        }
+        return instance;
+    }
+
+    /**
+     * An operation started by {@link #submit}
+     *
+     * @param <T> Type of the result
+     */
+    public static final class Operation<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private volatile Future<?> task;
+        private volatile boolean cancelled;
+        private volatile boolean delivered;
+
+        private Operation() {
+        }
+
+        /**
+         * Stop the operation and drop its callbacks, including callbacks
+         * already on their way to the event dispatch thread. The running
+         * task is interrupted.
+         *
+         * @return false if the callbacks had already run
+         */
+        public boolean cancel() {
+            if (cancelled) {
+                return true;
+            }
+            cancelled = true;
+            result.cancel(false);
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+            return !delivered;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Whether the task has finished, failed, timed out or been cancelled
+         */
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        /**
+         * The outcome as a future, for code that composes operations or
+         * waits off the event dispatch thread
+         */
+        public CompletableFuture<T> toCompletableFuture() {
+            return result;
+        }
+    }
+
+    /**
+     * Run a task with the default timeout
+     *
+     * @see #submit(String, long, Callable, Consumer, Consumer)
+     */
+    public <T> Operation<T> submit(String name, Callable<T> task,
+                                   Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        return submit(name, defaultTimeoutMillis, task, onSuccess, onFailure);
+    }
+
+    /**
+     * Run a task on its own virtual thread. Exactly one of the callbacks is
+     * then called on the event dispatch thread, unless the operation was
+     * cancelled. A task still running after the timeout is interrupted and
+     * fails with a {@link TimeoutException}. Failures are logged here.
+     *
+     * @param name What the task does, for logs and error messages
+     * @param timeoutMillis Time allowed for the task
+     * @param task The data access to run; may block
+     * @param onSuccess Receives the result, may be null
+     * @param onFailure Receives the exception thrown by the task, may be null
+     * @return The operation, to cancel it
+     */
+    public <T> Operation<T> submit(String name, long timeoutMillis, Callable<T> task,
+                                   Consumer<? super T> onSuccess, Consumer<Throwable> onFailure) {
+        Operation<T> operation = new Operation<>();
+
+        operation.task = executor.submit(() -> {
+            try {
+                operation.result.complete(task.call());
+            } catch (Throwable e) {
+                operation.result.completeExceptionally(e);
+            }
+        });
+
+        ScheduledFuture<?> timeout = timer.schedule(() -> {
+            if (operation.result.completeExceptionally(
+                    new TimeoutException(name + " timed out after " + timeoutMillis + " ms"))) {
+                operation.task.cancel(true);
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        operation.result.whenComplete((value, error) -> {
+            timeout.cancel(false);
+            if (operation.cancelled) {
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (cause != null) {
+                logger.log(cause instanceof TimeoutException ? Level.WARNING : Level.SEVERE,
+                    "Data access failed: " + name, cause);
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (operation.cancelled) {
+                    return;
+                }
+                operation.delivered = true;
+                if (cause == null) {
+                    if (onSuccess != null) {
+                        onSuccess.accept(value);
+                    }
+                } else if (onFailure != null) {
+                    onFailure.accept(cause);
+                }
+            });
+        });
+        return operation;
+    }
+
+    /**
+     * Stop accepting work and interrupt running tasks
+     */
+    public void stop() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
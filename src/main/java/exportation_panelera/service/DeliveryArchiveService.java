@@ -0,0 +1,113 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.DeliveryPartitionDAO;
+import exportation_panelera.db.DatabaseManager;
+
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for the delivery archive
+ * Runs the partition maintenance job on a schedule: keeps monthly
+ * partitions of deliveries ready ahead of time and moves closed months into
+ * deliveries_archive, so the live table and its indexes only hold the
+ * months that are still worked on. Archived deliveries remain readable
+ * through {@code DeliverySummaryDAO} with includeArchived.
+ */
+public class DeliveryArchiveService {
+
+    private static final Logger logger = Logger.getLogger(DeliveryArchiveService.class.getName());
+
+    private final DeliveryPartitionDAO partitionDAO;
+    private final int intervalHours;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static DeliveryArchiveService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private DeliveryArchiveService() {
+        this.partitionDAO = new DeliveryPartitionDAO();
+        this.intervalHours = Math.max(1, ConfigLoader.getIntProperty("delivery.archive.interval.hours", 6));
+        this.monthsAhead = Math.max(1, ConfigLoader.getIntProperty("delivery.partition.months.ahead", 3));
+        this.retentionMonths = Math.max(1, ConfigLoader.getIntProperty("delivery.archive.retention.months", 12));
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized DeliveryArchiveService getInstance() {
+        if (instance == null) {
+            instance = new DeliveryArchiveService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the background job. Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DeliveryArchiver");
+            t.setDaemon(true);
+            return t;
+        });
+        // Wait a minute so the job does not compete with the first screens for the database
+        scheduler.scheduleWithFixedDelay(this::maintainQuietly, 1, intervalHours * 60L, TimeUnit.MINUTES);
+        logger.info("Delivery archive job scheduled every " + intervalHours + " hours");
+    }
+
+    /**
+     * Stop the background job
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Maintain the partitions on the calling thread
+     *
+     * @return Number of partitions archived, or -1 if the job could not run
+     */
+    public int maintain() {
+        if (DatabaseManager.isOfflineMode()) {
+            return -1;
+        }
+        return partitionDAO.maintain(LocalDate.now(), monthsAhead, retentionMonths);
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive
+            logger.log(Level.WARNING, "Delivery archive job failed", e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.DeliveryChange;
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.controller.DeliveryController;
+import exportation_panelera.dao.DeliveryChangeDAO;
+import exportation_panelera.db.DatabaseManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for live delivery updates
+ * Tails the delivery change log on a schedule and hands open views only the
+ * deliveries that changed since the last poll, so they can patch their
+ * tables instead of reloading everything. Polling runs only while at least
+ * one listener is registered.
+ */
+public class DeliveryChangeFeed {
+
+    private static final Logger logger = Logger.getLogger(DeliveryChangeFeed.class.getName());
+
+    // Changes read per query; a full batch is followed by another poll right away
+    static final int BATCH_SIZE = 500;
+
+    // Log entries older than this are deleted
+    private static final int RETENTION_HOURS = 24;
+
+    /**
+     * Receives the deliveries that changed. Called on the feed's thread.
+     */
+    public interface Listener {
+        /**
+         * @param changed Inserted or updated deliveries, in their current state
+         * @param deletedIds Database IDs of deleted deliveries
+         */
+        void deliveriesChanged(List<Delivery_InfDTO> changed, Set<Integer> deletedIds);
+    }
+
+    /**
+     * Loads deliveries by database ID
+     */
+    interface DeliveryLoader {
+        /**
+         * @return The deliveries that still exist, or null if they could not be read
+         */
+        List<Delivery_InfDTO> load(Collection<Integer> ids);
+    }
+
+    private final DeliveryChangeDAO changeDAO;
+    private final DeliveryLoader loader;
+    private final int pollIntervalSeconds;
+    final List<Listener> listeners = new CopyOnWriteArrayList<>(); // package-private for tests
+
+    private ScheduledExecutorService scheduler;
+    private volatile long lastChangeId = -1; // -1 until the starting point is known
+
+    // Singleton instance
+    private static DeliveryChangeFeed instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private DeliveryChangeFeed() {
+        this(new DeliveryChangeDAO(), new DeliveryController()::getDeliveriesByIds,
+            ConfigLoader.getIntProperty("delivery.changefeed.poll.seconds", 5));
+    }
+
+    DeliveryChangeFeed(DeliveryChangeDAO changeDAO, DeliveryLoader loader, int pollIntervalSeconds) {
+        this.changeDAO = changeDAO;
+        this.loader = loader;
+        this.pollIntervalSeconds = Math.max(1, pollIntervalSeconds);
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized DeliveryChangeFeed getInstance() {
+        if (instance == null) {
+            instance = new DeliveryChangeFeed();
+        }
+        return instance;
+    }
+
+    /**
+     * Register a view. The first listener starts polling; changes made from
+     * this moment on are delivered.
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "DeliveryChangeFeed");
+                t.setDaemon(true);
+                return t;
+            });
+            lastChangeId = -1;
+            scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, pollIntervalSeconds, TimeUnit.SECONDS);
+            scheduler.scheduleWithFixedDelay(() -> changeDAO.purgeOlderThan(RETENTION_HOURS),
+                1, 60, TimeUnit.MINUTES);
+            logger.info("Delivery change feed polling every " + pollIntervalSeconds + " seconds");
+        }
+    }
+
+    /**
+     * Unregister a view. Polling stops when the last listener is removed.
+     */
+    public synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.info("Delivery change feed stopped");
+        }
+    }
+
+    /**
+     * Read pending changes and notify the listeners
+     *
+     * @return true if the feed is caught up, false if the database could not be read
+     */
+    boolean poll() {
+        if (DatabaseManager.isOfflineMode()) {
+            return false;
+        }
+        if (lastChangeId < 0) {
+            // Views load the full list when they open, so start from the newest change
+            lastChangeId = changeDAO.findLatestChangeId();
+            return lastChangeId >= 0;
+        }
+
+        List<DeliveryChange> changes;
+        do {
+            changes = changeDAO.findChangesAfter(lastChangeId, BATCH_SIZE);
+            if (changes == null) {
+                return false;
+            }
+            if (!changes.isEmpty() && !publish(changes)) {
+                return false; // Retry the same changes on the next poll
+            }
+        } while (changes.size() == BATCH_SIZE && !Thread.currentThread().isInterrupted());
+        return true;
+    }
+
+    private boolean publish(List<DeliveryChange> changes) {
+        // Only the latest change of each delivery matters
+        Map<Integer, DeliveryChange.Type> latest = new LinkedHashMap<>();
+        for (DeliveryChange change : changes) {
+            latest.put(change.deliveryId(), change.type());
+        }
+
+        Set<Integer> deletedIds = new LinkedHashSet<>();
+        List<Integer> changedIds = new ArrayList<>();
+        for (Map.Entry<Integer, DeliveryChange.Type> entry : latest.entrySet()) {
+            if (entry.getValue() == DeliveryChange.Type.DELETE) {
+                deletedIds.add(entry.getKey());
+            } else {
+                changedIds.add(entry.getKey());
+            }
+        }
+
+        List<Delivery_InfDTO> changed = Collections.emptyList();
+        if (!changedIds.isEmpty()) {
+            changed = loader.load(changedIds);
+            if (changed == null) {
+                return false;
+            }
+            // Rows deleted after the logged change are gone by now
+            Set<Integer> found = new HashSet<>();
+            for (Delivery_InfDTO delivery : changed) {
+                found.add(delivery.getId());
+            }
+            for (Integer id : changedIds) {
+                if (!found.contains(id)) {
+                    deletedIds.add(id);
+                }
+            }
+        }
+
+        lastChangeId = changes.get(changes.size() - 1).changeId();
+        logger.fine("Delivery change feed: " + changed.size() + " changed, " + deletedIds.size() + " deleted");
+
+        for (Listener listener : listeners) {
+            try {
+                listener.deliveriesChanged(changed, Collections.unmodifiableSet(deletedIds));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Delivery change listener failed", e);
+            }
+        }
+        return true;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the next run retries from the same change
+            logger.log(Level.WARNING, "Delivery change feed poll failed", e);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Currencies;
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ExchangeRateDAO;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable exchange rates, ready for conversion.
+ * The rates are cut into periods at every effective date. Each period has
+ * a dense matrix of cross rates indexed by currency ordinal
+ * ({@code from * size + to}), stored as a long with a power-of-ten shift,
+ * so a conversion is an array lookup and one long multiplication. Cross
+ * rates keep nine significant digits.
+ */
+public final class ExchangeRateSnapshot {
+
+    private static final MathContext RATE_PRECISION = new MathContext(9, RoundingMode.HALF_EVEN);
+    private static final int MAX_SHIFT = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_SHIFT + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SHIFT; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    // Currencies covered by the matrices: ordinals 0 to size - 1
+    private final int size;
+    private final int[] fractionDigits;
+    private final List<String> currencies;
+
+    // First epoch day of each period, ascending; a day before the first uses period 0
+    private final int[] periodStarts;
+    // Per period, cross rate from * size + to = mantissas[cell] / 10^shifts[cell]
+    private final long[][] mantissas;
+    private final byte[][] shifts;
+
+    private ExchangeRateSnapshot(int size, List<String> currencies, int[] periodStarts,
+                                 long[][] mantissas, byte[][] shifts) {
+        this.size = size;
+        this.currencies = currencies;
+        this.periodStarts = periodStarts;
+        this.mantissas = mantissas;
+        this.shifts = shifts;
+        this.fractionDigits = new int[size];
+        for (int i = 0; i < size; i++) {
+            fractionDigits[i] = Currencies.fractionDigits(i);
+        }
+    }
+
+    /**
+     * Build a snapshot. Within a period each currency uses its latest rate
+     * effective on the first day of the period; before its first rate it
+     * uses that first rate.
+     *
+     * @param rates Rates in units per US dollar, in any order
+     */
+    public static ExchangeRateSnapshot build(List<ExchangeRateDAO.Rate> rates) {
+        // Rates of each currency ordinal by effective epoch day
+        List<TreeMap<Integer, BigDecimal>> byCurrency = new ArrayList<>();
+        TreeSet<Integer> starts = new TreeSet<>();
+        List<String> codes = new ArrayList<>();
+        for (ExchangeRateDAO.Rate rate : rates) {
+            if (rate.unitsPerUsd() == null || rate.unitsPerUsd().signum() <= 0) {
+                continue;
+            }
+            int ordinal = Currencies.ordinal(rate.currency());
+            while (byCurrency.size() <= ordinal) {
+                byCurrency.add(new TreeMap<>());
+            }
+            int day = (int) rate.effectiveDate().toEpochDay();
+            byCurrency.get(ordinal).put(day, rate.unitsPerUsd());
+            starts.add(day);
+        }
+
+        int size = Currencies.count();
+        for (int i = 0; i < size; i++) {
+            if (i < byCurrency.size() && !byCurrency.get(i).isEmpty()) {
+                codes.add(Currencies.code(i));
+            }
+        }
+        if (starts.isEmpty()) {
+            starts.add(0);
+        }
+
+        int[] periodStarts = starts.stream().mapToInt(Integer::intValue).toArray();
+        long[][] mantissas = new long[periodStarts.length][size * size];
+        byte[][] shifts = new byte[periodStarts.length][size * size];
+        BigDecimal[] unitsPerUsd = new BigDecimal[size];
+
+        for (int p = 0; p < periodStarts.length; p++) {
+            for (int i = 0; i < size; i++) {
+                TreeMap<Integer, BigDecimal> history = i < byCurrency.size() ? byCurrency.get(i) : null;
+                if (history == null || history.isEmpty()) {
+                    unitsPerUsd[i] = null;
+                } else {
+                    var effective = history.floorEntry(periodStarts[p]);
+                    unitsPerUsd[i] = (effective != null ? effective : history.firstEntry()).getValue();
+                }
+            }
+            for (int from = 0; from < size; from++) {
+                for (int to = 0; to < size; to++) {
+                    int cell = from * size + to;
+                    if (unitsPerUsd[from] == null || unitsPerUsd[to] == null) {
+                        shifts[p][cell] = -1; // No rate
+                    } else if (from == to) {
+                        mantissas[p][cell] = 1;
+                    } else {
+                        encode(unitsPerUsd[to].divide(unitsPerUsd[from], RATE_PRECISION), mantissas[p], shifts[p], cell);
+                    }
+                }
+            }
+        }
+
+        return new ExchangeRateSnapshot(size, Collections.unmodifiableList(codes), periodStarts, mantissas, shifts);
+    }
+
+    private static void encode(BigDecimal rate, long[] mantissas, byte[] shifts, int cell) {
+        BigDecimal r = rate.stripTrailingZeros();
+        if (r.scale() < 0) {
+            r = r.setScale(0);
+        } else if (r.scale() > MAX_SHIFT) {
+            r = r.setScale(MAX_SHIFT, RoundingMode.HALF_EVEN);
+        }
+        mantissas[cell] = r.unscaledValue().longValueExact();
+        shifts[cell] = (byte) r.scale();
+    }
+
+    /**
+     * Currency codes that have rates, by ordinal
+     */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * Whether there is a rate between two currencies
+     */
+    public boolean supports(String fromCurrency, String toCurrency) {
+        int from = Currencies.find(fromCurrency);
+        int to = Currencies.find(toCurrency);
+        return from >= 0 && to >= 0 && from < size && to < size && shifts[0][from * size + to] >= 0;
+    }
+
+    /**
+     * Units of toCurrency per unit of fromCurrency on a day
+     *
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public BigDecimal rate(String fromCurrency, String toCurrency, LocalDate day) {
+        if (!supports(fromCurrency, toCurrency)) {
+            throw new IllegalArgumentException("No exchange rate from " + fromCurrency + " to " + toCurrency);
+        }
+        int cell = Currencies.find(fromCurrency) * size + Currencies.find(toCurrency);
+        int p = period((int) day.toEpochDay());
+        return BigDecimal.valueOf(mantissas[p][cell], shifts[p][cell]);
+    }
+
+    /**
+     * Convert an amount on a day
+     *
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency, LocalDate day) {
+        return amount.multiply(rate(fromCurrency, toCurrency, day));
+    }
+
+    /**
+     * Convert an amount in minor units (cents), rounding half up to the
+     * minor unit of the target currency
+     *
+     * @param amount Amount in minor units of the source currency
+     * @param from Ordinal of the source currency
+     * @param to Ordinal of the target currency
+     * @param epochDay Day of the rate, as {@link LocalDate#toEpochDay()}
+     * @return Amount in minor units of the target currency
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public long convert(long amount, int from, int to, int epochDay) {
+        int cell = cell(from, to);
+        return convertCell(amount, from, to, cell, period(epochDay));
+    }
+
+    /**
+     * Convert money, rounding half up to the minor unit of the target currency
+     *
+     * @throws IllegalArgumentException If either currency has no rate
+     */
+    public Money convert(Money amount, int to, LocalDate day) {
+        return Money.ofMinor(convert(amount.getMinorUnits(), amount.getCurrency(), to, (int) day.toEpochDay()), to);
+    }
+
+    /**
+     * Convert many amounts in minor units into one currency, without
+     * allocating. Rows sorted by day convert fastest.
+     *
+     * @param amounts Amounts in minor units
+     * @param fromOrdinals Ordinal of each amount's currency
+     * @param epochDays Day of each amount, as {@link LocalDate#toEpochDay()}
+     * @param to Ordinal of the target currency
+     * @param out Receives the converted amounts in minor units; may be amounts
+     * @throws IllegalArgumentException If a currency has no rate
+     */
+    public void convertAll(long[] amounts, int[] fromOrdinals, int[] epochDays, int to, long[] out) {
+        int n = amounts.length;
+        if (fromOrdinals.length < n || epochDays.length < n || out.length < n) {
+            throw new IllegalArgumentException("Arrays shorter than the amounts");
+        }
+        int p = 0;
+        int periodStart = Integer.MIN_VALUE;
+        int periodEnd = periodStarts.length > 1 ? periodStarts[1] : Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            int day = epochDays[i];
+            if (day < periodStart || day >= periodEnd) {
+                p = period(day);
+                periodStart = p == 0 ? Integer.MIN_VALUE : periodStarts[p];
+                periodEnd = p + 1 < periodStarts.length ? periodStarts[p + 1] : Integer.MAX_VALUE;
+            }
+            int from = fromOrdinals[i];
+            out[i] = convertCell(amounts[i], from, to, cell(from, to), p);
+        }
+    }
+
+    private long convertCell(long amount, int from, int to, int cell, int p) {
+        if (from == to) {
+            return amount;
+        }
+        long mantissa = mantissas[p][cell];
+        int shift = shifts[p][cell] + fractionDigits[from] - fractionDigits[to];
+        try {
+            long product = Math.multiplyExact(amount, mantissa);
+            if (shift <= 0) {
+                return Math.multiplyExact(product, POWERS_OF_TEN[-shift]);
+            }
+            if (shift <= MAX_SHIFT) {
+                return divideHalfUp(product, POWERS_OF_TEN[shift]);
+            }
+        } catch (ArithmeticException e) {
+            // Too large for a long; fall through to the exact path
+        }
+        return BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(mantissa))
+            .movePointLeft(shift).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long divideHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = value % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    private int cell(int from, int to) {
+        if (from < 0 || to < 0 || from >= size || to >= size || shifts[0][from * size + to] < 0) {
+            throw new IllegalArgumentException("No exchange rate from " + describe(from) + " to " + describe(to));
+        }
+        return from * size + to;
+    }
+
+    private static String describe(int ordinal) {
+        return ordinal >= 0 && ordinal < Currencies.count() ? Currencies.code(ordinal) : "currency #" + ordinal;
+    }
+
+    private int period(int epochDay) {
+        int index = Arrays.binarySearch(periodStarts, epochDay);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+}
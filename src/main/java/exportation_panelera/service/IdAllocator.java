@@ -0,0 +1,102 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.IdSequenceDAO;
+import exportation_panelera.exception.DatabaseException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out IDs from a database sequence (hi/lo).
+ * A block of IDs is reserved from id_sequences with one UPDATE, then IDs
+ * are taken from it in memory with a single atomic increment. Only the
+ * thread that finds the block used up goes to the database, while the
+ * others wait for the new block. Blocks reserved by different instances
+ * never overlap, and a block that is not used up when the application
+ * closes leaves a gap in the numbering.
+ */
+public class IdAllocator {
+
+    /** Sequence of exportation IDs (the numeric part of EXP000123) */
+    public static final String EXPORTATION_SEQUENCE = "exportation";
+
+    private static final Map<String, IdAllocator> instances = new ConcurrentHashMap<>();
+
+    private final String sequence;
+    private final int blockSize;
+    private final IdSequenceDAO sequenceDAO;
+    private final boolean createIfMissing;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+    private final Object refillLock = new Object();
+
+    /**
+     * Reserved IDs from next (inclusive) to end (exclusive)
+     */
+    private static final class Block {
+        final AtomicLong next;
+        final long end;
+
+        Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+
+    IdAllocator(String sequence, int blockSize, IdSequenceDAO sequenceDAO) {
+        this(sequence, blockSize, sequenceDAO, false);
+    }
+
+    /**
+     * @param createIfMissing Start the sequence at 1 on first use instead of
+     *                        requiring a row from a migration
+     */
+    IdAllocator(String sequence, int blockSize, IdSequenceDAO sequenceDAO, boolean createIfMissing) {
+        this.sequence = sequence;
+        this.blockSize = blockSize;
+        this.sequenceDAO = sequenceDAO;
+        this.createIfMissing = createIfMissing;
+    }
+
+    /**
+     * Get the allocator of a sequence
+     */
+    public static IdAllocator getInstance(String sequence) {
+        return instances.computeIfAbsent(sequence, name -> new IdAllocator(name,
+            Math.max(1, ConfigLoader.getIntProperty("id.allocator.block.size", 100)), new IdSequenceDAO()));
+    }
+
+    /**
+     * Take the next ID. Blocks while a new block is reserved, which happens
+     * once every block size calls; call it off the event dispatch thread.
+     *
+     * @throws DatabaseException If a new block is needed and the database cannot be reached
+     */
+    public long next() throws DatabaseException {
+        while (true) {
+            Block block = current.get();
+            long id = block.next.getAndIncrement();
+            if (id < block.end) {
+                return id;
+            }
+            refill(block);
+        }
+    }
+
+    private void refill(Block exhausted) throws DatabaseException {
+        synchronized (refillLock) {
+            if (current.get() != exhausted) {
+                return; // Another thread got a new block meanwhile
+            }
+            long first = createIfMissing ? sequenceDAO.reserveOrCreate(sequence, blockSize)
+                : sequenceDAO.reserve(sequence, blockSize);
+            if (first < 0) {
+                throw new DatabaseException("Could not reserve IDs from sequence " + sequence);
+            }
+            current.set(new Block(first, first + blockSize));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package exportation_panelera.service;
+
+import exportation_panelera.dao.ReferenceDataDAO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, versioned reference data: destinations with their country
+ * codes, currencies, shipping methods, carriers and product types, each in
+ * the order the forms offer them.
+ * Every value has a small int code, its position in its list, so reports
+ * can dictionary encode these columns with the same codes everywhere.
+ * Lookups ignore case, as the database collation does.
+ */
+public final class ReferenceData {
+
+    private static final List<String> KINDS = List.of(ReferenceDataDAO.DESTINATION, ReferenceDataDAO.CURRENCY,
+        ReferenceDataDAO.SHIPPING_METHOD, ReferenceDataDAO.CARRIER, ReferenceDataDAO.PRODUCT_TYPE);
+
+    private final long version;
+    private final List<ReferenceDataDAO.Entry> entries;
+    private final Map<String, List<String>> values;
+    private final Map<String, Map<String, Integer>> codes;
+    private final Map<String, String> countryCodes;
+
+    private ReferenceData(long version, List<ReferenceDataDAO.Entry> entries) {
+        this.version = version;
+        this.entries = List.copyOf(entries);
+        this.values = new HashMap<>();
+        this.codes = new HashMap<>();
+        this.countryCodes = new HashMap<>();
+
+        for (String kind : KINDS) {
+            values.put(kind, new ArrayList<>());
+            codes.put(kind, new HashMap<>());
+        }
+        for (ReferenceDataDAO.Entry entry : this.entries) {
+            List<String> list = values.get(entry.kind());
+            if (list == null || entry.value() == null
+                    || codes.get(entry.kind()).putIfAbsent(key(entry.value()), list.size()) != null) {
+                continue; // Unknown kind or duplicate
+            }
+            list.add(entry.value());
+            if (ReferenceDataDAO.DESTINATION.equals(entry.kind()) && entry.code() != null) {
+                countryCodes.put(key(entry.value()), entry.code().toUpperCase(Locale.ROOT));
+            }
+        }
+        values.replaceAll((kind, list) -> Collections.unmodifiableList(list));
+    }
+
+    /**
+     * Build reference data from the rows of the reference table.
+     * Entries of an unknown kind and repeated values are ignored.
+     *
+     * @param version Version number of this data
+     * @param entries Values in the order they are offered
+     */
+    public static ReferenceData build(long version, List<ReferenceDataDAO.Entry> entries) {
+        return new ReferenceData(version, entries);
+    }
+
+    /**
+     * Version number, higher for newer data
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The entries this data was built from
+     */
+    public List<ReferenceDataDAO.Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Values of one kind, in the order they are offered
+     *
+     * @param kind One of the kinds of {@link ReferenceDataDAO}
+     */
+    public List<String> values(String kind) {
+        return values.getOrDefault(kind, List.of());
+    }
+
+    /**
+     * Code of a value, its position in {@link #values(String)}
+     *
+     * @return The code, or -1 if the value is not offered
+     */
+    public int code(String kind, String value) {
+        Map<String, Integer> index = codes.get(kind);
+        if (index == null || value == null) {
+            return -1;
+        }
+        return index.getOrDefault(key(value), -1);
+    }
+
+    /**
+     * Whether a value is offered
+     */
+    public boolean contains(String kind, String value) {
+        return code(kind, value) >= 0;
+    }
+
+    /**
+     * Destination countries, in the order they are offered
+     */
+    public List<String> getDestinations() {
+        return values(ReferenceDataDAO.DESTINATION);
+    }
+
+    /**
+     * Currency codes, in the order they are offered
+     */
+    public List<String> getCurrencies() {
+        return values(ReferenceDataDAO.CURRENCY);
+    }
+
+    /**
+     * Shipping methods, in the order they are offered
+     */
+    public List<String> getShippingMethods() {
+        return values(ReferenceDataDAO.SHIPPING_METHOD);
+    }
+
+    /**
+     * Carrier names, in the order they are offered
+     */
+    public List<String> getCarriers() {
+        return values(ReferenceDataDAO.CARRIER);
+    }
+
+    /**
+     * Product types, in the order they are offered
+     */
+    public List<String> getProductTypes() {
+        return values(ReferenceDataDAO.PRODUCT_TYPE);
+    }
+
+    /**
+     * Country code of a destination for tracking numbers
+     *
+     * @return The code, or {@link TrackingNumberService#UNKNOWN_COUNTRY} if the destination has none
+     */
+    public String countryCode(String destination) {
+        if (destination == null) {
+            return TrackingNumberService.UNKNOWN_COUNTRY;
+        }
+        return countryCodes.getOrDefault(key(destination), TrackingNumberService.UNKNOWN_COUNTRY);
+    }
+
+    /**
+     * Whether every kind has at least one value
+     */
+    public boolean isComplete() {
+        for (String kind : KINDS) {
+            if (values(kind).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,167 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ReferenceDataDAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for reference data
+ * Holds destinations, currencies, shipping methods, carriers and product types as an
+ * immutable {@link ReferenceData} and swaps in a new version when the
+ * reference table is re-read on a schedule and has changed. Readers take
+ * the current version once and use it throughout, so they never see a mix
+ * of old and new values. Until the first read, and while the database is
+ * unavailable, the built-in values are used.
+ */
+public class ReferenceDataService {
+
+    private static final Logger logger = Logger.getLogger(ReferenceDataService.class.getName());
+
+    // Same values as the V13 and V14 seeds
+    static final List<ReferenceDataDAO.Entry> BUILT_IN_ENTRIES = builtInEntries();
+
+    private final ReferenceDataDAO referenceDataDAO;
+    private final int refreshIntervalMinutes;
+
+    private volatile ReferenceData data = ReferenceData.build(0, BUILT_IN_ENTRIES);
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static ReferenceDataService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private ReferenceDataService() {
+        this(new ReferenceDataDAO(), Math.max(1, ConfigLoader.getIntProperty("reference.data.refresh.minutes", 15)));
+    }
+
+    ReferenceDataService(ReferenceDataDAO referenceDataDAO, int refreshIntervalMinutes) {
+        this.referenceDataDAO = referenceDataDAO;
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized ReferenceDataService getInstance() {
+        if (instance == null) {
+            instance = new ReferenceDataService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start reading the reference data from the database now and on a schedule.
+     * Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReferenceDataLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadQuietly, 0, refreshIntervalMinutes, TimeUnit.MINUTES);
+        logger.info("Reference data reloaded every " + refreshIntervalMinutes + " minutes");
+    }
+
+    /**
+     * Stop the scheduled reload
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Read the reference data from the database on the calling thread.
+     * A read missing a whole kind of value is not used.
+     *
+     * @return true if a new version is in use
+     */
+    public synchronized boolean reload() {
+        List<ReferenceDataDAO.Entry> entries = referenceDataDAO.findActive();
+        if (entries == null) {
+            return false; // Keep the current data
+        }
+
+        ReferenceData current = data;
+        if (entries.equals(current.getEntries())) {
+            return false;
+        }
+        ReferenceData loaded = ReferenceData.build(current.getVersion() + 1, entries);
+        if (!loaded.isComplete()) {
+            logger.warning("Reference data is missing a kind of value, keeping version " + current.getVersion());
+            return false;
+        }
+        data = loaded;
+        logger.info("Loaded reference data version " + loaded.getVersion() + " with " + entries.size() + " values");
+        return true;
+    }
+
+    /**
+     * The current reference data
+     */
+    public ReferenceData getData() {
+        return data;
+    }
+
+    private static List<ReferenceDataDAO.Entry> builtInEntries() {
+        String[][] destinations = {
+            {"United States", "US"}, {"Canada", "CA"}, {"Mexico", "MX"}, {"Brazil", "BR"},
+            {"Colombia", "CO"}, {"United Kingdom", "UK"}, {"France", "FR"}, {"Germany", "DE"},
+            {"Spain", "ES"}, {"Italy", "IT"}, {"China", "CN"}, {"Japan", "JP"},
+            {"South Korea", "KR"}, {"Australia", "AU"}, {"Netherlands", "NL"}, {"Belgium", "BE"},
+            {"Switzerland", "CH"}, {"Sweden", "SE"}, {"Norway", "NO"}, {"Denmark", "DK"},
+            {"Finland", "FI"}, {"Poland", "PL"}, {"Czech Republic", "CZ"}, {"Hungary", "HU"},
+            {"Greece", "GR"}, {"Portugal", "PT"}, {"Turkey", "TR"}, {"Russia", "RU"},
+            {"India", "IN"}, {"Thailand", "TH"}, {"Singapore", "SG"}, {"Malaysia", "MY"},
+            {"Indonesia", "ID"}, {"Philippines", "PH"}, {"Vietnam", "VN"}, {"South Africa", "ZA"},
+            {"Egypt", "EG"}, {"Nigeria", "NG"}, {"Argentina", "AR"}, {"Chile", "CL"},
+            {"Peru", "PE"}, {"Ecuador", "EC"}, {"Uruguay", "UY"}, {"Venezuela", "VE"},
+            {"Costa Rica", "CR"}, {"Panama", "PA"}, {"Guatemala", "GT"}, {"Honduras", "HN"},
+            {"El Salvador", "SV"}, {"Nicaragua", "NI"}, {"Other", TrackingNumberService.UNKNOWN_COUNTRY}
+        };
+
+        List<ReferenceDataDAO.Entry> entries = new ArrayList<>();
+        for (String[] destination : destinations) {
+            entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.DESTINATION, destination[0], destination[1]));
+        }
+        for (String currency : List.of("USD", "EUR", "GBP", "CAD", "COP", "MXN", "JPY")) {
+            entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.CURRENCY, currency, null));
+        }
+        for (String method : List.of("Air Freight", "Sea Freight", "Road Transport", "Rail Transport", "Express Courier")) {
+            entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.SHIPPING_METHOD, method, null));
+        }
+        for (String carrier : List.of("DHL", "FedEx", "UPS", "Maersk", "MSC", "Servientrega", "Coordinadora", "Other")) {
+            entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, carrier, null));
+        }
+        for (String productType : List.of("Panela", "Syrup", "Sugar", "Wine", "Ethanol")) {
+            entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.PRODUCT_TYPE, productType, null));
+        }
+        return List.copyOf(entries);
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the current data stays in use
+            logger.log(Level.WARNING, "Reference data reload failed", e);
+        }
+    }
+}
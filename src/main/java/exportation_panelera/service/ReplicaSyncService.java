@@ -0,0 +1,304 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.cache.LocalReplica;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ReplicaDAO;
+import exportation_panelera.db.DatabaseManager;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for the local replica
+ * Keeps the on-disk copy of deliveries and exportations in step with the
+ * database: offline edits are written back first, then rows changed since
+ * the watermark are pulled a page at a time, and deletes are found by
+ * comparing table fingerprints. Reads fall back to the replica while the
+ * database is offline, and latency-sensitive screens may read it directly
+ * while it is fresh.
+ */
+public class ReplicaSyncService {
+
+    private static final Logger logger = Logger.getLogger(ReplicaSyncService.class.getName());
+
+    // Rows read per query while pulling changes
+    static final int PAGE_SIZE = 1000;
+
+    private final LocalReplica replica;
+    private final ReplicaDAO replicaDAO;
+    private final int syncIntervalSeconds;
+    private final int maxStalenessSeconds;
+    final List<DeliveryChangeFeed.Listener> listeners = new CopyOnWriteArrayList<>(); // package-private for tests
+
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static ReplicaSyncService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private ReplicaSyncService() {
+        this(new LocalReplica(Paths.get(ConfigLoader.getProperty("replica.dir",
+                Paths.get(System.getProperty("user.home"), ".exportation_panelera", "replica").toString()))),
+            new ReplicaDAO(),
+            ConfigLoader.getIntProperty("replica.sync.seconds", 30),
+            ConfigLoader.getIntProperty("replica.read.max.staleness.seconds", 60));
+    }
+
+    ReplicaSyncService(LocalReplica replica, ReplicaDAO replicaDAO, int syncIntervalSeconds, int maxStalenessSeconds) {
+        this.replica = replica;
+        this.replicaDAO = replicaDAO;
+        this.syncIntervalSeconds = Math.max(5, syncIntervalSeconds);
+        this.maxStalenessSeconds = Math.max(0, maxStalenessSeconds);
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized ReplicaSyncService getInstance() {
+        if (instance == null) {
+            instance = new ReplicaSyncService();
+        }
+        return instance;
+    }
+
+    /**
+     * The replica, read from disk on first use
+     */
+    public LocalReplica getReplica() {
+        replica.load();
+        return replica;
+    }
+
+    /**
+     * Start the background sync. Does nothing if it is already running.
+     * Runs while offline too, so pending edits go out once the database is back.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ReplicaSync");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, 0, syncIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("Local replica sync scheduled every " + syncIntervalSeconds + " seconds");
+    }
+
+    /**
+     * Stop the background sync
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Ask for a sync now, without waiting for the next scheduled run.
+     * Ignored when the sync is not running.
+     */
+    public synchronized void requestSync() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(this::syncQuietly);
+        }
+    }
+
+    /**
+     * Whether the replica was synced recently enough to be read instead of
+     * the database
+     */
+    public boolean isFresh() {
+        long lastSync = replica.getLastSyncMillis();
+        return lastSync > 0 && System.currentTimeMillis() - lastSync <= maxStalenessSeconds * 1000L;
+    }
+
+    /**
+     * Register a view to be told about deliveries the sync changed, so a
+     * list loaded from the replica catches up with the database. Triggers a
+     * sync right away.
+     */
+    public void addListener(DeliveryChangeFeed.Listener listener) {
+        listeners.add(listener);
+        requestSync();
+    }
+
+    public void removeListener(DeliveryChangeFeed.Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Bring the replica up to date on the calling thread
+     *
+     * @return true if the replica is current, false if the database could not be read
+     */
+    public synchronized boolean sync() {
+        if (DatabaseManager.isOfflineMode()) {
+            return false;
+        }
+        LocalReplica local = getReplica();
+        boolean initialFill = local.isEmpty();
+
+        if (!pushEdits(local)) {
+            return false;
+        }
+
+        List<Delivery_InfDTO> changed = pullDeliveries(local);
+        if (changed == null) {
+            return false;
+        }
+        Set<Integer> deletedIds = reconcileDeliveries(local);
+        if (deletedIds == null || !pullExportations(local) || !reconcileExportations(local)) {
+            return false;
+        }
+
+        local.markSynced(System.currentTimeMillis());
+        local.compactIfNeeded();
+
+        if (!changed.isEmpty() || !deletedIds.isEmpty()) {
+            logger.fine("Local replica synced: " + changed.size() + " changed, " + deletedIds.size() + " deleted");
+            // Views load their list on open, so the initial fill is not news to them
+            if (!initialFill) {
+                publish(changed, deletedIds);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write offline edits back. An edit whose row changed on the server
+     * since it was made becomes a conflict instead of overwriting that change.
+     */
+    private boolean pushEdits(LocalReplica local) {
+        for (LocalReplica.PendingEdit edit : local.getPendingEdits()) {
+            int id = edit.delivery().getId();
+            int result = replicaDAO.updateDeliveryIfUnchanged(edit.delivery(), edit.baseVersion());
+            if (result < 0) {
+                return false; // Retry the remaining edits on the next sync
+            }
+            if (result > 0) {
+                local.editApplied(id);
+                logger.info("Offline edit of delivery " + id + " written to the database");
+            } else {
+                local.editConflicted(id);
+                logger.warning("Offline edit of delivery " + id + " conflicts with a change made on the server; "
+                    + "keeping the server version");
+            }
+        }
+        return true;
+    }
+
+    private List<Delivery_InfDTO> pullDeliveries(LocalReplica local) {
+        List<Delivery_InfDTO> changed = new ArrayList<>();
+        ReplicaDAO.Cursor cursor = ReplicaDAO.Cursor.since(local.getDeliveryWatermark());
+        List<Delivery_InfDTO> page;
+        do {
+            page = replicaDAO.findDeliveriesChangedAfter(cursor, PAGE_SIZE);
+            if (page == null) {
+                return null;
+            }
+            changed.addAll(local.putDeliveries(page));
+            if (!page.isEmpty()) {
+                Delivery_InfDTO last = page.get(page.size() - 1);
+                cursor = new ReplicaDAO.Cursor(last.getUpdatedAt().getTime(), last.getId());
+            }
+        } while (page.size() == PAGE_SIZE && !Thread.currentThread().isInterrupted());
+        return changed;
+    }
+
+    private boolean pullExportations(LocalReplica local) {
+        ReplicaDAO.Cursor cursor = ReplicaDAO.Cursor.since(local.getExportationWatermark());
+        List<Exportation_InfDTO> page;
+        do {
+            page = replicaDAO.findExportationsChangedAfter(cursor, PAGE_SIZE);
+            if (page == null) {
+                return false;
+            }
+            local.putExportations(page);
+            if (!page.isEmpty()) {
+                Exportation_InfDTO last = page.get(page.size() - 1);
+                cursor = new ReplicaDAO.Cursor(last.getUpdatedAt().getTime(), last.getId());
+            }
+        } while (page.size() == PAGE_SIZE && !Thread.currentThread().isInterrupted());
+        return true;
+    }
+
+    /**
+     * Drop deliveries deleted on the server. The full ID list is only read
+     * when the fingerprints differ.
+     *
+     * @return IDs of the dropped deliveries, or null if the database could not be read
+     */
+    private Set<Integer> reconcileDeliveries(LocalReplica local) {
+        ReplicaDAO.Fingerprint server = replicaDAO.fingerprintDeliveries();
+        if (server == null) {
+            return null;
+        }
+        if (server.count() == local.getDeliveryCount() && server.idSum() == local.getDeliveryIdSum()) {
+            return Collections.emptySet();
+        }
+        Set<Integer> ids = replicaDAO.findDeliveryIds();
+        return ids != null ? local.retainDeliveries(ids) : null;
+    }
+
+    private boolean reconcileExportations(LocalReplica local) {
+        ReplicaDAO.Fingerprint server = replicaDAO.fingerprintExportations();
+        if (server == null) {
+            return false;
+        }
+        if (server.count() == local.getExportationCount() && server.idSum() == local.getExportationIdSum()) {
+            return true;
+        }
+        Set<String> ids = replicaDAO.findExportationIds();
+        if (ids == null) {
+            return false;
+        }
+        local.retainExportations(ids);
+        return true;
+    }
+
+    private void publish(List<Delivery_InfDTO> changed, Set<Integer> deletedIds) {
+        Set<Integer> deleted = Collections.unmodifiableSet(deletedIds);
+        for (DeliveryChangeFeed.Listener listener : listeners) {
+            try {
+                listener.deliveriesChanged(changed, deleted);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Replica change listener failed", e);
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the next run starts from the same watermark
+            logger.log(Level.WARNING, "Local replica sync failed", e);
+        }
+    }
+}
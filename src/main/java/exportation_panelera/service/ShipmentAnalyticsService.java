@@ -0,0 +1,150 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.CurrencyRevenue;
+import exportation_panelera.Model.ShipmentMonthTotal;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ShipmentRollupDAO;
+import exportation_panelera.db.DatabaseManager;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for shipment analytics
+ * Answers dashboard questions (quantity shipped per destination per month,
+ * revenue per currency) from the pre-aggregated rollup tables, and keeps
+ * those tables current with a scheduled delta job keyed on updated_at.
+ */
+public class ShipmentAnalyticsService {
+
+    private static final Logger logger = Logger.getLogger(ShipmentAnalyticsService.class.getName());
+
+    private final ShipmentRollupDAO rollupDAO;
+    private final int refreshIntervalSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static ShipmentAnalyticsService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private ShipmentAnalyticsService() {
+        this.rollupDAO = new ShipmentRollupDAO();
+        this.refreshIntervalSeconds = Math.max(5,
+            ConfigLoader.getIntProperty("analytics.rollup.refresh.seconds", 60));
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized ShipmentAnalyticsService getInstance() {
+        if (instance == null) {
+            instance = new ShipmentAnalyticsService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the background delta job. Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ShipmentRollupRefresher");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("Shipment rollup refresh scheduled every " + refreshIntervalSeconds + " seconds");
+    }
+
+    /**
+     * Stop the background delta job
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Ask for a refresh soon after a write, without waiting for the next
+     * scheduled run. Ignored when the job is not running.
+     */
+    public synchronized void requestRefresh() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            // Run after the settle window so the just-written rows are included
+            scheduler.schedule(this::refreshQuietly, ShipmentRollupDAO.SETTLE_SECONDS + 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Apply pending changes to the rollups on the calling thread
+     *
+     * @return true if the rollups are current
+     */
+    public boolean refresh() {
+        if (DatabaseManager.isOfflineMode()) {
+            return false;
+        }
+        return rollupDAO.applyDelta();
+    }
+
+    /**
+     * Quantity shipped per destination per month
+     *
+     * @param from First month (inclusive)
+     * @param to Last month (inclusive)
+     * @return Totals ordered by month then destination, empty when offline
+     */
+    public List<ShipmentMonthTotal> getMonthlyTotals(YearMonth from, YearMonth to) {
+        if (DatabaseManager.isOfflineMode() || from == null || to == null || from.isAfter(to)) {
+            return Collections.emptyList();
+        }
+        return rollupDAO.findMonthlyTotals(from, to);
+    }
+
+    /**
+     * Revenue per currency
+     *
+     * @param from First month (inclusive)
+     * @param to Last month (inclusive)
+     * @return Revenue ordered from largest to smallest, empty when offline
+     */
+    public List<CurrencyRevenue> getRevenueByCurrency(YearMonth from, YearMonth to) {
+        if (DatabaseManager.isOfflineMode() || from == null || to == null || from.isAfter(to)) {
+            return Collections.emptyList();
+        }
+        return rollupDAO.findRevenueByCurrency(from, to);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the next run retries the same window
+            logger.log(Level.WARNING, "Shipment rollup refresh failed", e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Currencies;
+import exportation_panelera.Model.Money;
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.ShippingTariffDAO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service layer for shipping cost quotes
+ * Holds the tariff tables as an immutable {@link ShippingTariffTable} and
+ * swaps in a new one when the tariffs are re-read on a schedule. Until the
+ * first read, and while the database is unavailable, the built-in tariffs
+ * are used.
+ */
+public class ShippingRateService {
+
+    private static final Logger logger = Logger.getLogger(ShippingRateService.class.getName());
+
+    // Same tariffs as the V12 seed: USD per kg and per km
+    static final List<ShippingTariffDAO.Band> BUILT_IN_BANDS = List.of(
+        band("Air Freight", ShippingTariffDAO.WEIGHT, "12.5"),
+        band("Air Freight", ShippingTariffDAO.DISTANCE, "0.75"),
+        band("Sea Freight", ShippingTariffDAO.WEIGHT, "5.0"),
+        band("Sea Freight", ShippingTariffDAO.DISTANCE, "0.2"),
+        band("Road Transport", ShippingTariffDAO.WEIGHT, "2.5"),
+        band("Road Transport", ShippingTariffDAO.DISTANCE, "0.5"),
+        band("Rail Transport", ShippingTariffDAO.WEIGHT, "3.0"),
+        band("Rail Transport", ShippingTariffDAO.DISTANCE, "0.4"),
+        band("Express Courier", ShippingTariffDAO.WEIGHT, "20.0"),
+        band("Express Courier", ShippingTariffDAO.DISTANCE, "1.0"));
+
+    private final ShippingTariffDAO tariffDAO;
+    private final int refreshIntervalMinutes;
+
+    private volatile ShippingTariffTable table = ShippingTariffTable.build(BUILT_IN_BANDS, List.of());
+    private ScheduledExecutorService scheduler;
+
+    // Singleton instance
+    private static ShippingRateService instance;
+
+    /**
+     * A shipment to quote
+     *
+     * @param weightKg Weight in kg
+     * @param distanceKm Distance in km
+     */
+    public record Shipment(BigDecimal weightKg, BigDecimal distanceKm) {
+    }
+
+    /**
+     * The cheapest way to send a shipment
+     *
+     * @param method Shipping method, null if there are no tariffs
+     * @param cost Cost in US dollars
+     */
+    public record Quote(String method, Money cost) {
+    }
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private ShippingRateService() {
+        this(new ShippingTariffDAO(), Math.max(1, ConfigLoader.getIntProperty("shipping.tariffs.refresh.minutes", 60)));
+    }
+
+    ShippingRateService(ShippingTariffDAO tariffDAO, int refreshIntervalMinutes) {
+        this.tariffDAO = tariffDAO;
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized ShippingRateService getInstance() {
+        if (instance == null) {
+            instance = new ShippingRateService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start reading the tariffs from the database now and on a schedule.
+     * Does nothing if it is already running.
+     */
+    public synchronized void start() {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ShippingTariffLoader");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadQuietly, 0, refreshIntervalMinutes, TimeUnit.MINUTES);
+        logger.info("Shipping tariffs reloaded every " + refreshIntervalMinutes + " minutes");
+    }
+
+    /**
+     * Stop the scheduled reload
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * Read the tariffs from the database on the calling thread
+     *
+     * @return true if new tariffs are in use
+     */
+    public boolean reload() {
+        List<ShippingTariffDAO.Band> bands = tariffDAO.findBands();
+        List<ShippingTariffDAO.Surcharge> surcharges = tariffDAO.findSurcharges();
+        if (bands == null || bands.isEmpty() || surcharges == null) {
+            return false; // Keep the current tariffs
+        }
+        table = ShippingTariffTable.build(bands, surcharges);
+        logger.info("Loaded shipping tariffs for " + table.getMethods().size() + " methods");
+        return true;
+    }
+
+    /**
+     * The current tariffs
+     */
+    public ShippingTariffTable getTable() {
+        return table;
+    }
+
+    /**
+     * Shipping methods that have a tariff
+     */
+    public List<String> getMethods() {
+        return table.getMethods();
+    }
+
+    /**
+     * Cost of one shipment by one method
+     *
+     * @throws IllegalArgumentException If the method has no tariff or a value is negative
+     */
+    public Money quote(String method, BigDecimal weightKg, BigDecimal distanceKm) {
+        return table.quote(method, weightKg, distanceKm);
+    }
+
+    /**
+     * Quote every shipment by every method, in parallel, and return the
+     * cheapest option of each, in the order of the shipments
+     *
+     * @throws IllegalArgumentException If a weight or distance is negative
+     */
+    public List<Quote> quoteCheapest(List<Shipment> shipments) {
+        ShippingTariffTable current = table;
+        int n = shipments.size();
+        long[] weights = new long[n];
+        long[] distances = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = ShippingTariffTable.toHundredths(shipments.get(i).weightKg());
+            distances[i] = ShippingTariffTable.toHundredths(shipments.get(i).distanceKm());
+        }
+
+        int[] methods = new int[n];
+        long[] cents = new long[n];
+        current.quoteCheapest(weights, distances, methods, cents);
+
+        int usd = Currencies.ordinal("USD");
+        List<Quote> quotes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            quotes.add(new Quote(methods[i] < 0 ? null : current.getMethods().get(methods[i]),
+                Money.ofMinor(cents[i], usd)));
+        }
+        return quotes;
+    }
+
+    private static ShippingTariffDAO.Band band(String method, String type, String rate) {
+        return new ShippingTariffDAO.Band(method, type, BigDecimal.ZERO, new BigDecimal(rate));
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep the scheduled job alive; the current tariffs stay in use
+            logger.log(Level.WARNING, "Shipping tariff reload failed", e);
+        }
+    }
+}
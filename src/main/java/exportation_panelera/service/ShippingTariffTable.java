@@ -0,0 +1,221 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Currencies;
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ShippingTariffDAO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable shipping tariffs as lookup arrays.
+ * Per method there are sorted arrays of band lower bounds and rates for
+ * weight and for distance, plus the summed surcharges. Weights and
+ * distances are hundredths of a kg or km, rates millionths of a dollar
+ * and costs cents, so a quote is two binary searches and a few long
+ * multiplications. Costs are in US dollars.
+ */
+public final class ShippingTariffTable {
+
+    // Rates are stored in millionths of a dollar, quantities in hundredths
+    private static final int RATE_SCALE = 6;
+    private static final int QUANTITY_SCALE = 2;
+    private static final int CENTS_SCALE = 2;
+    private static final int PERCENT_SCALE = 3;
+
+    private final List<String> methods;
+    private final Map<String, Integer> methodIndex;
+    private final long[][] weightFrom;
+    private final long[][] weightRate;
+    private final long[][] distanceFrom;
+    private final long[][] distanceRate;
+    // Sum of the percentages in thousandths of a percent, and of the flat fees in cents
+    private final long[] surchargeMillipercent;
+    private final long[] flatFeeCents;
+
+    private ShippingTariffTable(List<String> methods, long[][] weightFrom, long[][] weightRate,
+                                long[][] distanceFrom, long[][] distanceRate,
+                                long[] surchargeMillipercent, long[] flatFeeCents) {
+        this.methods = Collections.unmodifiableList(methods);
+        this.methodIndex = new HashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            methodIndex.put(methods.get(i), i);
+        }
+        this.weightFrom = weightFrom;
+        this.weightRate = weightRate;
+        this.distanceFrom = distanceFrom;
+        this.distanceRate = distanceRate;
+        this.surchargeMillipercent = surchargeMillipercent;
+        this.flatFeeCents = flatFeeCents;
+    }
+
+    /**
+     * Build the arrays. A method is known once it has a band; surcharges of
+     * methods without bands are ignored.
+     */
+    public static ShippingTariffTable build(List<ShippingTariffDAO.Band> bands,
+                                            List<ShippingTariffDAO.Surcharge> surcharges) {
+        // Lower bound -> rate, per method and type, sorted by lower bound
+        Map<String, Map<Long, Long>> weight = new HashMap<>();
+        Map<String, Map<Long, Long>> distance = new HashMap<>();
+        List<String> methods = new ArrayList<>();
+        for (ShippingTariffDAO.Band band : bands) {
+            Map<String, Map<Long, Long>> target = ShippingTariffDAO.WEIGHT.equals(band.type()) ? weight
+                : ShippingTariffDAO.DISTANCE.equals(band.type()) ? distance : null;
+            if (target == null || band.from() == null || band.rate() == null) {
+                continue;
+            }
+            if (!methods.contains(band.method())) {
+                methods.add(band.method());
+            }
+            target.computeIfAbsent(band.method(), m -> new TreeMap<>())
+                .put(scaled(band.from(), QUANTITY_SCALE), scaled(band.rate(), RATE_SCALE));
+        }
+
+        int n = methods.size();
+        long[][] weightFrom = new long[n][];
+        long[][] weightRate = new long[n][];
+        long[][] distanceFrom = new long[n][];
+        long[][] distanceRate = new long[n][];
+        for (int m = 0; m < n; m++) {
+            String method = methods.get(m);
+            weightFrom[m] = keys(weight.get(method));
+            weightRate[m] = values(weight.get(method));
+            distanceFrom[m] = keys(distance.get(method));
+            distanceRate[m] = values(distance.get(method));
+        }
+
+        long[] surchargeMillipercent = new long[n];
+        long[] flatFeeCents = new long[n];
+        for (ShippingTariffDAO.Surcharge surcharge : surcharges) {
+            int m = methods.indexOf(surcharge.method());
+            if (m < 0) {
+                continue;
+            }
+            if (surcharge.percent() != null) {
+                surchargeMillipercent[m] += scaled(surcharge.percent(), PERCENT_SCALE);
+            }
+            if (surcharge.flatFee() != null) {
+                flatFeeCents[m] += scaled(surcharge.flatFee(), CENTS_SCALE);
+            }
+        }
+
+        return new ShippingTariffTable(methods, weightFrom, weightRate, distanceFrom, distanceRate,
+            surchargeMillipercent, flatFeeCents);
+    }
+
+    /**
+     * Names of the methods, in the order of their index
+     */
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Index of a method, or -1 if it has no tariff
+     */
+    public int indexOf(String method) {
+        Integer index = methodIndex.get(method);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Cost of one shipment
+     *
+     * @throws IllegalArgumentException If the method has no tariff or a value is negative
+     */
+    public Money quote(String method, BigDecimal weightKg, BigDecimal distanceKm) {
+        int m = indexOf(method);
+        if (m < 0) {
+            throw new IllegalArgumentException("No tariff for shipping method " + method);
+        }
+        return Money.ofMinor(quoteCents(m, toHundredths(weightKg), toHundredths(distanceKm)), Currencies.ordinal("USD"));
+    }
+
+    /**
+     * Cost in cents of one shipment by one method
+     *
+     * @param method Method index
+     * @param weight Weight in hundredths of a kg
+     * @param distance Distance in hundredths of a km
+     */
+    public long quoteCents(int method, long weight, long distance) {
+        if (weight < 0 || distance < 0) {
+            throw new IllegalArgumentException("Weight and distance cannot be negative");
+        }
+        long banded = Math.addExact(
+            bandCost(weightFrom[method], weightRate[method], weight),
+            bandCost(distanceFrom[method], distanceRate[method], distance));
+        long surcharge = Money.multiplyMinor(banded, surchargeMillipercent[method], PERCENT_SCALE + 2);
+        return Math.addExact(Math.addExact(banded, surcharge), flatFeeCents[method]);
+    }
+
+    /**
+     * Quote many shipments by every method in parallel and keep the
+     * cheapest method of each. Ties go to the method listed first.
+     *
+     * @param weights Weights in hundredths of a kg
+     * @param distances Distances in hundredths of a km
+     * @param cheapestMethod Receives the index of the cheapest method, -1 if there are no methods
+     * @param cheapestCents Receives its cost in cents
+     */
+    public void quoteCheapest(long[] weights, long[] distances, int[] cheapestMethod, long[] cheapestCents) {
+        int n = weights.length;
+        if (distances.length < n || cheapestMethod.length < n || cheapestCents.length < n) {
+            throw new IllegalArgumentException("Arrays shorter than the weights");
+        }
+        IntStream.range(0, n).parallel().forEach(i -> {
+            int best = -1;
+            long bestCents = Long.MAX_VALUE;
+            for (int m = 0; m < methods.size(); m++) {
+                long cents = quoteCents(m, weights[i], distances[i]);
+                if (cents < bestCents) {
+                    best = m;
+                    bestCents = cents;
+                }
+            }
+            cheapestMethod[i] = best;
+            cheapestCents[i] = best < 0 ? 0 : bestCents;
+        });
+    }
+
+    /**
+     * Weight or distance in hundredths, rounded half up
+     */
+    public static long toHundredths(BigDecimal value) {
+        return value == null ? 0 : scaled(value, QUANTITY_SCALE);
+    }
+
+    private static long bandCost(long[] from, long[] rate, long quantity) {
+        if (from.length == 0) {
+            return 0;
+        }
+        int band = Arrays.binarySearch(from, quantity);
+        if (band < 0) {
+            // Below the first band the first band applies
+            band = Math.max(0, -band - 2);
+        }
+        // millionths of a dollar times hundredths of a unit, to cents
+        return Money.multiplyMinor(rate[band], quantity, RATE_SCALE + QUANTITY_SCALE - CENTS_SCALE);
+    }
+
+    private static long scaled(BigDecimal value, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static long[] keys(Map<Long, Long> bands) {
+        return bands == null ? new long[0] : bands.keySet().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long[] values(Map<Long, Long> bands) {
+        return bands == null ? new long[0] : bands.values().stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,174 @@
+package exportation_panelera.service;
+
+import exportation_panelera.config.ConfigLoader;
+import exportation_panelera.dao.IdSequenceDAO;
+import exportation_panelera.exception.DatabaseException;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Assigns delivery tracking numbers.
+ * Format: TRK + day (yyMMdd) + sequence (5 digits, more past 99999) +
+ * Luhn check digit + country code, e.g. TRK2610190004299US.
+ * Every country has its own sequence per day in id_sequences, taken in
+ * blocks through {@link IdAllocator}, so numbers are unique across all
+ * running instances while only one number per block costs a database
+ * round trip. Nothing is random; the check digit catches mistyped or
+ * swapped digits when a number is entered by hand.
+ */
+public class TrackingNumberService {
+
+    public static final String PREFIX = "TRK";
+
+    /** Country code for destinations without one */
+    public static final String UNKNOWN_COUNTRY = "XX";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
+    private static final int SEQUENCE_DIGITS = 5;
+    private static final Pattern FORMAT = Pattern.compile(PREFIX + "(\\d{12,})([A-Z]{2})");
+
+    private final int blockSize;
+    private final IdSequenceDAO sequenceDAO;
+    private final Clock clock;
+
+    // Allocators by sequence name; only the current day's are kept
+    private final Map<String, IdAllocator> allocators = new ConcurrentHashMap<>();
+
+    // Singleton instance
+    private static TrackingNumberService instance;
+
+    /**
+     * Private constructor for singleton pattern
+     */
+    private TrackingNumberService() {
+        this(Math.max(1, ConfigLoader.getIntProperty("tracking.number.block.size", 500)),
+            new IdSequenceDAO(), Clock.systemDefaultZone());
+    }
+
+    TrackingNumberService(int blockSize, IdSequenceDAO sequenceDAO, Clock clock) {
+        this.blockSize = blockSize;
+        this.sequenceDAO = sequenceDAO;
+        this.clock = clock;
+    }
+
+    /**
+     * Get singleton instance
+     */
+    public static synchronized TrackingNumberService getInstance() {
+        if (instance == null) {
+            instance = new TrackingNumberService();
+        }
+        return instance;
+    }
+
+    /**
+     * Assign a tracking number. Call it off the event dispatch thread, as
+     * the first number of a block reserves the block from the database.
+     *
+     * @param countryCode Two-letter code of the destination; anything else becomes XX
+     * @throws DatabaseException If a block is needed and the database cannot be reached
+     */
+    public String next(String countryCode) throws DatabaseException {
+        return nextBatch(countryCode, 1).get(0);
+    }
+
+    /**
+     * Assign tracking numbers for a batch of parcels to one destination.
+     * All numbers of the batch carry the same day.
+     *
+     * @param countryCode Two-letter code of the destination; anything else becomes XX
+     * @param count Number of tracking numbers
+     * @throws DatabaseException If a block is needed and the database cannot be reached
+     */
+    public List<String> nextBatch(String countryCode, int count) throws DatabaseException {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        String country = normalizeCountry(countryCode);
+        String day = LocalDate.now(clock).format(DAY_FORMAT);
+        IdAllocator allocator = allocator(country, day);
+
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(format(day, allocator.next(), country));
+        }
+        return numbers;
+    }
+
+    private IdAllocator allocator(String country, String day) {
+        String sequence = "tracking:" + country + ":" + day;
+        IdAllocator allocator = allocators.get(sequence);
+        if (allocator == null) {
+            // First number of the day for this country; earlier days are done with
+            allocators.keySet().removeIf(name -> !name.endsWith(":" + day));
+            allocator = allocators.computeIfAbsent(sequence,
+                name -> new IdAllocator(name, blockSize, sequenceDAO, true));
+        }
+        return allocator;
+    }
+
+    static String format(String day, long sequence, String country) {
+        StringBuilder digits = new StringBuilder(day);
+        String number = Long.toString(sequence);
+        for (int i = number.length(); i < SEQUENCE_DIGITS; i++) {
+            digits.append('0');
+        }
+        digits.append(number);
+        digits.append(checkDigit(digits));
+        return PREFIX + digits + country;
+    }
+
+    /**
+     * Whether a tracking number has this service's format and a correct
+     * check digit
+     */
+    public static boolean isValid(String trackingNumber) {
+        if (trackingNumber == null) {
+            return false;
+        }
+        Matcher matcher = FORMAT.matcher(trackingNumber.trim());
+        if (!matcher.matches()) {
+            return false;
+        }
+        String digits = matcher.group(1);
+        int last = digits.length() - 1;
+        return digits.charAt(last) - '0' == checkDigit(digits.subSequence(0, last));
+    }
+
+    /**
+     * Luhn check digit of a string of digits
+     */
+    static int checkDigit(CharSequence digits) {
+        int sum = 0;
+        boolean doubled = true; // The check digit itself will take the undoubled position
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int digit = digits.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static String normalizeCountry(String countryCode) {
+        if (countryCode == null) {
+            return UNKNOWN_COUNTRY;
+        }
+        String code = countryCode.trim().toUpperCase(Locale.ROOT);
+        return code.matches("[A-Z]{2}") ? code : UNKNOWN_COUNTRY;
+    }
+}
@@ -0,0 +1,14 @@
+-- Named sequences for IDs the application assigns itself. Clients reserve
+-- a block of values with one UPDATE and hand them out from memory, so any
+-- number of desktop instances can assign IDs without colliding.
+CREATE TABLE IF NOT EXISTS id_sequences (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Continue after the highest numeric exportation ID already in use
+INSERT INTO id_sequences (name, next_value)
+SELECT 'exportation', COALESCE(MAX(CAST(exportation_id AS UNSIGNED)), 0) + 1
+FROM exportations
+WHERE exportation_id REGEXP '^[0-9]+$';
@@ -0,0 +1,21 @@
+-- Exchange rates as units of each currency per US dollar, effective from a
+-- date until the next rate of the same currency. Rates are never updated
+-- in place, so conversions of past exportations can use the rate of
+-- their own date.
+CREATE TABLE IF NOT EXISTS exchange_rates (
+    currency VARCHAR(3) NOT NULL,
+    effective_date DATE NOT NULL,
+    units_per_usd DECIMAL(18,8) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (currency, effective_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- The rates the application had built in
+INSERT IGNORE INTO exchange_rates (currency, effective_date, units_per_usd) VALUES
+    ('USD', '2000-01-01', 1),
+    ('EUR', '2000-01-01', 0.91),
+    ('GBP', '2000-01-01', 0.78),
+    ('CAD', '2000-01-01', 1.35),
+    ('COP', '2000-01-01', 3900),
+    ('MXN', '2000-01-01', 17.50),
+    ('JPY', '2000-01-01', 107.8);
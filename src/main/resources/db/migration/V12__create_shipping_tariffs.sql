@@ -0,0 +1,34 @@
+-- Shipping tariffs per method. A band applies from its lower bound up to
+-- the next band's lower bound of the same method and type; its rate is
+-- USD per kg (WEIGHT) or per km (DISTANCE).
+CREATE TABLE IF NOT EXISTS shipping_tariff_bands (
+    shipping_method VARCHAR(50) NOT NULL,
+    band_type ENUM('WEIGHT', 'DISTANCE') NOT NULL,
+    from_value DECIMAL(12,2) NOT NULL,
+    rate DECIMAL(12,4) NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (shipping_method, band_type, from_value)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Surcharges on top of the banded cost: a percentage of it plus a flat fee in USD
+CREATE TABLE IF NOT EXISTS shipping_surcharges (
+    shipping_method VARCHAR(50) NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    percent DECIMAL(6,3) NOT NULL DEFAULT 0,
+    flat_fee DECIMAL(10,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (shipping_method, name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- The rates the form had built in, as a single band each
+INSERT IGNORE INTO shipping_tariff_bands (shipping_method, band_type, from_value, rate) VALUES
+    ('Air Freight', 'WEIGHT', 0, 12.5),
+    ('Air Freight', 'DISTANCE', 0, 0.75),
+    ('Sea Freight', 'WEIGHT', 0, 5.0),
+    ('Sea Freight', 'DISTANCE', 0, 0.2),
+    ('Road Transport', 'WEIGHT', 0, 2.5),
+    ('Road Transport', 'DISTANCE', 0, 0.5),
+    ('Rail Transport', 'WEIGHT', 0, 3.0),
+    ('Rail Transport', 'DISTANCE', 0, 0.4),
+    ('Express Courier', 'WEIGHT', 0, 20.0),
+    ('Express Courier', 'DISTANCE', 0, 1.0);
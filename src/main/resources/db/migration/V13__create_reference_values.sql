@@ -0,0 +1,87 @@
+-- Reference data offered by the forms: destinations (with the country code
+-- used in tracking numbers), currencies, shipping methods and carriers.
+-- Rows are listed by sort_order; inactive rows are kept for old records
+-- but no longer offered.
+CREATE TABLE IF NOT EXISTS reference_values (
+    kind ENUM('DESTINATION', 'CURRENCY', 'SHIPPING_METHOD', 'CARRIER') NOT NULL,
+    value VARCHAR(100) NOT NULL,
+    code VARCHAR(3),
+    sort_order INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (kind, value)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- The lists the form had built in
+INSERT IGNORE INTO reference_values (kind, value, code, sort_order) VALUES
+    ('DESTINATION', 'United States', 'US', 1),
+    ('DESTINATION', 'Canada', 'CA', 2),
+    ('DESTINATION', 'Mexico', 'MX', 3),
+    ('DESTINATION', 'Brazil', 'BR', 4),
+    ('DESTINATION', 'Colombia', 'CO', 5),
+    ('DESTINATION', 'United Kingdom', 'UK', 6),
+    ('DESTINATION', 'France', 'FR', 7),
+    ('DESTINATION', 'Germany', 'DE', 8),
+    ('DESTINATION', 'Spain', 'ES', 9),
+    ('DESTINATION', 'Italy', 'IT', 10),
+    ('DESTINATION', 'China', 'CN', 11),
+    ('DESTINATION', 'Japan', 'JP', 12),
+    ('DESTINATION', 'South Korea', 'KR', 13),
+    ('DESTINATION', 'Australia', 'AU', 14),
+    ('DESTINATION', 'Netherlands', 'NL', 15),
+    ('DESTINATION', 'Belgium', 'BE', 16),
+    ('DESTINATION', 'Switzerland', 'CH', 17),
+    ('DESTINATION', 'Sweden', 'SE', 18),
+    ('DESTINATION', 'Norway', 'NO', 19),
+    ('DESTINATION', 'Denmark', 'DK', 20),
+    ('DESTINATION', 'Finland', 'FI', 21),
+    ('DESTINATION', 'Poland', 'PL', 22),
+    ('DESTINATION', 'Czech Republic', 'CZ', 23),
+    ('DESTINATION', 'Hungary', 'HU', 24),
+    ('DESTINATION', 'Greece', 'GR', 25),
+    ('DESTINATION', 'Portugal', 'PT', 26),
+    ('DESTINATION', 'Turkey', 'TR', 27),
+    ('DESTINATION', 'Russia', 'RU', 28),
+    ('DESTINATION', 'India', 'IN', 29),
+    ('DESTINATION', 'Thailand', 'TH', 30),
+    ('DESTINATION', 'Singapore', 'SG', 31),
+    ('DESTINATION', 'Malaysia', 'MY', 32),
+    ('DESTINATION', 'Indonesia', 'ID', 33),
+    ('DESTINATION', 'Philippines', 'PH', 34),
+    ('DESTINATION', 'Vietnam', 'VN', 35),
+    ('DESTINATION', 'South Africa', 'ZA', 36),
+    ('DESTINATION', 'Egypt', 'EG', 37),
+    ('DESTINATION', 'Nigeria', 'NG', 38),
+    ('DESTINATION', 'Argentina', 'AR', 39),
+    ('DESTINATION', 'Chile', 'CL', 40),
+    ('DESTINATION', 'Peru', 'PE', 41),
+    ('DESTINATION', 'Ecuador', 'EC', 42),
+    ('DESTINATION', 'Uruguay', 'UY', 43),
+    ('DESTINATION', 'Venezuela', 'VE', 44),
+    ('DESTINATION', 'Costa Rica', 'CR', 45),
+    ('DESTINATION', 'Panama', 'PA', 46),
+    ('DESTINATION', 'Guatemala', 'GT', 47),
+    ('DESTINATION', 'Honduras', 'HN', 48),
+    ('DESTINATION', 'El Salvador', 'SV', 49),
+    ('DESTINATION', 'Nicaragua', 'NI', 50),
+    ('DESTINATION', 'Other', 'XX', 51),
+    ('CURRENCY', 'USD', NULL, 1),
+    ('CURRENCY', 'EUR', NULL, 2),
+    ('CURRENCY', 'GBP', NULL, 3),
+    ('CURRENCY', 'CAD', NULL, 4),
+    ('CURRENCY', 'COP', NULL, 5),
+    ('CURRENCY', 'MXN', NULL, 6),
+    ('CURRENCY', 'JPY', NULL, 7),
+    ('SHIPPING_METHOD', 'Air Freight', NULL, 1),
+    ('SHIPPING_METHOD', 'Sea Freight', NULL, 2),
+    ('SHIPPING_METHOD', 'Road Transport', NULL, 3),
+    ('SHIPPING_METHOD', 'Rail Transport', NULL, 4),
+    ('SHIPPING_METHOD', 'Express Courier', NULL, 5),
+    ('CARRIER', 'DHL', NULL, 1),
+    ('CARRIER', 'FedEx', NULL, 2),
+    ('CARRIER', 'UPS', NULL, 3),
+    ('CARRIER', 'Maersk', NULL, 4),
+    ('CARRIER', 'MSC', NULL, 5),
+    ('CARRIER', 'Servientrega', NULL, 6),
+    ('CARRIER', 'Coordinadora', NULL, 7),
+    ('CARRIER', 'Other', NULL, 8);
@@ -0,0 +1,11 @@
+-- Product types offered by the exportation form join the reference data,
+-- seeded with the list the form had built in.
+ALTER TABLE reference_values
+    MODIFY kind ENUM('DESTINATION', 'CURRENCY', 'SHIPPING_METHOD', 'CARRIER', 'PRODUCT_TYPE') NOT NULL;
+
+INSERT IGNORE INTO reference_values (kind, value, code, sort_order) VALUES
+    ('PRODUCT_TYPE', 'Panela', NULL, 1),
+    ('PRODUCT_TYPE', 'Syrup', NULL, 2),
+    ('PRODUCT_TYPE', 'Sugar', NULL, 3),
+    ('PRODUCT_TYPE', 'Wine', NULL, 4),
+    ('PRODUCT_TYPE', 'Ethanol', NULL, 5);
@@ -0,0 +1,37 @@
+-- Monthly shipment totals per destination and currency
+CREATE TABLE IF NOT EXISTS shipment_rollup_monthly (
+    destination VARCHAR(100) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    period_month DATE NOT NULL,
+    shipment_count INT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+    total_revenue DECIMAL(20,4) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (destination, currency, period_month),
+    INDEX idx_rollup_month (period_month)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- What each exportation currently contributes to the monthly totals,
+-- so an update can subtract the old values before adding the new ones
+CREATE TABLE IF NOT EXISTS shipment_rollup_contribution (
+    exportation_id VARCHAR(50) PRIMARY KEY,
+    destination VARCHAR(100) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    period_month DATE NOT NULL,
+    amount DECIMAL(10,2) NOT NULL DEFAULT 0,
+    revenue DECIMAL(20,4) NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Position of the delta job; rows updated at or after this time are pending
+CREATE TABLE IF NOT EXISTS analytics_watermark (
+    job_name VARCHAR(50) PRIMARY KEY,
+    last_updated_at DATETIME NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Start from the beginning so the first delta run backfills existing data
+INSERT IGNORE INTO analytics_watermark (job_name, last_updated_at)
+VALUES ('shipment_rollup', '1970-01-01 00:00:00');
+
+-- The delta job selects exportations by update time
+CREATE INDEX idx_exportations_updated_at ON exportations (updated_at);
@@ -0,0 +1,21 @@
+-- Change log for deliveries, filled by the triggers below.
+-- Open delivery views tail it to patch their tables with only the rows
+-- that changed, including rows deleted by other clients.
+CREATE TABLE IF NOT EXISTS delivery_changes (
+    change_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    delivery_id INT NOT NULL,
+    change_type CHAR(1) NOT NULL COMMENT 'I = insert, U = update, D = delete',
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_delivery_changes_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- With binary logging enabled, creating triggers needs SUPER or
+-- log_bin_trust_function_creators=1 for the migration user
+CREATE TRIGGER trg_deliveries_after_insert AFTER INSERT ON deliveries
+FOR EACH ROW INSERT INTO delivery_changes (delivery_id, change_type) VALUES (NEW.id, 'I');
+
+CREATE TRIGGER trg_deliveries_after_update AFTER UPDATE ON deliveries
+FOR EACH ROW INSERT INTO delivery_changes (delivery_id, change_type) VALUES (NEW.id, 'U');
+
+CREATE TRIGGER trg_deliveries_after_delete AFTER DELETE ON deliveries
+FOR EACH ROW INSERT INTO delivery_changes (delivery_id, change_type) VALUES (OLD.id, 'D');
@@ -0,0 +1,9 @@
+-- The local replica pulls rows changed since its watermark in
+-- (updated_at, id) order, a page at a time; these indexes turn each page
+-- into a short range scan instead of a full table scan.
+CREATE INDEX idx_deliveries_updated_at ON deliveries (updated_at, id);
+
+-- V4 created idx_exportations_updated_at on (updated_at) alone; the
+-- composite index serves the rollup delta job too, so it replaces it.
+DROP INDEX idx_exportations_updated_at ON exportations;
+CREATE INDEX idx_exportations_updated_at ON exportations (updated_at, id);
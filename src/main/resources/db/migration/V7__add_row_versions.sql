@@ -0,0 +1,7 @@
+-- Row versions for optimistic concurrency. Every update increments the
+-- version, and edits are written with WHERE id = ? AND version = ?, so a
+-- client working from a stale copy gets zero rows back instead of
+-- overwriting someone else's change.
+ALTER TABLE deliveries ADD COLUMN version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE exportations ADD COLUMN version INT NOT NULL DEFAULT 0;
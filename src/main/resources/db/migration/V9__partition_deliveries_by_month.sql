@@ -0,0 +1,57 @@
+-- Partition deliveries by delivery month so that old, closed months can be
+-- moved to deliveries_archive by dropping a partition instead of deleting
+-- rows, and searches on a date range only read the months they cover.
+--
+-- MySQL requires the partitioning column in every unique key, so:
+--  * delivery_date becomes NOT NULL (rows without one take their creation
+--    date) and joins id in the primary key. id stays AUTO_INCREMENT and
+--    unique in practice; lookups by id probe each partition's key.
+--  * the UNIQUE key on delivery_id becomes a plain index. The application
+--    never writes delivery_id; it derives DEL000123 from id.
+-- Partitioned InnoDB tables cannot have foreign keys; deliveries has none.
+
+UPDATE deliveries SET delivery_date = COALESCE(DATE(created_at), CURRENT_DATE) WHERE delivery_date IS NULL;
+
+ALTER TABLE deliveries
+    MODIFY delivery_date DATE NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, delivery_date),
+    DROP INDEX delivery_id,
+    ADD INDEX idx_delivery_id (delivery_id);
+
+-- Start with a single catch-all partition. DeliveryArchiveService splits it
+-- into monthly partitions (p202403 holds March 2024) on its first run and
+-- keeps a few months ahead of today from then on.
+ALTER TABLE deliveries
+    PARTITION BY RANGE COLUMNS (delivery_date) (
+        PARTITION p_future VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Closed months moved out of deliveries. Compressed, since archived rows are
+-- written once and rarely read. Same columns as deliveries so that searches
+-- can read both tables with one UNION ALL.
+CREATE TABLE IF NOT EXISTS deliveries_archive (
+    id INT NOT NULL PRIMARY KEY,
+    delivery_id VARCHAR(50),
+    exportation_id VARCHAR(50),
+    carrier_name VARCHAR(100),
+    tracking_number VARCHAR(100),
+    delivery_address TEXT,
+    contact_person VARCHAR(100),
+    contact_phone VARCHAR(20),
+    delivery_date DATE NOT NULL,
+    status VARCHAR(50),
+    notes TEXT,
+    shipping_method VARCHAR(50),
+    shipping_cost DECIMAL(10,2),
+    shipping_currency VARCHAR(3),
+    reference_number VARCHAR(100),
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    version INT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_archive_exportation_id (exportation_id),
+    INDEX idx_archive_status_date (status, delivery_date),
+    INDEX idx_archive_delivery_date (delivery_date),
+    INDEX idx_archive_tracking_number (tracking_number)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,102 @@
+package exportation_panelera.Model;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for Money and MoneyTotals
+ * Tests rounding, overflow checks and mapping to the DECIMAL(10,2) columns
+ */
+public class MoneyTest {
+
+    private static Money usd(String amount) {
+        return Money.of(new BigDecimal(amount), "USD");
+    }
+
+    @Test
+    public void testRoundsHalfUpToMinorUnit() {
+        assertEquals(1235, usd("12.345").getMinorUnits());
+        assertEquals(-1235, usd("-12.345").getMinorUnits());
+        assertEquals(1234, usd("12.344").getMinorUnits());
+        // JPY has no minor unit
+        assertEquals(13, Money.of(new BigDecimal("12.5"), "JPY").getMinorUnits());
+    }
+
+    @Test
+    public void testArithmeticIsExact() {
+        // 0.1 + 0.2 is 0.30000000000000004 in double
+        assertEquals(usd("0.30"), usd("0.10").plus(usd("0.20")));
+        assertEquals(usd("0.10"), usd("0.30").minus(usd("0.20")));
+        assertEquals(usd("36.00"), usd("12.00").times(3));
+        // 19.99 * 2.5 = 49.975 rounds to 49.98
+        assertEquals(usd("49.98"), usd("19.99").times(new BigDecimal("2.5")));
+    }
+
+    @Test
+    public void testMultiplyMinorRoundsHalfUp() {
+        assertEquals(5, Money.multiplyMinor(1, 45, 1));   // 4.5
+        assertEquals(-5, Money.multiplyMinor(-1, 45, 1)); // -4.5
+        assertEquals(4, Money.multiplyMinor(1, 44, 1));
+        // Product overflows a long, result does not
+        assertEquals(Long.MAX_VALUE / 10, Money.multiplyMinor(Long.MAX_VALUE / 10, 1_000_000_000_000L, 12));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflowThrows() {
+        Money.ofMinor(Long.MAX_VALUE, Currencies.ordinal("USD")).plus(usd("0.01"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCurrenciesCannotBeMixed() {
+        usd("1.00").plus(Money.of(BigDecimal.ONE, "EUR"));
+    }
+
+    @Test
+    public void testColumnMapping() {
+        Money price = Money.fromColumn(new BigDecimal("1234.50"), Currencies.ordinal("USD"));
+
+        assertEquals(123450, price.getMinorUnits());
+        assertEquals(new BigDecimal("1234.50"), price.toColumn());
+        assertEquals(new BigDecimal("500.00"), Money.of(new BigDecimal("500"), "JPY").toColumn());
+        assertTrue(Money.fromColumn(null, Currencies.ordinal("USD")).isZero());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testColumnOverflowThrows() {
+        usd("100000000.00").toColumn();
+    }
+
+    @Test
+    public void testTotalsPerCurrency() {
+        int usd = Currencies.ordinal("USD");
+        int eur = Currencies.ordinal("EUR");
+        MoneyTotals totals = new MoneyTotals();
+        MoneyTotals other = new MoneyTotals();
+
+        for (int i = 0; i < 1000; i++) {
+            totals.add(usd, 10); // 0.10 a thousand times
+        }
+        // 2.50 EUR per kg times 12.25 kg = 30.625 rounds to 30.63
+        totals.addProduct(eur, 250, 1225, 2);
+        other.add(usd("5.00"));
+
+        totals.addAll(other);
+
+        assertEquals(usd("105.00"), totals.get(usd));
+        assertEquals(1001, totals.count(usd));
+        assertEquals(Money.of(new BigDecimal("30.63"), "EUR"), totals.get(eur));
+    }
+
+    @Test
+    public void testRevenueOfExportation() {
+        Exportation_InfDTO exportation = new Exportation_InfDTO();
+        exportation.setCurrency("USD");
+        exportation.setAmount(3.0);
+        exportation.setUnitPrice(new BigDecimal("0.10"));
+
+        assertEquals(usd("0.30"), exportation.getRevenue());
+    }
+}
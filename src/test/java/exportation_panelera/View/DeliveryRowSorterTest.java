@@ -0,0 +1,170 @@
+package exportation_panelera.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.event.TableModelEvent;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliveryRowSorter
+ * Tests primitive-key sorting, appends, and handing the order to the database
+ */
+public class DeliveryRowSorterTest {
+
+    private static final int ID = 0;
+    private static final int EXPORT_ID = 1;
+    private static final int NOTES = 3;
+    private static final int DELIVERY_DATE = 4;
+
+    private DeliveryTableModel model;
+    private DeliveryRowSorter sorter;
+
+    @Before
+    public void setUp() {
+        model = new DeliveryTableModel();
+        model.replaceRows(Arrays.asList(
+            row("DEL000003", "EXP45", "banana", new Date(3000)),
+            row("DEL000001", "EXP123", "Apple", null),
+            row("DEL000002", "EXP7", "cherry", new Date(1000))));
+        sorter = new DeliveryRowSorter(model);
+        // Forward model events the way JTable does
+        model.addTableModelListener(e -> {
+            if (e.getLastRow() == Integer.MAX_VALUE) {
+                sorter.allRowsChanged();
+            } else if (e.getType() == TableModelEvent.INSERT) {
+                sorter.rowsInserted(e.getFirstRow(), e.getLastRow());
+            } else if (e.getType() == TableModelEvent.DELETE) {
+                sorter.rowsDeleted(e.getFirstRow(), e.getLastRow());
+            } else {
+                sorter.rowsUpdated(e.getFirstRow(), e.getLastRow());
+            }
+        });
+    }
+
+    private static Object[] row(String id, String exportId, String notes, Date date) {
+        return new Object[]{id, exportId, "TRK", notes, date, "PENDING", null, null};
+    }
+
+    private List<Object> viewColumn(int column) {
+        List<Object> values = new ArrayList<>();
+        for (int view = 0; view < sorter.getViewRowCount(); view++) {
+            values.add(model.getValueAt(sorter.convertRowIndexToModel(view), column));
+        }
+        return values;
+    }
+
+    @Test
+    public void testDatesSortWithNullsFirst() {
+        sorter.toggleSortOrder(DELIVERY_DATE);
+        assertEquals(Arrays.asList("DEL000001", "DEL000002", "DEL000003"), viewColumn(ID));
+
+        sorter.toggleSortOrder(DELIVERY_DATE);
+        assertEquals(SortOrder.DESCENDING, sorter.getSortKeys().get(0).getSortOrder());
+        assertEquals(Arrays.asList("DEL000003", "DEL000002", "DEL000001"), viewColumn(ID));
+    }
+
+    @Test
+    public void testPrefixedIdsSortByNumber() {
+        sorter.toggleSortOrder(EXPORT_ID);
+        assertEquals(Arrays.asList("EXP7", "EXP45", "EXP123"), viewColumn(EXPORT_ID));
+    }
+
+    @Test
+    public void testTextIgnoresCase() {
+        sorter.toggleSortOrder(NOTES);
+        assertEquals(Arrays.asList("Apple", "banana", "cherry"), viewColumn(NOTES));
+    }
+
+    @Test
+    public void testConversionBothWays() {
+        sorter.toggleSortOrder(ID);
+
+        for (int view = 0; view < 3; view++) {
+            assertEquals(view, sorter.convertRowIndexToView(sorter.convertRowIndexToModel(view)));
+        }
+        assertEquals(0, sorter.convertRowIndexToView(1));
+    }
+
+    @Test
+    public void testAppendedRowsAreMergedIntoOrder() {
+        sorter.toggleSortOrder(ID);
+
+        model.appendRows(Arrays.asList(
+            row("DEL000005", "EXP1", "x", null),
+            row("DEL000000", "EXP2", "y", null)));
+
+        assertEquals(5, sorter.getViewRowCount());
+        assertEquals(Arrays.asList("DEL000000", "DEL000001", "DEL000002", "DEL000003", "DEL000005"), viewColumn(ID));
+    }
+
+    @Test
+    public void testEqualKeysKeepModelOrder() {
+        model.replaceRows(Arrays.asList(
+            row("DEL000001", "EXP1", "same", null),
+            row("DEL000002", "EXP1", "same", null),
+            row("DEL000003", "EXP1", "same", null)));
+
+        sorter.toggleSortOrder(NOTES);
+        sorter.toggleSortOrder(NOTES);
+
+        assertEquals(Arrays.asList("DEL000001", "DEL000002", "DEL000003"), viewColumn(ID));
+    }
+
+    @Test
+    public void testServerSortKeepsModelOrder() {
+        sorter.setServerSort((column, order) -> column == DELIVERY_DATE);
+
+        sorter.toggleSortOrder(DELIVERY_DATE);
+
+        assertTrue(sorter.isServerOrdered());
+        assertEquals(Collections.singletonList(new RowSorter.SortKey(DELIVERY_DATE, SortOrder.ASCENDING)),
+            sorter.getSortKeys());
+        assertEquals(Arrays.asList("DEL000003", "DEL000001", "DEL000002"), viewColumn(ID));
+
+        sorter.toggleSortOrder(NOTES);
+        assertFalse("Columns the database does not sort are sorted locally", sorter.isServerOrdered());
+        assertEquals(Arrays.asList("Apple", "banana", "cherry"), viewColumn(NOTES));
+    }
+
+    @Test
+    public void testSetServerOrderDoesNotAskTheDatabase() {
+        sorter.setServerSort((column, order) -> {
+            throw new AssertionError("Rows already come in database order");
+        });
+
+        sorter.setServerOrder(ID, SortOrder.DESCENDING);
+
+        assertTrue(sorter.isServerOrdered());
+        assertEquals(Collections.singletonList(new RowSorter.SortKey(ID, SortOrder.DESCENDING)),
+            sorter.getSortKeys());
+        assertEquals(Arrays.asList("DEL000003", "DEL000001", "DEL000002"), viewColumn(ID));
+    }
+
+    @Test
+    public void testClearingKeysRestoresModelOrder() {
+        sorter.toggleSortOrder(NOTES);
+        sorter.setSortKeys(null);
+
+        assertEquals(Arrays.asList("DEL000003", "DEL000001", "DEL000002"), viewColumn(ID));
+    }
+
+    @Test
+    public void testUpdatedRowMovesToItsNewPlace() {
+        sorter.toggleSortOrder(DELIVERY_DATE);
+
+        model.updateRow(row("DEL000001", "EXP123", "Apple", new Date(5000)));
+        assertEquals(Arrays.asList("DEL000002", "DEL000003", "DEL000001"), viewColumn(ID));
+
+        model.updateRow(row("DEL000003", "EXP45", "banana", new Date(0)));
+        assertEquals(Arrays.asList("DEL000003", "DEL000002", "DEL000001"), viewColumn(ID));
+    }
+}
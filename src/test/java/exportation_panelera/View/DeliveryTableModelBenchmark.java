@@ -0,0 +1,101 @@
+package exportation_panelera.View;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.JTable;
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures how long the EDT is blocked while a large result set is put into
+ * the delivery table the way DeliveryManagementForm does it: a DeliveryTableModel
+ * behind a DeliveryRowSorter sorted on a date column, as users usually leave
+ * it. Times a full load through replaceRows and a streamed search result
+ * through appendRows in chunks, where the sorter merges each chunk in.
+ * Not a unit test; run it by hand:
+ * <pre>java -cp target/classes:target/test-classes exportation_panelera.View.DeliveryTableModelBenchmark [rows] [chunk]</pre>
+ */
+public class DeliveryTableModelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        List<Object[]> rows = sampleRows(rowCount);
+
+        for (int round = 1; round <= 3; round++) {
+            long replace = stallMillis(rowCount, table -> replaceAll(table, rows));
+            long append = stallMillis(rowCount, table -> appendInChunks(table, rows, chunkSize));
+            System.out.printf("round %d, %d rows: replaceRows %d ms, appendRows in chunks of %d %d ms%n",
+                round, rowCount, replace, chunkSize, append);
+        }
+    }
+
+    private static List<Object[]> sampleRows(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            Date date = new Date(now - (i * 7919L % 1000) * 86_400_000L);
+            rows.add(new Object[]{String.format("DEL%06d", i), "EXP" + (i % 500), "TRK" + (100000 + i),
+                "Note " + i, date, i % 3 == 0 ? "DELIVERED" : "PENDING", date, date});
+        }
+        return rows;
+    }
+
+    /**
+     * Table set up like the form's: sorted locally by delivery date, newest first
+     */
+    private static JTable sortedTable() {
+        DeliveryTableModel model = new DeliveryTableModel();
+        JTable table = new JTable(model);
+        DeliveryRowSorter sorter = new DeliveryRowSorter(model);
+        table.setRowSorter(sorter);
+        sorter.setSortKeys(Collections.singletonList(new RowSorter.SortKey(4, SortOrder.DESCENDING)));
+        return table;
+    }
+
+    private static void replaceAll(JTable table, List<Object[]> rows) {
+        ((DeliveryTableModel) table.getModel()).replaceRows(rows);
+    }
+
+    private static void appendInChunks(JTable table, List<Object[]> rows, int chunkSize) {
+        DeliveryTableModel model = (DeliveryTableModel) table.getModel();
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            model.appendRows(rows.subList(from, Math.min(from + chunkSize, rows.size())));
+        }
+    }
+
+    /**
+     * Make sure the sorter did the work being timed
+     */
+    private static void check(JTable table, int rowCount) {
+        if (table.getRowCount() != rowCount) {
+            throw new IllegalStateException("Expected " + rowCount + " rows, table shows " + table.getRowCount());
+        }
+        for (int row = 1; row < rowCount; row++) {
+            Date previous = (Date) table.getValueAt(row - 1, 4);
+            if (previous.before((Date) table.getValueAt(row, 4))) {
+                throw new IllegalStateException("Rows are not sorted by delivery date at view row " + row);
+            }
+        }
+    }
+
+    /**
+     * Run the task against a fresh sorted table on the EDT and return how
+     * long it held the thread; setting up and checking the table is not timed
+     */
+    private static long stallMillis(int rowCount, Consumer<JTable> task) throws Exception {
+        long[] elapsed = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            JTable table = sortedTable();
+            long start = System.nanoTime();
+            task.accept(table);
+            elapsed[0] = (System.nanoTime() - start) / 1_000_000;
+            check(table, rowCount);
+        });
+        return elapsed[0];
+    }
+}
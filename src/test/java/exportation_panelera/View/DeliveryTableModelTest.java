@@ -0,0 +1,121 @@
+package exportation_panelera.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.swing.event.TableModelEvent;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliveryTableModel
+ * Tests bulk replace/append events and the read-only column setup
+ */
+public class DeliveryTableModelTest {
+
+    private DeliveryTableModel model;
+    private List<TableModelEvent> events;
+
+    @Before
+    public void setUp() {
+        model = new DeliveryTableModel();
+        events = new ArrayList<>();
+        model.addTableModelListener(events::add);
+    }
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"DEL" + i, "EXP" + i, "TRK" + i, "", new Date(), "PENDING", null, null});
+        }
+        return rows;
+    }
+
+    @Test
+    public void testReplaceRowsFiresOneEvent() {
+        model.replaceRows(rows(1000));
+
+        assertEquals(1000, model.getRowCount());
+        assertEquals(1, events.size());
+        assertEquals("Whole-table change", Integer.MAX_VALUE, events.get(0).getLastRow());
+    }
+
+    @Test
+    public void testReplaceDropsPreviousRows() {
+        model.replaceRows(rows(5));
+        model.replaceRows(rows(2));
+
+        assertEquals(2, model.getRowCount());
+        assertEquals("DEL1", model.getValueAt(1, 0));
+    }
+
+    @Test
+    public void testAppendRowsFiresOneInsertEvent() {
+        model.replaceRows(rows(3));
+        events.clear();
+
+        model.appendRows(rows(4));
+
+        assertEquals(7, model.getRowCount());
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.INSERT, events.get(0).getType());
+        assertEquals(3, events.get(0).getFirstRow());
+        assertEquals(6, events.get(0).getLastRow());
+
+        model.appendRows(Collections.emptyList());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    public void testShortRowsArePadded() {
+        model.replaceRows(Collections.singletonList(new Object[]{"DEL1", "EXP1"}));
+
+        assertEquals("EXP1", model.getValueAt(0, 1));
+        assertNull(model.getValueAt(0, 7));
+    }
+
+    @Test
+    public void testReadOnlyWithDateColumns() {
+        model.replaceRows(rows(1));
+
+        assertFalse(model.isCellEditable(0, 3));
+        assertEquals(Date.class, model.getColumnClass(4));
+        assertEquals(String.class, model.getColumnClass(5));
+        assertEquals(DeliveryTableModel.COLUMN_NAMES.length, model.getColumnCount());
+    }
+
+    @Test
+    public void testUpdateRowFiresSingleRowEvent() {
+        model.replaceRows(rows(5));
+        events.clear();
+
+        Object[] changed = rows(5).get(3);
+        changed[5] = "DELIVERED";
+        assertTrue(model.updateRow(changed));
+
+        assertEquals("DELIVERED", model.getValueAt(3, 5));
+        assertEquals(1, events.size());
+        assertEquals(TableModelEvent.UPDATE, events.get(0).getType());
+        assertEquals(3, events.get(0).getFirstRow());
+        assertEquals(3, events.get(0).getLastRow());
+
+        assertFalse(model.updateRow(new Object[]{"DEL999"}));
+    }
+
+    @Test
+    public void testRemoveDeliveryKeepsLookupCurrent() {
+        model.replaceRows(rows(5));
+
+        assertTrue(model.removeDelivery("DEL1"));
+        assertFalse(model.removeDelivery("DEL1"));
+
+        assertEquals(4, model.getRowCount());
+        assertEquals(2, model.indexOf("DEL3"));
+        model.appendRows(rows(6).subList(5, 6));
+        assertEquals(4, model.indexOf("DEL5"));
+    }
+}
@@ -0,0 +1,187 @@
+package exportation_panelera.cache;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for LocalReplica
+ * Tests versioned upserts, delete reconciliation, pending edits and
+ * recovery of the snapshot and journal from disk
+ */
+public class LocalReplicaTest {
+
+    private Path directory;
+    private LocalReplica replica;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replica-test");
+        replica = new LocalReplica(directory);
+        replica.load();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // Rows are built with updated_at equal to the version, in milliseconds
+    private static Delivery_InfDTO delivery(int id, String status, int version) {
+        Delivery_InfDTO delivery = new Delivery_InfDTO("DEL00000" + id, "EXP10" + id, "TRK" + id, status, null, null);
+        delivery.setId(id);
+        delivery.setVersion(version);
+        delivery.setUpdatedAt(new Date(version));
+        return delivery;
+    }
+
+    private static Exportation_InfDTO exportation(int id, String exportationId, int version) {
+        Exportation_InfDTO exportation = new Exportation_InfDTO(exportationId, "Panela", 250.0, "Spain");
+        exportation.setId(id);
+        exportation.setUnitPrice(new BigDecimal("1.25"));
+        exportation.setVersion(version);
+        exportation.setUpdatedAt(new Date(version));
+        return exportation;
+    }
+
+    private LocalReplica reopen() {
+        LocalReplica reopened = new LocalReplica(directory);
+        reopened.load();
+        return reopened;
+    }
+
+    @Test
+    public void testPutReportsOnlyNewVersions() {
+        assertEquals(2, replica.putDeliveries(Arrays.asList(delivery(1, "PENDING", 1000), delivery(2, "PENDING", 2000))).size());
+
+        List<Delivery_InfDTO> changed = replica.putDeliveries(Arrays.asList(
+            delivery(1, "PENDING", 1000), delivery(2, "DELIVERED", 3000)));
+
+        assertEquals(1, changed.size());
+        assertEquals(2, changed.get(0).getId());
+        assertEquals(3000, replica.getDeliveryVersion(2));
+        assertEquals(3000, replica.getDeliveryWatermark());
+        assertEquals(3, replica.getDeliveryIdSum());
+    }
+
+    @Test
+    public void testRetainRemovesDeletedRows() {
+        replica.putDeliveries(Arrays.asList(delivery(1, "PENDING", 1000), delivery(2, "PENDING", 1000),
+            delivery(3, "PENDING", 1000)));
+
+        assertEquals(Collections.singleton(2), replica.retainDeliveries(new HashSet<>(Arrays.asList(1, 3))));
+        assertEquals(2, replica.getDeliveryCount());
+        assertEquals(4, replica.getDeliveryIdSum());
+        assertNull(replica.getDelivery(2));
+    }
+
+    @Test
+    public void testReadsReturnCopies() {
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 1000)));
+
+        replica.getDeliveries().get(0).setStatus("CHANGED");
+
+        assertEquals("PENDING", replica.getDelivery(1).getStatus());
+    }
+
+    @Test
+    public void testPendingEditIsShownAndKeepsFirstBaseVersion() {
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 1000)));
+
+        replica.stageEdit(delivery(1, "IN_TRANSIT", 1000));
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 5000)));
+        replica.stageEdit(delivery(1, "DELIVERED", 1000));
+
+        assertEquals("DELIVERED", replica.getDelivery(1).getStatus());
+        assertEquals(1, replica.getPendingEdits().size());
+        assertEquals(1000, replica.getPendingEdits().get(0).baseVersion());
+    }
+
+    @Test
+    public void testConflictedEditStopsShadowingServerRow() {
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 1000)));
+        replica.stageEdit(delivery(1, "DELIVERED", 1000));
+
+        replica.editConflicted(1);
+
+        assertTrue(replica.getPendingEdits().isEmpty());
+        assertEquals("PENDING", replica.getDelivery(1).getStatus());
+        assertEquals("DELIVERED", replica.getConflicts().get(0).delivery().getStatus());
+
+        replica.discardConflict(1);
+        assertTrue(replica.getConflicts().isEmpty());
+    }
+
+    @Test
+    public void testStateSurvivesRestart() {
+        replica.putDeliveries(Arrays.asList(delivery(1, "PENDING", 1000), delivery(2, "PENDING", 2000)));
+        replica.putExportations(Arrays.asList(exportation(7, "101", 1500), exportation(8, "102", 1600)));
+        replica.retainDeliveries(Collections.singleton(2));
+        replica.retainExportations(Collections.singleton("102"));
+        replica.stageEdit(delivery(2, "DELIVERED", 2000));
+
+        LocalReplica reopened = reopen();
+
+        assertEquals(1, reopened.getDeliveryCount());
+        assertEquals(2000, reopened.getDeliveryWatermark());
+        assertEquals("DELIVERED", reopened.getDelivery(2).getStatus());
+        assertEquals("EXP102", reopened.getDelivery(2).getExportId());
+        assertEquals(2000, reopened.getPendingEdits().get(0).baseVersion());
+        assertNull(reopened.getExportation("101"));
+        assertEquals(new BigDecimal("1.25"), reopened.getExportation("102").getUnitPrice());
+        assertEquals(8, reopened.getExportationIdSum());
+    }
+
+    @Test
+    public void testCompactionKeepsState() throws IOException {
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 1000)));
+        replica.putDeliveries(Collections.singletonList(delivery(1, "DELIVERED", 2000)));
+
+        replica.compact();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals("Old journal is removed", 0, files.filter(p -> p.toString().endsWith(".journal")).count());
+        }
+        assertEquals("DELIVERED", reopen().getDelivery(1).getStatus());
+    }
+
+    @Test
+    public void testTornJournalRecordIsDropped() throws IOException {
+        replica.putDeliveries(Collections.singletonList(delivery(1, "PENDING", 1000)));
+        replica.putDeliveries(Collections.singletonList(delivery(2, "PENDING", 2000)));
+
+        Path journal;
+        try (Stream<Path> files = Files.list(directory)) {
+            journal = files.filter(p -> p.toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(journal.toFile(), "rw")) {
+            file.setLength(file.length() - 3); // Crash while writing the last record
+        }
+
+        LocalReplica reopened = reopen();
+
+        assertEquals(1, reopened.getDeliveryCount());
+        assertNotNull(reopened.getDelivery(1));
+        reopened.putDeliveries(Collections.singletonList(delivery(3, "PENDING", 3000)));
+        assertEquals(2, reopen().getDeliveryCount());
+    }
+}
@@ -0,0 +1,175 @@
+package exportation_panelera.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReadThroughCache
+ * Tests bounded size, TTL expiry, frequency-based admission and statistics
+ */
+public class ReadThroughCacheTest {
+
+    private AtomicLong clock;
+    private ReadThroughCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong();
+        cache = new ReadThroughCache<>("test", 100, 1000, clock::get);
+    }
+
+    @Test
+    public void testGetLoadsOnceAndThenHits() {
+        AtomicInteger loads = new AtomicInteger();
+
+        String first = cache.get("EXP001", key -> { loads.incrementAndGet(); return "value-" + key; });
+        String second = cache.get("EXP001", key -> { loads.incrementAndGet(); return "value-" + key; });
+
+        assertEquals("value-EXP001", first);
+        assertEquals("value-EXP001", second);
+        assertEquals("Loader should run only once", 1, loads.get());
+        assertEquals(1, cache.stats().getHitCount());
+        assertEquals(1, cache.stats().getMissCount());
+    }
+
+    @Test
+    public void testNullResultsAreNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("missing", key -> { loads.incrementAndGet(); return null; });
+        cache.get("missing", key -> { loads.incrementAndGet(); return null; });
+
+        assertEquals("Not-found results should be reloaded", 2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() {
+        cache.put("EXP001", "v1");
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("Entry should still be fresh", "v1", cache.getIfPresent("EXP001"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull("Entry should expire after TTL", cache.getIfPresent("EXP001"));
+        assertEquals(1, cache.stats().getExpirationCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key" + i, "value" + i);
+        }
+
+        assertEquals("Cache should never exceed its maximum size", 100, cache.size());
+        assertEquals(900, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScan() {
+        // Fill the cache and make the first ten entries popular
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot" + i, "value");
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                assertNotNull(cache.getIfPresent("hot" + i));
+            }
+        }
+
+        // A one-off scan over many new keys should not flush the popular ones
+        for (int i = 0; i < 500; i++) {
+            cache.get("scan" + i, key -> "value");
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull("Popular entry hot" + i + " should survive the scan", cache.getIfPresent("hot" + i));
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.put("EXP001", "v1");
+        cache.put("EXP002", "v2");
+
+        cache.invalidate("EXP001");
+
+        assertNull(cache.getIfPresent("EXP001"));
+        assertEquals("v2", cache.getIfPresent("EXP002"));
+        assertEquals(1, cache.stats().getInvalidationCount());
+    }
+
+    @Test
+    public void testInvalidateIf() {
+        cache.put("EXP001", "delivered");
+        cache.put("EXP002", "pending");
+        cache.put("EXP003", "delivered");
+
+        int removed = cache.invalidateIf("delivered"::equals);
+
+        assertEquals(2, removed);
+        assertEquals(1, cache.size());
+        assertEquals("pending", cache.getIfPresent("EXP002"));
+    }
+
+    @Test
+    public void testValueLoadedAcrossInvalidateIsNotCached() {
+        String loaded = cache.get("EXP001", key -> {
+            cache.invalidate(key); // The row is written while the load is running
+            return "stale";
+        });
+
+        assertEquals("The caller still gets the loaded value", "stale", loaded);
+        assertNull("A load racing an invalidation must not be cached", cache.getIfPresent("EXP001"));
+        assertEquals("fresh", cache.get("EXP001", key -> "fresh"));
+        assertEquals("fresh", cache.getIfPresent("EXP001"));
+    }
+
+    @Test
+    public void testPutIfNotInvalidated() {
+        long stamp = cache.loadStamp("EXP001");
+        assertTrue(cache.putIfNotInvalidated("EXP001", "v1", stamp));
+
+        stamp = cache.loadStamp("EXP001");
+        cache.invalidateAll();
+        assertFalse(cache.putIfNotInvalidated("EXP001", "v2", stamp));
+        assertNull(cache.getIfPresent("EXP001"));
+
+        stamp = cache.loadStamp("EXP001");
+        cache.invalidateIf(value -> false);
+        assertFalse("invalidateIf may match a value still being loaded",
+            cache.putIfNotInvalidated("EXP001", "v3", stamp));
+    }
+
+    @Test
+    public void testPutReplacesExistingValue() {
+        cache.put("EXP001", "v1");
+        cache.put("EXP001", "v2");
+
+        assertEquals("v2", cache.getIfPresent("EXP001"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new ReadThroughCache<String, String>("bad", 0, 1000);
+    }
+
+    @Test
+    public void testHitRate() {
+        cache.put("EXP001", "v1");
+        cache.getIfPresent("EXP001");
+        cache.getIfPresent("EXP001");
+        cache.getIfPresent("EXP001");
+        cache.getIfPresent("EXP999");
+
+        assertEquals(0.75, cache.stats().getHitRate(), 0.0001);
+    }
+}
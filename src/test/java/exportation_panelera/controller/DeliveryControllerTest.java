@@ -2,6 +2,7 @@ package exportation_panelera.controller;
 
 import exportation_panelera.Model.Delivery_InfDTO;
 import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.Model.UpdateResult;
 import exportation_panelera.db.DatabaseManager;
 import org.junit.*;
 import org.junit.runner.RunWith;
@@ -11,6 +12,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.sql.*;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,6 +44,7 @@ public class DeliveryControllerTest {
         mockedDbManager.when(DatabaseManager::isOfflineMode).thenReturn(false);
 
         when(mockConnection.isClosed()).thenReturn(false);
+        DeliveryController.invalidateLookupCaches();
     }
 
     @After
@@ -197,6 +201,73 @@ public class DeliveryControllerTest {
         verify(mockStatement).setInt(6, 1); // WHERE id = ?
     }
 
+    @Test
+    public void testUpdateDeliveryIfCurrent_IncrementsVersion() throws SQLException {
+        // Arrange
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(1);
+        delivery.setExportId("EXP002");
+        delivery.setVersion(4);
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+
+        // Act
+        UpdateResult<Delivery_InfDTO> result = controller.updateDeliveryIfCurrent(delivery);
+
+        // Assert
+        assertEquals(UpdateResult.Status.UPDATED, result.status());
+        verify(mockConnection).prepareStatement(contains("WHERE id = ? AND version = ?"));
+        verify(mockStatement).setInt(7, 4); // AND version = ?
+        assertEquals("Saved delivery carries the new version", 5, delivery.getVersion());
+    }
+
+    @Test
+    public void testUpdateDeliveryIfCurrent_ConflictReturnsCurrentRow() throws SQLException {
+        // Arrange
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(1);
+        delivery.setExportId("EXP002");
+        delivery.setStatus("DELIVERED");
+        delivery.setVersion(2);
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt("id")).thenReturn(1);
+        when(mockResultSet.getInt("version")).thenReturn(3);
+
+        // Act
+        UpdateResult<Delivery_InfDTO> result = controller.updateDeliveryIfCurrent(delivery);
+
+        // Assert
+        assertEquals(UpdateResult.Status.CONFLICT, result.status());
+        assertEquals(3, result.current().getVersion());
+        assertEquals("Edited delivery keeps its version", 2, delivery.getVersion());
+        assertFalse(controller.updateDelivery(delivery));
+    }
+
+    @Test
+    public void testUpdateDeliveryIfCurrent_DeletedRow() throws SQLException {
+        // Arrange
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(9);
+        delivery.setExportId("EXP002");
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        // Act
+        UpdateResult<Delivery_InfDTO> result = controller.updateDeliveryIfCurrent(delivery);
+
+        // Assert
+        assertEquals(UpdateResult.Status.NOT_FOUND, result.status());
+        assertNull(result.current());
+    }
+
     @Test
     public void testUpdateDelivery_NullDelivery() {
         // Act
@@ -393,6 +464,32 @@ public class DeliveryControllerTest {
         assertEquals("Exportation ID should match", exportationId, exportation.getExportationId());
     }
 
+    @Test
+    public void testGetExportationById_CachedAfterFirstRead() throws SQLException {
+        // Arrange
+        String exportationId = "2024002";
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt("id")).thenReturn(2);
+        when(mockResultSet.getString("exportation_id")).thenReturn(exportationId);
+
+        long hitsBefore = DeliveryController.getExportationCacheStats().getHitCount();
+
+        // Act
+        Exportation_InfDTO first = controller.getExportationById(exportationId);
+        Exportation_InfDTO second = controller.getExportationById(exportationId);
+
+        // Assert
+        assertNotSame("Callers get their own copy", first, second);
+        assertEquals(first.getId(), second.getId());
+        assertEquals(first.getExportationId(), second.getExportationId());
+        assertEquals(first.toString(), second.toString());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+        assertEquals(hitsBefore + 1, DeliveryController.getExportationCacheStats().getHitCount());
+    }
+
     @Test
     public void testGetExportationById_NotFound() throws SQLException {
         // Arrange
@@ -455,6 +552,32 @@ public class DeliveryControllerTest {
         verify(mockStatement).setString(1, "001"); // Verify prefix was stripped
     }
 
+    @Test
+    public void testGetDeliveryByExportId_CallerChangesDoNotReachTheCache() throws SQLException {
+        // Arrange
+        String exportId = "EXP002";
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt("id")).thenReturn(2);
+        when(mockResultSet.getString("exportation_id")).thenReturn("002");
+        when(mockResultSet.getString("status")).thenReturn("PENDING");
+
+        // Act
+        Delivery_InfDTO loaded = controller.getDeliveryByExportId(exportId);
+        loaded.setStatus("DELIVERED");
+        Delivery_InfDTO cached = controller.getDeliveryByExportId(exportId);
+        cached.setNotes("Edited by a form");
+        Delivery_InfDTO again = controller.getDeliveryByExportId(exportId);
+
+        // Assert
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+        assertEquals("Edits to the loaded copy stay out of the cache", "PENDING", cached.getStatus());
+        assertEquals("PENDING", again.getStatus());
+        assertNull("Edits to a cached copy stay out of the cache", again.getNotes());
+    }
+
     @Test
     public void testGetDeliveryByExportId_NotFound() throws SQLException {
         // Arrange
@@ -470,4 +593,67 @@ public class DeliveryControllerTest {
         // Assert
         assertNull("Delivery should not be found", delivery);
     }
+
+    @Test
+    public void testLoadExportationDetails_LooksUpBothAtOnce() throws Exception {
+        // Arrange: each lookup waits until the other one has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        DeliveryController concurrent = new DeliveryController() {
+            @Override
+            public Exportation_InfDTO getExportationById(String exportationId) {
+                awaitOther(bothStarted);
+                Exportation_InfDTO exportation = new Exportation_InfDTO();
+                exportation.setExportationId(exportationId);
+                return exportation;
+            }
+
+            @Override
+            public Delivery_InfDTO getDeliveryByExportId(String exportId) {
+                awaitOther(bothStarted);
+                Delivery_InfDTO delivery = new Delivery_InfDTO();
+                delivery.setTrackingNumber("TRK001");
+                return delivery;
+            }
+        };
+
+        // Act
+        DeliveryController.ExportationDetails details = concurrent.loadExportationDetails("001");
+
+        // Assert
+        assertEquals("001", details.exportation().getExportationId());
+        assertEquals("TRK001", details.delivery().getTrackingNumber());
+    }
+
+    @Test
+    public void testLoadExportationDetails_FailedLookupLeavesTheOther() throws Exception {
+        // Arrange
+        DeliveryController failing = new DeliveryController() {
+            @Override
+            public Exportation_InfDTO getExportationById(String exportationId) {
+                return new Exportation_InfDTO();
+            }
+
+            @Override
+            public Delivery_InfDTO getDeliveryByExportId(String exportId) {
+                throw new IllegalStateException("Lookup failed");
+            }
+        };
+
+        // Act
+        DeliveryController.ExportationDetails details = failing.loadExportationDetails("001");
+
+        // Assert
+        assertNotNull("Exportation should still be loaded", details.exportation());
+        assertNull("Failed delivery lookup should be empty", details.delivery());
+    }
+
+    private static void awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            assertTrue("Lookups should run at the same time", bothStarted.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
 }
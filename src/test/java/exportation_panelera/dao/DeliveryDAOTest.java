@@ -1,6 +1,7 @@
 package exportation_panelera.dao;
 
 import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.UpdateResult;
 import exportation_panelera.db.DatabaseManager;
 import org.junit.*;
 import org.junit.runner.RunWith;
@@ -41,8 +42,6 @@ public class DeliveryDAOTest {
         mockedDbManager = mockStatic(DatabaseManager.class);
         mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
 
-        when(mockConnection.isClosed()).thenReturn(false);
-
         deliveryDAO = new DeliveryDAO();
     }
 
@@ -223,6 +222,7 @@ public class DeliveryDAOTest {
         delivery.setStatus("DELIVERED");
         delivery.setNotes("Updated delivery");
         delivery.setDeliveryDate(new Date());
+        delivery.setVersion(3);
 
         when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(1);
@@ -236,6 +236,8 @@ public class DeliveryDAOTest {
         verify(mockStatement).setString(3, "TRK002");
         verify(mockStatement).setString(4, "DELIVERED");
         verify(mockStatement).setInt(6, 1);
+        verify(mockStatement).setInt(7, 3);
+        assertEquals("Saved delivery carries its new version", 4, delivery.getVersion());
     }
 
     @Test
@@ -248,6 +250,8 @@ public class DeliveryDAOTest {
 
         when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
         when(mockStatement.executeUpdate()).thenReturn(0);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
 
         // Act
         boolean result = deliveryDAO.updateDelivery(delivery);
@@ -256,6 +260,32 @@ public class DeliveryDAOTest {
         assertFalse("Update should fail when delivery not found", result);
     }
 
+    @Test
+    public void testUpdateIfCurrent_StaleVersionReturnsConflict() throws SQLException {
+        // Arrange
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(1);
+        delivery.setExportId("001");
+        delivery.setTrackingNumber("TRK001");
+        delivery.setVersion(2);
+
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt("id")).thenReturn(1);
+        when(mockResultSet.getInt("version")).thenReturn(5);
+
+        // Act
+        UpdateResult<Delivery_InfDTO> result = deliveryDAO.updateIfCurrent(delivery);
+
+        // Assert
+        assertEquals(UpdateResult.Status.CONFLICT, result.status());
+        assertEquals(5, result.current().getVersion());
+        assertEquals("Stale copy keeps its version", 2, delivery.getVersion());
+        verify(mockStatement).setInt(7, 2);
+    }
+
     @Test
     public void testDeleteDelivery_Success() throws SQLException {
         // Arrange
@@ -356,4 +386,21 @@ public class DeliveryDAOTest {
         // Assert - Verify the ID is used as-is
         verify(mockStatement).setString(1, "456");
     }
+
+    @Test
+    public void testEachCallReturnsItsConnection() throws SQLException {
+        // Arrange
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        // Act
+        deliveryDAO.getDeliveryById(1);
+        deliveryDAO.getDeliveryById(2);
+
+        // Assert
+        mockedDbManager.verify(DatabaseManager::getConnection, times(2));
+        verify(mockConnection, times(2)).close();
+        verify(mockStatement, times(2)).close();
+    }
 }
@@ -0,0 +1,69 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.dao.DeliveryPartitionDAO.Partition;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliveryPartitionDAO partition planning
+ */
+public class DeliveryPartitionDAOTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    @Test
+    public void testFirstRunStartsAtOldestDelivery() {
+        List<YearMonth> months = DeliveryPartitionDAO.monthsToAdd(null, LocalDate.of(2023, 11, 20), TODAY, 2);
+
+        assertEquals(YearMonth.of(2023, 11), months.get(0));
+        assertEquals(YearMonth.of(2024, 5), months.get(months.size() - 1));
+        assertEquals(7, months.size());
+    }
+
+    @Test
+    public void testLaterRunsContinueFromLastPartition() {
+        assertEquals(Arrays.asList(YearMonth.of(2024, 5), YearMonth.of(2024, 6)),
+            DeliveryPartitionDAO.monthsToAdd(LocalDate.of(2024, 5, 1), null, TODAY, 3));
+        assertTrue("Already far enough ahead",
+            DeliveryPartitionDAO.monthsToAdd(LocalDate.of(2024, 7, 1), LocalDate.of(2025, 1, 1), TODAY, 3).isEmpty());
+    }
+
+    @Test
+    public void testReorganizeSplitsFuturePartition() {
+        String sql = DeliveryPartitionDAO.reorganizeSql(Arrays.asList(YearMonth.of(2024, 12), YearMonth.of(2025, 1)));
+
+        assertEquals("ALTER TABLE deliveries REORGANIZE PARTITION p_future INTO (" +
+                     "PARTITION p202412 VALUES LESS THAN ('2025-01-01'), " +
+                     "PARTITION p202501 VALUES LESS THAN ('2025-02-01'), " +
+                     "PARTITION p_future VALUES LESS THAN (MAXVALUE))", sql);
+    }
+
+    @Test
+    public void testOnlyMonthsOutsideRetentionAreClosed() {
+        List<Partition> partitions = Arrays.asList(
+            new Partition("p202401", LocalDate.of(2024, 2, 1)),
+            new Partition("p202402", LocalDate.of(2024, 3, 1)),
+            new Partition("p202403", LocalDate.of(2024, 4, 1)),
+            new Partition("p_future", null));
+
+        assertEquals(partitions.subList(0, 1), DeliveryPartitionDAO.closedPartitions(partitions, TODAY, 2));
+        assertEquals("The current month is never closed",
+            partitions.subList(0, 2), DeliveryPartitionDAO.closedPartitions(partitions, TODAY, 0));
+        assertEquals(Collections.emptyList(), DeliveryPartitionDAO.closedPartitions(partitions, TODAY, 12));
+    }
+
+    @Test
+    public void testParseBound() {
+        assertEquals(LocalDate.of(2024, 4, 1), DeliveryPartitionDAO.parseBound("'2024-04-01'"));
+        assertNull(DeliveryPartitionDAO.parseBound("MAXVALUE"));
+        assertEquals(LocalDate.of(2024, 4, 1), DeliveryPartitionDAO.lastBound(Arrays.asList(
+            new Partition("p202403", LocalDate.of(2024, 4, 1)), new Partition("p_future", null))));
+    }
+}
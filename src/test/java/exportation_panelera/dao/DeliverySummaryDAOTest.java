@@ -0,0 +1,116 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.DeliverySummary;
+import exportation_panelera.Model.DeliverySummary.Column;
+import exportation_panelera.dao.DeliverySummaryDAO.Cursor;
+import exportation_panelera.dao.DeliverySummaryDAO.SortColumn;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliverySummaryDAO query generation and paging
+ */
+public class DeliverySummaryDAOTest {
+
+    @Test
+    public void testQueryWithoutExportationColumnsSkipsJoin() {
+        String sql = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.TRACKING_NUMBER, Column.STATUS), false);
+
+        assertEquals("SELECT d.id, d.tracking_number, d.status FROM deliveries d " +
+                     "WHERE d.id > ? ORDER BY d.id ASC LIMIT ?", sql);
+    }
+
+    @Test
+    public void testQueryWithExportationColumnsJoinsOnce() {
+        String sql = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.STATUS, Column.DESTINATION, Column.AMOUNT), true);
+
+        assertTrue("Should join exportations", sql.contains("LEFT JOIN exportations e ON e.exportation_id = d.exportation_id"));
+        assertTrue("Should select only requested columns", sql.startsWith("SELECT d.id, d.status, e.destination, e.amount FROM"));
+        assertTrue("Should filter by status", sql.contains("AND d.status = ?"));
+        assertTrue("Should use keyset paging", sql.contains("WHERE d.id > ?") && sql.endsWith("ORDER BY d.id ASC LIMIT ?"));
+        assertFalse("Should not use OFFSET", sql.contains("OFFSET"));
+    }
+
+    @Test
+    public void testNextCursor() {
+        DeliverySummary first = new DeliverySummary(7, "001", null, null, null, null, null, null, 0, null, null, null);
+        DeliverySummary last = new DeliverySummary(42, "002", null, null, null, null, null, null, 0, null, null, null);
+
+        assertEquals(42, DeliverySummaryDAO.nextCursor(Arrays.asList(first, last)));
+        assertEquals(0, DeliverySummaryDAO.nextCursor(Collections.emptyList()));
+    }
+
+    @Test
+    public void testSummaryDisplayIds() {
+        DeliverySummary summary = new DeliverySummary(12, "345", null, null, null, null, null, null, 0, null, null, null);
+
+        assertEquals("DEL000012", summary.getDeliveryId());
+        assertEquals("EXP345", summary.getExportId());
+    }
+
+    @Test
+    public void testSortedFirstPageHasNoKeysetCondition() {
+        String sql = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.DELIVERY_DATE), false,
+            SortColumn.DELIVERY_DATE, true, null);
+
+        assertEquals("SELECT d.id, d.delivery_date FROM deliveries d " +
+                     "ORDER BY d.delivery_date DESC, d.id DESC LIMIT ?", sql);
+    }
+
+    @Test
+    public void testSortedKeysetContinuesAfterValueAndId() {
+        Cursor after = new Cursor(new Date(), 42);
+
+        String ascending = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.DELIVERY_DATE), true,
+            SortColumn.DELIVERY_DATE, false, after);
+        assertTrue(ascending.contains("WHERE (d.delivery_date > ? OR (d.delivery_date = ? AND d.id > ?)) AND d.status = ?"));
+        assertTrue(ascending.endsWith("ORDER BY d.delivery_date ASC, d.id ASC LIMIT ?"));
+
+        String descending = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.DELIVERY_DATE), false,
+            SortColumn.DELIVERY_DATE, true, after);
+        assertTrue("NULLs come last when descending",
+            descending.contains("(d.delivery_date < ? OR (d.delivery_date = ? AND d.id < ?) OR d.delivery_date IS NULL)"));
+    }
+
+    @Test
+    public void testSortedKeysetInsideNullBlock() {
+        Cursor after = new Cursor(null, 7);
+
+        String ascending = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.STATUS), false,
+            SortColumn.STATUS, false, after);
+        assertTrue(ascending.contains("WHERE ((d.status IS NULL AND d.id > ?) OR d.status IS NOT NULL)"));
+
+        String descending = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.STATUS), false,
+            SortColumn.STATUS, true, after);
+        assertTrue(descending.contains("WHERE (d.status IS NULL AND d.id < ?)"));
+    }
+
+    @Test
+    public void testSortedNextCursorCarriesSortValue() {
+        Date date = new Date();
+        DeliverySummary last = new DeliverySummary(9, "001", "TRK9", "PENDING", date, null, null, null, 0, null, null, null);
+
+        assertEquals(new Cursor(date, 9), DeliverySummaryDAO.nextCursor(Collections.singletonList(last), SortColumn.DELIVERY_DATE));
+        assertEquals(new Cursor("TRK9", 9), DeliverySummaryDAO.nextCursor(Collections.singletonList(last), SortColumn.TRACKING_NUMBER));
+        assertEquals(new Cursor(null, 9), DeliverySummaryDAO.nextCursor(Collections.singletonList(last), SortColumn.ID));
+        assertNull(DeliverySummaryDAO.nextCursor(Collections.emptyList(), SortColumn.STATUS));
+    }
+
+    @Test
+    public void testArchivedQueryMergesBothTables() {
+        String sql = DeliverySummaryDAO.buildQuery(EnumSet.of(Column.STATUS, Column.DELIVERY_DATE), true,
+            SortColumn.DELIVERY_DATE, true, null, true);
+
+        assertEquals("(SELECT d.id, d.status, d.delivery_date FROM deliveries d WHERE d.status = ? " +
+                     "ORDER BY d.delivery_date DESC, d.id DESC LIMIT ?) UNION ALL " +
+                     "(SELECT d.id, d.status, d.delivery_date FROM deliveries_archive d WHERE d.status = ? " +
+                     "ORDER BY d.delivery_date DESC, d.id DESC LIMIT ?) " +
+                     "ORDER BY delivery_date DESC, id DESC LIMIT ?", sql);
+    }
+}
@@ -0,0 +1,74 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExchangeRateDAO
+ * Tests reading the effective-dated rates
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ExchangeRateDAOTest {
+
+    private ExchangeRateDAO dao;
+    private Connection mockConnection;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        mockedDbManager = mockStatic(DatabaseManager.class);
+        dao = new ExchangeRateDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    @Test
+    public void testFindAll_MapsRows() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(ExchangeRateDAO.FIND_ALL_SQL)).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getString("currency")).thenReturn("EUR");
+        when(rs.getDate("effective_date")).thenReturn(Date.valueOf("2026-07-01"));
+        when(rs.getBigDecimal("units_per_usd")).thenReturn(new BigDecimal("0.90000000"));
+
+        // Act
+        List<ExchangeRateDAO.Rate> rates = dao.findAll();
+
+        // Assert
+        assertEquals(1, rates.size());
+        assertEquals("EUR", rates.get(0).currency());
+        assertEquals(LocalDate.of(2026, 7, 1), rates.get(0).effectiveDate());
+        assertEquals(0, new BigDecimal("0.9").compareTo(rates.get(0).unitsPerUsd()));
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testFindAll_Offline() {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act & Assert
+        assertNull("Offline is not the same as no rates", dao.findAll());
+    }
+}
@@ -0,0 +1,356 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.ExportationLot;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.Model.UpdateResult;
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExportationDAO
+ * Tests batch reads, paged listings, batched upserts and rollup upkeep on writes
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ExportationDAOTest {
+
+    private ExportationDAO exportationDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private PreparedStatement rollupStatement;
+    private ResultSet mockResultSet;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        rollupStatement = mock(PreparedStatement.class);
+        mockResultSet = mock(ResultSet.class);
+
+        mockedDbManager = mockStatic(DatabaseManager.class);
+
+        exportationDAO = new ExportationDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    @Test
+    public void testFindByIds_SingleRoundTrip() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getString("exportation_id")).thenReturn("001", "002");
+
+        // Act
+        Map<String, Exportation_InfDTO> result = exportationDAO.findByIds(Arrays.asList("001", "002", "003", "001"));
+
+        // Assert
+        assertEquals("Should return the two existing exportations", 2, result.size());
+        assertTrue(result.containsKey("001"));
+        assertTrue(result.containsKey("002"));
+        verify(mockConnection, times(1)).prepareStatement(contains("IN (?,?,?,?,?,?,?,?)"));
+        verify(mockStatement).setString(1, "001");
+        verify(mockStatement).setString(2, "002");
+        verify(mockStatement).setString(3, "003");
+        for (int i = 4; i <= 8; i++) {
+            verify(mockStatement).setString(i, "003"); // Padding repeats the last ID
+        }
+    }
+
+    @Test
+    public void testFindByIds_SimilarSizesShareOneStatement() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        // Act
+        exportationDAO.findByIds(Arrays.asList("001", "002"));
+        exportationDAO.findByIds(Arrays.asList("001", "002", "003", "004", "005"));
+
+        // Assert
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(sql.capture());
+        assertEquals("Both requests should prepare the same SQL", sql.getAllValues().get(0), sql.getAllValues().get(1));
+    }
+
+    @Test
+    public void testFindByIds_EmptyCollection() {
+        // Act
+        Map<String, Exportation_InfDTO> result = exportationDAO.findByIds(Collections.emptyList());
+
+        // Assert
+        assertTrue("Should return empty map", result.isEmpty());
+        mockedDbManager.verify(DatabaseManager::getConnection, never());
+    }
+
+    @Test
+    public void testFindByIds_DatabaseUnavailable() {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act
+        Map<String, Exportation_InfDTO> result = exportationDAO.findByIds(Arrays.asList("001", "002"));
+
+        // Assert
+        assertNotNull(result);
+        assertTrue("Should return empty map when database unavailable", result.isEmpty());
+    }
+
+    @Test
+    public void testFindByStatus_BindsLimitAndOffset() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+
+        // Act
+        List<Exportation_InfDTO> page = exportationDAO.findByStatus("PENDING", 2, 50);
+
+        // Assert
+        assertTrue(page.isEmpty());
+        verify(mockStatement).setString(1, "PENDING");
+        verify(mockStatement).setInt(2, 50);
+        verify(mockStatement).setInt(3, 100);
+    }
+
+    @Test
+    public void testFindPendingLots_MapsAmountAsWeight() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(ExportationDAO.PENDING_LOTS_SQL)).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getString("exportation_id")).thenReturn("001");
+        when(mockResultSet.getString("destination")).thenReturn("Canada");
+        when(mockResultSet.getString("transport_method")).thenReturn("Sea Freight");
+        when(mockResultSet.getDate("exportation_date")).thenReturn(java.sql.Date.valueOf("2026-10-01"));
+        when(mockResultSet.getBigDecimal("amount")).thenReturn(new BigDecimal("250.00"));
+
+        // Act
+        List<ExportationLot> lots = exportationDAO.findPendingLots(LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 31));
+
+        // Assert
+        assertEquals(List.of(new ExportationLot("001", "Canada", "Sea Freight", LocalDate.of(2026, 10, 1),
+            new BigDecimal("250.00"))), lots);
+        verify(mockStatement).setDate(1, java.sql.Date.valueOf("2026-10-01"));
+        verify(mockStatement).setDate(2, java.sql.Date.valueOf("2026-10-31"));
+    }
+
+    /**
+     * Hand out mockStatement for the exportation write and rollupStatement for
+     * everything else (the shipment rollup statements)
+     */
+    private void stubWriteAndRollupStatements(String writeSql) throws SQLException {
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString())).thenAnswer(invocation ->
+            writeSql.equals(invocation.getArgument(0)) ? mockStatement : rollupStatement);
+    }
+
+    @Test
+    public void testUpsertAll_UsesOneBatchAndOneCommit() throws SQLException {
+        // Arrange
+        stubWriteAndRollupStatements(ExportationDAO.UPSERT_SQL);
+
+        Exportation_InfDTO first = new Exportation_InfDTO("001", "Panela", 100.0, "Canada");
+        Exportation_InfDTO second = new Exportation_InfDTO("002", "Panela", 250.0, "Mexico");
+
+        // Act
+        int saved = exportationDAO.upsertAll(Arrays.asList(first, second));
+
+        // Assert
+        assertEquals(2, saved);
+        verify(mockConnection, times(1)).prepareStatement(ExportationDAO.UPSERT_SQL);
+        verify(mockStatement, times(2)).addBatch();
+        verify(mockStatement, times(1)).executeBatch();
+        verify(mockConnection).commit();
+        verify(mockConnection).setAutoCommit(true);
+    }
+
+    @Test
+    public void testUpsertAll_ReplacesRollupContributionsBeforeCommit() throws SQLException {
+        // Arrange
+        stubWriteAndRollupStatements(ExportationDAO.UPSERT_SQL);
+
+        // Act
+        exportationDAO.upsertAll(Arrays.asList(
+            new Exportation_InfDTO("001", "Panela", 100.0, "Canada"),
+            new Exportation_InfDTO("001", "Panela", 120.0, "Canada"),
+            new Exportation_InfDTO("002", "Panela", 250.0, "Mexico")));
+
+        // Assert
+        InOrder inOrder = inOrder(mockConnection, mockStatement);
+        inOrder.verify(mockStatement).executeBatch();
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.SUBTRACT_ONE_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.ADD_ONE_SQL);
+        inOrder.verify(mockConnection).commit();
+        // Four rollup statements, each batched once per distinct ID
+        verify(rollupStatement, times(4)).setString(1, "001");
+        verify(rollupStatement, times(4)).setString(1, "002");
+        verify(rollupStatement, times(4)).executeBatch();
+    }
+
+    @Test
+    public void testWriteListenersAreToldAfterCommit() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+
+        List<String> written = new ArrayList<>();
+        ExportationDAO.WriteListener listener = written::add;
+        ExportationDAO.addWriteListener(listener);
+        try {
+            // Act
+            exportationDAO.upsertAll(Arrays.asList(
+                new Exportation_InfDTO("001", "Panela", 100.0, "Canada"),
+                new Exportation_InfDTO("002", "Panela", 250.0, "Mexico")));
+            exportationDAO.update(new Exportation_InfDTO("003", "Panela", 80.0, "Chile"));
+            exportationDAO.delete("004");
+        } finally {
+            ExportationDAO.removeWriteListener(listener);
+        }
+
+        // Assert
+        assertEquals(Arrays.asList("001", "002", "003", "004"), written);
+    }
+
+    @Test
+    public void testUpsertAll_RollsBackOnError() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeBatch()).thenThrow(new SQLException("Duplicate entry"));
+
+        // Act
+        int saved = exportationDAO.upsertAll(Collections.singletonList(
+            new Exportation_InfDTO("001", "Panela", 100.0, "Canada")));
+
+        // Assert
+        assertEquals("Nothing should be reported as saved", 0, saved);
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    public void testUpdateIfCurrent_ComparesVersion() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+
+        Exportation_InfDTO exportation = new Exportation_InfDTO("001", "Panela", 100.0, "Canada");
+        exportation.setVersion(4);
+
+        // Act
+        UpdateResult<Exportation_InfDTO> result = exportationDAO.updateIfCurrent(exportation);
+
+        // Assert
+        assertEquals(UpdateResult.Status.UPDATED, result.status());
+        verify(mockConnection).prepareStatement(contains("WHERE exportation_id = ? AND version = ?"));
+        verify(mockStatement).setString(18, "001");
+        verify(mockStatement).setInt(19, 4);
+        assertEquals(5, exportation.getVersion());
+    }
+
+    @Test
+    public void testUpdateIfCurrent_UpdatesRollupInSameTransaction() throws SQLException {
+        // Arrange
+        stubWriteAndRollupStatements(ExportationDAO.UPDATE_SQL);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+
+        Exportation_InfDTO exportation = new Exportation_InfDTO("001", "Panela", 100.0, "Canada");
+        exportation.setVersion(4);
+
+        // Act
+        UpdateResult<Exportation_InfDTO> result = exportationDAO.updateIfCurrent(exportation);
+
+        // Assert
+        assertEquals(UpdateResult.Status.UPDATED, result.status());
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).setAutoCommit(false);
+        inOrder.verify(mockConnection).prepareStatement(ExportationDAO.UPDATE_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.SUBTRACT_ONE_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.DELETE_CONTRIBUTION_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.INSERT_ONE_CONTRIBUTION_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.ADD_ONE_SQL);
+        inOrder.verify(mockConnection).commit();
+        inOrder.verify(mockConnection).setAutoCommit(true);
+        verify(rollupStatement, times(4)).setString(1, "001");
+    }
+
+    @Test
+    public void testUpdateIfCurrent_RollupFailureRollsBackTheUpdate() throws SQLException {
+        // Arrange
+        stubWriteAndRollupStatements(ExportationDAO.UPDATE_SQL);
+        when(mockStatement.executeUpdate()).thenReturn(1);
+        when(rollupStatement.executeBatch()).thenThrow(new SQLException("Lock wait timeout"));
+
+        Exportation_InfDTO exportation = new Exportation_InfDTO("001", "Panela", 100.0, "Canada");
+        exportation.setVersion(4);
+
+        // Act
+        UpdateResult<Exportation_InfDTO> result = exportationDAO.updateIfCurrent(exportation);
+
+        // Assert
+        assertEquals(UpdateResult.Status.FAILED, result.status());
+        assertEquals("Version stays as read", 4, exportation.getVersion());
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    public void testUpdateIfCurrent_ConflictReturnsCurrentRow() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeUpdate()).thenReturn(0);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getString("exportation_id")).thenReturn("001");
+        when(mockResultSet.getInt("version")).thenReturn(7);
+
+        Exportation_InfDTO exportation = new Exportation_InfDTO("001", "Panela", 100.0, "Canada");
+        exportation.setVersion(4);
+
+        // Act
+        UpdateResult<Exportation_InfDTO> result = exportationDAO.updateIfCurrent(exportation);
+
+        // Assert
+        assertEquals(UpdateResult.Status.CONFLICT, result.status());
+        assertEquals(7, result.current().getVersion());
+        assertEquals("Stale copy keeps its version", 4, exportation.getVersion());
+        verify(mockConnection, never()).prepareStatement(ShipmentRollupDAO.SUBTRACT_ONE_SQL);
+    }
+}
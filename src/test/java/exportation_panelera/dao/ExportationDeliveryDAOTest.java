@@ -0,0 +1,144 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.*;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExportationDeliveryDAO
+ * Tests that an exportation and its delivery are saved in one transaction
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ExportationDeliveryDAOTest {
+
+    private ExportationDeliveryDAO dao;
+    private Connection mockConnection;
+    private PreparedStatement exportationStatement;
+    private PreparedStatement deliveryStatement;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() throws SQLException {
+        mockConnection = mock(Connection.class);
+        exportationStatement = mock(PreparedStatement.class);
+        deliveryStatement = mock(PreparedStatement.class);
+
+        mockedDbManager = mockStatic(DatabaseManager.class);
+
+        dao = new ExportationDeliveryDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    private void stubTransaction() throws SQLException {
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(ExportationDeliveryDAO.INSERT_EXPORTATION_SQL,
+            Statement.RETURN_GENERATED_KEYS)).thenReturn(exportationStatement);
+        when(mockConnection.prepareStatement(ExportationDeliveryDAO.INSERT_DELIVERY_SQL,
+            Statement.RETURN_GENERATED_KEYS)).thenReturn(deliveryStatement);
+    }
+
+    private static ResultSet keys(int key) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getInt(1)).thenReturn(key);
+        return rs;
+    }
+
+    private static Exportation_InfDTO exportation() {
+        Exportation_InfDTO exportation = new Exportation_InfDTO();
+        exportation.setExportationId("1234");
+        exportation.setProductType("Panela");
+        exportation.setAmount(100.0);
+        exportation.setExportationDate(new Date());
+        return exportation;
+    }
+
+    private static Delivery_InfDTO delivery() {
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setTrackingNumber("TRK-1");
+        delivery.setStatus("Pending");
+        return delivery;
+    }
+
+    @Test
+    public void testInsert_BothRowsInOneTransaction() throws SQLException {
+        // Arrange
+        stubTransaction();
+        ResultSet exportationKeys = keys(41);
+        ResultSet deliveryKeys = keys(77);
+        when(exportationStatement.getGeneratedKeys()).thenReturn(exportationKeys);
+        when(deliveryStatement.getGeneratedKeys()).thenReturn(deliveryKeys);
+        Exportation_InfDTO exportation = exportation();
+        Delivery_InfDTO delivery = delivery();
+
+        // Act
+        ExportationDeliveryDAO.SaveResult result = dao.insert(exportation, delivery);
+
+        // Assert
+        assertNotNull("Save should succeed", result);
+        assertEquals(41, result.exportationKey());
+        assertEquals(77, result.deliveryKey());
+        assertEquals(41, exportation.getId());
+        assertEquals(77, delivery.getId());
+
+        mockedDbManager.verify(DatabaseManager::getConnection, times(1));
+        verify(deliveryStatement).setString(1, "1234");
+        verify(mockConnection).setAutoCommit(false);
+        verify(mockConnection, times(1)).commit();
+        verify(mockConnection, never()).rollback();
+        verify(mockConnection).setAutoCommit(true);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testInsert_DeliveryFailureRollsBackExportation() throws SQLException {
+        // Arrange
+        stubTransaction();
+        ResultSet exportationKeys = keys(41);
+        when(exportationStatement.getGeneratedKeys()).thenReturn(exportationKeys);
+        when(deliveryStatement.executeUpdate()).thenThrow(new SQLException("Data too long"));
+        Exportation_InfDTO exportation = exportation();
+
+        // Act
+        ExportationDeliveryDAO.SaveResult result = dao.insert(exportation, delivery());
+
+        // Assert
+        assertNull("Nothing should be saved", result);
+        assertEquals("Exportation should not take a key that was rolled back", 0, exportation.getId());
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testInsert_Offline() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act
+        ExportationDeliveryDAO.SaveResult result = dao.insert(exportation(), delivery());
+
+        // Assert
+        assertNull(result);
+        verify(mockConnection, never()).prepareStatement(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,125 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdSequenceDAO
+ * Tests that a block of IDs is reserved with one statement
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class IdSequenceDAOTest {
+
+    private IdSequenceDAO dao;
+    private Connection mockConnection;
+    private PreparedStatement reserveStatement;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        reserveStatement = mock(PreparedStatement.class);
+
+        mockedDbManager = mockStatic(DatabaseManager.class);
+
+        dao = new IdSequenceDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    private void stubReserve(int updated) throws SQLException {
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(IdSequenceDAO.RESERVE_SQL, Statement.RETURN_GENERATED_KEYS))
+            .thenReturn(reserveStatement);
+        when(reserveStatement.executeUpdate()).thenReturn(updated);
+    }
+
+    @Test
+    public void testReserve_ReturnsFirstIdOfBlock() throws SQLException {
+        // Arrange
+        stubReserve(1);
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.next()).thenReturn(true);
+        when(keys.getLong(1)).thenReturn(201L);
+        when(reserveStatement.getGeneratedKeys()).thenReturn(keys);
+
+        // Act
+        long first = dao.reserve("exportation", 100);
+
+        // Assert
+        assertEquals("Sequence moved from 101 to 201", 101, first);
+        verify(reserveStatement).setInt(1, 100);
+        verify(reserveStatement).setString(2, "exportation");
+        verify(mockConnection, never()).prepareStatement(IdSequenceDAO.LAST_VALUE_SQL);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testReserve_UnknownSequence() throws SQLException {
+        // Arrange
+        stubReserve(0);
+
+        // Act
+        long first = dao.reserve("missing", 10);
+
+        // Assert
+        assertEquals(-1, first);
+        verify(reserveStatement, never()).getGeneratedKeys();
+    }
+
+    @Test
+    public void testReserve_Offline() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act
+        long first = dao.reserve("exportation", 10);
+
+        // Assert
+        assertEquals(-1, first);
+        verify(mockConnection, never()).prepareStatement(anyString(), anyInt());
+    }
+
+    @Test
+    public void testReserveOrCreate_NewSequenceStartsAtOne() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        PreparedStatement upsert = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(IdSequenceDAO.RESERVE_OR_CREATE_SQL, Statement.RETURN_GENERATED_KEYS))
+            .thenReturn(upsert);
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.next()).thenReturn(true);
+        when(keys.getLong(1)).thenReturn(501L);
+        when(upsert.getGeneratedKeys()).thenReturn(keys);
+
+        // Act
+        long first = dao.reserveOrCreate("tracking:US:261019", 500);
+
+        // Assert
+        assertEquals(1, first);
+        verify(upsert).setString(1, "tracking:US:261019");
+        verify(upsert).setInt(2, 500);
+        verify(upsert).setInt(3, 500);
+        verify(mockConnection).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReserve_RejectsEmptyBlock() {
+        dao.reserve("exportation", 0);
+    }
+}
@@ -0,0 +1,118 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.Model.DeliverySummary.Column;
+import exportation_panelera.dao.DeliverySummaryDAO.Cursor;
+import exportation_panelera.dao.DeliverySummaryDAO.SortColumn;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Query plan regression tests
+ * Runs EXPLAIN on the SQL the DAOs generate and fails if any search reads a
+ * table with a full scan. Needs a MySQL database migrated to the latest
+ * version and holding a realistic amount of data (on near-empty tables the
+ * optimizer prefers a full scan whatever the indexes), so it is skipped
+ * unless one is given:
+ *
+ * mvn test -Dtest=QueryPlanTest -Dqueryplan.jdbc.url=jdbc:mysql://localhost:3306/exportation_panelera
+ *     -Dqueryplan.jdbc.user=... -Dqueryplan.jdbc.password=...
+ */
+public class QueryPlanTest {
+
+    private static final Date DAY = Date.valueOf("2024-03-01");
+    private static final Timestamp MOMENT = Timestamp.valueOf("2024-03-01 10:00:00");
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        String url = System.getProperty("queryplan.jdbc.url");
+        Assume.assumeTrue("No database given for query plan tests", url != null && !url.isEmpty());
+        connection = DriverManager.getConnection(url,
+            System.getProperty("queryplan.jdbc.user", "root"),
+            System.getProperty("queryplan.jdbc.password", ""));
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Explain a query with sample parameter values and return the tables it
+     * reads with a full scan
+     */
+    private List<String> fullScans(String sql, Object... params) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String table = rs.getString("table");
+                    // Derived tables and unions are materialized and always scanned
+                    if ("ALL".equals(rs.getString("type")) && table != null && !table.startsWith("<")) {
+                        tables.add(table);
+                    }
+                }
+            }
+        }
+        return tables;
+    }
+
+    private void assertUsesIndexes(String sql, Object... params) throws SQLException {
+        assertEquals("Full table scan in: " + sql, new ArrayList<String>(), fullScans(sql, params));
+    }
+
+    @Test
+    public void testDeliveryListPagesUseIndexes() throws SQLException {
+        EnumSet<Column> columns = EnumSet.allOf(Column.class);
+
+        for (SortColumn sort : SortColumn.values()) {
+            Object value = sort == SortColumn.DELIVERY_DATE ? DAY : sort == SortColumn.ID ? null : "X";
+            Cursor after = new Cursor(value, 1000);
+
+            for (boolean descending : new boolean[] {false, true}) {
+                assertUsesIndexes(DeliverySummaryDAO.buildQuery(columns, false, sort, descending, null), 100);
+                assertUsesIndexes(DeliverySummaryDAO.buildQuery(columns, true, sort, descending, null), "PENDING", 100);
+
+                String paged = DeliverySummaryDAO.buildQuery(columns, true, sort, descending, after);
+                String archived = DeliverySummaryDAO.buildQuery(columns, true, sort, descending, after, true);
+                if (value != null) {
+                    assertUsesIndexes(paged, value, value, 1000, "PENDING", 100);
+                    assertUsesIndexes(archived, value, value, 1000, "PENDING", 100,
+                        value, value, 1000, "PENDING", 100, 100);
+                } else {
+                    assertUsesIndexes(paged, 1000, "PENDING", 100);
+                    assertUsesIndexes(archived, 1000, "PENDING", 100, 1000, "PENDING", 100, 100);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testExportationListingsUseIndexes() throws SQLException {
+        assertUsesIndexes(ExportationDAO.FIND_BY_ID_SQL, "001");
+        assertUsesIndexes(ExportationDAO.LIST_BY_STATUS_SQL, "PENDING", 50, 0);
+        assertUsesIndexes(ExportationDAO.LIST_BY_DATE_SQL, DAY, Date.valueOf("2024-03-31"), 50, 0);
+    }
+
+    @Test
+    public void testChangeFeedsUseIndexes() throws SQLException {
+        assertUsesIndexes(ReplicaDAO.DELIVERIES_CHANGED_SQL, MOMENT, MOMENT, 0, 1000);
+        assertUsesIndexes(ReplicaDAO.EXPORTATIONS_CHANGED_SQL, MOMENT, MOMENT, 0, 1000);
+        assertUsesIndexes(DeliveryChangeDAO.CHANGES_AFTER_SQL, 0L, 500);
+    }
+}
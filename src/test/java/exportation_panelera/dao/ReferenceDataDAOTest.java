@@ -0,0 +1,71 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReferenceDataDAO
+ * Tests reading the reference values
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReferenceDataDAOTest {
+
+    private ReferenceDataDAO dao;
+    private Connection mockConnection;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        mockedDbManager = mockStatic(DatabaseManager.class);
+        dao = new ReferenceDataDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    @Test
+    public void testFindActive_MapsRows() throws SQLException {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(ReferenceDataDAO.FIND_ACTIVE_SQL)).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getString("kind")).thenReturn(ReferenceDataDAO.DESTINATION, ReferenceDataDAO.CARRIER);
+        when(rs.getString("value")).thenReturn("Canada", "DHL");
+        when(rs.getString("code")).thenReturn("CA", (String) null);
+
+        // Act
+        List<ReferenceDataDAO.Entry> entries = dao.findActive();
+
+        // Assert
+        assertEquals(List.of(
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.DESTINATION, "Canada", "CA"),
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "DHL", null)), entries);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testFindActive_Offline() {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act & Assert
+        assertNull(dao.findActive());
+    }
+}
@@ -0,0 +1,142 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.*;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShipmentRollupDAO
+ * Tests the order of the delta steps, watermark handling, rollback and
+ * per-row contribution replacement
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ShipmentRollupDAOTest {
+
+    private static final Timestamp WATERMARK = Timestamp.valueOf("2024-03-01 10:00:00");
+    private static final Timestamp CUT_OFF = Timestamp.valueOf("2024-03-01 10:05:00");
+
+    private ShipmentRollupDAO rollupDAO;
+    private Connection mockConnection;
+    private PreparedStatement mockStatement;
+    private Statement mockPlainStatement;
+    private ResultSet mockResultSet;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        mockStatement = mock(PreparedStatement.class);
+        mockPlainStatement = mock(Statement.class);
+        mockResultSet = mock(ResultSet.class);
+
+        mockedDbManager = mockStatic(DatabaseManager.class);
+
+        rollupDAO = new ShipmentRollupDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    private void stubWatermark(Timestamp from, Timestamp to) throws SQLException {
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        when(mockConnection.getAutoCommit()).thenReturn(true);
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+        when(mockStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getTimestamp(1)).thenReturn(from);
+        when(mockResultSet.getTimestamp(2)).thenReturn(to);
+    }
+
+    @Test
+    public void testApplyDelta_SubtractsThenAddsAndAdvancesWatermark() throws SQLException {
+        // Arrange
+        stubWatermark(WATERMARK, CUT_OFF);
+        when(mockConnection.createStatement()).thenReturn(mockPlainStatement);
+
+        // Act
+        boolean result = rollupDAO.applyDelta();
+
+        // Assert
+        assertTrue(result);
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.SUBTRACT_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.UPSERT_CONTRIBUTIONS_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.ADD_SQL);
+        inOrder.verify(mockConnection).commit();
+        verify(mockStatement, times(3)).setTimestamp(2, CUT_OFF);
+        verify(mockStatement).setTimestamp(1, CUT_OFF);
+        verify(mockConnection).setAutoCommit(true);
+    }
+
+    @Test
+    public void testApplyDelta_NothingPending() throws SQLException {
+        // Arrange
+        stubWatermark(CUT_OFF, CUT_OFF);
+
+        // Act
+        boolean result = rollupDAO.applyDelta();
+
+        // Assert
+        assertTrue("Rollups should be reported as current", result);
+        verify(mockConnection, never()).prepareStatement(ShipmentRollupDAO.SUBTRACT_SQL);
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    public void testApplyDelta_RollsBackOnError() throws SQLException {
+        // Arrange
+        stubWatermark(WATERMARK, CUT_OFF);
+        when(mockStatement.executeUpdate()).thenThrow(new SQLException("Lock wait timeout"));
+
+        // Act
+        boolean result = rollupDAO.applyDelta();
+
+        // Assert
+        assertFalse(result);
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    public void testReplaceContributions_SubtractsBeforeAdding() throws SQLException {
+        // Arrange
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockStatement);
+
+        // Act
+        rollupDAO.replaceContributions(mockConnection, Arrays.asList("001", "002", "001"));
+
+        // Assert
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.SUBTRACT_ONE_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.DELETE_CONTRIBUTION_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.INSERT_ONE_CONTRIBUTION_SQL);
+        inOrder.verify(mockConnection).prepareStatement(ShipmentRollupDAO.ADD_ONE_SQL);
+        verify(mockStatement, times(4)).setString(1, "001"); // Once per statement, not per repeat
+        verify(mockStatement, times(4)).setString(1, "002");
+        verify(mockStatement, times(4)).executeBatch();
+        verify(mockConnection, never()).commit(); // Left to the writing transaction
+    }
+
+    @Test
+    public void testApplyDelta_DatabaseUnavailable() {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act & Assert
+        assertFalse(rollupDAO.applyDelta());
+    }
+}
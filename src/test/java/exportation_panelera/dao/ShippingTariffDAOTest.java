@@ -0,0 +1,96 @@
+package exportation_panelera.dao;
+
+import exportation_panelera.db.DatabaseManager;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShippingTariffDAO
+ * Tests reading the tariff bands and surcharges
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ShippingTariffDAOTest {
+
+    private ShippingTariffDAO dao;
+    private Connection mockConnection;
+    private MockedStatic<DatabaseManager> mockedDbManager;
+
+    @Before
+    public void setUp() {
+        mockConnection = mock(Connection.class);
+        mockedDbManager = mockStatic(DatabaseManager.class);
+        dao = new ShippingTariffDAO();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockedDbManager != null) {
+            mockedDbManager.close();
+        }
+    }
+
+    private ResultSet stubQuery(String sql) throws SQLException {
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(mockConnection);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(mockConnection.prepareStatement(sql)).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        return rs;
+    }
+
+    @Test
+    public void testFindBands_MapsRows() throws SQLException {
+        // Arrange
+        ResultSet rs = stubQuery(ShippingTariffDAO.FIND_BANDS_SQL);
+        when(rs.getString("shipping_method")).thenReturn("Air Freight");
+        when(rs.getString("band_type")).thenReturn("WEIGHT");
+        when(rs.getBigDecimal("from_value")).thenReturn(new BigDecimal("100.00"));
+        when(rs.getBigDecimal("rate")).thenReturn(new BigDecimal("8.0000"));
+
+        // Act
+        List<ShippingTariffDAO.Band> bands = dao.findBands();
+
+        // Assert
+        assertEquals(1, bands.size());
+        assertEquals(ShippingTariffDAO.WEIGHT, bands.get(0).type());
+        assertEquals(0, new BigDecimal("100").compareTo(bands.get(0).from()));
+        verify(mockConnection).close();
+    }
+
+    @Test
+    public void testFindSurcharges_MapsRows() throws SQLException {
+        // Arrange
+        ResultSet rs = stubQuery(ShippingTariffDAO.FIND_SURCHARGES_SQL);
+        when(rs.getString("shipping_method")).thenReturn("Air Freight");
+        when(rs.getString("name")).thenReturn("Fuel");
+        when(rs.getBigDecimal("percent")).thenReturn(new BigDecimal("12.500"));
+        when(rs.getBigDecimal("flat_fee")).thenReturn(BigDecimal.ZERO);
+
+        // Act
+        List<ShippingTariffDAO.Surcharge> surcharges = dao.findSurcharges();
+
+        // Assert
+        assertEquals(1, surcharges.size());
+        assertEquals("Fuel", surcharges.get(0).name());
+    }
+
+    @Test
+    public void testOffline() {
+        // Arrange
+        mockedDbManager.when(DatabaseManager::getConnection).thenReturn(null);
+
+        // Act & Assert
+        assertNull(dao.findBands());
+        assertNull(dao.findSurcharges());
+    }
+}
@@ -0,0 +1,87 @@
+package exportation_panelera.db;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for StatementCache
+ * Tests that statements are prepared on the given connection and that IN
+ * lists are padded to a few fixed sizes
+ */
+public class StatementCacheTest {
+
+    /**
+     * Connection that records the SQL it is asked to prepare
+     */
+    private static Connection connection(List<String> prepared) {
+        return (Connection) Proxy.newProxyInstance(StatementCacheTest.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "prepareStatement" -> {
+                    prepared.add((String) args[0]);
+                    yield Proxy.newProxyInstance(StatementCacheTest.class.getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class}, (p, m, a) -> null);
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+
+    @Test
+    public void testPrepareUsesTheGivenConnection() throws SQLException {
+        List<String> prepared = new ArrayList<>();
+        Connection conn = connection(prepared);
+
+        assertNotNull(StatementCache.prepare(conn, "SELECT 1"));
+        assertNotNull(StatementCache.prepare(conn, "INSERT INTO t VALUES (1)", 1));
+
+        assertEquals(List.of("SELECT 1", "INSERT INTO t VALUES (1)"), prepared);
+    }
+
+    @Test
+    public void testInListSizeRoundsUpToAFixedSize() {
+        assertEquals(1, StatementCache.inListSize(1));
+        assertEquals(8, StatementCache.inListSize(2));
+        assertEquals(8, StatementCache.inListSize(8));
+        assertEquals(32, StatementCache.inListSize(9));
+        assertEquals(128, StatementCache.inListSize(100));
+        assertEquals(500, StatementCache.inListSize(129));
+        assertEquals(500, StatementCache.inListSize(StatementCache.maxInListSize()));
+    }
+
+    @Test
+    public void testEveryBatchSizeMapsToFewStatements() {
+        Set<String> sql = new HashSet<>();
+        for (int count = 1; count <= StatementCache.maxInListSize(); count++) {
+            sql.add("IN (" + StatementCache.placeholders(StatementCache.inListSize(count)) + ")");
+        }
+
+        assertEquals(StatementCache.IN_LIST_SIZES.length, sql.size());
+    }
+
+    @Test
+    public void testPlaceholders() {
+        assertEquals("?", StatementCache.placeholders(1));
+        assertEquals("?,?,?", StatementCache.placeholders(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInListSizeRejectsOversizedLists() {
+        StatementCache.inListSize(StatementCache.maxInListSize() + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInListSizeRejectsEmptyLists() {
+        StatementCache.inListSize(0);
+    }
+}
@@ -0,0 +1,289 @@
+package exportation_panelera.search;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.dao.ReferenceDataDAO;
+import exportation_panelera.service.ReferenceData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliveryColumnStore
+ * Tests field searches, status bitmaps, dictionary filters, date ranges and
+ * incremental snapshot updates
+ */
+public class DeliveryColumnStoreTest {
+
+    private DeliveryColumnStore store;
+
+    @Before
+    public void setUp() {
+        Delivery_InfDTO first = delivery(1, "DEL001", "EXP001", "TRK123456", "DELIVERED",
+            "Left at front desk", LocalDate.of(2024, 3, 1));
+        first.setShippingMethod("Air");
+        first.setCarrierName("DHL");
+
+        Delivery_InfDTO second = delivery(2, "DEL002", "EXP002", "TRK789012", "IN_TRANSIT",
+            "Fragile - handle with care", LocalDate.of(2024, 3, 15));
+        second.setShippingMethod("Sea");
+        second.setCarrierName("Maersk");
+
+        Delivery_InfDTO third = delivery(3, "DEL003", "EXP003", "TRK345678", "delivered",
+            null, null);
+        third.setShippingMethod("AIR");
+        third.setCarrierName("FedEx");
+
+        store = new DeliveryColumnStore(Arrays.asList(first, null, second, third));
+    }
+
+    private static Delivery_InfDTO delivery(int id, String deliveryId, String exportId, String tracking,
+                                            String status, String notes, LocalDate date) {
+        Date deliveryDate = date != null
+            ? Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant())
+            : null;
+        Delivery_InfDTO delivery = new Delivery_InfDTO(deliveryId, exportId, tracking, status, notes, deliveryDate);
+        delivery.setId(id);
+        return delivery;
+    }
+
+    private static List<Integer> ids(DeliveryColumnStore store, BitSet positions) {
+        Integer[] ids = new Integer[positions.cardinality()];
+        int i = 0;
+        for (int row = positions.nextSetBit(0); row >= 0; row = positions.nextSetBit(row + 1)) {
+            ids[i++] = store.idAt(row);
+        }
+        return Arrays.asList(ids);
+    }
+
+    @Test
+    public void testNullRowsAreSkipped() {
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    public void testSearchSingleFieldIgnoresCase() {
+        assertEquals(Collections.singletonList(2), ids(store, store.search("Tracking Number", "789")));
+        assertEquals(Collections.singletonList(2), ids(store, store.search("Notes", "FRAGILE")));
+        assertEquals(Collections.singletonList(3), ids(store, store.search("Export ID", "exp003")));
+    }
+
+    @Test
+    public void testSearchAllFieldsIncludesStatus() {
+        assertEquals(Arrays.asList(1, 3), ids(store, store.search("All Fields", "deliver")));
+        assertEquals(Arrays.asList(1, 2, 3), ids(store, store.search("All Fields", "del0")));
+    }
+
+    @Test
+    public void testEmptySearchMatchesEverything() {
+        assertEquals(3, store.search("Notes", "").cardinality());
+    }
+
+    @Test
+    public void testWithStatusUsesBitmapsAcrossCase() {
+        assertEquals(Arrays.asList(1, 3), ids(store, store.withStatus("DELIVERED")));
+        assertEquals(Arrays.asList(1, 2, 3), ids(store, store.withStatus("delivered", "in_transit")));
+        assertTrue(store.withStatus("CANCELLED").isEmpty());
+    }
+
+    @Test
+    public void testDictionaryFiltersCombineWithAnd() {
+        BitSet air = store.withShippingMethod("air");
+        assertEquals(Arrays.asList(1, 3), ids(store, air));
+
+        air.and(store.withCarrier("dhl"));
+        assertEquals(Collections.singletonList(1), ids(store, air));
+    }
+
+    @Test
+    public void testDeliveredBetween() {
+        BitSet march = store.deliveredBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10));
+        assertEquals(Collections.singletonList(1), ids(store, march));
+
+        BitSet open = store.deliveredBetween(null, null);
+        assertEquals("Rows without a date never match a range", Arrays.asList(1, 2), ids(store, open));
+    }
+
+    @Test
+    public void testSearchWithinRefinesEarlierResult() {
+        BitSet previous = store.search("Tracking Number", "trk");
+        previous.clear(1); // pretend the second row did not match before
+
+        BitSet refined = store.search("Tracking Number", "trk7", previous);
+
+        assertTrue("Only rows from the earlier result are tested", refined.isEmpty());
+        assertEquals(Arrays.asList(1, 3), ids(store, store.search("All Fields", "deliver", store.all())));
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testScanStopsWhenInterrupted() {
+        Delivery_InfDTO[] many = new Delivery_InfDTO[10000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = delivery(i + 1, "DEL" + i, "EXP" + i, "TRK" + i, "PENDING", "note " + i, null);
+        }
+        DeliveryColumnStore large = new DeliveryColumnStore(Arrays.asList(many));
+
+        Thread.currentThread().interrupt();
+        try {
+            large.search("Notes", "no match");
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testRowsKeepSnapshotOrder() {
+        List<Delivery_InfDTO> rows = store.rows(store.search("Tracking Number", "trk"));
+        assertEquals(3, rows.size());
+        assertEquals("DEL001", rows.get(0).getDeliveryId());
+        assertEquals("DEL003", rows.get(2).getDeliveryId());
+    }
+
+    @Test
+    public void testWithChangesReplacesAddsAndRemoves() {
+        Delivery_InfDTO updated = delivery(2, "DEL002", "EXP002", "TRK789012", "DELIVERED", "Signed", null);
+        Delivery_InfDTO added = delivery(4, "DEL004", "EXP004", "TRK000004", "PENDING", null, null);
+
+        DeliveryColumnStore next = store.withChanges(Arrays.asList(updated, added), Collections.singleton(1));
+
+        assertEquals(3, store.size());
+        assertEquals(Arrays.asList(2, 3, 4), ids(next, next.all()));
+        assertEquals(Arrays.asList(2, 3), ids(next, next.withStatus("DELIVERED")));
+    }
+
+    @Test
+    public void testWithChangesSharesUntouchedColumns() {
+        Delivery_InfDTO renoted = delivery(2, "DEL002", "EXP002", "TRK789012", "IN_TRANSIT",
+            "Signed by reception", LocalDate.of(2024, 3, 15));
+        renoted.setShippingMethod("Sea");
+        renoted.setCarrierName("Maersk");
+
+        DeliveryColumnStore next = store.withChanges(Collections.singletonList(renoted), Collections.emptySet());
+
+        Object[] before = store.columns();
+        Object[] after = next.columns();
+        assertNotSame("Rows are patched", before[0], after[0]);
+        assertNotSame("Notes are patched", before[6], after[6]);
+        for (int column = 1; column < before.length; column++) {
+            if (column != 6) {
+                assertSame("Column " + column + " should be shared", before[column], after[column]);
+            }
+        }
+        assertEquals(Collections.singletonList(2), ids(next, next.search("Notes", "reception")));
+        assertEquals("The old snapshot keeps its notes", Collections.singletonList(2),
+            ids(store, store.search("Notes", "fragile")));
+    }
+
+    @Test
+    public void testWithChangesLeavesOldSnapshotAlone() {
+        Delivery_InfDTO returned = delivery(1, "DEL001", "EXP001", "TRK123456", "RETURNED", null,
+            LocalDate.of(2024, 4, 2));
+        returned.setCarrierName("UPS");
+
+        DeliveryColumnStore next = store.withChanges(Collections.singletonList(returned), null);
+
+        assertEquals(Collections.singletonList(1), ids(next, next.withStatus("RETURNED")));
+        assertEquals(Collections.singletonList(1), ids(next, next.withCarrier("ups")));
+        assertEquals(Collections.singletonList(1), ids(next, next.deliveryDateContaining("apr 02")));
+        assertEquals(Collections.singletonList(3), ids(next, next.withStatus("DELIVERED")));
+
+        assertTrue(store.withStatus("RETURNED").isEmpty());
+        assertTrue(store.withCarrier("ups").isEmpty());
+        assertTrue(store.deliveryDateContaining("apr 02").isEmpty());
+        assertEquals(Arrays.asList(1, 3), ids(store, store.withStatus("DELIVERED")));
+    }
+
+    @Test
+    public void testWithChangesMatchesFullRebuild() {
+        String[] statuses = {"PENDING", "IN_TRANSIT", "DELIVERED", "RETURNED", "CANCELLED"};
+        String[] carriers = {"DHL", "Maersk", "FedEx", "UPS"};
+        Random random = new Random(42);
+        Map<Integer, Delivery_InfDTO> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            expected.put(store.idAt(i), store.row(i));
+        }
+
+        DeliveryColumnStore patched = store;
+        for (int round = 0; round < 50; round++) {
+            List<Delivery_InfDTO> changed = new ArrayList<>();
+            Set<Integer> deleted = new HashSet<>();
+            for (int i = 0; i < 4; i++) {
+                int id = 1 + random.nextInt(40);
+                if (random.nextInt(4) == 0) {
+                    deleted.add(id);
+                } else {
+                    Delivery_InfDTO delivery = delivery(id, "DEL" + id, "EXP" + random.nextInt(10),
+                        "TRK" + round + "-" + id, statuses[random.nextInt(statuses.length)], "note " + round,
+                        random.nextBoolean() ? LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28)) : null);
+                    delivery.setCarrierName(carriers[random.nextInt(carriers.length)]);
+                    changed.add(delivery);
+                }
+            }
+
+            patched = patched.withChanges(changed, deleted);
+
+            // Same rules as withChanges: replaced rows stay put, new ones go last
+            for (Integer id : deleted) {
+                expected.remove(id);
+            }
+            for (Delivery_InfDTO delivery : changed) {
+                expected.put(delivery.getId(), delivery);
+            }
+            DeliveryColumnStore rebuilt = new DeliveryColumnStore(expected.values());
+
+            assertEquals(rebuilt.size(), patched.size());
+            for (int row = 0; row < rebuilt.size(); row++) {
+                assertSame(rebuilt.row(row), patched.row(row));
+            }
+            for (String status : statuses) {
+                assertEquals(rebuilt.withStatus(status), patched.withStatus(status));
+            }
+            for (String carrier : carriers) {
+                assertEquals(rebuilt.withCarrier(carrier), patched.withCarrier(carrier));
+            }
+            assertEquals(rebuilt.search("All Fields", "note " + round), patched.search("All Fields", "note " + round));
+            assertEquals(rebuilt.deliveredBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 6, 30)),
+                patched.deliveredBetween(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 6, 30)));
+            assertEquals(rebuilt.deliveryDateContaining("may"), patched.deliveryDateContaining("may"));
+            int[] lookup = {1, 7, 13, 21, 40, 99};
+            assertEquals(rebuilt.positionsOf(lookup), patched.positionsOf(lookup));
+        }
+    }
+
+    @Test
+    public void testReferenceValuesKeepTheirCodes() {
+        ReferenceData reference = ReferenceData.build(3, List.of(
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.SHIPPING_METHOD, "Sea", null),
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.SHIPPING_METHOD, "Air", null),
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "Maersk", null)));
+        Delivery_InfDTO unknown = delivery(4, "DEL004", "EXP004", "TRK000004", "PENDING", null, null);
+        unknown.setShippingMethod("Drone");
+        unknown.setCarrierName("maersk");
+
+        DeliveryColumnStore coded = new DeliveryColumnStore(Arrays.asList(unknown, store.row(0), store.row(2)),
+            reference);
+
+        assertEquals(3, coded.getReferenceVersion());
+        assertEquals("Values outside the reference data come after it", 2, coded.shippingMethodCodeAt(0));
+        assertEquals(1, coded.shippingMethodCodeAt(1));
+        assertEquals("Codes ignore case", 1, coded.shippingMethodCodeAt(2));
+        assertEquals(0, coded.carrierCodeAt(0));
+        assertEquals(Arrays.asList(4), ids(coded, coded.withCarrier("MAERSK")));
+        assertEquals(3, coded.withChanges(null, null).getReferenceVersion());
+    }
+}
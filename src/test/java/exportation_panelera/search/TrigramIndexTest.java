@@ -0,0 +1,91 @@
+package exportation_panelera.search;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TrigramIndex
+ * Tests substring queries, short queries and incremental updates
+ */
+public class TrigramIndexTest {
+
+    private static final int TRACKING = 0;
+    private static final int NOTES = 1;
+
+    private TrigramIndex index;
+
+    @Before
+    public void setUp() {
+        index = new TrigramIndex(2);
+        index.put(1, "TRK123456", "Left at front desk");
+        index.put(2, "TRK789012", "Fragile - handle with care");
+        index.put(3, "TRK345678", "Deliver to back door");
+    }
+
+    @Test
+    public void testSubstringQueryIgnoresCase() {
+        assertArrayEquals(new int[]{2}, index.search(NOTES, "FRAGILE"));
+        assertArrayEquals(new int[]{1, 3}, index.search(TRACKING, "345"));
+        assertArrayEquals(new int[]{1, 3}, index.search(NOTES, " d"));
+    }
+
+    @Test
+    public void testTrigramsMustAppearInOrder() {
+        // Every trigram of "abcde" is in the notes, but the text itself is not
+        index.put(4, "TRK000000", "abcd-cde");
+
+        assertEquals(0, index.search(NOTES, "abcde").length);
+        assertArrayEquals(new int[]{4}, index.search(NOTES, "abcd"));
+    }
+
+    @Test
+    public void testSearchAnyField() {
+        assertArrayEquals(new int[]{1, 2, 3}, index.search(-1, "trk"));
+        assertArrayEquals(new int[]{2, 3}, index.search(-1, "78"));
+    }
+
+    @Test
+    public void testEmptyQueryReturnsEverything() {
+        assertArrayEquals(new int[]{1, 2, 3}, index.search(NOTES, ""));
+    }
+
+    @Test
+    public void testUpdateReplacesOldText() {
+        index.put(2, "TRK789012", "Delivered to reception");
+
+        assertEquals(0, index.search(NOTES, "fragile").length);
+        assertArrayEquals(new int[]{2}, index.search(NOTES, "reception"));
+        assertArrayEquals(new int[]{2}, index.search(TRACKING, "789"));
+    }
+
+    @Test
+    public void testRemove() {
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.search(NOTES, "front").length);
+        assertArrayEquals(new int[]{3}, index.search(TRACKING, "345"));
+    }
+
+    @Test
+    public void testOutOfOrderInsertsStaySorted() {
+        index.put(10, "XYZ-1", "");
+        index.put(5, "XYZ-2", "");
+        index.put(7, "XYZ-3", "");
+
+        assertArrayEquals(new int[]{5, 7, 10}, index.search(TRACKING, "xyz"));
+    }
+
+    @Test
+    public void testUnion() {
+        assertArrayEquals(new int[]{1, 2, 3, 5}, TrigramIndex.union(new int[]{1, 3, 5}, new int[]{2, 3}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownField() {
+        index.search(2, "abc");
+    }
+}
@@ -0,0 +1,178 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.ExportationLot;
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ExportationDAO;
+import exportation_panelera.dao.ShippingTariffDAO;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ConsolidationPlanner
+ * Tests grouping, packing, the local search and the reported savings
+ */
+public class ConsolidationPlannerTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    /**
+     * Stand-in for the pending exportations
+     */
+    private static class FakeExportationDAO extends ExportationDAO {
+        List<ExportationLot> lots = List.of();
+
+        @Override
+        public List<ExportationLot> findPendingLots(LocalDate from, LocalDate to) {
+            return lots;
+        }
+    }
+
+    private static ShippingRateService tariffs(ShippingTariffDAO.Band... bands) {
+        ShippingTariffDAO dao = new ShippingTariffDAO() {
+            @Override
+            public List<Band> findBands() {
+                return List.of(bands);
+            }
+
+            @Override
+            public List<Surcharge> findSurcharges() {
+                return List.of(new Surcharge("Sea Freight", "Port fee", BigDecimal.ZERO, new BigDecimal("100")));
+            }
+        };
+        ShippingRateService service = new ShippingRateService(dao, 60);
+        service.reload();
+        return service;
+    }
+
+    private static ExportationLot lot(String id, String destination, String method, LocalDate date, String kg) {
+        return new ExportationLot(id, destination, method, date, new BigDecimal(kg));
+    }
+
+    private static int binCount(int[] bins) {
+        return Arrays.stream(bins).max().orElse(-1) + 1;
+    }
+
+    @Test
+    public void testPackFirstFitDecreasing() {
+        int[] bins = ConsolidationPlanner.pack(new long[] {6, 5, 4, 3, 2}, 10);
+
+        assertArrayEquals(new int[] {0, 1, 0, 1, 1}, bins);
+    }
+
+    @Test
+    public void testLocalSearchBeatsFirstFitDecreasing() {
+        // First-fit decreasing opens three bins: 9+8, 7+5+5 and 4; exchanging
+        // the 8 and the 7 makes room for the 4
+        int[] bins = ConsolidationPlanner.pack(new long[] {9, 8, 7, 5, 5, 4}, 20);
+
+        assertEquals(2, binCount(bins));
+        long[] loads = new long[2];
+        long[] weights = {9, 8, 7, 5, 5, 4};
+        for (int i = 0; i < bins.length; i++) {
+            loads[bins[i]] += weights[i];
+        }
+        assertTrue(loads[0] <= 20 && loads[1] <= 20);
+    }
+
+    @Test
+    public void testOversizedItemsShipAlone() {
+        int[] bins = ConsolidationPlanner.pack(new long[] {30, 6, 5}, 10);
+
+        assertEquals(3, binCount(bins));
+        assertNotEquals(bins[1], bins[0]);
+        assertNotEquals(bins[2], bins[0]);
+    }
+
+    @Test
+    public void testPackManyItemsStaysWithinCapacity() {
+        Random random = new Random(7);
+        long[] weights = new long[20000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = 1 + random.nextInt(5000);
+        }
+        Arrays.sort(weights);
+        for (int i = 0; i < weights.length / 2; i++) {
+            long swap = weights[i];
+            weights[i] = weights[weights.length - 1 - i];
+            weights[weights.length - 1 - i] = swap;
+        }
+
+        int[] bins = ConsolidationPlanner.pack(weights, 10000);
+
+        long[] loads = new long[binCount(bins)];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            loads[bins[i]] += weights[i];
+            total += weights[i];
+        }
+        for (long load : loads) {
+            assertTrue(load > 0 && load <= 10000);
+        }
+        assertTrue("Within a few bins of the lower bound", loads.length <= (total + 9999) / 10000 + 5);
+    }
+
+    @Test
+    public void testPlanGroupsByDestinationMethodAndWindow() {
+        ConsolidationPlanner planner = new ConsolidationPlanner(new FakeExportationDAO(),
+            tariffs(new ShippingTariffDAO.Band("Sea Freight", ShippingTariffDAO.WEIGHT, BigDecimal.ZERO, BigDecimal.ONE)),
+            new BigDecimal("1000"), 7);
+
+        ConsolidationPlanner.Plan plan = planner.plan(List.of(
+            lot("1", "Canada", "Sea Freight", MONDAY, "400"),
+            lot("2", "Canada", "Sea Freight", MONDAY.plusDays(6), "300"),
+            lot("3", "Canada", "Sea Freight", MONDAY.plusDays(7), "200"),
+            lot("4", "Mexico", "Sea Freight", MONDAY, "100"),
+            lot("5", "Canada", "Air Freight", MONDAY, "100")), Map.of());
+
+        assertEquals(4, plan.shipments().size());
+        assertEquals(1, plan.shipmentsSaved());
+        ConsolidationPlanner.Shipment first = plan.shipments().get(0);
+        assertEquals(MONDAY, first.windowStart());
+        assertEquals(0, new BigDecimal("700").compareTo(first.weightKg()));
+        assertEquals(2, first.lots().size());
+        assertEquals("Air Freight has no tariff here", 1, plan.unpricedLots());
+    }
+
+    @Test
+    public void testPendingPlanReportsSavings() {
+        FakeExportationDAO dao = new FakeExportationDAO();
+        dao.lots = List.of(
+            lot("1", "Canada", "Sea Freight", MONDAY, "100"),
+            lot("2", "Canada", "Sea Freight", MONDAY, "50"),
+            lot("3", "Canada", "Sea Freight", MONDAY.plusDays(1), "25"));
+        ConsolidationPlanner planner = new ConsolidationPlanner(dao,
+            tariffs(new ShippingTariffDAO.Band("Sea Freight", ShippingTariffDAO.WEIGHT, BigDecimal.ZERO, new BigDecimal("2")),
+                new ShippingTariffDAO.Band("Sea Freight", ShippingTariffDAO.DISTANCE, BigDecimal.ZERO, BigDecimal.ONE)),
+            new BigDecimal("1000"), 7);
+
+        ConsolidationPlanner.Plan plan = planner.planPending(MONDAY, MONDAY.plusDays(6),
+            Map.of("Canada", new BigDecimal("500")));
+
+        // Alone: 2 * 175 kg + 3 * (500 km + 100 port fee) = 2150; together: 350 + 600 = 950
+        assertEquals(Money.of(new BigDecimal("2150.00"), "USD"), plan.costAlone());
+        assertEquals(Money.of(new BigDecimal("950.00"), "USD"), plan.costConsolidated());
+        assertEquals(Money.of(new BigDecimal("1200.00"), "USD"), plan.savings());
+        assertEquals(2, plan.shipmentsSaved());
+    }
+
+    @Test
+    public void testEmptyPlan() {
+        ConsolidationPlanner planner = new ConsolidationPlanner(new FakeExportationDAO(),
+            tariffs(new ShippingTariffDAO.Band("Sea Freight", ShippingTariffDAO.WEIGHT, BigDecimal.ZERO, BigDecimal.ONE)),
+            new BigDecimal("1000"), 7);
+
+        ConsolidationPlanner.Plan plan = planner.plan(new ArrayList<>(), Map.of());
+
+        assertTrue(plan.shipments().isEmpty());
+        assertEquals(Money.of(BigDecimal.ZERO, "USD"), plan.savings());
+    }
+}
@@ -0,0 +1,54 @@
+package exportation_panelera.service;
+
+import exportation_panelera.dao.ExchangeRateDAO;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for CurrencyService
+ * Tests the built-in rates and swapping in rates read from the database
+ */
+public class CurrencyServiceTest {
+
+    /**
+     * Stand-in for the exchange_rates table
+     */
+    private static class FakeRateDAO extends ExchangeRateDAO {
+        List<Rate> rates;
+
+        @Override
+        public List<Rate> findAll() {
+            return rates;
+        }
+    }
+
+    @Test
+    public void testBuiltInRatesBeforeFirstLoad() {
+        CurrencyService service = new CurrencyService(new FakeRateDAO(), 60);
+
+        assertTrue(service.getCurrencies().containsAll(List.of("USD", "EUR", "GBP", "CAD", "COP", "MXN", "JPY")));
+        assertEquals(0, new BigDecimal("91").compareTo(service.convert(new BigDecimal("100"), "USD", "EUR")));
+    }
+
+    @Test
+    public void testReloadSwapsSnapshotAndKeepsItWhenOffline() {
+        FakeRateDAO dao = new FakeRateDAO();
+        CurrencyService service = new CurrencyService(dao, 60);
+        dao.rates = List.of(
+            new ExchangeRateDAO.Rate("USD", LocalDate.of(2026, 1, 1), BigDecimal.ONE),
+            new ExchangeRateDAO.Rate("EUR", LocalDate.of(2026, 1, 1), new BigDecimal("0.50")));
+
+        assertTrue(service.reload());
+        ExchangeRateSnapshot loaded = service.getSnapshot();
+        assertEquals(0, new BigDecimal("2").compareTo(service.getRate("EUR", "USD")));
+
+        dao.rates = null; // Database unavailable
+        assertFalse(service.reload());
+        assertSame("Rates should be kept", loaded, service.getSnapshot());
+    }
+}
@@ -0,0 +1,143 @@
+package exportation_panelera.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DataAccessExecutor
+ * Tests callbacks on the event dispatch thread, timeouts, cancellation and
+ * that operations do not wait for each other
+ */
+public class DataAccessExecutorTest {
+
+    private DataAccessExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new DataAccessExecutor(5000);
+    }
+
+    @After
+    public void tearDown() {
+        executor.stop();
+    }
+
+    /**
+     * Wait until everything queued on the event dispatch thread so far has run
+     */
+    private static void flushEventQueue() throws Exception {
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    @Test
+    public void testSuccessIsReportedOnEventDispatchThread() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+        AtomicBoolean onEdt = new AtomicBoolean();
+
+        executor.submit("Read", () -> "value", value -> {
+            result.set(value);
+            onEdt.set(SwingUtilities.isEventDispatchThread());
+            called.countDown();
+        }, error -> fail("Should not fail: " + error));
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertEquals("value", result.get());
+        assertTrue("Callback should run on the event dispatch thread", onEdt.get());
+    }
+
+    @Test
+    public void testFailureReceivesTheTaskException() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        executor.submit("Read", () -> {
+            throw new IllegalStateException("Database gone");
+        }, value -> fail("Should not succeed"), error -> {
+            failure.set(error);
+            called.countDown();
+        });
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertEquals("Database gone", failure.get().getMessage());
+    }
+
+    @Test
+    public void testSlowTaskTimesOutAndIsInterrupted() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        executor.submit("Slow read", 100, () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        }, value -> fail("Should not succeed"), error -> {
+            failure.set(error);
+            called.countDown();
+        });
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof TimeoutException);
+        assertTrue("Task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledOperationReportsNothing() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean called = new AtomicBoolean();
+
+        DataAccessExecutor.Operation<String> operation = executor.submit("Read", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "value";
+        }, value -> called.set(true), error -> called.set(true));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(operation.cancel());
+
+        assertTrue("Task should be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        flushEventQueue();
+        assertTrue(operation.isDone());
+        assertFalse("No callback after cancel", called.get());
+    }
+
+    @Test
+    public void testOperationsDoNotQueueBehindEachOther() throws Exception {
+        // More blocked operations than SwingWorker has threads; each waits for all the others
+        int count = 32;
+        CountDownLatch allStarted = new CountDownLatch(count);
+        CountDownLatch finished = new CountDownLatch(count);
+
+        for (int i = 0; i < count; i++) {
+            executor.submit("Blocking read " + i, () -> {
+                allStarted.countDown();
+                return allStarted.await(5, TimeUnit.SECONDS);
+            }, started -> {
+                assertTrue(started);
+                finished.countDown();
+            }, error -> fail("Should not fail: " + error));
+        }
+
+        assertTrue("Every operation should run at the same time", finished.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,171 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.DeliveryChange;
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.dao.DeliveryChangeDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for DeliveryChangeFeed
+ * Tests the starting point, collapsing of changes, deletes and retries
+ */
+public class DeliveryChangeFeedTest {
+
+    /**
+     * Change log held in memory
+     */
+    private static class FakeChangeDAO extends DeliveryChangeDAO {
+        final List<DeliveryChange> log = new ArrayList<>();
+        boolean available = true;
+
+        @Override
+        public long findLatestChangeId() {
+            return available ? (log.isEmpty() ? 0 : log.get(log.size() - 1).changeId()) : -1;
+        }
+
+        @Override
+        public List<DeliveryChange> findChangesAfter(long afterChangeId, int limit) {
+            if (!available) {
+                return null;
+            }
+            List<DeliveryChange> changes = new ArrayList<>();
+            for (DeliveryChange change : log) {
+                if (change.changeId() > afterChangeId && changes.size() < limit) {
+                    changes.add(change);
+                }
+            }
+            return changes;
+        }
+
+        void append(int deliveryId, DeliveryChange.Type type) {
+            log.add(new DeliveryChange(log.size() + 1, deliveryId, type));
+        }
+    }
+
+    private FakeChangeDAO changeDAO;
+    private Map<Integer, Delivery_InfDTO> table;
+    private List<Collection<Integer>> loads;
+    private List<List<Delivery_InfDTO>> received;
+    private List<Set<Integer>> receivedDeletes;
+    private DeliveryChangeFeed feed;
+
+    @Before
+    public void setUp() {
+        changeDAO = new FakeChangeDAO();
+        table = new HashMap<>();
+        loads = new ArrayList<>();
+        received = new ArrayList<>();
+        receivedDeletes = new ArrayList<>();
+
+        feed = new DeliveryChangeFeed(changeDAO, ids -> {
+            loads.add(new ArrayList<>(ids));
+            List<Delivery_InfDTO> found = new ArrayList<>();
+            for (Integer id : ids) {
+                if (table.containsKey(id)) {
+                    found.add(table.get(id));
+                }
+            }
+            return found;
+        }, 5);
+        // Registered directly so no polling thread is started; the tests call poll()
+        feed.listeners.add((changed, deletedIds) -> {
+            received.add(changed);
+            receivedDeletes.add(deletedIds);
+        });
+    }
+
+    private void put(int id, String status) {
+        Delivery_InfDTO delivery = new Delivery_InfDTO();
+        delivery.setId(id);
+        delivery.setStatus(status);
+        table.put(id, delivery);
+    }
+
+    @Test
+    public void testStartsFromLatestChange() {
+        put(1, "PENDING");
+        changeDAO.append(1, DeliveryChange.Type.INSERT);
+
+        assertTrue(feed.poll());
+        assertTrue(feed.poll());
+
+        assertTrue("Changes before the feed started are not replayed", received.isEmpty());
+    }
+
+    @Test
+    public void testSendsLatestStateOncePerDelivery() {
+        feed.poll();
+        put(1, "PENDING");
+        put(2, "PENDING");
+        changeDAO.append(1, DeliveryChange.Type.INSERT);
+        changeDAO.append(2, DeliveryChange.Type.INSERT);
+        changeDAO.append(1, DeliveryChange.Type.UPDATE);
+
+        assertTrue(feed.poll());
+
+        assertEquals(1, received.size());
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), loads);
+        assertEquals(2, received.get(0).size());
+        assertTrue(receivedDeletes.get(0).isEmpty());
+
+        assertTrue(feed.poll());
+        assertEquals("Nothing new", 1, received.size());
+    }
+
+    @Test
+    public void testDeletesIncludeRowsGoneBeforeLoading() {
+        feed.poll();
+        put(1, "PENDING");
+        changeDAO.append(1, DeliveryChange.Type.UPDATE);
+        changeDAO.append(2, DeliveryChange.Type.UPDATE); // deleted before the feed read it
+        changeDAO.append(3, DeliveryChange.Type.DELETE);
+
+        feed.poll();
+
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2)), loads);
+        assertEquals(1, received.get(0).size());
+        assertEquals(Set.of(2, 3), receivedDeletes.get(0));
+    }
+
+    @Test
+    public void testUnavailableDatabaseRetriesSameChanges() {
+        feed.poll();
+        put(1, "PENDING");
+        changeDAO.append(1, DeliveryChange.Type.INSERT);
+        changeDAO.available = false;
+
+        assertFalse(feed.poll());
+        assertTrue(received.isEmpty());
+
+        changeDAO.available = true;
+        assertTrue(feed.poll());
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testFullBatchIsFollowedByAnotherRead() {
+        feed.poll();
+        for (int id = 1; id <= DeliveryChangeFeed.BATCH_SIZE + 10; id++) {
+            put(id, "PENDING");
+            changeDAO.append(id, DeliveryChange.Type.INSERT);
+        }
+
+        feed.poll();
+
+        assertEquals(2, received.size());
+        assertEquals(DeliveryChangeFeed.BATCH_SIZE, received.get(0).size());
+        assertEquals(10, received.get(1).size());
+    }
+}
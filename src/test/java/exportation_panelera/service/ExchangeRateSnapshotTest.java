@@ -0,0 +1,134 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Currencies;
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ExchangeRateDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ExchangeRateSnapshot
+ * Tests cross rates, effective dates, minor-unit rounding and bulk conversion
+ */
+public class ExchangeRateSnapshotTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+    private static final LocalDate JULY = LocalDate.of(2026, 7, 1);
+
+    private ExchangeRateSnapshot snapshot;
+    private int usd;
+    private int eur;
+    private int cop;
+    private int jpy;
+
+    private static ExchangeRateDAO.Rate rate(String currency, LocalDate from, String unitsPerUsd) {
+        return new ExchangeRateDAO.Rate(currency, from, new BigDecimal(unitsPerUsd));
+    }
+
+    @Before
+    public void setUp() {
+        snapshot = ExchangeRateSnapshot.build(List.of(
+            rate("USD", START, "1"),
+            rate("EUR", START, "0.80"),
+            rate("COP", START, "4000"),
+            rate("JPY", START, "150"),
+            rate("GBP", START, "0.123456789"),
+            rate("EUR", JULY, "0.90")));
+        usd = Currencies.find("USD");
+        eur = Currencies.find("EUR");
+        cop = Currencies.find("COP");
+        jpy = Currencies.find("JPY");
+    }
+
+    @Test
+    public void testCrossRates() {
+        assertEquals(0, new BigDecimal("0.8").compareTo(snapshot.rate("USD", "EUR", START)));
+        assertEquals(0, new BigDecimal("1.25").compareTo(snapshot.rate("EUR", "USD", START)));
+        assertEquals(0, new BigDecimal("5000").compareTo(snapshot.rate("EUR", "COP", START)));
+        assertEquals(0, BigDecimal.ONE.compareTo(snapshot.rate("COP", "COP", START)));
+    }
+
+    @Test
+    public void testRateOfTheDayIsUsed() {
+        assertEquals(0, new BigDecimal("0.8").compareTo(snapshot.rate("USD", "EUR", JULY.minusDays(1))));
+        assertEquals(0, new BigDecimal("0.9").compareTo(snapshot.rate("USD", "EUR", JULY)));
+        // Before the first rate, the first rate applies
+        assertEquals(0, new BigDecimal("0.8").compareTo(snapshot.rate("USD", "EUR", START.minusYears(5))));
+    }
+
+    @Test
+    public void testMinorUnitConversionRoundsHalfUp() {
+        int day = (int) START.toEpochDay();
+
+        // 10.00 USD = 8.00 EUR
+        assertEquals(800, snapshot.convert(1000, usd, eur, day));
+        // 0.01 USD = 0.008 EUR, rounds to 0.01
+        assertEquals(1, snapshot.convert(1, usd, eur, day));
+        assertEquals(-1, snapshot.convert(-1, usd, eur, day));
+        // 1.00 USD = 150 JPY, which has no minor unit
+        assertEquals(150, snapshot.convert(100, usd, jpy, day));
+        // 150 JPY = 1.00 USD
+        assertEquals(100, snapshot.convert(150, jpy, usd, day));
+        // 1 COP = 0.0375 JPY, rounds to 0
+        assertEquals(0, snapshot.convert(100, cop, jpy, day));
+    }
+
+    @Test
+    public void testConvertMoney() {
+        Money converted = snapshot.convert(Money.of(new BigDecimal("10.00"), "EUR"), usd, JULY);
+
+        assertEquals(Money.of(new BigDecimal("11.11"), "USD"), converted);
+    }
+
+    @Test
+    public void testLargeAmountsStayExact() {
+        int day = (int) START.toEpochDay();
+        int gbp = Currencies.find("GBP");
+        // Amount times the nine-digit rate does not fit in a long, the result does
+        long amount = Long.MAX_VALUE / 100;
+
+        long converted = snapshot.convert(amount, usd, gbp, day);
+
+        assertEquals(BigDecimal.valueOf(amount).multiply(new BigDecimal("0.123456789"))
+            .setScale(0, RoundingMode.HALF_UP).longValueExact(), converted);
+    }
+
+    @Test
+    public void testConvertAllMatchesSingleConversions() {
+        int rows = 365 * 100;
+        long[] amounts = new long[rows];
+        int[] currencies = new int[rows];
+        int[] days = new int[rows];
+        int[] ordinals = {usd, eur, cop, jpy};
+        for (int i = 0; i < rows; i++) {
+            amounts[i] = 1000 + i * 37L;
+            currencies[i] = ordinals[i % ordinals.length];
+            days[i] = (int) START.toEpochDay() + i / 100;
+        }
+
+        long[] converted = new long[rows];
+        snapshot.convertAll(amounts, currencies, days, usd, converted);
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals("Row " + i, snapshot.convert(amounts[i], currencies[i], usd, days[i]), converted[i]);
+        }
+    }
+
+    @Test
+    public void testUnknownCurrencyIsRejected() {
+        assertFalse(snapshot.supports("USD", "XYZ"));
+        try {
+            snapshot.rate("USD", "XYZ", START);
+            fail("Should reject a currency without rates");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("XYZ"));
+        }
+    }
+}
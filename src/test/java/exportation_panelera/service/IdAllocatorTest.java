@@ -0,0 +1,113 @@
+package exportation_panelera.service;
+
+import exportation_panelera.dao.IdSequenceDAO;
+import exportation_panelera.exception.DatabaseException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for IdAllocator
+ * Tests that IDs are unique across threads and that the database is only
+ * asked for a new block once a block is used up
+ */
+public class IdAllocatorTest {
+
+    /**
+     * In-memory stand-in for the id_sequences table
+     */
+    private static class FakeSequenceDAO extends IdSequenceDAO {
+        private long nextValue = 1;
+        final AtomicInteger reservations = new AtomicInteger();
+        volatile boolean available = true;
+
+        @Override
+        public synchronized long reserve(String sequence, int blockSize) {
+            if (!available) {
+                return -1;
+            }
+            reservations.incrementAndGet();
+            long first = nextValue;
+            nextValue += blockSize;
+            return first;
+        }
+    }
+
+    @Test
+    public void testIdsAreConsecutiveWithinBlocks() throws Exception {
+        FakeSequenceDAO dao = new FakeSequenceDAO();
+        IdAllocator allocator = new IdAllocator("test", 3, dao);
+
+        for (long expected = 1; expected <= 7; expected++) {
+            assertEquals(expected, allocator.next());
+        }
+        assertEquals("Seven IDs need three blocks of three", 3, dao.reservations.get());
+    }
+
+    @Test
+    public void testConcurrentCallersGetUniqueIds() throws Exception {
+        FakeSequenceDAO dao = new FakeSequenceDAO();
+        IdAllocator allocator = new IdAllocator("test", 10, dao);
+        int threads = 8;
+        int perThread = 500;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue("Duplicate ID", ids.add(allocator.next()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+        assertEquals("One reservation per block", threads * perThread / 10, dao.reservations.get());
+    }
+
+    @Test
+    public void testUnavailableDatabaseFailsAndRecovers() throws Exception {
+        FakeSequenceDAO dao = new FakeSequenceDAO();
+        dao.available = false;
+        IdAllocator allocator = new IdAllocator("test", 5, dao);
+
+        try {
+            allocator.next();
+            fail("Should fail without a block");
+        } catch (DatabaseException e) {
+            assertTrue(e.getMessage().contains("test"));
+        }
+
+        dao.available = true;
+        assertEquals("No IDs are lost by the failed attempt", 1, allocator.next());
+    }
+
+    @Test
+    public void testInstancesAreSharedPerSequence() {
+        assertSame(IdAllocator.getInstance(IdAllocator.EXPORTATION_SEQUENCE),
+            IdAllocator.getInstance(IdAllocator.EXPORTATION_SEQUENCE));
+    }
+}
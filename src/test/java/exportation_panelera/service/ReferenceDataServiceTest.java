@@ -0,0 +1,94 @@
+package exportation_panelera.service;
+
+import exportation_panelera.dao.ReferenceDataDAO;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReferenceDataService and ReferenceData
+ * Tests lookups, versioning and swapping in values read from the database
+ */
+public class ReferenceDataServiceTest {
+
+    /**
+     * Stand-in for the reference table
+     */
+    private static class FakeReferenceDataDAO extends ReferenceDataDAO {
+        List<Entry> entries;
+
+        @Override
+        public List<Entry> findActive() {
+            return entries;
+        }
+    }
+
+    @Test
+    public void testBuiltInValuesMatchTheOldForm() {
+        ReferenceData data = new ReferenceDataService(new FakeReferenceDataDAO(), 15).getData();
+
+        assertEquals(0, data.getVersion());
+        assertEquals(51, data.getDestinations().size());
+        assertEquals("United States", data.getDestinations().get(0));
+        assertEquals("UK", data.countryCode("United Kingdom"));
+        assertEquals("Lookups ignore case", "JP", data.countryCode("japan"));
+        assertEquals(TrackingNumberService.UNKNOWN_COUNTRY, data.countryCode("Atlantis"));
+        assertEquals(List.of("USD", "EUR", "GBP", "CAD", "COP", "MXN", "JPY"), data.getCurrencies());
+        assertEquals(ShippingRateService.BUILT_IN_BANDS.stream().map(band -> band.method()).distinct().toList(),
+            data.getShippingMethods());
+        assertTrue(data.contains(ReferenceDataDAO.CARRIER, "dhl"));
+        assertFalse(data.contains(ReferenceDataDAO.CARRIER, "Pony Express"));
+        assertEquals(List.of("Panela", "Syrup", "Sugar", "Wine", "Ethanol"), data.getProductTypes());
+        assertTrue(data.contains(ReferenceDataDAO.PRODUCT_TYPE, "panela"));
+    }
+
+    @Test
+    public void testCodesFollowListOrderAndSkipDuplicates() {
+        ReferenceData data = ReferenceData.build(1, List.of(
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "UPS", null),
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "DHL", null),
+            new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "ups", null),
+            new ReferenceDataDAO.Entry("PLANET", "Mars", null)));
+
+        assertEquals(List.of("UPS", "DHL"), data.getCarriers());
+        assertEquals(1, data.code(ReferenceDataDAO.CARRIER, "Dhl"));
+        assertEquals(-1, data.code(ReferenceDataDAO.CARRIER, null));
+        assertFalse("Other kinds have no values", data.isComplete());
+    }
+
+    @Test
+    public void testReloadBumpsVersionOnlyWhenValuesChange() {
+        FakeReferenceDataDAO dao = new FakeReferenceDataDAO();
+        ReferenceDataService service = new ReferenceDataService(dao, 15);
+
+        dao.entries = ReferenceDataService.BUILT_IN_ENTRIES;
+        assertFalse("Same values as built in", service.reload());
+        assertEquals(0, service.getData().getVersion());
+
+        List<ReferenceDataDAO.Entry> entries = new ArrayList<>(ReferenceDataService.BUILT_IN_ENTRIES);
+        entries.add(new ReferenceDataDAO.Entry(ReferenceDataDAO.CARRIER, "Hapag-Lloyd", null));
+        dao.entries = entries;
+        ReferenceData before = service.getData();
+        assertTrue(service.reload());
+        assertEquals(1, service.getData().getVersion());
+        assertTrue(service.getData().contains(ReferenceDataDAO.CARRIER, "Hapag-Lloyd"));
+        assertFalse("Readers keep the version they took", before.contains(ReferenceDataDAO.CARRIER, "Hapag-Lloyd"));
+    }
+
+    @Test
+    public void testReloadKeepsDataWhenOfflineOrIncomplete() {
+        FakeReferenceDataDAO dao = new FakeReferenceDataDAO();
+        ReferenceDataService service = new ReferenceDataService(dao, 15);
+
+        dao.entries = null; // Database unavailable
+        assertFalse(service.reload());
+
+        dao.entries = List.of(new ReferenceDataDAO.Entry(ReferenceDataDAO.CURRENCY, "USD", null));
+        assertFalse(service.reload());
+        assertEquals(0, service.getData().getVersion());
+        assertEquals(7, service.getData().getCurrencies().size());
+    }
+}
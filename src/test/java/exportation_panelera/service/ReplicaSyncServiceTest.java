@@ -0,0 +1,219 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Delivery_InfDTO;
+import exportation_panelera.Model.Exportation_InfDTO;
+import exportation_panelera.cache.LocalReplica;
+import exportation_panelera.dao.ReplicaDAO;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ReplicaSyncService
+ * Tests incremental pulls, delete detection, write-back of offline edits
+ * and conflict detection against an in-memory server
+ */
+public class ReplicaSyncServiceTest {
+
+    /**
+     * Deliveries table held in memory
+     */
+    private static class FakeReplicaDAO extends ReplicaDAO {
+        final TreeMap<Integer, Delivery_InfDTO> deliveries = new TreeMap<>();
+        boolean available = true;
+        int pagesRead;
+        int idListsRead;
+
+        @Override
+        public List<Delivery_InfDTO> findDeliveriesChangedAfter(Cursor after, int limit) {
+            if (!available) {
+                return null;
+            }
+            pagesRead++;
+            List<Delivery_InfDTO> page = new ArrayList<>();
+            deliveries.values().stream()
+                .filter(d -> d.getUpdatedAt().getTime() > after.updatedAt()
+                    || (d.getUpdatedAt().getTime() == after.updatedAt() && d.getId() > after.id()))
+                .sorted(Comparator.comparing((Delivery_InfDTO d) -> d.getUpdatedAt()).thenComparing(Delivery_InfDTO::getId))
+                .limit(limit)
+                .forEach(page::add);
+            return page;
+        }
+
+        @Override
+        public List<Exportation_InfDTO> findExportationsChangedAfter(Cursor after, int limit) {
+            return available ? new ArrayList<>() : null;
+        }
+
+        @Override
+        public Fingerprint fingerprintDeliveries() {
+            long sum = 0;
+            for (Integer id : deliveries.keySet()) {
+                sum += id;
+            }
+            return available ? new Fingerprint(deliveries.size(), sum) : null;
+        }
+
+        @Override
+        public Fingerprint fingerprintExportations() {
+            return available ? new Fingerprint(0, 0) : null;
+        }
+
+        @Override
+        public Set<Integer> findDeliveryIds() {
+            idListsRead++;
+            return available ? deliveries.keySet() : null;
+        }
+
+        @Override
+        public int updateDeliveryIfUnchanged(Delivery_InfDTO delivery, int baseVersion) {
+            if (!available) {
+                return -1;
+            }
+            Delivery_InfDTO current = deliveries.get(delivery.getId());
+            if (current == null || current.getVersion() != baseVersion) {
+                return 0;
+            }
+            put(delivery.getId(), delivery.getStatus(), baseVersion + 1000);
+            return 1;
+        }
+
+        void put(int id, String status, int version) {
+            Delivery_InfDTO delivery = new Delivery_InfDTO("DEL00000" + id, "EXP" + id, "TRK" + id, status, null, null);
+            delivery.setId(id);
+            delivery.setVersion(version);
+            delivery.setUpdatedAt(new Date(version)); // Versions double as updated_at in milliseconds
+            deliveries.put(id, delivery);
+        }
+    }
+
+    private Path directory;
+    private FakeReplicaDAO server;
+    private LocalReplica replica;
+    private ReplicaSyncService service;
+    private List<List<Delivery_InfDTO>> received;
+    private List<Set<Integer>> receivedDeletes;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replica-sync-test");
+        server = new FakeReplicaDAO();
+        replica = new LocalReplica(directory);
+        service = new ReplicaSyncService(replica, server, 30, 60);
+        received = new ArrayList<>();
+        receivedDeletes = new ArrayList<>();
+        service.listeners.add((changed, deletedIds) -> {
+            received.add(changed);
+            receivedDeletes.add(deletedIds);
+        });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testInitialFillIsNotPublished() {
+        for (int id = 1; id <= ReplicaSyncService.PAGE_SIZE + 5; id++) {
+            server.put(id, "PENDING", 1000);
+        }
+
+        assertTrue(service.sync());
+
+        assertEquals(ReplicaSyncService.PAGE_SIZE + 5, replica.getDeliveryCount());
+        assertEquals("Two pages read", 2, server.pagesRead);
+        assertTrue(received.isEmpty());
+        assertTrue(service.isFresh());
+    }
+
+    @Test
+    public void testLaterSyncPublishesOnlyChanges() {
+        server.put(1, "PENDING", 1000);
+        server.put(2, "PENDING", 1000);
+        service.sync();
+
+        server.put(2, "DELIVERED", 9000);
+        server.put(3, "PENDING", 9000);
+        assertTrue(service.sync());
+
+        assertEquals(1, received.size());
+        assertEquals(2, received.get(0).size());
+        assertEquals(9000, replica.getDeliveryWatermark());
+        assertEquals("DELIVERED", replica.getDelivery(2).getStatus());
+    }
+
+    @Test
+    public void testDeletesFoundThroughFingerprint() {
+        server.put(1, "PENDING", 1000);
+        server.put(2, "PENDING", 1000);
+        service.sync();
+        assertEquals("Matching fingerprints skip the ID list", 0, server.idListsRead);
+
+        server.deliveries.remove(1);
+        service.sync();
+
+        assertEquals(1, server.idListsRead);
+        assertEquals(Collections.singleton(1), receivedDeletes.get(0));
+        assertNull(replica.getDelivery(1));
+    }
+
+    @Test
+    public void testOfflineEditIsWrittenBack() {
+        server.put(1, "PENDING", 1000);
+        service.sync();
+
+        Delivery_InfDTO edited = replica.getDelivery(1);
+        edited.setStatus("DELIVERED");
+        replica.stageEdit(edited);
+        assertTrue(service.sync());
+
+        assertEquals("DELIVERED", server.deliveries.get(1).getStatus());
+        assertTrue(replica.getPendingEdits().isEmpty());
+        assertEquals(2000, replica.getDeliveryVersion(1));
+    }
+
+    @Test
+    public void testEditOfChangedRowBecomesConflict() {
+        server.put(1, "PENDING", 1000);
+        service.sync();
+
+        Delivery_InfDTO edited = replica.getDelivery(1);
+        edited.setStatus("DELIVERED");
+        replica.stageEdit(edited);
+        server.put(1, "CANCELLED", 5000);
+        service.sync();
+
+        assertEquals("CANCELLED", server.deliveries.get(1).getStatus());
+        assertEquals("CANCELLED", replica.getDelivery(1).getStatus());
+        assertEquals(1, replica.getConflicts().size());
+    }
+
+    @Test
+    public void testUnavailableDatabaseKeepsEdits() {
+        server.put(1, "PENDING", 1000);
+        service.sync();
+        replica.stageEdit(replica.getDelivery(1));
+
+        server.available = false;
+
+        assertFalse(service.sync());
+        assertEquals(1, replica.getPendingEdits().size());
+    }
+}
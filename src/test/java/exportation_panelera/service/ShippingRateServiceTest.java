@@ -0,0 +1,65 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ShippingTariffDAO;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ShippingRateService
+ * Tests batch quoting and swapping in tariffs read from the database
+ */
+public class ShippingRateServiceTest {
+
+    /**
+     * Stand-in for the tariff tables
+     */
+    private static class FakeTariffDAO extends ShippingTariffDAO {
+        List<Band> bands;
+        List<Surcharge> surcharges = List.of();
+
+        @Override
+        public List<Band> findBands() {
+            return bands;
+        }
+
+        @Override
+        public List<Surcharge> findSurcharges() {
+            return surcharges;
+        }
+    }
+
+    @Test
+    public void testQuoteCheapestKeepsShipmentOrder() {
+        ShippingRateService service = new ShippingRateService(new FakeTariffDAO(), 60);
+
+        List<ShippingRateService.Quote> quotes = service.quoteCheapest(List.of(
+            new ShippingRateService.Shipment(new BigDecimal("1"), new BigDecimal("10")),
+            new ShippingRateService.Shipment(new BigDecimal("100"), new BigDecimal("10"))));
+
+        // 1 kg over 10 km: Sea 5 + 2 and Rail 3 + 4 tie at 7.00; the method listed first wins
+        assertEquals("Sea Freight", quotes.get(0).method());
+        assertEquals(Money.of(new BigDecimal("7.00"), "USD"), quotes.get(0).cost());
+        // 100 kg over 10 km: Road 250 + 5 = 255
+        assertEquals("Road Transport", quotes.get(1).method());
+        assertEquals(Money.of(new BigDecimal("255.00"), "USD"), quotes.get(1).cost());
+    }
+
+    @Test
+    public void testReloadSwapsTariffsAndKeepsThemWhenOffline() {
+        FakeTariffDAO dao = new FakeTariffDAO();
+        ShippingRateService service = new ShippingRateService(dao, 60);
+        dao.bands = List.of(new ShippingTariffDAO.Band("Drone", ShippingTariffDAO.WEIGHT, BigDecimal.ZERO, BigDecimal.ONE));
+
+        assertTrue(service.reload());
+        assertEquals(List.of("Drone"), service.getMethods());
+
+        dao.bands = null; // Database unavailable
+        assertFalse(service.reload());
+        assertEquals(List.of("Drone"), service.getMethods());
+    }
+}
@@ -0,0 +1,103 @@
+package exportation_panelera.service;
+
+import exportation_panelera.Model.Money;
+import exportation_panelera.dao.ShippingTariffDAO;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for ShippingTariffTable
+ * Tests band lookup, surcharges and batch quoting of the cheapest method
+ */
+public class ShippingTariffTableTest {
+
+    private static ShippingTariffDAO.Band band(String method, String type, String from, String rate) {
+        return new ShippingTariffDAO.Band(method, type, new BigDecimal(from), new BigDecimal(rate));
+    }
+
+    private static Money usd(String amount) {
+        return Money.of(new BigDecimal(amount), "USD");
+    }
+
+    @Test
+    public void testBuiltInTariffsMatchTheOldFormulas() {
+        ShippingTariffTable table = ShippingTariffTable.build(ShippingRateService.BUILT_IN_BANDS, List.of());
+
+        // 12.5 * 10 + 0.75 * 300 = 350
+        assertEquals(usd("350.00"), table.quote("Air Freight", new BigDecimal("10"), new BigDecimal("300")));
+        // 5.0 * 2.5 + 0.2 * 1000.5 = 212.60
+        assertEquals(usd("212.60"), table.quote("Sea Freight", new BigDecimal("2.5"), new BigDecimal("1000.5")));
+        assertEquals(List.of("Air Freight", "Sea Freight", "Road Transport", "Rail Transport", "Express Courier"),
+            table.getMethods());
+    }
+
+    @Test
+    public void testWeightBreaksAndDistanceBands() {
+        ShippingTariffTable table = ShippingTariffTable.build(List.of(
+            band("Air", ShippingTariffDAO.WEIGHT, "0", "10"),
+            band("Air", ShippingTariffDAO.WEIGHT, "100", "8"),
+            band("Air", ShippingTariffDAO.WEIGHT, "1000", "6"),
+            band("Air", ShippingTariffDAO.DISTANCE, "0", "1"),
+            band("Air", ShippingTariffDAO.DISTANCE, "500", "0.5")), List.of());
+
+        assertEquals(usd("990.00"), table.quote("Air", new BigDecimal("99"), BigDecimal.ZERO));
+        assertEquals("The break applies from its lower bound",
+            usd("800.00"), table.quote("Air", new BigDecimal("100"), BigDecimal.ZERO));
+        assertEquals(usd("6000.00"), table.quote("Air", new BigDecimal("1000"), BigDecimal.ZERO));
+        assertEquals(usd("300.00"), table.quote("Air", BigDecimal.ZERO, new BigDecimal("600")));
+    }
+
+    @Test
+    public void testSurchargesAreAddedToBandedCost() {
+        ShippingTariffTable table = ShippingTariffTable.build(
+            List.of(band("Road", ShippingTariffDAO.WEIGHT, "0", "2")),
+            List.of(new ShippingTariffDAO.Surcharge("Road", "Fuel", new BigDecimal("12.5"), BigDecimal.ZERO),
+                new ShippingTariffDAO.Surcharge("Road", "Customs", BigDecimal.ZERO, new BigDecimal("15.00")),
+                new ShippingTariffDAO.Surcharge("Unknown", "Fuel", BigDecimal.TEN, BigDecimal.TEN)));
+
+        // 2 * 50 = 100, plus 12.5% = 112.50, plus 15 = 127.50
+        assertEquals(usd("127.50"), table.quote("Road", new BigDecimal("50"), BigDecimal.ZERO));
+        assertEquals(-1, table.indexOf("Unknown"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownMethodIsRejected() {
+        ShippingTariffTable.build(ShippingRateService.BUILT_IN_BANDS, List.of())
+            .quote("Teleport", BigDecimal.ONE, BigDecimal.ONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeightIsRejected() {
+        ShippingTariffTable.build(ShippingRateService.BUILT_IN_BANDS, List.of())
+            .quote("Air Freight", new BigDecimal("-1"), BigDecimal.ONE);
+    }
+
+    @Test
+    public void testQuoteCheapestMatchesSingleQuotes() {
+        ShippingTariffTable table = ShippingTariffTable.build(ShippingRateService.BUILT_IN_BANDS, List.of());
+        int n = 5000;
+        long[] weights = new long[n];
+        long[] distances = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = 100 + i * 13L;
+            distances[i] = 5000 + (i * 7919L) % 500_000;
+        }
+
+        int[] methods = new int[n];
+        long[] cents = new long[n];
+        table.quoteCheapest(weights, distances, methods, cents);
+
+        for (int i = 0; i < n; i++) {
+            long best = Long.MAX_VALUE;
+            for (int m = 0; m < table.getMethods().size(); m++) {
+                best = Math.min(best, table.quoteCents(m, weights[i], distances[i]));
+            }
+            assertEquals("Shipment " + i, best, cents[i]);
+            assertEquals(best, table.quoteCents(methods[i], weights[i], distances[i]));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package exportation_panelera.service;
+
+import exportation_panelera.dao.IdSequenceDAO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for TrackingNumberService
+ * Tests the format, check digits and that sequences are kept per country
+ * and day
+ */
+public class TrackingNumberServiceTest {
+
+    /**
+     * In-memory stand-in for the id_sequences table
+     */
+    private static class FakeSequenceDAO extends IdSequenceDAO {
+        final Map<String, Long> sequences = new HashMap<>();
+        int reservations;
+
+        @Override
+        public synchronized long reserveOrCreate(String sequence, int blockSize) {
+            reservations++;
+            long first = sequences.getOrDefault(sequence, 1L);
+            sequences.put(sequence, first + blockSize);
+            return first;
+        }
+    }
+
+    /**
+     * Clock that can be moved forward by a test
+     */
+    private static class MovableClock extends Clock {
+        Instant now;
+
+        MovableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private FakeSequenceDAO dao;
+    private MovableClock clock;
+    private TrackingNumberService service;
+
+    @Before
+    public void setUp() {
+        dao = new FakeSequenceDAO();
+        clock = new MovableClock(Instant.parse("2026-10-19T10:00:00Z"));
+        service = new TrackingNumberService(100, dao, clock);
+    }
+
+    @Test
+    public void testFormat() throws Exception {
+        String first = service.next("US");
+
+        assertTrue(first, first.startsWith("TRK26101900001"));
+        assertTrue(first.endsWith("US"));
+        assertEquals(3 + 6 + 5 + 1 + 2, first.length());
+        assertTrue(TrackingNumberService.isValid(first));
+    }
+
+    @Test
+    public void testCheckDigitIsLuhn() {
+        // Standard Luhn example: 7992739871 has check digit 3
+        assertEquals(3, TrackingNumberService.checkDigit("7992739871"));
+        assertEquals(0, TrackingNumberService.checkDigit("0000"));
+    }
+
+    @Test
+    public void testMistypedNumbersAreInvalid() throws Exception {
+        String number = service.next("JP");
+        char[] chars = number.toCharArray();
+
+        // Change one digit
+        chars[10] = chars[10] == '9' ? '0' : (char) (chars[10] + 1);
+        assertFalse(TrackingNumberService.isValid(new String(chars)));
+
+        // Swap two different adjacent digits
+        String swapped = TrackingNumberService.format("261019", 12, "JP")
+            .replace("2610190001", "2610190010");
+        assertFalse(TrackingNumberService.isValid(swapped));
+
+        assertFalse(TrackingNumberService.isValid("TRK123456789US"));
+        assertFalse(TrackingNumberService.isValid(null));
+    }
+
+    @Test
+    public void testBatchIsUniqueWithFewReservations() throws Exception {
+        List<String> numbers = service.nextBatch("DE", 5000);
+
+        Set<String> unique = new HashSet<>(numbers);
+        assertEquals(5000, unique.size());
+        assertEquals("One reservation per block of 100", 50, dao.reservations);
+        for (String number : numbers) {
+            assertTrue(number, TrackingNumberService.isValid(number));
+        }
+    }
+
+    @Test
+    public void testSequencesArePerCountryAndDay() throws Exception {
+        String us = service.next("us");
+        String ca = service.next("CA");
+        assertTrue("Each country starts its own sequence", us.startsWith("TRK26101900001"));
+        assertTrue(ca.startsWith("TRK26101900001"));
+
+        clock.now = Instant.parse("2026-10-20T10:00:00Z");
+        String nextDay = service.next("US");
+        assertTrue(nextDay, nextDay.startsWith("TRK26102000001"));
+        assertTrue(dao.sequences.containsKey("tracking:US:261020"));
+    }
+
+    @Test
+    public void testUnknownCountry() throws Exception {
+        assertTrue(service.next("Other").endsWith(TrackingNumberService.UNKNOWN_COUNTRY));
+        assertTrue(service.next(null).endsWith(TrackingNumberService.UNKNOWN_COUNTRY));
+    }
+
+    @Test
+    public void testSequenceWidensPastFiveDigits() {
+        String number = TrackingNumberService.format("261019", 123456, "US");
+
+        assertTrue(number.startsWith("TRK261019123456"));
+        assertTrue(TrackingNumberService.isValid(number));
+    }
+}